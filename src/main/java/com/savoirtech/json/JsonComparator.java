@@ -19,17 +19,41 @@ package com.savoirtech.json;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
 
+import com.jayway.jsonpath.JsonPath;
+import com.savoirtech.json.jfr.JsonComparatorFlightRecorder;
+import com.savoirtech.json.metrics.JsonComparatorMetricsListener;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.model.JsonComparatorSpecification;
+import com.savoirtech.json.node.JsonNodeAdapter;
+import com.savoirtech.json.node.JsonNodeReader;
+import com.savoirtech.json.node.JsonTape;
 import com.savoirtech.json.processor.JsonComparisonProcessor;
 import com.savoirtech.json.processor.JsonComparisonProcessorFactory;
+import com.savoirtech.json.processor.JsonStreamingComparisonProcessor;
+import com.savoirtech.json.processor.RuleProcessor;
+import com.savoirtech.json.rules.JsonComparatorCompiledRule;
+import com.savoirtech.json.rules.RuleCompiler;
+import com.savoirtech.json.rules.path.RulePathAutomatonBuilder;
+import com.savoirtech.json.util.JsonTreeParser;
+import com.savoirtech.json.util.Utf8ByteBufferReader;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Comparator of two JSON documents which supports rules to allow expected variations in the
  * results.
  *
+ * Once built, comparators are thread-safe: any number of threads may compare with the same
+ * comparator, and the same compiled specifications, at once.  The setters are for use while
+ * building only.  JsonAsyncComparator runs comparisons on an executor of the caller's choosing.
+ *
  * Created by art on 5/4/16.
  */
 public class JsonComparator {
@@ -38,6 +62,12 @@ public class JsonComparator {
 
   private JsonComparisonProcessorFactory jsonComparisonProcessorFactory;
 
+  private RuleCompiler ruleCompiler;
+
+  private JsonComparatorSpecificationCache specificationCache;
+
+  private JsonComparatorMetricsListener metricsListener = JsonComparatorMetricsListener.NO_OP;
+
 //========================================
 // Constructor
 //----------------------------------------
@@ -69,72 +99,635 @@ public class JsonComparator {
     this.jsonComparisonProcessorFactory = jsonComparisonProcessorFactory;
   }
 
+  public RuleCompiler getRuleCompiler() {
+    return ruleCompiler;
+  }
+
+  public void setRuleCompiler(RuleCompiler ruleCompiler) {
+    this.ruleCompiler = ruleCompiler;
+  }
+
+  /**
+   * Obtain the cache of compiled specifications used by compare(String, String).
+   *
+   * @return the cache, from which hit, miss, and eviction counts may be read; null when caching is
+   * disabled.
+   */
+  public JsonComparatorSpecificationCache getSpecificationCache() {
+    return specificationCache;
+  }
+
+  public void setSpecificationCache(JsonComparatorSpecificationCache specificationCache) {
+    this.specificationCache = specificationCache;
+  }
+
+  public JsonComparatorMetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  /**
+   * Set the listener notified with the metrics of each compilation and comparison.
+   *
+   * @param metricsListener the listener; null or NO_OP to gather no metrics, which is the default.
+   */
+  public void setMetricsListener(JsonComparatorMetricsListener metricsListener) {
+    if (metricsListener == null) {
+      metricsListener = JsonComparatorMetricsListener.NO_OP;
+    }
+
+    this.metricsListener = metricsListener;
+  }
+
 //========================================
 // Public API
 //----------------------------------------
 
   /**
-   * Compare the actual JSON given to the comparison specification given.
+   * Compare the actual JSON given to the comparison specification given.  When a specification
+   * cache is configured, the compiled form of the specification is obtained from the cache.
    *
    * @param comparisonSpec specification containing template JSON and rules for comparison.
    * @param actualJson     the actual JSON to compare.
    * @return result indicating whether the JSON is a match, and a description of any failure.
    */
   public JsonComparatorResult compare(String comparisonSpec, String actualJson) {
-    JsonComparatorResult result;
+    JsonComparisonMetrics metrics =
+        this.startComparison(comparisonSpec, (actualJson == null) ? -1 : actualJson.length());
 
-    JsonComparatorSpecification comparatorSpecification = this.compileSpecification(comparisonSpec);
+    try {
+      return this.endComparison(metrics,
+                                this.compareWithMetrics(comparisonSpec, actualJson, metrics));
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
 
-    JsonElement templateJson = comparatorSpecification.getTemplateJson();
+  /**
+   * Compare the actual JSON given, encoded in UTF-8, to the comparison specification given.  The
+   * JSON is parsed directly from the bytes, without decoding it to a String first.
+   *
+   * @param comparisonSpec specification containing template JSON and rules for comparison.
+   * @param actualJson     the actual JSON to compare, encoded in UTF-8.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(String comparisonSpec, byte[] actualJson) {
+    if (actualJson == null) {
+      return this.compare(comparisonSpec, (Reader) null, null, -1);
+    }
 
-    //
-    // Validate the template and actual json are not null.  If both are null, accept the result.
-    //
+    return this.compare(comparisonSpec, actualJson, 0, actualJson.length);
+  }
+
+  /**
+   * Compare the actual JSON in the given range of the byte array, encoded in UTF-8, to the
+   * comparison specification given.
+   *
+   * @param comparisonSpec specification containing template JSON and rules for comparison.
+   * @param actualJson     array containing the actual JSON to compare, encoded in UTF-8.
+   * @param offset         offset of the actual JSON in the array.
+   * @param length         length, in bytes, of the actual JSON.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(String comparisonSpec, byte[] actualJson, int offset,
+                                      int length) {
+
+    return this.compare(comparisonSpec, new Utf8ByteBufferReader(actualJson, offset, length),
+                        actualJson, length);
+  }
+
+  /**
+   * Compare the actual JSON given, encoded in UTF-8 from the buffer's position to its limit, to the
+   * comparison specification given.  Both heap and direct buffers are read in place; the buffer's
+   * position and limit are not changed.
+   *
+   * @param comparisonSpec specification containing template JSON and rules for comparison.
+   * @param actualJson     the actual JSON to compare, encoded in UTF-8.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(String comparisonSpec, ByteBuffer actualJson) {
+    Reader reader = null;
+    long actualSize = -1;
+    if (actualJson != null) {
+      reader = new Utf8ByteBufferReader(actualJson);
+      actualSize = actualJson.remaining();
+    }
+
+    return this.compare(comparisonSpec, reader, actualJson, actualSize);
+  }
+
+  /**
+   * Compile the comparison specification given for repeated use with compare().  All of the
+   * work that does not depend on the actual JSON is performed here, once: parsing the template
+   * JSON, compiling the rules, and compiling the rule selectors into a path automaton.
+   *
+   * @param comparisonSpec specification containing template JSON and rules for comparison.
+   * @return the compiled specification, which is immutable and may be shared between threads.
+   * @throws com.savoirtech.json.exception.UnknownRuleException if any rule uses an unknown action.
+   */
+  public JsonComparatorCompiledSpecification compile(String comparisonSpec) {
+    JsonComparisonMetrics metrics = this.startMetrics();
+
+    try {
+      JsonComparatorCompiledSpecification result =
+          this.compile(this.compileSpecification(comparisonSpec, metrics), metrics);
+
+      if (metrics != null) {
+        this.metricsListener.onCompile(metrics);
+      }
+
+      return result;
+    } catch (RuntimeException exc) {
+      if (metrics != null) {
+        metrics.setFailure(exc);
+        this.metricsListener.onCompile(metrics);
+      }
+
+      throw exc;
+    }
+  }
+
+  /**
+   * Compile the comparison specification given for repeated use with compare().
+   *
+   * @param comparatorSpecification specification containing template JSON and rules.
+   * @return the compiled specification, which is immutable and may be shared between threads.
+   * @throws com.savoirtech.json.exception.UnknownRuleException if any rule uses an unknown action.
+   */
+  public JsonComparatorCompiledSpecification compile(
+      JsonComparatorSpecification comparatorSpecification) {
+
+    return this.compile(comparatorSpecification, null);
+  }
+
+  /**
+   * Compare the actual JSON given to the compiled comparison specification given.  Only the work
+   * on the actual JSON is performed per call.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   the actual JSON to compare.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      String actualJson) {
+    JsonComparisonMetrics metrics =
+        this.startComparison(compiledSpec, (actualJson == null) ? -1 : actualJson.length());
+
+    try {
+      return this.endComparison(metrics,
+                                this.compareWithMetrics(compiledSpec, actualJson, metrics));
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
+
+  /**
+   * Compare the actual JSON read from the given reader to the compiled comparison specification
+   * given.  The actual JSON is compared as it is read, without parsing it in full first, so
+   * memory use is proportional to the template JSON rather than to the actual JSON; only the
+   * parts of the actual JSON to which rules apply are held in memory at once.  Specifications
+   * with rules whose selectors are evaluated by JsonPath still need the complete actual JSON.
+   *
+   * Streaming comparisons stop at the first mismatch, even when the comparator collects
+   * differences.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   reader of the actual JSON to compare; it is not closed.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   * @throws com.google.gson.JsonSyntaxException if the actual JSON is not valid JSON.
+   * @throws com.google.gson.JsonIOException     if reading the actual JSON fails.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      Reader actualJson) {
+    JsonComparisonMetrics metrics = this.startComparison(compiledSpec, -1);
+
+    try {
+      JsonComparatorResult result = this.compareNullJson(compiledSpec.getTemplateJson(), actualJson);
+      if (result == null) {
+        result = this.executeStreaming(
+            this.jsonComparisonProcessorFactory.createStreamingProcessor(compiledSpec, actualJson),
+            metrics);
+      }
+
+      return this.endComparison(metrics, result);
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
+
+  /**
+   * Compare the actual JSON read from the given stream, encoded in UTF-8, to the compiled
+   * comparison specification given, as compare(JsonComparatorCompiledSpecification, Reader) does.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   stream of the actual JSON to compare; it is not closed.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      InputStream actualJson) {
+
+    Reader reader = null;
+    if (actualJson != null) {
+      reader = new InputStreamReader(actualJson, StandardCharsets.UTF_8);
+    }
+
+    return this.compare(compiledSpec, reader);
+  }
+
+  /**
+   * Compare the actual JSON given, encoded in UTF-8, to the compiled comparison specification
+   * given.  The JSON is compared as it is decoded, as compare(JsonComparatorCompiledSpecification,
+   * Reader) does, without decoding it to a String first.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   the actual JSON to compare, encoded in UTF-8.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      byte[] actualJson) {
+    if (actualJson == null) {
+      return this.compare(compiledSpec, (Reader) null);
+    }
+
+    return this.compare(compiledSpec, actualJson, 0, actualJson.length);
+  }
+
+  /**
+   * Compare the actual JSON in the given range of the byte array, encoded in UTF-8, to the
+   * compiled comparison specification given.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   array containing the actual JSON to compare, encoded in UTF-8.
+   * @param offset       offset of the actual JSON in the array.
+   * @param length       length, in bytes, of the actual JSON.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      byte[] actualJson, int offset, int length) {
+
+    return this.compare(compiledSpec, new Utf8ByteBufferReader(actualJson, offset, length));
+  }
+
+  /**
+   * Compare the actual JSON given, encoded in UTF-8 from the buffer's position to its limit, to the
+   * compiled comparison specification given.  Both heap and direct buffers are read in place; the
+   * buffer's position and limit are not changed.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   the actual JSON to compare, encoded in UTF-8.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      ByteBuffer actualJson) {
+    Reader reader = null;
+    if (actualJson != null) {
+      reader = new Utf8ByteBufferReader(actualJson);
+    }
+
+    return this.compare(compiledSpec, reader);
+  }
+
+  /**
+   * Compare the actual JSON tree given to the compiled comparison specification given, without
+   * parsing or copying it.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   root of the actual JSON tree to compare.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      JsonElement actualJson) {
+    JsonComparisonMetrics metrics = this.startComparison(compiledSpec, -1);
+
+    try {
+      JsonComparatorResult result = this.compareNullJson(compiledSpec.getTemplateJson(), actualJson);
+      if (result == null) {
+        result = this.execute(
+            this.jsonComparisonProcessorFactory.createProcessor(compiledSpec, actualJson), metrics);
+      }
+
+      return this.endComparison(metrics, result);
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
+
+  /**
+   * Compare the actual JSON tree given, of any model read through the given adapter, to the
+   * compiled comparison specification given.  The tree is walked in place, as
+   * compare(JsonComparatorCompiledSpecification, Reader) walks JSON text, so only the parts of the
+   * tree to which rules apply are converted to JsonElements; comparisons stop at the first
+   * mismatch.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   root of the actual JSON tree to compare.
+   * @param adapter      adapter for the model of the actual JSON tree.
+   * @param <N>          type of the nodes of the actual JSON tree.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   * @throws IllegalArgumentException if the adapter rejects a node of the tree.
+   */
+  public <N> JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                          N actualJson, JsonNodeAdapter<N> adapter) {
+    JsonComparisonMetrics metrics = this.startComparison(compiledSpec, -1);
+
+    try {
+      JsonComparatorResult result = this.compareNullJson(compiledSpec.getTemplateJson(), actualJson);
+      if (result == null) {
+        result = this.executeStreaming(
+            this.jsonComparisonProcessorFactory
+                .createStreamingProcessor(compiledSpec, new JsonNodeReader<>(actualJson, adapter)),
+            metrics);
+      }
+
+      return this.endComparison(metrics, result);
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
+
+  /**
+   * Compare the actual JSON held in the given tape to the compiled comparison specification given.
+   * The tape is walked as compare(JsonComparatorCompiledSpecification, Reader) walks JSON text, so
+   * a tape parsed once may be compared against any number of specifications; comparisons stop at
+   * the first mismatch.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules for comparison.
+   * @param actualJson   tape of the actual JSON to compare.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  public JsonComparatorResult compare(JsonComparatorCompiledSpecification compiledSpec,
+                                      JsonTape actualJson) {
+    JsonComparisonMetrics metrics = this.startComparison(compiledSpec, -1);
+
+    try {
+      JsonComparatorResult result = this.compareNullJson(compiledSpec.getTemplateJson(), actualJson);
+      if (result == null) {
+        result = this.executeStreaming(
+            this.jsonComparisonProcessorFactory
+                .createStreamingProcessor(compiledSpec, actualJson.newReader()),
+            metrics);
+      }
+
+      return this.endComparison(metrics, result);
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
+
+//========================================
+// INTERNALS
+//========================================
+
+  /**
+   * Validate the template and actual json are not null.  If both are null, accept the result.
+   *
+   * @param templateJson template JSON from the comparison specification.
+   * @param actualJson   actual JSON to compare, in any form.
+   * @return result of the comparison if either is null; null if both are non-null.
+   */
+  private JsonComparatorResult compareNullJson(JsonElement templateJson, Object actualJson) {
     if (templateJson == null) {
       if (actualJson != null) {
-        return new JsonComparatorResult(false, false, "template json is null; actual json is not",
-                                        "$");
+        return JsonComparatorResult.mismatch(false, "template json is null; actual json is not",
+                                             "$");
       } else {
         // Expected and actual json are null; accept them as-is
-        return new JsonComparatorResult(true, true, null, null);
+        return JsonComparatorResult.DEEP_MATCH;
       }
     } else if (actualJson == null) {
-      return new JsonComparatorResult(false, false, "actual json is null; template json is not",
-                                      "$");
+      return JsonComparatorResult.mismatch(false, "actual json is null; template json is not",
+                                           "$");
+    }
+
+    return null;
+  }
+
+  /**
+   * Compare the actual JSON read from the given reader to the comparison specification given, as
+   * compare(String, String) does.
+   *
+   * @param comparisonSpec specification containing template JSON and rules for comparison.
+   * @param actualJson     reader of the actual JSON to compare.
+   * @param actualSource   source of the reader's JSON, which is null when there is no actual JSON.
+   * @param actualSize     length of the actual JSON, in bytes; -1 when there is none.
+   * @return result indicating whether the JSON is a match, and a description of any failure.
+   */
+  private JsonComparatorResult compare(String comparisonSpec, Reader actualJson,
+                                       Object actualSource, long actualSize) {
+    JsonComparisonMetrics metrics = this.startComparison(comparisonSpec, actualSize);
+
+    try {
+      return this.endComparison(
+          metrics, this.compareWithMetrics(comparisonSpec, actualJson, actualSource, metrics));
+    } catch (RuntimeException exc) {
+      throw this.failComparison(metrics, exc);
+    }
+  }
+
+  /**
+   * Compare the actual JSON given to the comparison specification given, recording the work in
+   * the given metrics.
+   *
+   * @param metrics metrics of the comparison; null when disabled.
+   */
+  private JsonComparatorResult compareWithMetrics(String comparisonSpec, String actualJson,
+                                                  JsonComparisonMetrics metrics) {
+    JsonComparatorResult result;
+
+    if (this.specificationCache != null) {
+      return this.compareWithMetrics(this.getOrCompile(comparisonSpec, metrics), actualJson,
+                                     metrics);
+    }
+
+    JsonComparatorSpecification comparatorSpecification =
+        this.compileSpecification(comparisonSpec, metrics);
+
+    JsonElement templateJson = comparatorSpecification.getTemplateJson();
+
+    //
+    // Validate the template and actual json are not null.  If both are null, accept the result.
+    //
+    result = this.compareNullJson(templateJson, actualJson);
+    if (result != null) {
+      return result;
     }
 
     //
     // Execute the comparison now and return the result.
     //
-    result = this.compareJson(templateJson, comparatorSpecification.getRules(), actualJson);
+    result = this.compareJson(templateJson, comparatorSpecification.getRules(),
+                              this.parseActual(actualJson, metrics), metrics);
 
     return result;
   }
 
-//========================================
-// INTERNALS
-//========================================
+  /**
+   * Compare the actual JSON read from the given reader to the comparison specification given,
+   * recording the work in the given metrics.
+   *
+   * @param metrics metrics of the comparison; null when disabled.
+   */
+  private JsonComparatorResult compareWithMetrics(String comparisonSpec, Reader actualJson,
+                                                  Object actualSource,
+                                                  JsonComparisonMetrics metrics) {
+    JsonComparatorResult result;
+
+    if (this.specificationCache != null) {
+      JsonComparatorCompiledSpecification compiledSpec =
+          this.getOrCompile(comparisonSpec, metrics);
+
+      result = this.compareNullJson(compiledSpec.getTemplateJson(), actualSource);
+      if (result != null) {
+        return result;
+      }
+
+      return this.execute(this.jsonComparisonProcessorFactory
+                              .createProcessor(compiledSpec, this.parseActual(actualJson, metrics)),
+                          metrics);
+    }
+
+    JsonComparatorSpecification comparatorSpecification =
+        this.compileSpecification(comparisonSpec, metrics);
+
+    JsonElement templateJson = comparatorSpecification.getTemplateJson();
+
+    result = this.compareNullJson(templateJson, actualSource);
+    if (result != null) {
+      return result;
+    }
+
+    return this.compareJson(templateJson, comparatorSpecification.getRules(),
+                            this.parseActual(actualJson, metrics), metrics);
+  }
+
+  /**
+   * Compare the actual JSON given to the compiled comparison specification given, recording the
+   * work in the given metrics.
+   *
+   * @param metrics metrics of the comparison; null when disabled.
+   */
+  private JsonComparatorResult compareWithMetrics(JsonComparatorCompiledSpecification compiledSpec,
+                                                  String actualJson,
+                                                  JsonComparisonMetrics metrics) {
+    JsonComparatorResult result;
+
+    result = this.compareNullJson(compiledSpec.getTemplateJson(), actualJson);
+    if (result != null) {
+      return result;
+    }
+
+    JsonElement actualJsonEle = this.parseActual(actualJson, metrics);
+
+    JsonComparisonProcessor
+        processor =
+        this.jsonComparisonProcessorFactory.createProcessor(compiledSpec, actualJsonEle);
+
+    return this.execute(processor, metrics);
+  }
 
   /**
    * Compare the actual JSON given to the template JSON and rules.
    *
-   * @param templateJson     template JSON against which to compare the actual JSON.
-   * @param rules            rules that customize the comparison process.
-   * @param actualJsonString actual JSON to compare.
+   * @param templateJson  template JSON against which to compare the actual JSON.
+   * @param rules         rules that customize the comparison process.
+   * @param actualJsonEle actual JSON to compare.
+   * @param metrics       metrics of the comparison; null when disabled.
    * @return result indicating whether the actual JSON matches, and a description of any failure.
    */
   private JsonComparatorResult compareJson(JsonElement templateJson,
                                            JsonComparatorRuleSpecification[] rules,
-                                           String actualJsonString) {
-
-    JsonParser parser = new JsonParser();
-    JsonElement actualJsonEle = parser.parse(actualJsonString);
+                                           JsonElement actualJsonEle,
+                                           JsonComparisonMetrics metrics) {
 
     JsonComparisonProcessor
         processor =
         this.jsonComparisonProcessorFactory.createProcessor(templateJson, rules, actualJsonEle);
 
-    JsonComparatorResult result = processor.executeComparison();
+    //
+    // Compile the rules with this comparator's registry rather than the built-in one.
+    //
+    RuleProcessor ruleProcessor = processor.getRuleProcessor();
+    if ((ruleProcessor != null) && (this.ruleCompiler != null)) {
+      ruleProcessor.setRuleCompiler(this.ruleCompiler);
+    }
+
+    JsonComparatorResult result = this.execute(processor, metrics);
+
+    return result;
+  }
+
+  private JsonComparatorResult execute(JsonComparisonProcessor processor,
+                                       JsonComparisonMetrics metrics) {
+    if (metrics != null) {
+      processor.setMetrics(metrics);
+    }
+
+    return processor.executeComparison();
+  }
+
+  private JsonComparatorResult executeStreaming(JsonStreamingComparisonProcessor processor,
+                                                JsonComparisonMetrics metrics) {
+    if (metrics != null) {
+      processor.setMetrics(metrics);
+    }
+
+    return processor.executeComparison();
+  }
+
+  /**
+   * Obtain the compiled form of the specification given from the specification cache, compiling
+   * it on a miss.
+   */
+  private JsonComparatorCompiledSpecification getOrCompile(String comparisonSpec,
+                                                           JsonComparisonMetrics metrics) {
+    if (metrics == null) {
+      return this.specificationCache.getOrCompile(comparisonSpec, this::compile);
+    }
+
+    return this.specificationCache.getOrCompile(
+        comparisonSpec, spec -> this.compile(this.compileSpecification(spec, metrics), metrics));
+  }
+
+  /**
+   * Compile the comparison specification given, recording the time spent compiling the rules in
+   * the given metrics.
+   *
+   * @param metrics metrics of the compilation; null when disabled.
+   */
+  private JsonComparatorCompiledSpecification compile(
+      JsonComparatorSpecification comparatorSpecification, JsonComparisonMetrics metrics) {
+
+    long startNanos = 0;
+    if (metrics != null) {
+      startNanos = System.nanoTime();
+    }
+
+    JsonComparatorRuleSpecification[] rules = comparatorSpecification.getRules();
+    if (rules == null) {
+      rules = new JsonComparatorRuleSpecification[0];
+    }
+
+    JsonComparatorCompiledRule[] compiledRules = new JsonComparatorCompiledRule[rules.length];
+    JsonPath[] rulePaths = new JsonPath[rules.length];
+    RulePathAutomatonBuilder automatonBuilder = new RulePathAutomatonBuilder();
+
+    for (int cur = 0; cur < rules.length; cur++) {
+      compiledRules[cur] = this.ruleCompiler.compile(rules[cur]);
+
+      // Selectors the automaton can't handle, such as filters, are left to JsonPath
+      String selectorPath = rules[cur].getSelector().getPath();
+      if (!automatonBuilder.addSelector(selectorPath, cur)) {
+        rulePaths[cur] = JsonPath.compile(selectorPath);
+      }
+    }
+
+    JsonComparatorCompiledSpecification result =
+        new JsonComparatorCompiledSpecification(comparatorSpecification.getTemplateJson(), rules,
+                                                compiledRules, automatonBuilder.build(),
+                                                rulePaths);
+
+    if (metrics != null) {
+      metrics.addPhaseNanos(JsonComparatorPhase.RULE_COMPILE, System.nanoTime() - startNanos);
+    }
 
     return result;
   }
@@ -143,9 +736,150 @@ public class JsonComparator {
    * Compile the comparison specification given.
    *
    * @param comparisonSpec comparison specification, in string format.
+   * @param metrics        metrics in which to record the time spent; null when disabled.
    * @return compiled result of the specification.
    */
-  private JsonComparatorSpecification compileSpecification(String comparisonSpec) {
-    return this.gson.fromJson(comparisonSpec, JsonComparatorSpecification.class);
+  private JsonComparatorSpecification compileSpecification(String comparisonSpec,
+                                                           JsonComparisonMetrics metrics) {
+    long startNanos = 0;
+    if (metrics != null) {
+      startNanos = System.nanoTime();
+    }
+
+    JsonElement specificationEle = new JsonTreeParser().parse(comparisonSpec);
+
+    //
+    // The template JSON may be nested arbitrarily deep, so take it out of the specification
+    //  before Gson, which reads JSON recursively, maps the rest.
+    //
+    JsonElement templateJson = null;
+    if (specificationEle.isJsonObject()) {
+      JsonElement found = specificationEle.getAsJsonObject().get("templateJson");
+
+      if ((found != null) && (!found.isJsonNull())) {
+        templateJson = specificationEle.getAsJsonObject().remove("templateJson");
+      }
+    }
+
+    JsonComparatorSpecification result =
+        this.gson.fromJson(specificationEle, JsonComparatorSpecification.class);
+
+    if ((result != null) && (templateJson != null)) {
+      result.setTemplateJson(templateJson);
+    }
+
+    if (metrics != null) {
+      metrics.addPhaseNanos(JsonComparatorPhase.SPECIFICATION_PARSE,
+                            System.nanoTime() - startNanos);
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse the actual JSON given, recording the time spent in the given metrics.
+   *
+   * @param metrics metrics of the comparison; null when disabled.
+   */
+  private JsonElement parseActual(String actualJson, JsonComparisonMetrics metrics) {
+    if (metrics == null) {
+      return new JsonTreeParser().parse(actualJson);
+    }
+
+    long startNanos = System.nanoTime();
+    try {
+      return new JsonTreeParser().parse(actualJson);
+    } finally {
+      metrics.addPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE, System.nanoTime() - startNanos);
+    }
+  }
+
+  private JsonElement parseActual(Reader actualJson, JsonComparisonMetrics metrics) {
+    if (metrics == null) {
+      return new JsonTreeParser().parse(actualJson);
+    }
+
+    long startNanos = System.nanoTime();
+    try {
+      return new JsonTreeParser().parse(actualJson);
+    } finally {
+      metrics.addPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Start the metrics of a compilation.
+   *
+   * @return the new metrics; null when metrics are disabled.
+   */
+  private JsonComparisonMetrics startMetrics() {
+    if (this.metricsListener == JsonComparatorMetricsListener.NO_OP) {
+      return null;
+    }
+
+    return new JsonComparisonMetrics();
+  }
+
+  /**
+   * Start the metrics of a comparison, which are gathered for the metrics listener and for the
+   * Flight Recorder event of the comparison, if it is being recorded.
+   *
+   * @param spec       the comparison specification, as text or compiled.
+   * @param actualSize length of the actual JSON; -1 if unknown.
+   * @return the new metrics; null when metrics are disabled and the event is not being recorded.
+   */
+  private JsonComparisonMetrics startComparison(Object spec, long actualSize) {
+    JsonComparisonMetrics result = JsonComparatorFlightRecorder.beginComparison();
+
+    if (result == null) {
+      if (this.metricsListener == JsonComparatorMetricsListener.NO_OP) {
+        return null;
+      }
+
+      result = new JsonComparisonMetrics();
+    }
+
+    if (spec instanceof String) {
+      result.setSpecificationId(Integer.toHexString(spec.hashCode()));
+    } else if (spec != null) {
+      result.setSpecificationId("compiled@" + Integer.toHexString(System.identityHashCode(spec)));
+    }
+
+    result.setActualSize(actualSize);
+
+    return result;
+  }
+
+  /**
+   * Notify the metrics listener of the comparison with the given result, and record its Flight
+   * Recorder event.
+   *
+   * @return the result given.
+   */
+  private JsonComparatorResult endComparison(JsonComparisonMetrics metrics,
+                                             JsonComparatorResult result) {
+    if (metrics != null) {
+      metrics.setResult(result);
+      JsonComparatorFlightRecorder.endComparison(metrics);
+      this.metricsListener.onComparison(metrics);
+    }
+
+    return result;
+  }
+
+  /**
+   * Notify the metrics listener of the comparison ended by the given exception, and record its
+   * Flight Recorder event.
+   *
+   * @return the exception given, for the caller to rethrow.
+   */
+  private RuntimeException failComparison(JsonComparisonMetrics metrics, RuntimeException exc) {
+    if (metrics != null) {
+      metrics.setFailure(exc);
+      JsonComparatorFlightRecorder.endComparison(metrics);
+      this.metricsListener.onComparison(metrics);
+    }
+
+    return exc;
   }
 }
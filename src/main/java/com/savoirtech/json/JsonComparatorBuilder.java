@@ -22,9 +22,21 @@ import com.google.gson.GsonBuilder;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.savoirtech.json.async.JsonAsyncComparator;
+import com.savoirtech.json.lines.JsonLinesComparator;
+import com.savoirtech.json.metrics.JsonComparatorMetricsListener;
 import com.savoirtech.json.processor.JsonComparisonProcessorFactory;
+import com.savoirtech.json.reactive.JsonComparisonFlowProcessor;
+import com.savoirtech.json.rules.JsonComparatorRule;
+import com.savoirtech.json.rules.RuleCompiler;
+import com.savoirtech.json.rules.RuleRegistry;
 import com.savoirtech.json.util.JsonComparatorUtil;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Build a JsonComparator using the fluent builder pattern.
  *
@@ -35,6 +47,15 @@ public class JsonComparatorBuilder {
   private Gson gson;
   private Configuration jsonPathConfiguration;
   private JsonComparisonProcessorFactory jsonComparisonProcessorFactory;
+  private RuleCompiler ruleCompiler;
+  private final Map<String, JsonComparatorRule> customRules = new LinkedHashMap<>();
+  private ClassLoader ruleClassLoader;
+  private int specificationCacheSize;
+  private Integer maxDepth;
+  private Integer maxDifferences;
+  private ForkJoinPool forkJoinPool;
+  private Integer parallelThreshold;
+  private JsonComparatorMetricsListener metricsListener;
 
 //========================================
 // Fluent Methods
@@ -56,6 +77,115 @@ public class JsonComparatorBuilder {
     return this;
   }
 
+  public JsonComparatorBuilder withRuleCompiler(RuleCompiler ruleCompiler) {
+    this.ruleCompiler = ruleCompiler;
+    return this;
+  }
+
+  /**
+   * Register a custom rule for the given action, in addition to the built-in rules and the rules
+   * discovered through JsonComparatorRuleProvider, replacing any of those with the same action.
+   * Custom rules are ignored when a rule compiler is given with withRuleCompiler().
+   *
+   * @param action action that selects the rule in rule specifications.
+   * @param rule   the rule.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withRule(String action, JsonComparatorRule rule) {
+    this.customRules.put(action, rule);
+    return this;
+  }
+
+  /**
+   * Set the class loader used to discover JsonComparatorRuleProvider services.
+   *
+   * @param classLoader the class loader; defaults to the thread context class loader.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withRuleClassLoader(ClassLoader classLoader) {
+    this.ruleClassLoader = classLoader;
+    return this;
+  }
+
+  /**
+   * Enable caching of compiled specifications used by JsonComparator.compare(String, String), up
+   * to the given number of distinct specifications.  Note that cached specifications are fully
+   * compiled, so unknown rule actions are reported even when their selectors match nothing.
+   *
+   * @param cacheSize maximum number of compiled specifications to cache; 0 disables the cache,
+   *                  which is the default.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withSpecificationCacheSize(int cacheSize) {
+    this.specificationCacheSize = cacheSize;
+    return this;
+  }
+
+  /**
+   * Limit the nesting of objects and arrays walked by comparisons.  Comparisons of deeper JSON
+   * fail with an error at the path of the first object or array beyond the limit.
+   *
+   * @param maxDepth maximum depth; 0 = no limit, which is the default.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+    return this;
+  }
+
+  /**
+   * Collect up to the given number of differences per comparison instead of stopping at the first
+   * mismatch.  The differences found are available from JsonComparatorResult.getDifferences().
+   *
+   * @param maxDifferences maximum number of differences; 0 = stop at the first mismatch, which is
+   *                       the default.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withMaxDifferences(int maxDifferences) {
+    this.maxDifferences = maxDifferences;
+    return this;
+  }
+
+  /**
+   * Compare the contents of large arrays and objects in parallel, using the given pool.  Results
+   * are the same as those of sequential comparisons, reporting the first mismatch in document
+   * order; comparisons collecting differences remain sequential.
+   *
+   * @param forkJoinPool the pool, such as ForkJoinPool.commonPool(); null to compare sequentially,
+   *                     which is the default.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withForkJoinPool(ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
+    return this;
+  }
+
+  /**
+   * Set the minimum number of elements, or fields, of the arrays and objects compared in parallel
+   * when a fork/join pool is given.
+   *
+   * @param parallelThreshold the minimum size; defaults to
+   *                          JsonComparisonProcessor.DEFAULT_PARALLEL_THRESHOLD.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+    return this;
+  }
+
+  /**
+   * Notify the given listener with the metrics of each compilation and comparison: the time spent
+   * in each phase, the nodes visited, the rules invoked by action, and the outcome.
+   *
+   * @param metricsListener the listener; null or JsonComparatorMetricsListener.NO_OP to gather no
+   *                        metrics, which is the default.
+   * @return this builder.
+   */
+  public JsonComparatorBuilder withMetricsListener(JsonComparatorMetricsListener metricsListener) {
+    this.metricsListener = metricsListener;
+    return this;
+  }
+
 //========================================
 // Builder
 //----------------------------------------
@@ -67,10 +197,51 @@ public class JsonComparatorBuilder {
 
     result.setGson(this.gson);
     result.setJsonComparisonProcessorFactory(this.jsonComparisonProcessorFactory);
+    result.setRuleCompiler(this.ruleCompiler);
+    result.setMetricsListener(this.metricsListener);
+
+    if (this.specificationCacheSize > 0) {
+      result.setSpecificationCache(
+          new JsonComparatorSpecificationCache(this.specificationCacheSize));
+    }
 
     return result;
   }
 
+  /**
+   * Build a comparator of JSON Lines input, which compares each record with a JsonComparator built
+   * from this builder's settings.
+   */
+  public JsonLinesComparator buildJsonLinesComparator() {
+    return new JsonLinesComparator(this.build());
+  }
+
+  /**
+   * Build a comparator running comparisons asynchronously on the given executor, with a
+   * JsonComparator built from this builder's settings.
+   *
+   * @param executor    executor on which comparisons run.
+   * @param maxInFlight maximum number of comparisons submitted but not yet complete; submitting
+   *                    more blocks until some complete.
+   */
+  public JsonAsyncComparator buildAsyncComparator(Executor executor, int maxInFlight) {
+    return new JsonAsyncComparator(this.build(), executor, maxInFlight);
+  }
+
+  /**
+   * Build a reactive processor comparing each document it receives against the given compiled
+   * specification, with a JsonComparator built from this builder's settings.
+   *
+   * @param compiledSpec compiled specification each document is compared against.
+   * @param executor     executor on which comparisons run.
+   * @param parallelism  maximum number of comparisons running at once.
+   */
+  public JsonComparisonFlowProcessor buildFlowProcessor(
+      JsonComparatorCompiledSpecification compiledSpec, Executor executor, int parallelism) {
+
+    return new JsonComparisonFlowProcessor(this.build(), compiledSpec, executor, parallelism);
+  }
+
   public JsonComparatorUtil buildUtil() {
     JsonComparatorUtil result = new JsonComparatorUtil();
 
@@ -102,6 +273,48 @@ public class JsonComparatorBuilder {
       this.jsonComparisonProcessorFactory =
           new JsonComparisonProcessorFactory(this.jsonPathConfiguration);
     }
+
+    if (this.maxDepth != null) {
+      this.jsonComparisonProcessorFactory.setMaxDepth(this.maxDepth);
+    }
+
+    if (this.maxDifferences != null) {
+      this.jsonComparisonProcessorFactory.setMaxDifferences(this.maxDifferences);
+    }
+
+    if (this.forkJoinPool != null) {
+      this.jsonComparisonProcessorFactory.setForkJoinPool(this.forkJoinPool);
+    }
+
+    if (this.parallelThreshold != null) {
+      this.jsonComparisonProcessorFactory.setParallelThreshold(this.parallelThreshold);
+    }
+
+    if (this.ruleCompiler == null) {
+      this.ruleCompiler = new RuleCompiler(this.buildRuleRegistry());
+    }
+  }
+
+  /**
+   * Build the registry of rules shared by all comparisons of the comparator: the built-in rules,
+   * then the discovered rules, then the custom rules, each replacing earlier rules of the same
+   * action.
+   */
+  private RuleRegistry buildRuleRegistry() {
+    RuleRegistry result = new RuleRegistry();
+    result.initBuiltInRules();
+
+    ClassLoader classLoader = this.ruleClassLoader;
+    if (classLoader == null) {
+      classLoader = Thread.currentThread().getContextClassLoader();
+    }
+    result.initDiscoveredRules(classLoader);
+
+    for (Map.Entry<String, JsonComparatorRule> oneRule : this.customRules.entrySet()) {
+      result.registerRule(oneRule.getKey(), oneRule.getValue());
+    }
+
+    return result.freeze();
   }
 
   /**
@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import com.google.gson.JsonElement;
+
+import com.jayway.jsonpath.JsonPath;
+import com.savoirtech.json.model.JsonComparatorRuleSpecification;
+import com.savoirtech.json.processor.JsonStructuralHasher;
+import com.savoirtech.json.rules.JsonComparatorCompiledRule;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Comparison specification compiled once for use by any number of comparisons: the parsed
+ * template JSON, the compiled rule for each of the rules, and the rule selectors compiled into a
+ * path automaton.  Selectors the automaton does not support, such as filters, are compiled as
+ * JsonPath instead.
+ *
+ * The structural hash of every object and array of the template, as computed by
+ * JsonStructuralHasher with the rules of the automaton left out, is computed once, on first use,
+ * for rules such as "set" that bucket template elements by hash.  The contents of subtrees to
+ * which a rule applies are hashed as well, since those are the elements such rules ask about.
+ *
+ * Instances are immutable and safe to share between threads; neither the template JSON nor the
+ * rule specifications may be modified after compilation.  Use JsonComparator.compile() to
+ * construct.
+ */
+public final class JsonComparatorCompiledSpecification {
+
+  private final JsonElement templateJson;
+  private final JsonComparatorRuleSpecification[] rules;
+  private final JsonComparatorCompiledRule[] compiledRules;
+  private final RulePathAutomaton pathAutomaton;
+  private final JsonPath[] rulePaths;
+
+  /**
+   * Hash of each object and array of the template, keyed by identity; computed on first use.
+   */
+  private volatile Map<JsonElement, JsonStructuralHasher.SubtreeHash> templateHashes;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct the compiled specification from the parts given; the compiled rules and rule paths
+   * are indexed in the same order as the rule specifications.
+   *
+   * @param templateJson  template, expected, JSON.
+   * @param rules         rule specifications, in the order given in the comparison specification.
+   * @param compiledRules compiled rule for each of the rule specifications.
+   * @param pathAutomaton automaton compiled from the selectors of the rule specifications.
+   * @param rulePaths     compiled JsonPath selector for each of the rule specifications whose
+   *                      selector is not part of the automaton; null for the others.
+   */
+  public JsonComparatorCompiledSpecification(JsonElement templateJson,
+                                             JsonComparatorRuleSpecification[] rules,
+                                             JsonComparatorCompiledRule[] compiledRules,
+                                             RulePathAutomaton pathAutomaton,
+                                             JsonPath[] rulePaths) {
+
+    if ((compiledRules.length != rules.length) || (rulePaths.length != rules.length)) {
+      throw new IllegalArgumentException(
+          "compiled rule count mismatch: rules=" + rules.length + "; compiledRules="
+          + compiledRules.length + "; rulePaths=" + rulePaths.length);
+    }
+
+    this.templateJson = templateJson;
+    this.rules = rules.clone();
+    this.compiledRules = compiledRules.clone();
+    this.pathAutomaton = pathAutomaton;
+    this.rulePaths = rulePaths.clone();
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  /**
+   * Obtain the template, expected, JSON.  The returned element must not be modified.
+   *
+   * @return the template JSON; null if the specification did not include one.
+   */
+  public JsonElement getTemplateJson() {
+    return templateJson;
+  }
+
+  /**
+   * Obtain a copy of the rule specifications.
+   *
+   * @return the rule specifications, in their original order.
+   */
+  public JsonComparatorRuleSpecification[] getRules() {
+    return rules.clone();
+  }
+
+  public int getRuleCount() {
+    return rules.length;
+  }
+
+  public JsonComparatorRuleSpecification getRule(int index) {
+    return rules[index];
+  }
+
+  public JsonComparatorCompiledRule getCompiledRule(int index) {
+    return compiledRules[index];
+  }
+
+  public RulePathAutomaton getPathAutomaton() {
+    return pathAutomaton;
+  }
+
+  /**
+   * Obtain the JsonPath selector of the rule at the given index.
+   *
+   * @return the compiled JsonPath; null if the rule's selector is part of the path automaton.
+   */
+  public JsonPath getRulePath(int index) {
+    return rulePaths[index];
+  }
+
+  /**
+   * Obtain the structural hash of the given object or array of the template JSON, as hashed at the
+   * given path state.
+   *
+   * @param templateElement an element of the template JSON, by identity.
+   * @param pathState       state of the rule path automaton at which the element is hashed.
+   * @return the hash; null if the element is not an object or array of the template, or was hashed
+   * at a path state with other rules below it, such as when compared at another position.
+   */
+  public Integer getTemplateHash(JsonElement templateElement, int pathState) {
+    Map<JsonElement, JsonStructuralHasher.SubtreeHash> hashes = this.templateHashes;
+
+    if (hashes == null) {
+      // Computing the hashes twice on a race is harmless, as the result is the same
+      if (this.templateJson == null) {
+        hashes = Collections.emptyMap();
+      } else {
+        int rootState = (this.pathAutomaton == null) ? RulePathAutomaton.DEAD_STATE
+                                                     : this.pathAutomaton.getRootState();
+
+        hashes = new JsonStructuralHasher(this.pathAutomaton)
+            .hashSubtrees(rootState, this.templateJson);
+      }
+
+      this.templateHashes = hashes;
+    }
+
+    JsonStructuralHasher.SubtreeHash found = hashes.get(templateElement);
+
+    // States at which no rule can apply below are all hashed as the dead state
+    if ((this.pathAutomaton == null) || (!this.pathAutomaton.isLive(pathState))) {
+      pathState = RulePathAutomaton.DEAD_STATE;
+    }
+
+    if ((found == null) || (found.getPathState() != pathState)) {
+      return null;
+    }
+
+    return found.getHash();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import com.google.gson.JsonElement;
+
+/**
+ * One difference between the actual JSON and the template JSON, as reported by comparisons that
+ * collect all differences.  The expected and actual JSON are the elements from the compared
+ * documents themselves, and must not be modified.
+ */
+public class JsonComparatorDifference {
+
+  /**
+   * Kind of difference found.
+   */
+  public enum Kind {
+    /**
+     * Primitive values differ.
+     */
+    VALUE_MISMATCH,
+
+    /**
+     * The actual JSON is not the same type, object, array or primitive, as the template.
+     */
+    TYPE_MISMATCH,
+
+    /**
+     * A field of the template object is missing from the actual object.
+     */
+    MISSING_FIELD,
+
+    /**
+     * A field of the actual object does not exist in the template object.
+     */
+    UNEXPECTED_FIELD,
+
+    /**
+     * The actual array is not the same size as the template array.
+     */
+    ARRAY_SIZE_MISMATCH,
+
+    /**
+     * The rule applying at the path reported a mismatch.
+     */
+    RULE_MISMATCH,
+
+    /**
+     * The JSON is nested deeper than the comparator's maximum depth.
+     */
+    MAX_DEPTH_EXCEEDED
+  }
+
+  private final String path;
+  private final Kind kind;
+  private final JsonElement expected;
+  private final JsonElement actual;
+  private final String message;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  public JsonComparatorDifference(String path, Kind kind, JsonElement expected, JsonElement actual,
+                                  String message) {
+    this.path = path;
+    this.kind = kind;
+    this.expected = expected;
+    this.actual = actual;
+    this.message = message;
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  /**
+   * Obtain the path of the difference.  For missing and unexpected fields, this is the path of
+   * the field itself.
+   */
+  public String getPath() {
+    return path;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Obtain the template, expected, JSON at the path.
+   *
+   * @return the expected JSON; null for unexpected fields.
+   */
+  public JsonElement getExpected() {
+    return expected;
+  }
+
+  /**
+   * Obtain the actual JSON at the path.
+   *
+   * @return the actual JSON; null for missing fields.
+   */
+  public JsonElement getActual() {
+    return actual;
+  }
+
+  /**
+   * Obtain the description of the difference, in the same form as the error messages of results.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String toString() {
+    return kind + " at " + path + ": " + message;
+  }
+}
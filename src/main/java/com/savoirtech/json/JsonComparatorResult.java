@@ -16,26 +16,88 @@
 
 package com.savoirtech.json;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
- * Result of a JSON comparison.
+ * Result of a JSON comparison.  Results are immutable, so the successful outcomes, which carry no
+ * error details, are shared: use SHALLOW_MATCH and DEEP_MATCH, or match(), instead of constructing
+ * new results for them.
  *
  * Created by art on 5/10/16.
  */
 public class JsonComparatorResult {
+
+  /**
+   * Successful result of a shallow comparison; the comparator continues into objects and arrays.
+   */
+  public static final JsonComparatorResult SHALLOW_MATCH =
+      new JsonComparatorResult(false, true, null, null);
+
+  /**
+   * Successful result of a deep comparison; the comparator does not walk into objects and arrays.
+   */
+  public static final JsonComparatorResult DEEP_MATCH =
+      new JsonComparatorResult(true, true, null, null);
+
   private final boolean deep;
   private final boolean match;
   private final String errorMessage;
   private final String errorPath;
+  private final List<JsonComparatorDifference> differences;
 
 //========================================
 // Constructor
 //----------------------------------------
 
   public JsonComparatorResult(boolean deep, boolean match, String errorMessage, String errorPath) {
+    this(deep, match, errorMessage, errorPath, Collections.emptyList());
+  }
+
+  public JsonComparatorResult(boolean deep, boolean match, String errorMessage, String errorPath,
+                              List<JsonComparatorDifference> differences) {
     this.deep = deep;
     this.match = match;
     this.errorMessage = errorMessage;
     this.errorPath = errorPath;
+
+    if (differences.isEmpty()) {
+      this.differences = Collections.emptyList();
+    } else {
+      this.differences = Collections.unmodifiableList(differences);
+    }
+  }
+
+//========================================
+// Factory Methods
+//----------------------------------------
+
+  /**
+   * Obtain the shared successful result.
+   *
+   * @param deep true = the comparison was deep; false = the comparison was shallow.
+   * @return DEEP_MATCH or SHALLOW_MATCH, accordingly.
+   */
+  public static JsonComparatorResult match(boolean deep) {
+    if (deep) {
+      return DEEP_MATCH;
+    }
+
+    return SHALLOW_MATCH;
+  }
+
+  /**
+   * Create a failed result.
+   *
+   * @param deep         true = the comparison was deep; false = the comparison was shallow.
+   * @param errorMessage text describing the failure.
+   * @param errorPath    path at which the failure was detected.
+   * @return the new result.
+   */
+  public static JsonComparatorResult mismatch(boolean deep, String errorMessage,
+                                              String errorPath) {
+
+    return new JsonComparatorResult(deep, false, errorMessage, errorPath);
   }
 
 //========================================
@@ -79,4 +141,15 @@ public class JsonComparatorResult {
   public String getErrorPath() {
     return errorPath;
   }
+
+  /**
+   * Obtain the differences found by a comparison collecting all differences, in the order found.
+   * The error message and path of the result are those of the first difference.
+   *
+   * @return the differences, up to the comparator's maximum; empty when the JSON matched or the
+   * comparison stopped at the first mismatch.
+   */
+  public List<JsonComparatorDifference> getDifferences() {
+    return differences;
+  }
 }
@@ -0,0 +1,165 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, least-recently-used cache of compiled comparison specifications, keyed by a
+ * SHA-256 hash of the specification's content so the (potentially large) specification strings
+ * are not retained.  Hit, miss, and eviction counts are kept for monitoring.
+ *
+ * Instances are thread-safe.  Compilation happens outside of the cache lock, so concurrent misses
+ * on the same specification may each compile it; the last one stored wins.
+ */
+public class JsonComparatorSpecificationCache {
+
+  private final int maxSize;
+  private final Map<ByteBuffer, JsonComparatorCompiledSpecification> entries;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct the cache with the given maximum number of compiled specifications.
+   *
+   * @param maxSize maximum number of entries retained; must be positive.
+   */
+  public JsonComparatorSpecificationCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("cache size must be positive: maxSize=" + maxSize);
+    }
+
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<ByteBuffer, JsonComparatorCompiledSpecification>(16, 0.75f,
+                                                                                        true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<ByteBuffer, JsonComparatorCompiledSpecification> eldest) {
+
+        if (size() > JsonComparatorSpecificationCache.this.maxSize) {
+          evictionCount++;
+          return true;
+        }
+
+        return false;
+      }
+    };
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Obtain the compiled form of the specification given, compiling and caching it on a miss.
+   *
+   * @param comparisonSpec specification, in string format.
+   * @param compiler       compiler used on a cache miss.
+   * @return the compiled specification.
+   */
+  public JsonComparatorCompiledSpecification getOrCompile(
+      String comparisonSpec, Function<String, JsonComparatorCompiledSpecification> compiler) {
+
+    ByteBuffer key = this.hashSpecification(comparisonSpec);
+
+    JsonComparatorCompiledSpecification result;
+    synchronized (this) {
+      result = this.entries.get(key);
+
+      if (result != null) {
+        hitCount++;
+        return result;
+      }
+
+      missCount++;
+    }
+
+    result = compiler.apply(comparisonSpec);
+
+    synchronized (this) {
+      this.entries.put(key, result);
+    }
+
+    return result;
+  }
+
+  /**
+   * Remove all entries from the cache.  The counters are not reset.
+   */
+  public synchronized void clear() {
+    this.entries.clear();
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  /**
+   * Calculate the cache key for the specification given.
+   *
+   * @param comparisonSpec specification, in string format.
+   * @return SHA-256 hash of the specification's UTF-8 encoding.
+   */
+  private ByteBuffer hashSpecification(String comparisonSpec) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+      return ByteBuffer.wrap(digest.digest(comparisonSpec.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException nsaExc) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException("SHA-256 message digest is not available", nsaExc);
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.async;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Comparator running comparisons asynchronously on a caller-supplied executor, such as a thread
+ * pool or, on newer JDKs, an executor of virtual threads.  Each comparison's result is delivered
+ * through a CompletableFuture.
+ *
+ * The number of comparisons in flight, submitted but not yet complete, is bounded: submitting
+ * another comparison once the bound is reached blocks until one completes, so producers cannot
+ * queue up work, and the actual JSON it holds, faster than the executor gets through it.  Because
+ * of that, comparisons must not be submitted from tasks running on the same bounded executor,
+ * which could leave no thread to complete the comparisons being waited for.
+ *
+ * Instances are thread-safe, as is the JsonComparator they use.
+ */
+public class JsonAsyncComparator {
+
+  public static final int DEFAULT_MAX_IN_FLIGHT = 1024;
+
+  private final JsonComparator comparator;
+  private final Executor executor;
+  private final int maxInFlight;
+  private final Semaphore inFlightPermits;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct an asynchronous comparator allowing up to DEFAULT_MAX_IN_FLIGHT comparisons in
+   * flight.
+   */
+  public JsonAsyncComparator(JsonComparator comparator, Executor executor) {
+    this(comparator, executor, DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * Construct an asynchronous comparator.
+   *
+   * @param comparator  comparator performing each comparison.
+   * @param executor    executor on which comparisons run.
+   * @param maxInFlight maximum number of comparisons submitted but not yet complete.
+   */
+  public JsonAsyncComparator(JsonComparator comparator, Executor executor, int maxInFlight) {
+    if (maxInFlight < 1) {
+      throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+    }
+
+    this.comparator = comparator;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+    this.inFlightPermits = new Semaphore(maxInFlight);
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  public JsonComparator getComparator() {
+    return comparator;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Obtain the number of comparisons currently submitted but not yet complete.
+   */
+  public int getInFlightCount() {
+    return this.maxInFlight - this.inFlightPermits.availablePermits();
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Compare the actual JSON given to the comparison specification given, asynchronously.  Blocks
+   * while the maximum number of comparisons are in flight.
+   *
+   * @param comparisonSpec specification containing template JSON and rules for comparison.
+   * @param actualJson     the actual JSON to compare.
+   * @return future completed with the result of the comparison, or exceptionally with any error
+   * thrown by it, such as an invalid specification.
+   * @throws RejectedExecutionException if the executor rejects the comparison.
+   */
+  public CompletableFuture<JsonComparatorResult> compareAsync(String comparisonSpec,
+                                                              String actualJson) {
+
+    return this.submit(() -> this.comparator.compare(comparisonSpec, actualJson));
+  }
+
+  /**
+   * Compare the actual JSON given to the compiled specification given, asynchronously.  Blocks
+   * while the maximum number of comparisons are in flight.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules.
+   * @param actualJson   the actual JSON to compare.
+   * @return future completed with the result of the comparison, or exceptionally with any error
+   * thrown by it.
+   * @throws RejectedExecutionException if the executor rejects the comparison.
+   */
+  public CompletableFuture<JsonComparatorResult> compareAsync(
+      JsonComparatorCompiledSpecification compiledSpec, String actualJson) {
+
+    return this.submit(() -> this.comparator.compare(compiledSpec, actualJson));
+  }
+
+  /**
+   * Compare each of the actual JSON documents given to the compiled specification given,
+   * asynchronously.  Returns once every comparison is submitted, blocking as needed while the
+   * maximum number of comparisons are in flight.
+   *
+   * @param compiledSpec compiled specification containing template JSON and rules.
+   * @param actualJsons  the actual JSON documents to compare.
+   * @return future of each comparison, in the order of the documents.
+   */
+  public List<CompletableFuture<JsonComparatorResult>> compareAll(
+      JsonComparatorCompiledSpecification compiledSpec, Collection<String> actualJsons) {
+
+    List<CompletableFuture<JsonComparatorResult>> result = new ArrayList<>(actualJsons.size());
+
+    for (String actualJson : actualJsons) {
+      result.add(this.compareAsync(compiledSpec, actualJson));
+    }
+
+    return result;
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  /**
+   * Run the given comparison on the executor once a permit for it is available.
+   */
+  private CompletableFuture<JsonComparatorResult> submit(
+      Supplier<JsonComparatorResult> comparison) {
+
+    try {
+      this.inFlightPermits.acquire();
+    } catch (InterruptedException intExc) {
+      Thread.currentThread().interrupt();
+
+      CompletableFuture<JsonComparatorResult> result = new CompletableFuture<>();
+      result.completeExceptionally(intExc);
+      return result;
+    }
+
+    CompletableFuture<JsonComparatorResult> comparisonFuture;
+    try {
+      comparisonFuture = CompletableFuture.supplyAsync(comparison, this.executor);
+    } catch (RejectedExecutionException reExc) {
+      this.inFlightPermits.release();
+      throw reExc;
+    }
+
+    // The permit is released before the caller's future completes, so the count is up to date
+    return comparisonFuture.whenComplete((comparisonResult, exc) -> this.inFlightPermits.release());
+  }
+}
@@ -23,6 +23,8 @@ package com.savoirtech.json.exception;
  */
 public class UnknownRuleException extends RuntimeException {
 
+  private static final long serialVersionUID = 1L;
+
   public UnknownRuleException(String ruleName) {
     super("unknown rule action \"" + ruleName + "\"");
   }
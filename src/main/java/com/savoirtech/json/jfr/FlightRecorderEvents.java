@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.jfr;
+
+import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Access to the Flight Recorder API, only loaded once JsonComparatorFlightRecorder finds Flight
+ * Recorder available, so JVMs without it never resolve the jdk.jfr classes.
+ */
+final class FlightRecorderEvents {
+
+  private FlightRecorderEvents() {
+  }
+
+  static boolean isAvailable() {
+    return FlightRecorder.isAvailable();
+  }
+
+  static JsonComparisonMetrics beginComparison() {
+    // Nothing is recording until Flight Recorder is initialized
+    if (!FlightRecorder.isInitialized()) {
+      return null;
+    }
+
+    JsonComparisonEvent event = new JsonComparisonEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+
+    return new RecordedComparisonMetrics(event);
+  }
+
+  static void commitComparison(RecordedComparisonMetrics metrics) {
+    JsonComparisonEvent event = metrics.getEvent();
+    event.end();
+
+    if (event.shouldCommit()) {
+      JsonComparatorResult result = metrics.getResult();
+      RuntimeException failure = metrics.getFailure();
+
+      event.specificationId = metrics.getSpecificationId();
+      event.actualSize = metrics.getActualSize();
+      event.nodeCount = metrics.getNodeCount();
+      event.ruleInvocations = metrics.getRuleInvocationTotal();
+      event.match = (result != null) && (result.isMatch());
+      event.failure = (failure != null) ? failure.getClass().getName() : null;
+      event.specificationParseTime =
+          metrics.getPhaseNanos(JsonComparatorPhase.SPECIFICATION_PARSE);
+      event.ruleCompileTime = metrics.getPhaseNanos(JsonComparatorPhase.RULE_COMPILE);
+      event.actualParseTime = metrics.getPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE);
+      event.comparisonTime = metrics.getPhaseNanos(JsonComparatorPhase.COMPARISON);
+
+      event.commit();
+    }
+  }
+
+  static Object beginRule() {
+    if (!FlightRecorder.isInitialized()) {
+      return null;
+    }
+
+    JsonRuleEvent event = new JsonRuleEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+
+    return event;
+  }
+
+  static void commitRule(Object ruleEvent, String action, String path, int arraySize,
+                         int childComparisons, boolean match) {
+
+    JsonRuleEvent event = (JsonRuleEvent) ruleEvent;
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.action = action;
+      event.path = path;
+      event.arraySize = arraySize;
+      event.childComparisons = childComparisons;
+      event.match = match;
+
+      event.commit();
+    }
+  }
+}
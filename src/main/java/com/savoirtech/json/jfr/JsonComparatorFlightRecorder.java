@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.jfr;
+
+import com.google.gson.JsonElement;
+
+import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
+
+/**
+ * Emitter of the Flight Recorder events of comparisons, JsonComparisonEvent, and of rule
+ * invocations, JsonRuleEvent.  Events are only created while Flight Recorder is recording with the
+ * event enabled, so comparisons cost no more than a check otherwise; which events are recorded,
+ * and their thresholds, are set in the recording's settings.
+ *
+ * The comparator builds for Java 8, where Flight Recorder is part of some JVMs only.  This class
+ * does not refer to the jdk.jfr API itself, and only uses the classes that do once it finds the
+ * API available, so events are simply not emitted on JVMs without it.
+ */
+public final class JsonComparatorFlightRecorder {
+
+  private static final boolean AVAILABLE = detectAvailable();
+
+  private JsonComparatorFlightRecorder() {
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Determine whether Flight Recorder is available in this JVM.
+   */
+  public static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /**
+   * Begin the event of a comparison, if it is being recorded.
+   *
+   * @return metrics for the comparison, to pass to endComparison() once the comparison is
+   * complete; null if the event is not being recorded.
+   */
+  public static JsonComparisonMetrics beginComparison() {
+    if (!AVAILABLE) {
+      return null;
+    }
+
+    return FlightRecorderEvents.beginComparison();
+  }
+
+  /**
+   * End the event of a comparison, if one was begun for the given metrics, and record it.
+   *
+   * @param metrics metrics of the comparison; null or metrics from another source are ignored.
+   */
+  public static void endComparison(JsonComparisonMetrics metrics) {
+    if ((AVAILABLE) && (metrics instanceof RecordedComparisonMetrics)) {
+      FlightRecorderEvents.commitComparison((RecordedComparisonMetrics) metrics);
+    }
+  }
+
+  /**
+   * Begin the event of a rule invocation, if it is being recorded.
+   *
+   * @return the event, to pass to endRule() once the rule returns; null if the event is not being
+   * recorded.
+   */
+  public static Object beginRule() {
+    if (!AVAILABLE) {
+      return null;
+    }
+
+    return FlightRecorderEvents.beginRule();
+  }
+
+  /**
+   * End the event of a rule invocation and record it.
+   *
+   * @param ruleEvent        event returned by beginRule(); null is ignored.
+   * @param action           action of the rule.
+   * @param path             path at which the rule applied.
+   * @param actualEle        the actual JSON given to the rule.
+   * @param childComparisons number of child comparisons requested by the rule.
+   * @param result           result of the rule; null if it threw an exception.
+   */
+  public static void endRule(Object ruleEvent, String action, String path, JsonElement actualEle,
+                             int childComparisons, JsonComparatorResult result) {
+    if (ruleEvent == null) {
+      return;
+    }
+
+    int arraySize = -1;
+    if ((actualEle != null) && (actualEle.isJsonArray())) {
+      arraySize = actualEle.getAsJsonArray().size();
+    }
+
+    FlightRecorderEvents.commitRule(ruleEvent, action, path, arraySize, childComparisons,
+                                    (result != null) && (result.isMatch()));
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  private static boolean detectAvailable() {
+    try {
+      Class.forName("jdk.jfr.FlightRecorder", false,
+                    JsonComparatorFlightRecorder.class.getClassLoader());
+
+      return FlightRecorderEvents.isAvailable();
+    } catch (ClassNotFoundException | LinkageError exc) {
+      return false;
+    }
+  }
+}
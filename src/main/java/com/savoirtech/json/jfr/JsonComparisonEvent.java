@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning one comparison by a JsonComparator.  Only loaded on JVMs with
+ * Flight Recorder; see JsonComparatorFlightRecorder.
+ */
+@Name("com.savoirtech.json.Comparison")
+@Label("JSON Comparison")
+@Category("JSON Comparator")
+@Description("Comparison of actual JSON against a comparison specification")
+public class JsonComparisonEvent extends Event {
+
+  @Label("Specification Id")
+  @Description("Hash of the specification text, or identity of the compiled specification")
+  String specificationId;
+
+  @Label("Actual Size")
+  @Description("Length of the actual JSON, in the characters or bytes given; -1 when unknown")
+  long actualSize;
+
+  @Label("Node Count")
+  long nodeCount;
+
+  @Label("Rule Invocations")
+  long ruleInvocations;
+
+  @Label("Match")
+  boolean match;
+
+  @Label("Failure")
+  @Description("Class of the exception which ended the comparison, if any")
+  String failure;
+
+  @Label("Specification Parse Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long specificationParseTime;
+
+  @Label("Rule Compile Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long ruleCompileTime;
+
+  @Label("Actual Parse Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long actualParseTime;
+
+  @Label("Comparison Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long comparisonTime;
+}
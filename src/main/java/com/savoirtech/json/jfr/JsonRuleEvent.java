@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event spanning one invocation of a rule.  By default only invocations taking a
+ * millisecond or more are recorded; the threshold is set in the recording's settings as for any
+ * other event.  Only loaded on JVMs with Flight Recorder; see JsonComparatorFlightRecorder.
+ */
+@Name("com.savoirtech.json.Rule")
+@Label("JSON Comparison Rule")
+@Category("JSON Comparator")
+@Description("Invocation of a rule during a comparison")
+@Threshold("1 ms")
+public class JsonRuleEvent extends Event {
+
+  @Label("Action")
+  String action;
+
+  @Label("Path")
+  String path;
+
+  @Label("Array Size")
+  @Description("Number of elements of the actual JSON, when an array; -1 otherwise")
+  int arraySize;
+
+  @Label("Child Comparisons")
+  @Description("Number of comparisons of child elements requested by the rule")
+  int childComparisons;
+
+  @Label("Match")
+  boolean match;
+}
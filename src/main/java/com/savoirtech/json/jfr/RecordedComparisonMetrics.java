@@ -0,0 +1,36 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.jfr;
+
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
+
+/**
+ * Metrics of a comparison recorded as a Flight Recorder event once complete.
+ */
+class RecordedComparisonMetrics extends JsonComparisonMetrics {
+
+  private final JsonComparisonEvent event;
+
+  RecordedComparisonMetrics(JsonComparisonEvent event) {
+    this.event = event;
+  }
+
+  JsonComparisonEvent getEvent() {
+    return event;
+  }
+}
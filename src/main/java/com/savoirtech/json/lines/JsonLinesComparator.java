@@ -0,0 +1,507 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.lines;
+
+import com.google.gson.JsonParseException;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Comparator of newline-delimited JSON (JSON Lines) against a single compiled specification.  The
+ * input is split into chunks at line boundaries, the records of each chunk are compared on a pool
+ * of worker threads, and the results are handed to the result handler in the order of the input.
+ * Only a bounded number of chunks are read ahead of the handler, so memory use does not depend on
+ * the size of the input.
+ *
+ * Files are memory-mapped, so chunks are compared in place without copying them.  Lines are
+ * separated by \n, optionally preceded by \r, and must be encoded in UTF-8.  Blank lines are
+ * skipped.  Records which are not valid JSON are reported as mismatches.
+ */
+public class JsonLinesComparator {
+
+  public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+  /**
+   * Maximum size of each region of a file mapped at once.
+   */
+  private static final long MAX_MAPPED_REGION_SIZE = 1L << 30;
+
+  private final JsonComparator comparator;
+
+  private int workerThreads = Runtime.getRuntime().availableProcessors();
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+  private int maxChunksInFlight;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a JSON Lines comparator which compares each record with the given comparator.
+   */
+  public JsonLinesComparator(JsonComparator comparator) {
+    this.comparator = comparator;
+  }
+
+//========================================
+// Getters and Setters
+//----------------------------------------
+
+  public JsonComparator getComparator() {
+    return comparator;
+  }
+
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  /**
+   * Set the number of worker threads comparing records.
+   *
+   * @param workerThreads the number of threads; defaults to the number of processors.
+   */
+  public void setWorkerThreads(int workerThreads) {
+    if (workerThreads < 1) {
+      throw new IllegalArgumentException("invalid worker thread count " + workerThreads);
+    }
+
+    this.workerThreads = workerThreads;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Set the approximate size, in bytes, of the chunks of input handed to the worker threads.
+   * Chunks are extended to the end of their last line.
+   *
+   * @param chunkSize size of the chunks; defaults to DEFAULT_CHUNK_SIZE.
+   */
+  public void setChunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("invalid chunk size " + chunkSize);
+    }
+
+    this.chunkSize = chunkSize;
+  }
+
+  public int getMaxChunksInFlight() {
+    return maxChunksInFlight;
+  }
+
+  /**
+   * Set the maximum number of chunks read but not yet handed to the result handler, which bounds
+   * the memory used by a comparison.
+   *
+   * @param maxChunksInFlight the maximum number of chunks; 0 = twice the number of worker threads,
+   *                          which is the default.
+   */
+  public void setMaxChunksInFlight(int maxChunksInFlight) {
+    this.maxChunksInFlight = maxChunksInFlight;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Compare every record of the given JSON Lines file to the compiled specification given.
+   *
+   * @param compiledSpec  compiled specification with the template JSON and rules.
+   * @param file          JSON Lines file to compare.
+   * @param resultHandler handler of the result of each record.
+   * @return summary of the comparison.
+   * @throws IOException if reading the file fails.
+   */
+  public JsonLinesSummary compare(JsonComparatorCompiledSpecification compiledSpec, Path file,
+                                  JsonLinesResultHandler resultHandler) throws IOException {
+
+    if (!Files.isRegularFile(file)) {
+      // Pipes and the like can't be mapped
+      try (InputStream input = Files.newInputStream(file)) {
+        return this.compare(compiledSpec, input, resultHandler);
+      }
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return this.compare(compiledSpec, new MappedFileChunkSource(channel, this.chunkSize),
+                          resultHandler);
+    }
+  }
+
+  /**
+   * Compare every record of the JSON Lines read from the given stream to the compiled
+   * specification given.
+   *
+   * @param compiledSpec  compiled specification with the template JSON and rules.
+   * @param input         stream of the JSON Lines to compare; it is read to the end, but not
+   *                      closed.
+   * @param resultHandler handler of the result of each record.
+   * @return summary of the comparison.
+   * @throws IOException if reading the stream fails.
+   */
+  public JsonLinesSummary compare(JsonComparatorCompiledSpecification compiledSpec,
+                                  InputStream input, JsonLinesResultHandler resultHandler)
+      throws IOException {
+
+    return this.compare(compiledSpec, new StreamChunkSource(input, this.chunkSize),
+                        resultHandler);
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  /**
+   * Compare the records of all of the chunks from the given source, handing the results to the
+   * result handler in order.
+   */
+  private JsonLinesSummary compare(JsonComparatorCompiledSpecification compiledSpec,
+                                   ChunkSource chunkSource, JsonLinesResultHandler resultHandler)
+      throws IOException {
+
+    int maxInFlight = this.maxChunksInFlight;
+    if (maxInFlight <= 0) {
+      maxInFlight = this.workerThreads * 2;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.workerThreads, runnable -> {
+      Thread thread = new Thread(runnable, "json-lines-comparator");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    Summarizer summarizer = new Summarizer(resultHandler);
+    Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+
+    try {
+      ByteBuffer chunk = chunkSource.nextChunk();
+
+      while (chunk != null) {
+        if (inFlight.size() >= maxInFlight) {
+          summarizer.handleChunkResult(this.waitForChunk(inFlight.removeFirst()));
+        }
+
+        final ByteBuffer submitChunk = chunk;
+        inFlight.addLast(executor.submit(() -> this.compareChunk(compiledSpec, submitChunk)));
+
+        chunk = chunkSource.nextChunk();
+      }
+
+      while (!inFlight.isEmpty()) {
+        summarizer.handleChunkResult(this.waitForChunk(inFlight.removeFirst()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return new JsonLinesSummary(summarizer.recordCount, summarizer.mismatchCount);
+  }
+
+  private ChunkResult waitForChunk(Future<ChunkResult> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException intExc) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for comparison results");
+    } catch (ExecutionException execExc) {
+      if (execExc.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) execExc.getCause();
+      } else if (execExc.getCause() instanceof Error) {
+        throw (Error) execExc.getCause();
+      }
+
+      throw new IllegalStateException("comparison of records failed", execExc.getCause());
+    }
+  }
+
+  /**
+   * Compare each of the records in the given chunk, which starts at the start of a line and ends
+   * at the end of a line.
+   */
+  private ChunkResult compareChunk(JsonComparatorCompiledSpecification compiledSpec,
+                                   ByteBuffer chunk) {
+
+    ChunkResult result = new ChunkResult();
+
+    int lineStart = chunk.position();
+    int chunkEnd = chunk.limit();
+
+    while (lineStart < chunkEnd) {
+      int lineEnd = lineStart;
+      while ((lineEnd < chunkEnd) && (chunk.get(lineEnd) != '\n')) {
+        lineEnd++;
+      }
+
+      int recordEnd = lineEnd;
+      if ((recordEnd > lineStart) && (chunk.get(recordEnd - 1) == '\r')) {
+        recordEnd--;
+      }
+
+      if (!isBlank(chunk, lineStart, recordEnd)) {
+        ByteBuffer record = chunk.duplicate();
+        record.limit(recordEnd);
+        record.position(lineStart);
+
+        result.add(result.lineCount, this.compareRecord(compiledSpec, record));
+      }
+
+      result.lineCount++;
+      lineStart = lineEnd + 1;
+    }
+
+    return result;
+  }
+
+  private JsonComparatorResult compareRecord(JsonComparatorCompiledSpecification compiledSpec,
+                                             ByteBuffer record) {
+    try {
+      return this.comparator.compare(compiledSpec, record);
+    } catch (JsonParseException parseExc) {
+      return JsonComparatorResult.mismatch(false, "invalid json: " + parseExc.getMessage(), "$");
+    }
+  }
+
+  private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+    for (int cur = start; cur < end; cur++) {
+      byte oneByte = buffer.get(cur);
+
+      if ((oneByte != ' ') && (oneByte != '\t') && (oneByte != '\r')) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Results of the records of one chunk, with the number of each record's line within the chunk.
+   */
+  private static class ChunkResult {
+    private int lineCount;
+    private int[] recordLines = new int[64];
+    private final List<JsonComparatorResult> recordResults = new ArrayList<>();
+
+    private void add(int line, JsonComparatorResult result) {
+      if (this.recordResults.size() == this.recordLines.length) {
+        this.recordLines = Arrays.copyOf(this.recordLines, this.recordLines.length * 2);
+      }
+
+      this.recordLines[this.recordResults.size()] = line;
+      this.recordResults.add(result);
+    }
+  }
+
+  /**
+   * Hands the results of chunks, in order, to the result handler while counting them.
+   */
+  private static class Summarizer {
+    private final JsonLinesResultHandler resultHandler;
+
+    private long lineCount;
+    private long recordCount;
+    private long mismatchCount;
+
+    Summarizer(JsonLinesResultHandler resultHandler) {
+      this.resultHandler = resultHandler;
+    }
+
+    private void handleChunkResult(ChunkResult chunkResult) {
+      for (int cur = 0; cur < chunkResult.recordResults.size(); cur++) {
+        JsonComparatorResult result = chunkResult.recordResults.get(cur);
+
+        this.recordCount++;
+        if (!result.isMatch()) {
+          this.mismatchCount++;
+        }
+
+        this.resultHandler.handleResult(this.lineCount + chunkResult.recordLines[cur] + 1, result);
+      }
+
+      this.lineCount += chunkResult.lineCount;
+    }
+  }
+
+  /**
+   * Source of the chunks of input, each of which starts at the start of a line and ends at the end
+   * of a line.
+   */
+  private interface ChunkSource {
+
+    /**
+     * Obtain the next chunk of input.
+     *
+     * @return the chunk, from its position to its limit; null at the end of the input.
+     */
+    ByteBuffer nextChunk() throws IOException;
+  }
+
+  /**
+   * Source of chunks which maps a file into memory, a region at a time.
+   */
+  private static class MappedFileChunkSource implements ChunkSource {
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final long fileSize;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long position;
+
+    MappedFileChunkSource(FileChannel channel, int chunkSize) throws IOException {
+      this.channel = channel;
+      this.chunkSize = chunkSize;
+      this.fileSize = channel.size();
+    }
+
+    @Override
+    public ByteBuffer nextChunk() throws IOException {
+      if (this.position >= this.fileSize) {
+        return null;
+      }
+
+      if ((this.region == null) || (this.position >= this.regionStart + this.region.limit())) {
+        this.mapRegion();
+      }
+
+      int start = (int) (this.position - this.regionStart);
+      int end = this.findChunkEnd(start);
+
+      //
+      // A line continuing beyond the end of the region starts the next region instead.
+      //
+      while ((this.regionStart + this.region.limit() < this.fileSize)
+             && (this.region.get(end - 1) != '\n')) {
+
+        if (start == 0) {
+          throw new IOException("line at offset " + this.position + " is longer than "
+                                + MAX_MAPPED_REGION_SIZE + " bytes");
+        }
+
+        this.mapRegion();
+        start = 0;
+        end = this.findChunkEnd(start);
+      }
+
+      ByteBuffer result = this.region.duplicate();
+      result.limit(end);
+      result.position(start);
+
+      this.position = this.regionStart + end;
+
+      return result.slice();
+    }
+
+    private void mapRegion() throws IOException {
+      long size = Math.min(this.fileSize - this.position, MAX_MAPPED_REGION_SIZE);
+
+      this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+      this.regionStart = this.position;
+    }
+
+    /**
+     * Find the end of the chunk starting at the given offset in the region: the end of the line
+     * that contains the chunk's last byte, or the end of the region.
+     */
+    private int findChunkEnd(int start) {
+      int regionEnd = this.region.limit();
+      int end = (int) Math.min((long) start + this.chunkSize, regionEnd);
+
+      while ((end < regionEnd) && (this.region.get(end - 1) != '\n')) {
+        end++;
+      }
+
+      return end;
+    }
+  }
+
+  /**
+   * Source of chunks read from a stream, each copied into its own array.
+   */
+  private static class StreamChunkSource implements ChunkSource {
+    private final InputStream input;
+    private final int chunkSize;
+
+    /**
+     * Bytes read following the end of the previous chunk.
+     */
+    private byte[] carried = new byte[0];
+
+    StreamChunkSource(InputStream input, int chunkSize) {
+      this.input = input;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ByteBuffer nextChunk() throws IOException {
+      byte[] buffer = Arrays.copyOf(this.carried, Math.max(this.chunkSize, this.carried.length));
+      int filled = this.carried.length;
+      this.carried = new byte[0];
+
+      while (true) {
+        int count = this.input.read(buffer, filled, buffer.length - filled);
+
+        if (count < 0) {
+          return (filled == 0) ? null : ByteBuffer.wrap(buffer, 0, filled);
+        }
+
+        filled += count;
+
+        if (filled == buffer.length) {
+          int lastNewline = filled - 1;
+          while ((lastNewline >= 0) && (buffer[lastNewline] != '\n')) {
+            lastNewline--;
+          }
+
+          if (lastNewline >= 0) {
+            this.carried = Arrays.copyOfRange(buffer, lastNewline + 1, filled);
+            return ByteBuffer.wrap(buffer, 0, lastNewline + 1);
+          }
+
+          // A single line fills the buffer; make room for the rest of it
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+      }
+    }
+  }
+}
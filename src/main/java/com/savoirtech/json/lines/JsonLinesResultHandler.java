@@ -0,0 +1,35 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.lines;
+
+import com.savoirtech.json.JsonComparatorResult;
+
+/**
+ * Handler of the results of a JSON Lines comparison, which receives the result of every record in
+ * the order of the records in the input.  Handlers are called on the thread running the
+ * comparison, one result at a time.
+ */
+public interface JsonLinesResultHandler {
+
+  /**
+   * Handle the result of one record.
+   *
+   * @param lineNumber number of the record's line in the input, starting at 1.
+   * @param result     result of the record's comparison.
+   */
+  void handleResult(long lineNumber, JsonComparatorResult result);
+}
@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.lines;
+
+/**
+ * Summary of a JSON Lines comparison.
+ */
+public class JsonLinesSummary {
+
+  private final long recordCount;
+  private final long mismatchCount;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  public JsonLinesSummary(long recordCount, long mismatchCount) {
+    this.recordCount = recordCount;
+    this.mismatchCount = mismatchCount;
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  /**
+   * Obtain the number of records compared; blank lines are not records.
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  public long getMismatchCount() {
+    return mismatchCount;
+  }
+
+  @Override
+  public String toString() {
+    return "records=" + recordCount + "; mismatches=" + mismatchCount;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.metrics;
+
+/**
+ * Listener notified with the metrics of each compilation and comparison performed by a
+ * JsonComparator.  Register one through JsonComparatorBuilder.withMetricsListener().
+ *
+ * When the listener is NO_OP, the default, no metrics are gathered at all: no clocks are read and
+ * no nodes are counted, unless Flight Recorder is recording comparison events, which carry the
+ * same metrics.  Listeners are called on the thread performing the work, so they must be
+ * thread-safe when the comparator is shared, and should be quick.
+ */
+public interface JsonComparatorMetricsListener {
+
+  /**
+   * Listener ignoring all metrics, which disables their collection.
+   */
+  JsonComparatorMetricsListener NO_OP = new JsonComparatorMetricsListener() {
+  };
+
+  /**
+   * Called after JsonComparator.compile() compiles a specification given by the caller.
+   *
+   * @param metrics timings of the specification parse and rule compile phases.
+   */
+  default void onCompile(JsonComparisonMetrics metrics) {
+  }
+
+  /**
+   * Called after each comparison, including those which end in an exception.  Compilation of a
+   * specification for the comparison, such as on a miss of the specification cache, is included.
+   *
+   * @param metrics timings of the phases of the comparison, counts of the nodes visited and rules
+   *                invoked, and the result.
+   */
+  default void onComparison(JsonComparisonMetrics metrics) {
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.metrics;
+
+/**
+ * Phases of the work of a comparison, each timed separately when metrics are enabled.
+ */
+public enum JsonComparatorPhase {
+  /**
+   * Parsing the comparison specification, including its template JSON.
+   */
+  SPECIFICATION_PARSE,
+
+  /**
+   * Resolving the rules of the specification and compiling their selectors.
+   */
+  RULE_COMPILE,
+
+  /**
+   * Parsing the actual JSON into a tree; streaming comparisons parse as they compare, so their
+   * parsing is part of the comparison phase instead.
+   */
+  ACTUAL_PARSE,
+
+  /**
+   * Walking and comparing the actual JSON against the template.
+   */
+  COMPARISON
+}
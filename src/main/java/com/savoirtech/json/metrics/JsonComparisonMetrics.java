@@ -0,0 +1,193 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.metrics;
+
+import com.savoirtech.json.JsonComparatorResult;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics gathered for one compilation or comparison: the time spent in each phase, the number of
+ * nodes of the actual JSON visited, the number of times each rule action was invoked, and the
+ * outcome.
+ *
+ * Nodes and rule invocations may be counted from several threads at once, as by comparisons in
+ * parallel; the phase timings and outcome are recorded by the thread performing the comparison.
+ */
+public class JsonComparisonMetrics {
+
+  private final long[] phaseNanos = new long[JsonComparatorPhase.values().length];
+  private final LongAdder nodeCount = new LongAdder();
+  private final ConcurrentMap<String, LongAdder> ruleInvocations = new ConcurrentHashMap<>();
+
+  private String specificationId;
+  private long actualSize = -1;
+
+  private JsonComparatorResult result;
+  private RuntimeException failure;
+
+//========================================
+// Getters and Setters
+//----------------------------------------
+
+  /**
+   * Obtain the identifier of the specification compared against: the hash of the specification
+   * text, in hex, or the identity of the compiled specification, as "compiled@" and its identity
+   * hash in hex.
+   *
+   * @return the identifier; null for a compilation.
+   */
+  public String getSpecificationId() {
+    return specificationId;
+  }
+
+  public void setSpecificationId(String specificationId) {
+    this.specificationId = specificationId;
+  }
+
+  /**
+   * Obtain the length of the actual JSON, in the characters or bytes given.
+   *
+   * @return the length; -1 when unknown, as for JSON given as a tree or read through a Reader.
+   */
+  public long getActualSize() {
+    return actualSize;
+  }
+
+  public void setActualSize(long actualSize) {
+    this.actualSize = actualSize;
+  }
+
+  /**
+   * Obtain the time spent in the given phase.
+   *
+   * @return the time, in nanoseconds; 0 if the phase was not part of the work.
+   */
+  public long getPhaseNanos(JsonComparatorPhase phase) {
+    return this.phaseNanos[phase.ordinal()];
+  }
+
+  /**
+   * Obtain the time spent in all of the phases.
+   */
+  public long getTotalNanos() {
+    long total = 0;
+    for (long nanos : this.phaseNanos) {
+      total += nanos;
+    }
+
+    return total;
+  }
+
+  /**
+   * Obtain the number of nodes of the actual JSON visited by the walk.  Objects and arrays matched
+   * in a single equality check, with no rules applying within, count as one node.
+   */
+  public long getNodeCount() {
+    return this.nodeCount.sum();
+  }
+
+  /**
+   * Obtain the number of times rules of the given action were invoked.
+   */
+  public long getRuleInvocationCount(String action) {
+    LongAdder count = this.ruleInvocations.get(action);
+
+    return (count == null) ? 0 : count.sum();
+  }
+
+  /**
+   * Obtain the number of times rules of any action were invoked.
+   */
+  public long getRuleInvocationTotal() {
+    long total = 0;
+    for (LongAdder count : this.ruleInvocations.values()) {
+      total += count.sum();
+    }
+
+    return total;
+  }
+
+  /**
+   * Obtain the number of times rules of each action were invoked.
+   *
+   * @return a copy of the counts, keyed by action in alphabetical order.
+   */
+  public Map<String, Long> getRuleInvocationCounts() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<String, LongAdder> entry : this.ruleInvocations.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().sum());
+    }
+
+    return result;
+  }
+
+  /**
+   * Obtain the result of the comparison.
+   *
+   * @return the result; null for a compilation, or a comparison that ended in an exception.
+   */
+  public JsonComparatorResult getResult() {
+    return result;
+  }
+
+  public void setResult(JsonComparatorResult result) {
+    this.result = result;
+  }
+
+  /**
+   * Obtain the exception which ended the compilation or comparison.
+   *
+   * @return the exception; null if the work completed.
+   */
+  public RuntimeException getFailure() {
+    return failure;
+  }
+
+  public void setFailure(RuntimeException failure) {
+    this.failure = failure;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Add the given time to the time spent in the given phase.
+   */
+  public void addPhaseNanos(JsonComparatorPhase phase, long nanos) {
+    this.phaseNanos[phase.ordinal()] += nanos;
+  }
+
+  public void countNode() {
+    this.nodeCount.increment();
+  }
+
+  public void countRuleInvocation(String action) {
+    LongAdder count = this.ruleInvocations.get(action);
+    if (count == null) {
+      count = this.ruleInvocations.computeIfAbsent(action, key -> new LongAdder());
+    }
+
+    count.increment();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Adapter for trees of Gson JsonElements, the comparator's own model.
+ */
+public class GsonNodeAdapter implements JsonNodeAdapter<JsonElement> {
+
+  public static final GsonNodeAdapter INSTANCE = new GsonNodeAdapter();
+
+//========================================
+// Public API
+//----------------------------------------
+
+  @Override
+  public JsonNodeType getType(JsonElement node) {
+    if ((node == null) || (node.isJsonNull())) {
+      return JsonNodeType.NULL;
+    } else if (node.isJsonObject()) {
+      return JsonNodeType.OBJECT;
+    } else if (node.isJsonArray()) {
+      return JsonNodeType.ARRAY;
+    }
+
+    JsonPrimitive primitive = node.getAsJsonPrimitive();
+    if (primitive.isBoolean()) {
+      return JsonNodeType.BOOLEAN;
+    } else if (primitive.isNumber()) {
+      return JsonNodeType.NUMBER;
+    }
+
+    return JsonNodeType.STRING;
+  }
+
+  @Override
+  public Iterator<Map.Entry<String, JsonElement>> fieldIterator(JsonElement node) {
+    return node.getAsJsonObject().entrySet().iterator();
+  }
+
+  @Override
+  public Iterator<JsonElement> elementIterator(JsonElement node) {
+    return node.getAsJsonArray().iterator();
+  }
+
+  @Override
+  public String getString(JsonElement node) {
+    return node.getAsString();
+  }
+
+  @Override
+  public String getNumber(JsonElement node) {
+    return node.getAsString();
+  }
+
+  @Override
+  public boolean getBoolean(JsonElement node) {
+    return node.getAsBoolean();
+  }
+}
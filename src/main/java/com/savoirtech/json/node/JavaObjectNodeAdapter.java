@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adapter for JSON held as plain Java objects, the compact model produced by many JSON libraries
+ * and by JsonPath: objects are Maps with String keys, arrays are Lists, strings are CharSequences,
+ * numbers are Numbers, booleans are Booleans and null is null.  No other types are accepted, so
+ * application objects must be converted to this form before comparison.
+ */
+public class JavaObjectNodeAdapter implements JsonNodeAdapter<Object> {
+
+  public static final JavaObjectNodeAdapter INSTANCE = new JavaObjectNodeAdapter();
+
+//========================================
+// Public API
+//----------------------------------------
+
+  @Override
+  public JsonNodeType getType(Object node) {
+    if (node == null) {
+      return JsonNodeType.NULL;
+    } else if (node instanceof Map) {
+      return JsonNodeType.OBJECT;
+    } else if (node instanceof List) {
+      return JsonNodeType.ARRAY;
+    } else if (node instanceof CharSequence) {
+      return JsonNodeType.STRING;
+    } else if (node instanceof Number) {
+      return JsonNodeType.NUMBER;
+    } else if (node instanceof Boolean) {
+      return JsonNodeType.BOOLEAN;
+    }
+
+    throw new IllegalArgumentException("not a json node: type=" + node.getClass().getName());
+  }
+
+  @Override
+  public Iterator<Map.Entry<String, Object>> fieldIterator(Object node) {
+    final Iterator<? extends Map.Entry<?, ?>> entries = ((Map<?, ?>) node).entrySet().iterator();
+
+    return new Iterator<Map.Entry<String, Object>>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public Map.Entry<String, Object> next() {
+        Map.Entry<?, ?> entry = entries.next();
+
+        return new AbstractMap.SimpleImmutableEntry<String, Object>(String.valueOf(entry.getKey()),
+                                                                    entry.getValue());
+      }
+    };
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterator<Object> elementIterator(Object node) {
+    return ((List<Object>) node).iterator();
+  }
+
+  @Override
+  public String getString(Object node) {
+    return node.toString();
+  }
+
+  @Override
+  public String getNumber(Object node) {
+    return node.toString();
+  }
+
+  @Override
+  public boolean getBoolean(Object node) {
+    return (Boolean) node;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Adapter giving the comparator read access to the nodes of a JSON tree of any model, so trees
+ * already held by the caller can be compared without first converting them to Gson's JsonElement.
+ * Adapters are stateless and safe to share between threads.
+ *
+ * @param <N> type of the nodes of the tree.
+ */
+public interface JsonNodeAdapter<N> {
+
+  /**
+   * Determine the type of the given node.
+   *
+   * @param node node of the tree; may be null, which is a null node for models without one.
+   * @return the type of the node.
+   * @throws IllegalArgumentException if the node is not part of a JSON tree of this model.
+   */
+  JsonNodeType getType(N node);
+
+  /**
+   * Iterate the fields of the given object node, in the object's order.
+   *
+   * @param node node of type OBJECT.
+   * @return iterator of the names and values of the object's fields.
+   */
+  Iterator<Map.Entry<String, N>> fieldIterator(N node);
+
+  /**
+   * Iterate the elements of the given array node, in order.
+   *
+   * @param node node of type ARRAY.
+   * @return iterator of the array's elements.
+   */
+  Iterator<N> elementIterator(N node);
+
+  /**
+   * Obtain the value of the given string node.
+   *
+   * @param node node of type STRING.
+   * @return the string value.
+   */
+  String getString(N node);
+
+  /**
+   * Obtain the value of the given number node as JSON number text, such as "12" or "1.5E3".
+   *
+   * @param node node of type NUMBER.
+   * @return text of the number.
+   */
+  String getNumber(N node);
+
+  /**
+   * Obtain the value of the given boolean node.
+   *
+   * @param node node of type BOOLEAN.
+   * @return the boolean value.
+   */
+  boolean getBoolean(N node);
+}
@@ -0,0 +1,323 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON reader over the nodes of a tree of any model, read through a JsonNodeAdapter, so trees can be
+ * compared with the same streaming walk used for JSON text.  The reader walks the tree in place;
+ * nothing is copied except the values of the nodes read.
+ *
+ * @param <N> type of the nodes of the tree.
+ */
+public class JsonNodeReader<N> extends JsonReader {
+
+  private static final Reader UNREADABLE_READER = new Reader() {
+    @Override
+    public int read(char[] buffer, int offset, int count) throws IOException {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void close() throws IOException {
+      throw new AssertionError();
+    }
+  };
+
+  private final JsonNodeAdapter<N> adapter;
+
+  /**
+   * Open frames of the walk, innermost last: the node to read next, if any, above the objects and
+   * arrays containing it.
+   */
+  private final List<Frame<N>> frames = new ArrayList<>();
+  private boolean closed;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a reader of the tree with the given root.
+   *
+   * @param root    root node of the tree; null is read as a null node.
+   * @param adapter adapter for the model of the tree.
+   */
+  public JsonNodeReader(N root, JsonNodeAdapter<N> adapter) {
+    super(UNREADABLE_READER);
+
+    this.adapter = adapter;
+    this.frames.add(new Frame<N>(root));
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  @Override
+  public JsonToken peek() throws IOException {
+    while (true) {
+      Frame<N> top = this.top();
+
+      if (top == null) {
+        return JsonToken.END_DOCUMENT;
+      }
+
+      if (top.fields != null) {
+        if ((top.nextField == null) && (top.fields.hasNext())) {
+          top.nextField = top.fields.next();
+        }
+
+        if (top.nextField != null) {
+          return JsonToken.NAME;
+        }
+
+        return JsonToken.END_OBJECT;
+      }
+
+      if (top.elements != null) {
+        if (!top.elements.hasNext()) {
+          return JsonToken.END_ARRAY;
+        }
+
+        // Read the element next
+        this.frames.add(new Frame<N>(top.elements.next()));
+        continue;
+      }
+
+      switch (this.adapter.getType(top.node)) {
+        case OBJECT:
+          return JsonToken.BEGIN_OBJECT;
+
+        case ARRAY:
+          return JsonToken.BEGIN_ARRAY;
+
+        case STRING:
+          return JsonToken.STRING;
+
+        case NUMBER:
+          return JsonToken.NUMBER;
+
+        case BOOLEAN:
+          return JsonToken.BOOLEAN;
+
+        default:
+          return JsonToken.NULL;
+      }
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    JsonToken token = this.peek();
+
+    return ((token != JsonToken.END_OBJECT) && (token != JsonToken.END_ARRAY));
+  }
+
+  @Override
+  public void beginObject() throws IOException {
+    N node = this.popNode(JsonToken.BEGIN_OBJECT);
+
+    Frame<N> frame = new Frame<N>(null);
+    frame.fields = this.adapter.fieldIterator(node);
+    this.frames.add(frame);
+  }
+
+  @Override
+  public void endObject() throws IOException {
+    this.expect(JsonToken.END_OBJECT);
+    this.frames.remove(this.frames.size() - 1);
+  }
+
+  @Override
+  public void beginArray() throws IOException {
+    N node = this.popNode(JsonToken.BEGIN_ARRAY);
+
+    Frame<N> frame = new Frame<N>(null);
+    frame.elements = this.adapter.elementIterator(node);
+    this.frames.add(frame);
+  }
+
+  @Override
+  public void endArray() throws IOException {
+    this.expect(JsonToken.END_ARRAY);
+    this.frames.remove(this.frames.size() - 1);
+  }
+
+  @Override
+  public String nextName() throws IOException {
+    this.expect(JsonToken.NAME);
+
+    Frame<N> top = this.top();
+    Map.Entry<String, N> field = top.nextField;
+    top.nextField = null;
+
+    // Read the field's value next
+    this.frames.add(new Frame<N>(field.getValue()));
+
+    return field.getKey();
+  }
+
+  @Override
+  public String nextString() throws IOException {
+    JsonToken token = this.peek();
+
+    if (token == JsonToken.STRING) {
+      return this.adapter.getString(this.popNode(token));
+    } else if (token == JsonToken.NUMBER) {
+      return this.adapter.getNumber(this.popNode(token));
+    }
+
+    throw new IllegalStateException("Expected " + JsonToken.STRING + " but was " + token);
+  }
+
+  @Override
+  public boolean nextBoolean() throws IOException {
+    return this.adapter.getBoolean(this.popNode(JsonToken.BOOLEAN));
+  }
+
+  @Override
+  public void nextNull() throws IOException {
+    this.popNode(JsonToken.NULL);
+  }
+
+  @Override
+  public double nextDouble() throws IOException {
+    return Double.parseDouble(this.nextNumberText());
+  }
+
+  @Override
+  public long nextLong() throws IOException {
+    String text = this.nextNumberText();
+
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException nfExc) {
+      return new BigDecimal(text).longValueExact();
+    }
+  }
+
+  @Override
+  public int nextInt() throws IOException {
+    long result = this.nextLong();
+
+    if ((int) result != result) {
+      throw new NumberFormatException("Expected an int but was " + result);
+    }
+
+    return (int) result;
+  }
+
+  /**
+   * Skip the next value, including all of its contents; a field name is skipped on its own, as
+   * Gson's tree reader does.
+   */
+  @Override
+  public void skipValue() throws IOException {
+    JsonToken token = this.peek();
+
+    if (token == JsonToken.NAME) {
+      this.nextName();
+    } else if ((token == JsonToken.END_OBJECT) || (token == JsonToken.END_ARRAY)
+               || (token == JsonToken.END_DOCUMENT)) {
+      throw new IllegalStateException("Expected a value but was " + token);
+    } else {
+      this.frames.remove(this.frames.size() - 1);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.frames.clear();
+    this.closed = true;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName();
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  private Frame<N> top() {
+    if (this.closed) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+
+    if (this.frames.isEmpty()) {
+      return null;
+    }
+
+    return this.frames.get(this.frames.size() - 1);
+  }
+
+  private void expect(JsonToken expected) throws IOException {
+    JsonToken token = this.peek();
+
+    if (token != expected) {
+      throw new IllegalStateException("Expected " + expected + " but was " + token);
+    }
+  }
+
+  private N popNode(JsonToken expected) throws IOException {
+    this.expect(expected);
+
+    return this.frames.remove(this.frames.size() - 1).node;
+  }
+
+  private String nextNumberText() throws IOException {
+    JsonToken token = this.peek();
+
+    if (token == JsonToken.NUMBER) {
+      return this.adapter.getNumber(this.popNode(token));
+    } else if (token == JsonToken.STRING) {
+      return this.adapter.getString(this.popNode(token));
+    }
+
+    throw new IllegalStateException("Expected " + JsonToken.NUMBER + " but was " + token);
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Frame of the walk: a node yet to be read, or an object or array being read.
+   */
+  private static class Frame<N> {
+    private final N node;
+    private Iterator<Map.Entry<String, N>> fields;
+    private Map.Entry<String, N> nextField;
+    private Iterator<N> elements;
+
+    Frame(N node) {
+      this.node = node;
+    }
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact, read-only form of a parsed JSON document: the document's tokens in order, held in flat
+ * primitive arrays, with the text of all names, strings and numbers in a single shared character
+ * array.  There is no object per node, so a large document takes little more memory than its text,
+ * where a tree of JsonElements takes many times more.
+ *
+ * Each token is an entry of the tape.  Objects and arrays have a begin entry, holding the index of
+ * the matching end entry and the number of fields or elements, so whole values are skipped in one
+ * step; names, strings and numbers hold the offset and length of their text; booleans hold their
+ * value.  Field names that repeat share their text.
+ *
+ * Instances are immutable and safe to share between threads.  Use newReader() to walk the tape.
+ */
+public class JsonTape {
+
+  private static final JsonToken[] TOKENS = JsonToken.values();
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final byte[] tokens;
+  private final int[] offsets;
+  private final int[] lengths;
+  private final int size;
+  private final char[] text;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  private JsonTape(byte[] tokens, int[] offsets, int[] lengths, int size, char[] text) {
+    this.tokens = tokens;
+    this.offsets = offsets;
+    this.lengths = lengths;
+    this.size = size;
+    this.text = text;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Parse the JSON text from the given reader, leniently, as JsonTreeParser does.
+   *
+   * @param json reader of the JSON text to parse; it is not closed.
+   * @return the parsed tape; a single null for an empty document.
+   * @throws JsonSyntaxException if the text is not valid JSON.
+   * @throws JsonIOException     if the reader fails.
+   */
+  public static JsonTape parse(Reader json) {
+    JsonReader jsonReader = new JsonReader(json);
+    jsonReader.setLenient(true);
+
+    return parse(jsonReader);
+  }
+
+  /**
+   * Parse the JSON document from the given JSON reader, which must be positioned at the start of
+   * the document.
+   *
+   * @param jsonReader reader of the JSON document to parse.
+   * @return the parsed tape; a single null for an empty document.
+   * @throws JsonSyntaxException if the text is not valid JSON.
+   * @throws JsonIOException     if the reader fails.
+   */
+  public static JsonTape parse(JsonReader jsonReader) {
+    try {
+      Builder builder = new Builder();
+
+      try {
+        jsonReader.peek();
+      } catch (EOFException eofExc) {
+        // An empty document is read as null
+        builder.add(JsonToken.NULL, 0, 0);
+        return builder.build();
+      }
+
+      builder.read(jsonReader);
+
+      if ((builder.tokens[0] != JsonToken.NULL.ordinal())
+          && (jsonReader.peek() != JsonToken.END_DOCUMENT)) {
+        throw new JsonSyntaxException("Did not consume the entire document.");
+      }
+
+      return builder.build();
+    } catch (MalformedJsonException | EOFException | NumberFormatException exc) {
+      throw new JsonSyntaxException(exc);
+    } catch (IOException ioExc) {
+      throw new JsonIOException(ioExc);
+    }
+  }
+
+  /**
+   * Create a reader of the tokens of the tape.  Any number of readers may read the same tape at
+   * once.
+   *
+   * @return the new reader, positioned at the start of the document.
+   */
+  public JsonReader newReader() {
+    return new JsonTapeReader(this);
+  }
+
+  /**
+   * Obtain the number of entries of the tape.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Obtain the number of characters of text held for names, strings and numbers.
+   */
+  public int getTextLength() {
+    return text.length;
+  }
+
+//========================================
+// Package Internals
+//----------------------------------------
+
+  JsonToken getToken(int entry) {
+    return TOKENS[this.tokens[entry]];
+  }
+
+  /**
+   * Obtain the index of the end entry matching the begin entry of an object or array.
+   */
+  int getEndEntry(int entry) {
+    return this.offsets[entry];
+  }
+
+  /**
+   * Obtain the number of fields of an object, or elements of an array.
+   */
+  int getChildCount(int entry) {
+    return this.lengths[entry];
+  }
+
+  String getText(int entry) {
+    return new String(this.text, this.offsets[entry], this.lengths[entry]);
+  }
+
+  boolean getBoolean(int entry) {
+    return (this.lengths[entry] != 0);
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Builder of a tape from the tokens of a JSON reader.
+   */
+  private static class Builder {
+    private byte[] tokens = new byte[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private char[] text = new char[INITIAL_CAPACITY];
+    private int textLength;
+    private final Map<String, Integer> nameOffsets = new HashMap<>();
+
+    /**
+     * Begin entries of the objects and arrays being read, innermost last.
+     */
+    private int[] openEntries = new int[INITIAL_CAPACITY];
+    private int openCount;
+
+    /**
+     * Read the next JSON value, of any depth, from the given reader.
+     */
+    void read(JsonReader jsonReader) throws IOException {
+      do {
+        JsonToken token = jsonReader.peek();
+
+        // Count the value in the object or array containing it
+        if ((this.openCount > 0) && (token != JsonToken.END_OBJECT)
+            && (token != JsonToken.END_ARRAY) && (token != JsonToken.NAME)) {
+          this.lengths[this.openEntries[this.openCount - 1]]++;
+        }
+
+        switch (token) {
+          case BEGIN_OBJECT:
+            jsonReader.beginObject();
+            this.open(this.add(token, 0, 0));
+            break;
+
+          case BEGIN_ARRAY:
+            jsonReader.beginArray();
+            this.open(this.add(token, 0, 0));
+            break;
+
+          case END_OBJECT:
+            jsonReader.endObject();
+            this.close(token);
+            break;
+
+          case END_ARRAY:
+            jsonReader.endArray();
+            this.close(token);
+            break;
+
+          case NAME:
+            this.addName(jsonReader.nextName());
+            break;
+
+          case STRING:
+          case NUMBER:
+            this.addText(token, jsonReader.nextString());
+            break;
+
+          case BOOLEAN:
+            this.add(token, 0, jsonReader.nextBoolean() ? 1 : 0);
+            break;
+
+          case NULL:
+            jsonReader.nextNull();
+            this.add(token, 0, 0);
+            break;
+
+          default:
+            throw new IllegalArgumentException("unexpected token " + token);
+        }
+      } while (this.openCount > 0);
+    }
+
+    JsonTape build() {
+      return new JsonTape(Arrays.copyOf(this.tokens, this.size),
+                          Arrays.copyOf(this.offsets, this.size),
+                          Arrays.copyOf(this.lengths, this.size), this.size,
+                          Arrays.copyOf(this.text, this.textLength));
+    }
+
+    private int add(JsonToken token, int offset, int length) {
+      if (this.size == this.tokens.length) {
+        int capacity = this.size * 2;
+        this.tokens = Arrays.copyOf(this.tokens, capacity);
+        this.offsets = Arrays.copyOf(this.offsets, capacity);
+        this.lengths = Arrays.copyOf(this.lengths, capacity);
+      }
+
+      this.tokens[this.size] = (byte) token.ordinal();
+      this.offsets[this.size] = offset;
+      this.lengths[this.size] = length;
+
+      return this.size++;
+    }
+
+    private void addName(String name) {
+      Integer offset = this.nameOffsets.get(name);
+
+      if (offset == null) {
+        offset = this.appendText(name);
+        this.nameOffsets.put(name, offset);
+      }
+
+      this.add(JsonToken.NAME, offset, name.length());
+    }
+
+    private void addText(JsonToken token, String value) {
+      this.add(token, this.appendText(value), value.length());
+    }
+
+    private int appendText(String value) {
+      int required = this.textLength + value.length();
+      if (required > this.text.length) {
+        this.text = Arrays.copyOf(this.text, Math.max(required, this.text.length * 2));
+      }
+
+      int result = this.textLength;
+      value.getChars(0, value.length(), this.text, result);
+      this.textLength = required;
+
+      return result;
+    }
+
+    private void open(int entry) {
+      if (this.openCount == this.openEntries.length) {
+        this.openEntries = Arrays.copyOf(this.openEntries, this.openCount * 2);
+      }
+
+      this.openEntries[this.openCount++] = entry;
+    }
+
+    private void close(JsonToken token) {
+      int beginEntry = this.openEntries[--this.openCount];
+
+      this.offsets[beginEntry] = this.add(token, beginEntry, 0);
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+
+/**
+ * JSON reader over the entries of a JsonTape.  The tape holds the document's tokens in order, so
+ * reading is a walk along the tape, and skipping an object or array jumps to its end.
+ */
+class JsonTapeReader extends JsonReader {
+
+  private static final Reader UNREADABLE_READER = new Reader() {
+    @Override
+    public int read(char[] buffer, int offset, int count) throws IOException {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void close() throws IOException {
+      throw new AssertionError();
+    }
+  };
+
+  private final JsonTape tape;
+  private int position;
+  private boolean closed;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  JsonTapeReader(JsonTape tape) {
+    super(UNREADABLE_READER);
+
+    this.tape = tape;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  @Override
+  public JsonToken peek() throws IOException {
+    if (this.closed) {
+      throw new IllegalStateException("JsonReader is closed");
+    }
+
+    if (this.position >= this.tape.size()) {
+      return JsonToken.END_DOCUMENT;
+    }
+
+    return this.tape.getToken(this.position);
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    JsonToken token = this.peek();
+
+    return ((token != JsonToken.END_OBJECT) && (token != JsonToken.END_ARRAY));
+  }
+
+  @Override
+  public void beginObject() throws IOException {
+    this.consume(JsonToken.BEGIN_OBJECT);
+  }
+
+  @Override
+  public void endObject() throws IOException {
+    this.consume(JsonToken.END_OBJECT);
+  }
+
+  @Override
+  public void beginArray() throws IOException {
+    this.consume(JsonToken.BEGIN_ARRAY);
+  }
+
+  @Override
+  public void endArray() throws IOException {
+    this.consume(JsonToken.END_ARRAY);
+  }
+
+  @Override
+  public String nextName() throws IOException {
+    return this.tape.getText(this.consume(JsonToken.NAME));
+  }
+
+  @Override
+  public String nextString() throws IOException {
+    JsonToken token = this.peek();
+
+    if ((token != JsonToken.STRING) && (token != JsonToken.NUMBER)) {
+      throw new IllegalStateException("Expected " + JsonToken.STRING + " but was " + token);
+    }
+
+    return this.tape.getText(this.consume(token));
+  }
+
+  @Override
+  public boolean nextBoolean() throws IOException {
+    return this.tape.getBoolean(this.consume(JsonToken.BOOLEAN));
+  }
+
+  @Override
+  public void nextNull() throws IOException {
+    this.consume(JsonToken.NULL);
+  }
+
+  @Override
+  public double nextDouble() throws IOException {
+    return Double.parseDouble(this.nextString());
+  }
+
+  @Override
+  public long nextLong() throws IOException {
+    String text = this.nextString();
+
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException nfExc) {
+      return new BigDecimal(text).longValueExact();
+    }
+  }
+
+  @Override
+  public int nextInt() throws IOException {
+    long result = this.nextLong();
+
+    if ((int) result != result) {
+      throw new NumberFormatException("Expected an int but was " + result);
+    }
+
+    return (int) result;
+  }
+
+  /**
+   * Skip the next value, including all of its contents, in one step; a field name is skipped on
+   * its own, as Gson's tree reader does.
+   */
+  @Override
+  public void skipValue() throws IOException {
+    JsonToken token = this.peek();
+
+    switch (token) {
+      case BEGIN_OBJECT:
+      case BEGIN_ARRAY:
+        this.position = this.tape.getEndEntry(this.position) + 1;
+        break;
+
+      case END_OBJECT:
+      case END_ARRAY:
+      case END_DOCUMENT:
+        throw new IllegalStateException("Expected a value but was " + token);
+
+      default:
+        this.position++;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + " at entry " + this.position;
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  private int consume(JsonToken expected) throws IOException {
+    JsonToken token = this.peek();
+
+    if (token != expected) {
+      throw new IllegalStateException("Expected " + expected + " but was " + token);
+    }
+
+    return this.position++;
+  }
+}
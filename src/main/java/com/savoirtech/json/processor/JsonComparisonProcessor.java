@@ -21,18 +21,30 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import com.jayway.jsonpath.Configuration;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorDifference;
+import com.savoirtech.json.jfr.JsonComparatorFlightRecorder;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.rules.JsonComparatorCompiledRule;
 import com.savoirtech.json.JsonComparatorResult;
 import com.savoirtech.json.rules.RuleChildComparator;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Stateful processor of a single comparison.
@@ -41,6 +53,16 @@ import java.util.stream.Collectors;
  */
 public class JsonComparisonProcessor {
 
+  /**
+   * Default minimum number of elements, or fields, of the arrays and objects compared in parallel.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+  /**
+   * Minimum number of elements, or fields, compared by each parallel task.
+   */
+  private static final int MIN_PARALLEL_TASK_SIZE = 16;
+
   private static final Logger
       DEFAULT_LOGGER =
       LoggerFactory.getLogger(JsonComparisonProcessor.class);
@@ -58,6 +80,12 @@ public class JsonComparisonProcessor {
    */
   private final JsonElement actualJson;
 
+  /**
+   * Compiled specification of the comparison, providing precomputed hashes of the template; null
+   * when comparing with rules that were not compiled in advance.
+   */
+  private final JsonComparatorCompiledSpecification compiledSpec;
+
   /**
    * Processor of rules for this comparison, responsible for compiling the rules and determining
    * which rule applies, if any, for each JSON path.
@@ -69,6 +97,77 @@ public class JsonComparisonProcessor {
    */
   private final MyChildRuleComparator childRuleComparator = new MyChildRuleComparator();
 
+  /**
+   * Segments of the path to the JSON elements currently being compared; path strings are only
+   * rendered from it when a rule or an error report needs one.
+   */
+  private final JsonPathSegmentStack pathStack = new JsonPathSegmentStack();
+
+  /**
+   * Checker used to match subtrees to which no rule applies without walking them in full.
+   */
+  private final JsonEqualityChecker equalityChecker = new JsonEqualityChecker();
+
+  /**
+   * Whether the rule processor needs the path string of every node in order to find the rules that
+   * apply, which is the case for rules whose selectors are evaluated with JsonPath.
+   */
+  private boolean renderPathForRules;
+
+  /**
+   * Maximum nesting of objects and arrays to walk; 0 = no limit.
+   */
+  private int maxDepth;
+
+  /**
+   * Frames of the objects and arrays currently being walked; reused as the walk moves through the
+   * JSON.
+   */
+  private WalkFrame[] frames = new WalkFrame[16];
+  private int frameCount;
+
+  /**
+   * Number of objects and arrays enclosing the JSON given to compareNode(), which count towards
+   * the maximum depth.
+   */
+  private int baseDepth;
+
+  /**
+   * Maximum number of differences to collect; 0 = stop at the first mismatch.
+   */
+  private int maxDifferences;
+
+  /**
+   * Differences collected so far; null when not collecting differences.
+   */
+  private List<JsonComparatorDifference> differences;
+
+  /**
+   * Number of rules currently executing.  Child comparisons requested by rules are probes whose
+   * mismatches the rule interprets itself, so they always stop at the first mismatch and never
+   * add to the collected differences.
+   */
+  private int ruleDepth;
+
+  /**
+   * Pool used to compare large arrays and objects in parallel; null to compare sequentially.
+   */
+  private ForkJoinPool forkJoinPool;
+
+  private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+  /**
+   * Metrics of the comparison to record nodes and rule invocations in; null when disabled.
+   */
+  private JsonComparisonMetrics metrics;
+
+  /**
+   * Parallel comparison of which this processor compares a part, and the position within it being
+   * compared; null when not part of one.
+   */
+  private final ParallelSplit parentSplit;
+  private int parentPosition;
+
 //========================================
 // Constructor
 //----------------------------------------
@@ -88,10 +187,51 @@ public class JsonComparisonProcessor {
 
     this.templateJson = templateJson;
     this.actualJson = actualJson;
+    this.compiledSpec = null;
+    this.parentSplit = null;
 
     this.ruleProcessor = new RuleProcessor(jsonPathConfiguration, rules, actualJson);
   }
 
+  /**
+   * Construct a comparison processor using the given json path configuration and compiled
+   * specification in order to compare the specification's template json to the actual json given.
+   *
+   * @param jsonPathConfiguration configuration to use with JsonPath.
+   * @param compiledSpec          compiled specification with the template JSON and rules.
+   * @param actualJson            actual JSON to compare.
+   */
+  public JsonComparisonProcessor(Configuration jsonPathConfiguration,
+                                 JsonComparatorCompiledSpecification compiledSpec,
+                                 JsonElement actualJson) {
+
+    this.templateJson = compiledSpec.getTemplateJson();
+    this.actualJson = actualJson;
+    this.compiledSpec = compiledSpec;
+    this.parentSplit = null;
+
+    this.ruleProcessor = new RuleProcessor(jsonPathConfiguration, compiledSpec, actualJson);
+  }
+
+  /**
+   * Construct a processor for part of a parallel comparison started by the given processor.  The
+   * rule processor is shared: it is fully initialized by then, and only read from.
+   */
+  private JsonComparisonProcessor(JsonComparisonProcessor parent, ParallelSplit parentSplit) {
+    this.templateJson = null;
+    this.actualJson = null;
+    this.compiledSpec = parent.compiledSpec;
+    this.parentSplit = parentSplit;
+
+    this.log = parent.log;
+    this.ruleProcessor = parent.ruleProcessor;
+    this.renderPathForRules = parent.renderPathForRules;
+    this.maxDepth = parent.maxDepth;
+    this.forkJoinPool = parent.forkJoinPool;
+    this.parallelThreshold = parent.parallelThreshold;
+    this.metrics = parent.metrics;
+  }
+
 //========================================
 // Getters and Setters
 //----------------------------------------
@@ -112,6 +252,79 @@ public class JsonComparisonProcessor {
     this.ruleProcessor = ruleProcessor;
   }
 
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Set the maximum nesting of objects and arrays to walk.  Comparisons of deeper JSON fail with
+   * an error at the path of the first object or array beyond the limit.
+   *
+   * @param maxDepth the maximum depth; 0 = no limit, which is the default.
+   */
+  public void setMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  public int getMaxDifferences() {
+    return maxDifferences;
+  }
+
+  /**
+   * Set the maximum number of differences to collect.  When greater than 0, the comparison
+   * continues past mismatches until that many differences are found, and the result lists them.
+   *
+   * @param maxDifferences the maximum number of differences; 0 = stop at the first mismatch,
+   *                       which is the default.
+   */
+  public void setMaxDifferences(int maxDifferences) {
+    this.maxDifferences = maxDifferences;
+  }
+
+  public ForkJoinPool getForkJoinPool() {
+    return forkJoinPool;
+  }
+
+  /**
+   * Set the pool used to compare the contents of large arrays and objects in parallel.  Parallel
+   * comparisons report the same result as sequential ones: the first mismatch in document order.
+   * Tasks comparing contents beyond a mismatch already found are cancelled.  Comparisons that
+   * collect differences are always sequential.
+   *
+   * @param forkJoinPool the pool; null to compare sequentially, which is the default.
+   */
+  public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
+  }
+
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * Set the minimum number of elements, or fields, of the arrays and objects compared in parallel
+   * when a fork/join pool is set.
+   *
+   * @param parallelThreshold the minimum size; defaults to DEFAULT_PARALLEL_THRESHOLD.
+   */
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  public JsonComparisonMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Set the metrics in which to record the time spent compiling rules and comparing, the nodes
+   * visited, and the rules invoked.
+   *
+   * @param metrics the metrics; null to record none, which is the default.
+   */
+  public void setMetrics(JsonComparisonMetrics metrics) {
+    this.metrics = metrics;
+  }
+
 //========================================
 // Public API
 //----------------------------------------
@@ -123,9 +336,76 @@ public class JsonComparisonProcessor {
    * failures.
    */
   public JsonComparatorResult executeComparison() {
+    long startNanos = 0;
+    if (this.metrics != null) {
+      startNanos = System.nanoTime();
+    }
+
     this.ruleProcessor.init();
 
-    return this.walkAndCompare("$", this.templateJson, this.actualJson);
+    if (this.metrics != null) {
+      long initNanos = System.nanoTime();
+      this.metrics.addPhaseNanos(JsonComparatorPhase.RULE_COMPILE, initNanos - startNanos);
+      startNanos = initNanos;
+    }
+
+    this.renderPathForRules = this.ruleProcessor.hasPathMappedRules();
+
+    if (this.maxDifferences > 0) {
+      this.differences = new ArrayList<>();
+    }
+
+    JsonComparatorResult result =
+        this.walkAndCompare(this.ruleProcessor.getRootPathState(), this.templateJson,
+                            this.actualJson);
+
+    if ((this.differences != null) && (!this.differences.isEmpty())) {
+      JsonComparatorDifference first = this.differences.get(0);
+
+      result = new JsonComparatorResult(result.isDeep(), false, first.getMessage(),
+                                        first.getPath(), this.differences);
+    }
+
+    if (this.metrics != null) {
+      this.metrics.addPhaseNanos(JsonComparatorPhase.COMPARISON, System.nanoTime() - startNanos);
+    }
+
+    return result;
+  }
+
+//========================================
+// Package Internals
+//----------------------------------------
+
+  /**
+   * Obtain the stack of path segments to the JSON being compared, for use by comparisons that
+   * walk part of the JSON themselves before handing nodes to compareNode().
+   */
+  JsonPathSegmentStack getPathStack() {
+    return pathStack;
+  }
+
+  /**
+   * Compare one node of a larger document, found at the path at the top of the path segment stack
+   * and enclosed in the given number of objects and arrays.  The rule processor must already be
+   * initialized.
+   *
+   * @param pathState   state of the rule path automaton at the node.
+   * @param depth       number of objects and arrays enclosing the node.
+   * @param templateEle the template, or expected, JSON at the node.
+   * @param actualEle   the actual JSON at the node.
+   * @return result of the comparison of the node, including its contents.
+   */
+  JsonComparatorResult compareNode(int pathState, int depth, JsonElement templateEle,
+                                   JsonElement actualEle) {
+
+    this.baseDepth = depth;
+
+    try {
+      return this.walkAndCompare(pathState, templateEle, actualEle);
+    } finally {
+      this.baseDepth = 0;
+    }
   }
 
 //========================================
@@ -133,197 +413,829 @@ public class JsonComparisonProcessor {
 //----------------------------------------
 
   /**
-   * Walk the JSON and compare the actual JSON to the template JSON, applying rules as-needed.
+   * Walk the JSON and compare the actual JSON to the template JSON, applying rules as-needed.  The
+   * path to the JSON elements given is the top of the path segment stack.
+   *
+   * The walk is iterative: each object and array being walked is tracked by a frame on the frame
+   * stack, so the depth of the JSON does not affect the depth of the Java call stack.  Only rules
+   * calling back into the child comparator nest calls to this method, and those calls continue on
+   * the same frame stack.
    *
-   * @param path        current path to the JSON elements given.
+   * @param pathState   state of the rule path automaton at this path.
    * @param templateEle the template, or expected, JSON at this path.
    * @param actualEle   the actual JSON at this path.
    * @return result indicating whether there is a match, and providing a description when there is a
    * mismatch.
    */
-  private JsonComparatorResult walkAndCompare(String path, JsonElement templateEle,
+  private JsonComparatorResult walkAndCompare(int pathState, JsonElement templateEle,
                                               JsonElement actualEle) {
 
+    int baseFrameCount = this.frameCount;
+
+    JsonComparatorResult result = this.visitNode(pathState, templateEle, actualEle, true);
+
+    while (this.frameCount > baseFrameCount) {
+      WalkFrame frame = this.frames[this.frameCount - 1];
+
+      //
+      // A non-null result here is the result of the frame's child most recently visited.
+      //
+      if (result != null) {
+        this.pathStack.pop();
+
+        if ((!result.isMatch()) && (frame.failure == null)) {
+          frame.failure = result;
+        }
+      }
+
+      if ((frame.failure != null) && (frame.isArray()) && (!this.isCollecting())) {
+        // No need to continue with the rest of the array
+        result = this.finishFrame();
+      } else if (frame.isArray()) {
+        result = this.nextArrayElement(frame);
+      } else {
+        result = this.nextObjectField(frame);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Compare the node at the top of the path segment stack, either with the rule that applies or
+   * with a shallow comparison.  Objects and arrays that still need to be walked have a frame pushed
+   * for them.
+   *
+   * Objects and arrays to which no rule applies, anywhere within, are first checked for equality
+   * in one tight pass, without building paths or looking up rules; only when they differ are they
+   * walked in full, to find and report the differences.  Since a walk in full is only needed after
+   * such a check failed, the nodes within are not checked again.
+   *
+   * @param checkEquality true = check the node for equality first, if no rule applies to it; false
+   *                      = the node is within a walk that follows a failed equality check.
+   * @return result of the comparison of the node; null if a frame was pushed and the result is not
+   * yet known.
+   */
+  private JsonComparatorResult visitNode(int pathState, JsonElement templateEle,
+                                         JsonElement actualEle, boolean checkEquality) {
+
+    if (this.metrics != null) {
+      this.metrics.countNode();
+    }
+
+    if ((checkEquality) && ((actualEle.isJsonObject()) || (actualEle.isJsonArray()))
+        && (!this.isParallel(actualEle)) && (this.ruleProcessor.isRuleFree(pathState))
+        && (this.isEqual(templateEle, actualEle))) {
+
+      return JsonComparatorResult.DEEP_MATCH;
+    }
+
     JsonComparatorResult result;
 
-    // Find the rule that applies, if any
-    JsonComparatorCompiledRule rule = this.ruleProcessor.findMatchingRule(path);
+    // Find the rule that applies, if any; the path is only needed for rules located by JsonPath
+    String matchPath = null;
+    if (this.renderPathForRules) {
+      matchPath = this.pathStack.render();
+    }
+
+    JsonComparatorCompiledRule rule = this.ruleProcessor.findMatchingRule(pathState, matchPath);
 
     if (rule != null) {
-      result = rule.compare(path, templateEle, actualEle, this.childRuleComparator);
+      String path = (matchPath != null) ? matchPath : this.pathStack.render();
+
+      result =
+          this.childRuleComparator.compareWithRule(rule, path, pathState, templateEle, actualEle);
+
+      if (!result.isMatch()) {
+        String errorPath = (result.getErrorPath() != null) ? result.getErrorPath() : path;
+
+        this.recordDifference(errorPath, JsonComparatorDifference.Kind.RULE_MISMATCH, templateEle,
+                              actualEle, result.getErrorMessage());
+      }
     } else {
-      result = this.shallowCompareJsonElements(path, templateEle, actualEle);
+      result = this.shallowCompareJsonElements(templateEle, actualEle);
     }
 
-    // Make sure contents of objects and arrays are walked, as needed
+    //
+    // Make sure contents of objects and arrays are walked, as needed.  A rule may accept a node of
+    //  another type than the template's, and its contents cannot be walked against the template.
+    //
     if ((result.isMatch()) && (!result.isDeep())) {
       if (actualEle.isJsonObject()) {
-        result =
-            this.walkJsonObjectFields(path, templateEle.getAsJsonObject(),
-                                      actualEle.getAsJsonObject());
+        if (templateEle.isJsonObject()) {
+          result =
+              this.startJsonObject(pathState, templateEle.getAsJsonObject(),
+                                   actualEle.getAsJsonObject());
+        } else {
+          result = this.nodeMismatch(JsonComparatorDifference.Kind.TYPE_MISMATCH, templateEle,
+                                     actualEle, " is an object, but an object is not expected");
+        }
       } else if (actualEle.isJsonArray()) {
-        result =
-            this.walkJsonArray(path, templateEle.getAsJsonArray(), actualEle.getAsJsonArray());
+        if (templateEle.isJsonArray()) {
+          result =
+              this.startJsonArray(pathState, templateEle.getAsJsonArray(),
+                                  actualEle.getAsJsonArray());
+        } else {
+          result = this.nodeMismatch(JsonComparatorDifference.Kind.TYPE_MISMATCH, templateEle,
+                                     actualEle, " is an array, but an array is not expected");
+        }
       }
     }
 
     return result;
   }
 
+  /**
+   * Check the given object or array for equality with the template, within the maximum depth
+   * remaining; JSON nested beyond the maximum is left to the walk in full to report.
+   */
+  private boolean isEqual(JsonElement templateEle, JsonElement actualEle) {
+    int maxNestedDepth = 0;
+
+    if (this.maxDepth > 0) {
+      maxNestedDepth = this.maxDepth - (this.baseDepth + this.frameCount);
+      if (maxNestedDepth <= 0) {
+        return false;
+      }
+    }
+
+    return this.equalityChecker.isEqual(templateEle, actualEle, maxNestedDepth);
+  }
+
   /**
    * Performs a minimal, shallow comparison of the two given JSON elements.
    */
-  private JsonComparatorResult shallowCompareJsonElements(String path, JsonElement expected,
+  private JsonComparatorResult shallowCompareJsonElements(JsonElement expected,
                                                           JsonElement actual) {
-    JsonComparatorResult result;
-
     if (expected.isJsonObject()) {
       if (actual.isJsonObject()) {
-        return new JsonComparatorResult(false, true, null, null);
+        return JsonComparatorResult.SHALLOW_MATCH;
       } else {
-        return new JsonComparatorResult(false, false,
-                                        "actual json at path " + path
-                                        + " is not an object, but an object is expected", path);
+        return this.nodeMismatch(JsonComparatorDifference.Kind.TYPE_MISMATCH, expected, actual,
+                                 " is not an object, but an object is expected");
       }
     } else if (expected.isJsonArray()) {
       if (actual.isJsonArray()) {
-        return new JsonComparatorResult(false, true, null, null);
+        return JsonComparatorResult.SHALLOW_MATCH;
       } else {
-        return new JsonComparatorResult(false, false,
-                                        "actual json at path " + path
-                                        + " is not an array, but an array is expected", path);
+        return this.nodeMismatch(JsonComparatorDifference.Kind.TYPE_MISMATCH, expected, actual,
+                                 " is not an array, but an array is expected");
       }
     } else {
       if (expected.equals(actual)) {
-        return new JsonComparatorResult(false, true, null, null);
+        return JsonComparatorResult.SHALLOW_MATCH;
       } else {
-        return new JsonComparatorResult(false, false,
-                                        "primitive mismatch at path " + path + ": actual=" + actual
-                                        + "; expected=" + expected, path);
+        String path = this.pathStack.render();
+        String message =
+            "primitive mismatch at path " + path + ": actual=" + actual + "; expected=" + expected;
+
+        JsonComparatorDifference.Kind kind = JsonComparatorDifference.Kind.VALUE_MISMATCH;
+        if ((actual.isJsonObject()) || (actual.isJsonArray())) {
+          kind = JsonComparatorDifference.Kind.TYPE_MISMATCH;
+        }
+
+        this.recordDifference(path, kind, expected, actual, message);
+
+        return JsonComparatorResult.mismatch(false, message, path);
       }
     }
   }
 
   /**
-   * Walk all of the fields within the JSON objects given, comparing each.
+   * Create the result for a node of the wrong type, recording the difference as needed.
    */
-  private JsonComparatorResult walkJsonObjectFields(String pathToObject, JsonObject templateObj,
-                                                    JsonObject actualObj) {
+  private JsonComparatorResult nodeMismatch(JsonComparatorDifference.Kind kind,
+                                            JsonElement expected, JsonElement actual,
+                                            String problem) {
+
+    String path = this.pathStack.render();
+    String message = "actual json at path " + path + problem;
 
-    boolean match = true;
-    String errorMessage = null;
-    String errorPath = null;
+    this.recordDifference(path, kind, expected, actual, message);
+
+    return JsonComparatorResult.mismatch(false, message, path);
+  }
+
+  /**
+   * Start the walk of the fields within the JSON objects given.  When the field counts differ,
+   * the field sets cannot match, so there's no need to compare any of the values, unless all
+   * differences are being collected.
+   *
+   * @return the result for the objects when known now; null if a frame was pushed to walk them.
+   */
+  private JsonComparatorResult startJsonObject(int objectPathState, JsonObject templateObj,
+                                               JsonObject actualObj) {
+
+    Set<Map.Entry<String, JsonElement>> actualEntries = actualObj.entrySet();
+    Set<Map.Entry<String, JsonElement>> templateEntries = templateObj.entrySet();
+
+    if (!this.isCollecting()) {
+      if (actualEntries.size() > templateEntries.size()) {
+        return this.fieldSetMismatch(JsonComparatorDifference.Kind.UNEXPECTED_FIELD,
+                                     this.findFirstExtraField(actualObj, templateObj), templateObj,
+                                     actualObj);
+      } else if (actualEntries.size() < templateEntries.size()) {
+        return this.fieldSetMismatch(JsonComparatorDifference.Kind.MISSING_FIELD,
+                                     this.findFirstExtraField(templateObj, actualObj), templateObj,
+                                     actualObj);
+      }
+    }
+
+    if (actualEntries.isEmpty()) {
+      if (templateEntries.isEmpty()) {
+        return JsonComparatorResult.DEEP_MATCH;
+      }
+
+      return this.recordMissingFields(templateObj, actualObj);
+    }
+
+    if (this.isParallel(actualObj)) {
+      return this.compareObjectInParallel(objectPathState, templateObj, actualObj);
+    }
+
+    WalkFrame frame = this.pushFrame();
+    if (frame == null) {
+      return this.maxDepthExceeded(templateObj, actualObj);
+    }
+
+    frame.pathState = objectPathState;
+    frame.templateObj = templateObj;
+    frame.actualObj = actualObj;
+    frame.actualFieldIterator = actualEntries.iterator();
+    frame.unexpectedFieldCount = 0;
+
+    return null;
+  }
+
+  /**
+   * Continue the walk of the objects in the given frame with their next field.  The field sets of
+   * the objects are checked in the same pass: every actual field must exist in the template and,
+   * with the field counts equal, that means every template field exists in the actual object as
+   * well.  Once a value mismatches, values are no longer compared but the remaining fields are
+   * still checked, since a field set mismatch is reported in preference to a value mismatch.  When
+   * collecting differences, all values are compared and all unexpected and missing fields are
+   * recorded instead.
+   *
+   * @return result of the field's comparison, or of the objects once all fields are done; null if
+   * a frame was pushed for the field's value.
+   */
+  private JsonComparatorResult nextObjectField(WalkFrame frame) {
+    while (frame.actualFieldIterator.hasNext()) {
+      Map.Entry<String, JsonElement> entry = frame.actualFieldIterator.next();
+
+      JsonElement templateFieldEle = frame.templateObj.get(entry.getKey());
+
+      if (templateFieldEle == null) {
+        if (!this.isCollecting()) {
+          this.popFrame();
+          return this.fieldSetMismatch(JsonComparatorDifference.Kind.UNEXPECTED_FIELD,
+                                       entry.getKey(), null, entry.getValue());
+        }
+
+        JsonComparatorResult unexpected =
+            this.fieldSetMismatch(JsonComparatorDifference.Kind.UNEXPECTED_FIELD, entry.getKey(),
+                                  null, entry.getValue());
+
+        frame.unexpectedFieldCount++;
+        if (frame.failure == null) {
+          frame.failure = unexpected;
+        }
+      } else if ((frame.failure == null) || (this.isCollecting())) {
+        int fieldPathState = this.ruleProcessor.stepField(frame.pathState, entry.getKey());
+
+        // Perform a deep comparison of the field values.
+        this.pathStack.pushField(entry.getKey());
+        return this.visitNode(fieldPathState, templateFieldEle, entry.getValue(),
+                              !this.ruleProcessor.isRuleFree(frame.pathState));
+      }
+    }
 
     //
-    // Make sure the set of fields in both objects match.  If not, there's no need to continue to
-    //  perform a deep comparison.
+    // Every actual field was checked against the template, so any template fields beyond the
+    //  matched ones are missing from the actual object.
     //
+    int matchedFieldCount = frame.actualObj.entrySet().size() - frame.unexpectedFieldCount;
+    if ((this.isCollecting()) && (frame.templateObj.entrySet().size() > matchedFieldCount)) {
+      JsonComparatorResult missing = this.recordMissingFields(frame.templateObj, frame.actualObj);
 
-    if (this.jsonObjectFieldSetsMatch(templateObj, actualObj)) {
-      //
-      // Iterate over all of the fields in the objects and compare each.
-      //
-      Iterator<Map.Entry<String, JsonElement>> entryIterator = actualObj.entrySet().iterator();
+      if (frame.failure == null) {
+        frame.failure = missing;
+      }
+    }
 
-      while ((match) && (entryIterator.hasNext())) {
-        Map.Entry<String, JsonElement> entry = entryIterator.next();
+    return this.finishFrame();
+  }
 
-        String fieldPath = pathToObject + "['" + entry.getKey() + "']";
+  /**
+   * Create the result for an object whose field set does not match the template's, recording the
+   * difference as needed.
+   *
+   * @param kind      MISSING_FIELD for a template field not in the actual object; UNEXPECTED_FIELD
+   *                  for an actual field not in the template.
+   * @param fieldName name of the field.
+   * @param expected  template value of the field, if any.
+   * @param actual    actual value of the field, if any.
+   */
+  JsonComparatorResult fieldSetMismatch(JsonComparatorDifference.Kind kind, String fieldName,
+                                        JsonElement expected, JsonElement actual) {
 
-        JsonElement templateFieldEle = templateObj.get(entry.getKey());
+    String pathToObject = this.pathStack.render();
+    String problem =
+        (kind == JsonComparatorDifference.Kind.MISSING_FIELD) ? "missing" : "unexpected";
+    String message =
+        "object field sets do not match: path='" + pathToObject + "'; " + problem + " field '"
+        + fieldName + "'";
 
-        // Perform a deep comparison of the field values.
-        JsonComparatorResult
-            fieldResult =
-            this.walkAndCompare(fieldPath, templateFieldEle, entry.getValue());
+    if (this.isCollecting()) {
+      this.pathStack.pushField(fieldName);
+      this.recordDifference(this.pathStack.render(), kind, expected, actual, message);
+      this.pathStack.pop();
+    }
+
+    return JsonComparatorResult.mismatch(true, message, pathToObject);
+  }
+
+  /**
+   * Record each field of the template object given that is missing from the actual object, while
+   * differences are still being collected.
+   *
+   * @return the result for the first missing field.
+   */
+  private JsonComparatorResult recordMissingFields(JsonObject templateObj, JsonObject actualObj) {
+    JsonComparatorResult result = null;
+
+    Iterator<Map.Entry<String, JsonElement>> templateIterator = templateObj.entrySet().iterator();
+    while ((templateIterator.hasNext()) && ((result == null) || (this.isCollecting()))) {
+      Map.Entry<String, JsonElement> entry = templateIterator.next();
+
+      if (!actualObj.has(entry.getKey())) {
+        JsonComparatorResult missing =
+            this.fieldSetMismatch(JsonComparatorDifference.Kind.MISSING_FIELD, entry.getKey(),
+                                  entry.getValue(), null);
 
-        match = fieldResult.isMatch();
-        errorMessage = fieldResult.getErrorMessage();
-        errorPath = fieldResult.getErrorPath();
+        if (result == null) {
+          result = missing;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Find the first field of the given object which does not exist in the other object given.
+   */
+  private String findFirstExtraField(JsonObject object, JsonObject otherObject) {
+    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+      if (!otherObject.has(entry.getKey())) {
+        return entry.getKey();
       }
-    } else {
-      match = false;
-      errorMessage = "object field sets do not match: path='" + pathToObject + "'";
-      errorPath = pathToObject;
     }
 
-    return new JsonComparatorResult(true, match, errorMessage, errorPath);
+    return null;
   }
 
   /**
-   * Walk all of the fields within the JSON arrays given, comparing each.
+   * Start the walk of the elements within the JSON arrays given.  When the sizes differ, there's
+   * no need to check the contents.
    *
-   * @param pathToArray path to the array elements being compared.
-   * @param templateArr template, or expected, array.
-   * @param actualArr   actual array.
-   * @return result of the comparison indicating whether the JSON matches, and providing a cause
-   * description when they do no match.
+   * @return the result for the arrays when known now; null if a frame was pushed to walk them.
    */
-  private JsonComparatorResult walkJsonArray(String pathToArray, JsonArray templateArr,
-                                             JsonArray actualArr) {
+  private JsonComparatorResult startJsonArray(int arrayPathState, JsonArray templateArr,
+                                              JsonArray actualArr) {
 
-    boolean match = true;
-    String errorMessage = null;
-    String errorPath = null;
+    if (templateArr.size() != actualArr.size()) {
+      return this.arraySizeMismatch(templateArr, actualArr, actualArr.size());
+    }
 
-    //
-    // Make sure the arrays are the same size; otherwise, there's no need to check the contents.
-    //
-    if (templateArr.size() == actualArr.size()) {
-      //
-      // Loop over the array elements and compare each.
-      //
-      Iterator<JsonElement> actualArrayIterator = actualArr.iterator();
-      Iterator<JsonElement> templateArrayIterator = templateArr.iterator();
-      int position = 0;
+    if (actualArr.size() == 0) {
+      return JsonComparatorResult.DEEP_MATCH;
+    }
+
+    if (this.isParallel(actualArr)) {
+      return this.compareArrayInParallel(arrayPathState, templateArr, actualArr);
+    }
+
+    WalkFrame frame = this.pushFrame();
+    if (frame == null) {
+      return this.maxDepthExceeded(templateArr, actualArr);
+    }
+
+    frame.pathState = arrayPathState;
+    frame.templateArr = templateArr;
+    frame.actualArr = actualArr;
+    frame.position = 0;
+
+    return null;
+  }
+
+  /**
+   * Create the result for an array whose size does not match the template's, recording the
+   * difference as needed.
+   *
+   * @param templateArr template array.
+   * @param actualArr   actual array, if available.
+   * @param actualSize  size of the actual array.
+   */
+  JsonComparatorResult arraySizeMismatch(JsonArray templateArr, JsonArray actualArr,
+                                         int actualSize) {
+
+    String pathToArray = this.pathStack.render();
+    String message =
+        "array size mismatch: path='" + pathToArray + "'; actualSize=" + actualSize
+        + "; expectedSize=" + templateArr.size();
+
+    this.recordDifference(pathToArray, JsonComparatorDifference.Kind.ARRAY_SIZE_MISMATCH,
+                          templateArr, actualArr, message);
+
+    return JsonComparatorResult.mismatch(true, message, pathToArray);
+  }
+
+  /**
+   * Continue the walk of the arrays in the given frame with their next element.
+   *
+   * @return result of the element's comparison, or of the arrays once all elements are done; null
+   * if a frame was pushed for the element.
+   */
+  private JsonComparatorResult nextArrayElement(WalkFrame frame) {
+    if (frame.position < frame.actualArr.size()) {
+      int position = frame.position;
+      frame.position++;
+
+      int valuePathState = this.ruleProcessor.stepIndex(frame.pathState, position);
 
-      while ((match) && (actualArrayIterator.hasNext())) {
-        JsonElement templateArrayEle = templateArrayIterator.next();
-        JsonElement actualArrayEle = actualArrayIterator.next();
+      // Perform a deep comparison of the array entries.
+      this.pathStack.pushIndex(position);
+      return this.visitNode(valuePathState, frame.templateArr.get(position),
+                            frame.actualArr.get(position),
+                            !this.ruleProcessor.isRuleFree(frame.pathState));
+    }
+
+    return this.finishFrame();
+  }
+
+  /**
+   * Determine whether the contents of the given object or array are compared in parallel: a pool
+   * is set, the contents are large enough, differences are not being collected, and no rule is
+   * probing with the child comparator.
+   */
+  private boolean isParallel(JsonElement actualEle) {
+    if ((this.forkJoinPool == null) || (this.differences != null) || (this.ruleDepth > 0)) {
+      return false;
+    }
 
-        String valuePath = pathToArray + "[" + position + "]";
+    int size = 0;
+    if (actualEle.isJsonObject()) {
+      size = actualEle.getAsJsonObject().entrySet().size();
+    } else if (actualEle.isJsonArray()) {
+      size = actualEle.getAsJsonArray().size();
+    }
+
+    return (size > 0) && (size >= this.parallelThreshold);
+  }
+
+  /**
+   * Compare the fields of the objects given, which have the same number of fields, in parallel.
+   * Field set mismatches are reported in preference to value mismatches, so the field sets are
+   * checked first.
+   *
+   * @return the result for the objects.
+   */
+  private JsonComparatorResult compareObjectInParallel(int objectPathState, JsonObject templateObj,
+                                                       JsonObject actualObj) {
 
-        // Perform a deep comparison of the array entries.
-        JsonComparatorResult
-            childResult =
-            this.walkAndCompare(valuePath, templateArrayEle, actualArrayEle);
+    if (this.isTooDeep()) {
+      return this.maxDepthExceeded(templateObj, actualObj);
+    }
 
-        match = childResult.isMatch();
-        errorMessage = childResult.getErrorMessage();
-        errorPath = childResult.getErrorPath();
+    List<Map.Entry<String, JsonElement>> actualFields = new ArrayList<>(actualObj.entrySet());
 
-        position++;
+    for (Map.Entry<String, JsonElement> field : actualFields) {
+      if (!templateObj.has(field.getKey())) {
+        return this.fieldSetMismatch(JsonComparatorDifference.Kind.UNEXPECTED_FIELD,
+                                     field.getKey(), null, field.getValue());
       }
+    }
+
+    ParallelSplit split = new ParallelSplit(this, objectPathState, actualFields.size());
+    split.templateObj = templateObj;
+    split.actualFields = actualFields;
+
+    return this.executeSplit(split);
+  }
+
+  /**
+   * Compare the elements of the arrays given, which have the same size, in parallel.
+   *
+   * @return the result for the arrays.
+   */
+  private JsonComparatorResult compareArrayInParallel(int arrayPathState, JsonArray templateArr,
+                                                      JsonArray actualArr) {
+
+    if (this.isTooDeep()) {
+      return this.maxDepthExceeded(templateArr, actualArr);
+    }
+
+    ParallelSplit split = new ParallelSplit(this, arrayPathState, actualArr.size());
+    split.templateArr = templateArr;
+    split.actualArr = actualArr;
+
+    return this.executeSplit(split);
+  }
+
+  /**
+   * Compare the contents of the given split with tasks in the fork/join pool, and report the first
+   * failure, if any, in the same way as a sequential walk.
+   */
+  private JsonComparatorResult executeSplit(ParallelSplit split) {
+    ParallelCompareTask task = new ParallelCompareTask(split, 0, split.size);
+
+    JsonComparatorResult failure;
+    if (ForkJoinTask.getPool() == this.forkJoinPool) {
+      failure = task.invoke();
     } else {
-      match = false;
-      errorMessage =
-          "array size mismatch: path='" + pathToArray + "'; actualSize=" + actualArr.size()
-          + "; expectedSize=" + templateArr.size();
-      errorPath = pathToArray;
+      failure = this.forkJoinPool.invoke(task);
     }
 
-    return new JsonComparatorResult(true, match, errorMessage, errorPath);
+    if (failure != null) {
+      return JsonComparatorResult.mismatch(true, failure.getErrorMessage(),
+                                           failure.getErrorPath());
+    }
+
+    return JsonComparatorResult.DEEP_MATCH;
   }
 
   /**
-   * Determine whether the set of field names in the two given JSON objects are the same.
+   * Compare the contents of the given split from the given position, up to but excluding the end
+   * position, in order, on the current thread.
+   *
+   * @return the result of the first mismatch; null if all match, or the comparison was cancelled.
    */
-  private boolean jsonObjectFieldSetsMatch(JsonObject first, JsonObject second) {
-    Set<String>
-        firstFieldNames =
-        first.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+  private JsonComparatorResult compareSplitRange(ParallelSplit split, int start, int end) {
+    this.pathStack.pushPath(split.path);
+
+    try {
+      for (int position = start; position < end; position++) {
+        if (split.isCancelled(position)) {
+          return null;
+        }
+
+        this.parentPosition = position;
+
+        JsonElement templateEle;
+        JsonElement actualEle;
+        int pathState;
+
+        if (split.actualFields != null) {
+          Map.Entry<String, JsonElement> field = split.actualFields.get(position);
 
-    Set<String>
-        secondFieldNames =
-        second.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+          templateEle = split.templateObj.get(field.getKey());
+          actualEle = field.getValue();
+          pathState = this.ruleProcessor.stepField(split.pathState, field.getKey());
+          this.pathStack.pushField(field.getKey());
+        } else {
+          templateEle = split.templateArr.get(position);
+          actualEle = split.actualArr.get(position);
+          pathState = this.ruleProcessor.stepIndex(split.pathState, position);
+          this.pathStack.pushIndex(position);
+        }
 
-    return (firstFieldNames.equals(secondFieldNames));
+        JsonComparatorResult result;
+        try {
+          result = this.compareNode(pathState, split.depth, templateEle, actualEle);
+        } finally {
+          this.pathStack.pop();
+        }
+
+        if (!result.isMatch()) {
+          split.fail(position);
+          return result;
+        }
+      }
+
+      return null;
+    } finally {
+      this.pathStack.pop();
+    }
+  }
+
+  /**
+   * Determine whether pushing a frame for another object or array would exceed the maximum depth.
+   */
+  private boolean isTooDeep() {
+    return (this.maxDepth > 0) && (this.baseDepth + this.frameCount >= this.maxDepth);
+  }
+
+  /**
+   * Push a frame for an object or array, reusing the frames of earlier walks when possible.
+   *
+   * @return the frame, to be initialized by the caller; null if the maximum depth would be
+   * exceeded.
+   */
+  private WalkFrame pushFrame() {
+    if (this.isTooDeep()) {
+      return null;
+    }
+
+    if (this.frameCount == this.frames.length) {
+      this.frames = Arrays.copyOf(this.frames, this.frames.length * 2);
+    }
+
+    WalkFrame result = this.frames[this.frameCount];
+    if (result == null) {
+      result = new WalkFrame();
+      this.frames[this.frameCount] = result;
+    }
+
+    this.frameCount++;
+
+    return result;
+  }
+
+  private void popFrame() {
+    this.frameCount--;
+    this.frames[this.frameCount].clear();
+  }
+
+  /**
+   * Pop the top frame, which is done with its walk.
+   *
+   * @return the result of the walk: the first failure found, if any.
+   */
+  private JsonComparatorResult finishFrame() {
+    JsonComparatorResult failure = this.frames[this.frameCount - 1].failure;
+    this.popFrame();
+
+    if (failure != null) {
+      return JsonComparatorResult.mismatch(true, failure.getErrorMessage(),
+                                           failure.getErrorPath());
+    }
+
+    return JsonComparatorResult.DEEP_MATCH;
+  }
+
+  private JsonComparatorResult maxDepthExceeded(JsonElement templateEle, JsonElement actualEle) {
+    String path = this.pathStack.render();
+    String message = "maximum depth of " + this.maxDepth + " exceeded at path " + path;
+
+    this.recordDifference(path, JsonComparatorDifference.Kind.MAX_DEPTH_EXCEEDED, templateEle,
+                          actualEle, message);
+
+    return JsonComparatorResult.mismatch(true, message, path);
+  }
+
+  /**
+   * Determine whether differences are being collected: collection is enabled, the maximum number
+   * of differences has not been reached, and no rule is probing with the child comparator.
+   */
+  private boolean isCollecting() {
+    return (this.differences != null) && (this.ruleDepth == 0)
+           && (this.differences.size() < this.maxDifferences);
+  }
+
+  private void recordDifference(String path, JsonComparatorDifference.Kind kind,
+                                JsonElement expected, JsonElement actual, String message) {
+
+    if (this.isCollecting()) {
+      this.differences.add(new JsonComparatorDifference(path, kind, expected, actual, message));
+    }
   }
 
 //========================================
 // Internal Classes
 //----------------------------------------
 
+  /**
+   * Contents of one pair of objects, or one pair of arrays, compared in parallel.  The lowest
+   * position found to mismatch so far is shared by the tasks, so positions beyond it are skipped:
+   * only the first mismatch is reported.
+   */
+  private static class ParallelSplit {
+    private final ParallelSplit parent;
+    private final int parentPosition;
+
+    private final String path;
+    private final int pathState;
+    private final int depth;
+    private final int size;
+    private final int taskSize;
+    private final AtomicInteger firstFailedPosition = new AtomicInteger(Integer.MAX_VALUE);
+
+    private JsonObject templateObj;
+    private List<Map.Entry<String, JsonElement>> actualFields;
+
+    private JsonArray templateArr;
+    private JsonArray actualArr;
+
+    private ParallelSplit(JsonComparisonProcessor processor, int pathState, int size) {
+      this.parent = processor.parentSplit;
+      this.parentPosition = processor.parentPosition;
+
+      this.path = processor.pathStack.render();
+      this.pathState = pathState;
+      this.depth = processor.baseDepth + processor.frameCount + 1;
+      this.size = size;
+      this.taskSize =
+          Math.max(MIN_PARALLEL_TASK_SIZE,
+                   size / (processor.forkJoinPool.getParallelism() * 4));
+    }
+
+    /**
+     * Determine whether the comparison of the given position is no longer needed: a lower
+     * position already mismatched, here or in an enclosing split.
+     */
+    private boolean isCancelled(int position) {
+      return (this.firstFailedPosition.get() < position)
+             || ((this.parent != null) && (this.parent.isCancelled(this.parentPosition)));
+    }
+
+    private void fail(int position) {
+      this.firstFailedPosition.accumulateAndGet(position, Math::min);
+    }
+  }
+
+  /**
+   * Task comparing a range of positions of a split, dividing the range between subtasks while it
+   * is larger than the split's task size.
+   */
+  private class ParallelCompareTask extends RecursiveTask<JsonComparatorResult> {
+    private static final long serialVersionUID = 1L;
+
+    private final ParallelSplit split;
+    private final int start;
+    private final int end;
+
+    private ParallelCompareTask(ParallelSplit split, int start, int end) {
+      this.split = split;
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * @return the result of the first mismatch in the range; null if none.
+     */
+    @Override
+    protected JsonComparatorResult compute() {
+      if (this.end - this.start <= this.split.taskSize) {
+        return new JsonComparisonProcessor(JsonComparisonProcessor.this, this.split)
+            .compareSplitRange(this.split, this.start, this.end);
+      }
+
+      int middle = (this.start + this.end) >>> 1;
+
+      ParallelCompareTask upper = new ParallelCompareTask(this.split, middle, this.end);
+      upper.fork();
+
+      JsonComparatorResult result =
+          new ParallelCompareTask(this.split, this.start, middle).compute();
+
+      // The lower half comes first, so a mismatch there is the one to report
+      if (result != null) {
+        if (!upper.tryUnfork()) {
+          upper.join();
+        }
+
+        return result;
+      }
+
+      return upper.join();
+    }
+  }
+
+  /**
+   * State of the walk of one pair of objects, or one pair of arrays.
+   */
+  private static class WalkFrame {
+    private int pathState;
+
+    private JsonObject templateObj;
+    private JsonObject actualObj;
+    private Iterator<Map.Entry<String, JsonElement>> actualFieldIterator;
+    private int unexpectedFieldCount;
+
+    /**
+     * First mismatch found within the objects or arrays.
+     */
+    private JsonComparatorResult failure;
+
+    private JsonArray templateArr;
+    private JsonArray actualArr;
+    private int position;
+
+    private boolean isArray() {
+      return (this.actualArr != null);
+    }
+
+    private void clear() {
+      this.templateObj = null;
+      this.actualObj = null;
+      this.actualFieldIterator = null;
+      this.failure = null;
+      this.templateArr = null;
+      this.actualArr = null;
+    }
+  }
+
   /**
    * Comparator for use by rules when they need to perform deep comparisons.  This comparator allows
    * rules to continue to be applied without forcing every rule implementation to handle rules
@@ -331,11 +1243,114 @@ public class JsonComparisonProcessor {
    */
   private class MyChildRuleComparator implements RuleChildComparator {
 
+    /**
+     * Path, and its path state, of the node to which the rule currently executing applies; paths
+     * given by the rule are resolved relative to this one.
+     */
+    private String basePath;
+    private int basePathState;
+
+    /**
+     * Hasher for the rule's child elements, created on first use.
+     */
+    private JsonStructuralHasher hasher;
+
+    /**
+     * Number of child comparisons requested by the rule currently executing.
+     */
+    private int childComparisons;
+
+    /**
+     * Apply the given rule to the node at the given path, tracking the path so any child
+     * comparisons requested by the rule continue the path state from there.
+     */
+    public JsonComparatorResult compareWithRule(JsonComparatorCompiledRule rule, String path,
+                                                int pathState, JsonElement templateEle,
+                                                JsonElement actualEle) {
+
+      String savedBasePath = this.basePath;
+      int savedBasePathState = this.basePathState;
+      int savedChildComparisons = this.childComparisons;
+
+      this.basePath = path;
+      this.basePathState = pathState;
+      this.childComparisons = 0;
+      ruleDepth++;
+
+      if (metrics != null) {
+        metrics.countRuleInvocation(rule.getSpecification().getAction());
+      }
+
+      Object ruleEvent = JsonComparatorFlightRecorder.beginRule();
+      JsonComparatorResult result = null;
+
+      try {
+        result = rule.compare(path, templateEle, actualEle, this);
+        return result;
+      } finally {
+        if (ruleEvent != null) {
+          JsonComparatorFlightRecorder.endRule(ruleEvent, rule.getSpecification().getAction(), path,
+                                               actualEle, this.childComparisons, result);
+        }
+
+        this.basePath = savedBasePath;
+        this.basePathState = savedBasePathState;
+        this.childComparisons = savedChildComparisons;
+        ruleDepth--;
+      }
+    }
+
     @Override
     public JsonComparatorResult compare(String path, JsonElement templateEle,
                                         JsonElement actualEle) {
 
-      return walkAndCompare(path, templateEle, actualEle);
+      this.childComparisons++;
+
+      pathStack.pushPath(path);
+      try {
+        return walkAndCompare(this.resolvePathState(path), templateEle, actualEle);
+      } finally {
+        pathStack.pop();
+      }
+    }
+
+    @Override
+    public int hashChild(String path, JsonElement element) {
+      int pathState = this.resolvePathState(path);
+
+      // Elements of the template were hashed once, when first needed by any comparison
+      if (compiledSpec != null) {
+        Integer templateHash = compiledSpec.getTemplateHash(element, pathState);
+        if (templateHash != null) {
+          return templateHash;
+        }
+      }
+
+      if (this.hasher == null) {
+        this.hasher = new JsonStructuralHasher(ruleProcessor);
+      }
+
+      return this.hasher.hash(pathState, element);
+    }
+
+    @Override
+    public boolean isRuleFree(String path) {
+      return ruleProcessor.isRuleFree(this.resolvePathState(path));
+    }
+
+    /**
+     * Determine the path state for a path given by a rule: paths below the rule's own path continue
+     * from its state, and any other absolute path is stepped from the root.
+     */
+    private int resolvePathState(String path) {
+      if ((this.basePath != null) && (path.startsWith(this.basePath))
+          && (path.startsWith("[", this.basePath.length()))) {
+        return ruleProcessor.stepPath(this.basePathState, path, this.basePath.length());
+      } else if (path.startsWith("$")) {
+        return ruleProcessor.stepPath(ruleProcessor.getRootPathState(), path, 1);
+      }
+
+      return RulePathAutomaton.DEAD_STATE;
     }
   }
 }
@@ -17,11 +17,18 @@
 package com.savoirtech.json.processor;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
 
 import com.jayway.jsonpath.Configuration;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 
+import java.io.Reader;
+import java.util.concurrent.ForkJoinPool;
+
 /**
+ * Factory of the processors performing comparisons.  Every comparison gets processors of its own,
+ * so the factory is thread-safe once its settings are made.
  *
  * Created by art on 5/9/16.
  */
@@ -29,14 +36,124 @@ public class JsonComparisonProcessorFactory {
 
   private final Configuration jsonPathConfiguration;
 
+  private int maxDepth;
+
+  private int maxDifferences;
+
+  private ForkJoinPool forkJoinPool;
+
+  private int parallelThreshold = JsonComparisonProcessor.DEFAULT_PARALLEL_THRESHOLD;
+
   public JsonComparisonProcessorFactory(Configuration jsonPathConfiguration) {
     this.jsonPathConfiguration = jsonPathConfiguration;
   }
 
+//========================================
+// Getters and Setters
+//----------------------------------------
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Set the maximum nesting of objects and arrays walked by the processors created.
+   *
+   * @param maxDepth the maximum depth; 0 = no limit, which is the default.
+   */
+  public void setMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  public int getMaxDifferences() {
+    return maxDifferences;
+  }
+
+  /**
+   * Set the maximum number of differences collected by the processors created.
+   *
+   * @param maxDifferences the maximum number of differences; 0 = stop at the first mismatch, which
+   *                       is the default.
+   */
+  public void setMaxDifferences(int maxDifferences) {
+    this.maxDifferences = maxDifferences;
+  }
+
+  public ForkJoinPool getForkJoinPool() {
+    return forkJoinPool;
+  }
+
+  /**
+   * Set the pool used by the processors created to compare large arrays and objects in parallel.
+   *
+   * @param forkJoinPool the pool; null to compare sequentially, which is the default.
+   */
+  public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
+  }
+
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * Set the minimum number of elements, or fields, of the arrays and objects compared in parallel.
+   *
+   * @param parallelThreshold the minimum size; defaults to
+   *                          JsonComparisonProcessor.DEFAULT_PARALLEL_THRESHOLD.
+   */
+  public void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+//========================================
+// Factory Methods
+//----------------------------------------
+
   public JsonComparisonProcessor createProcessor(JsonElement templateJson,
                                                  JsonComparatorRuleSpecification[] rules,
                                                  JsonElement actualJson) {
 
-    return new JsonComparisonProcessor(this.jsonPathConfiguration, templateJson, rules, actualJson);
+    JsonComparisonProcessor result =
+        new JsonComparisonProcessor(this.jsonPathConfiguration, templateJson, rules, actualJson);
+    result.setMaxDepth(this.maxDepth);
+    result.setMaxDifferences(this.maxDifferences);
+    result.setForkJoinPool(this.forkJoinPool);
+    result.setParallelThreshold(this.parallelThreshold);
+
+    return result;
+  }
+
+  public JsonComparisonProcessor createProcessor(JsonComparatorCompiledSpecification compiledSpec,
+                                                 JsonElement actualJson) {
+
+    JsonComparisonProcessor result =
+        new JsonComparisonProcessor(this.jsonPathConfiguration, compiledSpec, actualJson);
+    result.setMaxDepth(this.maxDepth);
+    result.setMaxDifferences(this.maxDifferences);
+    result.setForkJoinPool(this.forkJoinPool);
+    result.setParallelThreshold(this.parallelThreshold);
+
+    return result;
+  }
+
+  public JsonStreamingComparisonProcessor createStreamingProcessor(
+      JsonComparatorCompiledSpecification compiledSpec, Reader actualJson) {
+
+    JsonStreamingComparisonProcessor result =
+        new JsonStreamingComparisonProcessor(this.jsonPathConfiguration, compiledSpec, actualJson);
+    result.setMaxDepth(this.maxDepth);
+
+    return result;
+  }
+
+  public JsonStreamingComparisonProcessor createStreamingProcessor(
+      JsonComparatorCompiledSpecification compiledSpec, JsonReader actualJson) {
+
+    JsonStreamingComparisonProcessor result =
+        new JsonStreamingComparisonProcessor(this.jsonPathConfiguration, compiledSpec, actualJson);
+    result.setMaxDepth(this.maxDepth);
+
+    return result;
   }
 }
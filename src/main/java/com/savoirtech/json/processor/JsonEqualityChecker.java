@@ -0,0 +1,222 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.processor;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Checker of the structural equality of JSON elements, consistent with the comparator's own
+ * matching when no rules apply: objects match when they have the same fields, in any order, with
+ * matching values; arrays when they have the same size and matching elements in order; and
+ * primitives when JsonPrimitive.equals() says so, which compares any two numbers by value.
+ *
+ * The check only answers whether the elements match: it builds no paths and looks up no rules,
+ * and stops at the first difference.  Elements are walked iteratively, so the depth of the JSON is
+ * only limited by memory.  Not thread-safe; the frame stack is reused from one check to the next.
+ */
+public class JsonEqualityChecker {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Frame[] frames = new Frame[INITIAL_CAPACITY];
+  private int frameCount;
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Determine whether the given elements match.
+   *
+   * @param template       the template, or expected, JSON.
+   * @param actual         the actual JSON.
+   * @param maxNestedDepth maximum nesting of objects and arrays, including the given elements
+   *                       themselves; JSON nested deeper never matches, so the caller can report
+   *                       it.  0 = no limit.
+   * @return true = the elements match; false = they do not, or they are nested too deeply.
+   */
+  public boolean isEqual(JsonElement template, JsonElement actual, int maxNestedDepth) {
+    this.frameCount = 0;
+
+    try {
+      if (!this.visit(template, actual, maxNestedDepth)) {
+        return false;
+      }
+
+      while (this.frameCount > 0) {
+        Frame frame = this.frames[this.frameCount - 1];
+
+        JsonElement templateChild = null;
+        JsonElement actualChild = null;
+        boolean more;
+
+        if (frame.actualFieldIterator != null) {
+          more = frame.actualFieldIterator.hasNext();
+          if (more) {
+            Map.Entry<String, JsonElement> field = frame.actualFieldIterator.next();
+
+            actualChild = field.getValue();
+            templateChild = frame.templateObj.get(field.getKey());
+
+            if (templateChild == null) {
+              return false;
+            }
+          }
+        } else {
+          more = (frame.position < frame.actualArr.size());
+          if (more) {
+            templateChild = frame.templateArr.get(frame.position);
+            actualChild = frame.actualArr.get(frame.position);
+            frame.position++;
+          }
+        }
+
+        if (!more) {
+          this.popFrame();
+        } else if (!this.visit(templateChild, actualChild, maxNestedDepth)) {
+          return false;
+        }
+      }
+
+      return true;
+    } finally {
+      while (this.frameCount > 0) {
+        this.popFrame();
+      }
+    }
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  /**
+   * Compare the given elements shallowly, pushing a frame to compare the contents of objects and
+   * arrays that are not empty.
+   *
+   * @return false if the elements are known not to match; true otherwise.
+   */
+  private boolean visit(JsonElement template, JsonElement actual, int maxNestedDepth) {
+    if (template.isJsonObject()) {
+      if (!actual.isJsonObject()) {
+        return false;
+      }
+
+      JsonObject templateObj = template.getAsJsonObject();
+      JsonObject actualObj = actual.getAsJsonObject();
+
+      int size = actualObj.entrySet().size();
+      if (size != templateObj.entrySet().size()) {
+        return false;
+      }
+
+      // Empty objects need no frame, so they are never too deep
+      if (size == 0) {
+        return true;
+      } else if (this.isTooDeep(maxNestedDepth)) {
+        return false;
+      }
+
+      Frame frame = this.pushFrame();
+      frame.templateObj = templateObj;
+      frame.actualFieldIterator = actualObj.entrySet().iterator();
+
+      return true;
+    } else if (template.isJsonArray()) {
+      if (!actual.isJsonArray()) {
+        return false;
+      }
+
+      JsonArray templateArr = template.getAsJsonArray();
+      JsonArray actualArr = actual.getAsJsonArray();
+
+      if (templateArr.size() != actualArr.size()) {
+        return false;
+      } else if (actualArr.size() == 0) {
+        return true;
+      } else if (this.isTooDeep(maxNestedDepth)) {
+        return false;
+      }
+
+      Frame frame = this.pushFrame();
+      frame.templateArr = templateArr;
+      frame.actualArr = actualArr;
+      frame.position = 0;
+
+      return true;
+    }
+
+    return template.equals(actual);
+  }
+
+  /**
+   * Determine whether an object or array starting at the current nesting would exceed the maximum.
+   */
+  private boolean isTooDeep(int maxNestedDepth) {
+    return (maxNestedDepth > 0) && (this.frameCount >= maxNestedDepth);
+  }
+
+  private Frame pushFrame() {
+    if (this.frameCount == this.frames.length) {
+      this.frames = Arrays.copyOf(this.frames, this.frameCount * 2);
+    }
+
+    Frame result = this.frames[this.frameCount];
+    if (result == null) {
+      result = new Frame();
+      this.frames[this.frameCount] = result;
+    }
+    this.frameCount++;
+
+    return result;
+  }
+
+  private void popFrame() {
+    this.frameCount--;
+    this.frames[this.frameCount].clear();
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Pair of objects, or pair of arrays, being checked.
+   */
+  private static class Frame {
+    private JsonObject templateObj;
+    private Iterator<Map.Entry<String, JsonElement>> actualFieldIterator;
+
+    private JsonArray templateArr;
+    private JsonArray actualArr;
+    private int position;
+
+    private void clear() {
+      this.templateObj = null;
+      this.actualFieldIterator = null;
+      this.templateArr = null;
+      this.actualArr = null;
+    }
+  }
+}
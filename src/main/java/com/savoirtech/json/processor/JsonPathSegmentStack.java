@@ -0,0 +1,144 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.processor;
+
+import java.util.Arrays;
+
+/**
+ * Reusable stack of the segments of the path to the node currently being walked, from which the
+ * path string, such as $['dog'][2]['name'], is only rendered when it is actually needed: when a
+ * rule applies to the node or a mismatch is reported.
+ *
+ * Segments are field names, array indexes, or complete paths given by rules for their own child
+ * comparisons; a complete path replaces everything below it when rendering.  Pushing and popping
+ * segments does not allocate once the stack has grown to the depth of the JSON.
+ *
+ * Not thread-safe; each comparison uses its own stack.
+ */
+public class JsonPathSegmentStack {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final byte FIELD_SEGMENT = 0;
+  private static final byte INDEX_SEGMENT = 1;
+  private static final byte PATH_SEGMENT = 2;
+
+  private byte[] kinds = new byte[INITIAL_CAPACITY];
+  private String[] names = new String[INITIAL_CAPACITY];
+  private int[] indexes = new int[INITIAL_CAPACITY];
+
+  private int size;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct the stack with the root path, $.
+   */
+  public JsonPathSegmentStack() {
+    this.pushPath("$");
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  public int getDepth() {
+    return this.size;
+  }
+
+  /**
+   * Push the segment for the object field with the given name.
+   */
+  public void pushField(String fieldName) {
+    this.push(FIELD_SEGMENT, fieldName, 0);
+  }
+
+  /**
+   * Push the segment for the array element at the given index.
+   */
+  public void pushIndex(int index) {
+    this.push(INDEX_SEGMENT, null, index);
+  }
+
+  /**
+   * Push a complete path, which replaces all of the segments below it when rendering.
+   */
+  public void pushPath(String path) {
+    this.push(PATH_SEGMENT, path, 0);
+  }
+
+  /**
+   * Remove the top segment.
+   */
+  public void pop() {
+    this.size--;
+    this.names[this.size] = null;
+  }
+
+  /**
+   * Render the path string for the top of the stack.
+   *
+   * @return the path string, in the same form JsonPath uses for path lists.
+   */
+  public String render() {
+    int start = this.size - 1;
+    while (this.kinds[start] != PATH_SEGMENT) {
+      start--;
+    }
+
+    if (start == this.size - 1) {
+      return this.names[start];
+    }
+
+    StringBuilder result = new StringBuilder(this.names[start]);
+    for (int cur = start + 1; cur < this.size; cur++) {
+      if (this.kinds[cur] == FIELD_SEGMENT) {
+        result.append("['").append(this.names[cur]).append("']");
+      } else {
+        result.append('[').append(this.indexes[cur]).append(']');
+      }
+    }
+
+    return result.toString();
+  }
+
+  @Override
+  public String toString() {
+    return this.render();
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private void push(byte kind, String name, int index) {
+    if (this.size == this.kinds.length) {
+      int newCapacity = this.size * 2;
+
+      this.kinds = Arrays.copyOf(this.kinds, newCapacity);
+      this.names = Arrays.copyOf(this.names, newCapacity);
+      this.indexes = Arrays.copyOf(this.indexes, newCapacity);
+    }
+
+    this.kinds[this.size] = kind;
+    this.names[this.size] = name;
+    this.indexes[this.size] = index;
+    this.size++;
+  }
+}
@@ -0,0 +1,548 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.processor;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import com.jayway.jsonpath.Configuration;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorDifference;
+import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
+import com.savoirtech.json.rules.JsonComparatorCompiledRule;
+import com.savoirtech.json.util.JsonTreeParser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stateful processor of a single comparison which reads the actual JSON as a stream of tokens,
+ * comparing them to the template JSON as they arrive, so memory use is proportional to the
+ * template rather than to the actual JSON.
+ *
+ * Objects and arrays are walked from the stream whenever the template expects one and no rule
+ * applies.  Every other node - primitives, nodes with a rule, and nodes of the wrong type - is
+ * read into a JsonElement and handed to a JsonComparisonProcessor, so rules get the random access
+ * they need and results are the same as those of comparing the parsed JSON.  Rules with selectors
+ * evaluated by JsonPath need the complete actual JSON, so when the specification has any, the
+ * actual JSON is parsed in full and compared as a tree instead.
+ *
+ * Streaming comparisons stop at the first mismatch; the maximum number of differences does not
+ * apply.
+ */
+public class JsonStreamingComparisonProcessor {
+
+  private final Configuration jsonPathConfiguration;
+
+  /**
+   * Specification with the template JSON and rules.
+   */
+  private final JsonComparatorCompiledSpecification compiledSpec;
+
+  /**
+   * Reader of the tokens of the actual JSON being compared.
+   */
+  private final JsonReader jsonReader;
+
+  /**
+   * Processor for the nodes which are compared as trees; its path segment stack and rule
+   * processor are shared with the streaming walk.
+   */
+  private final JsonComparisonProcessor nodeProcessor;
+
+  private final JsonTreeParser treeParser = new JsonTreeParser();
+
+  private RuleProcessor ruleProcessor;
+  private JsonPathSegmentStack pathStack;
+
+  /**
+   * Maximum nesting of objects and arrays to walk; 0 = no limit.
+   */
+  private int maxDepth;
+
+  /**
+   * Frames of the objects and arrays currently being read.
+   */
+  private StreamFrame[] frames = new StreamFrame[16];
+  private int frameCount;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a comparison processor using the given json path configuration and compiled
+   * specification in order to compare the specification's template json to the actual json read
+   * from the given reader.
+   *
+   * @param jsonPathConfiguration configuration to use with JsonPath.
+   * @param compiledSpec          compiled specification with the template JSON and rules.
+   * @param actualJson            reader of the actual JSON to compare; it is read up to the end of
+   *                              the JSON, but not closed.
+   */
+  public JsonStreamingComparisonProcessor(Configuration jsonPathConfiguration,
+                                          JsonComparatorCompiledSpecification compiledSpec,
+                                          Reader actualJson) {
+
+    this(jsonPathConfiguration, compiledSpec, createLenientReader(actualJson));
+  }
+
+  /**
+   * Construct a comparison processor using the given json path configuration and compiled
+   * specification in order to compare the specification's template json to the actual json read
+   * from the given JSON reader, such as a reader of the nodes of a tree.
+   *
+   * @param jsonPathConfiguration configuration to use with JsonPath.
+   * @param compiledSpec          compiled specification with the template JSON and rules.
+   * @param actualJson            reader of the tokens of the actual JSON to compare; it is read up
+   *                              to the end of the JSON, but not closed.
+   */
+  public JsonStreamingComparisonProcessor(Configuration jsonPathConfiguration,
+                                          JsonComparatorCompiledSpecification compiledSpec,
+                                          JsonReader actualJson) {
+
+    this.jsonPathConfiguration = jsonPathConfiguration;
+    this.compiledSpec = compiledSpec;
+    this.jsonReader = actualJson;
+
+    this.nodeProcessor = new JsonComparisonProcessor(jsonPathConfiguration, compiledSpec, null);
+  }
+
+//========================================
+// Getters and Setters
+//----------------------------------------
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Set the maximum nesting of objects and arrays to walk.  Comparisons of deeper JSON fail with
+   * an error at the path of the first object or array beyond the limit.
+   *
+   * @param maxDepth the maximum depth; 0 = no limit, which is the default.
+   */
+  public void setMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+    this.nodeProcessor.setMaxDepth(maxDepth);
+  }
+
+  public JsonComparisonMetrics getMetrics() {
+    return this.nodeProcessor.getMetrics();
+  }
+
+  /**
+   * Set the metrics in which to record the time spent compiling rules and comparing, the nodes
+   * visited, and the rules invoked.  Reading the actual JSON is part of the comparison.
+   *
+   * @param metrics the metrics; null to record none, which is the default.
+   */
+  public void setMetrics(JsonComparisonMetrics metrics) {
+    this.nodeProcessor.setMetrics(metrics);
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Execute the comparison of the JSON and return the results.
+   *
+   * @return result indicating whether the JSON was a match and providing an error description for
+   * failures.
+   * @throws JsonSyntaxException if the actual JSON is not valid JSON.
+   * @throws JsonIOException     if reading the actual JSON fails.
+   */
+  public JsonComparatorResult executeComparison() {
+    if (this.hasJsonPathRules()) {
+      JsonComparisonProcessor treeProcessor =
+          new JsonComparisonProcessor(this.jsonPathConfiguration, this.compiledSpec,
+                                      this.treeParser.parse(this.jsonReader));
+      treeProcessor.setMaxDepth(this.maxDepth);
+      treeProcessor.setMetrics(this.getMetrics());
+
+      return treeProcessor.executeComparison();
+    }
+
+    JsonComparisonMetrics metrics = this.getMetrics();
+
+    long startNanos = 0;
+    if (metrics != null) {
+      startNanos = System.nanoTime();
+    }
+
+    this.ruleProcessor = this.nodeProcessor.getRuleProcessor();
+    this.ruleProcessor.init();
+    this.pathStack = this.nodeProcessor.getPathStack();
+
+    if (metrics != null) {
+      long initNanos = System.nanoTime();
+      metrics.addPhaseNanos(JsonComparatorPhase.RULE_COMPILE, initNanos - startNanos);
+      startNanos = initNanos;
+    }
+
+    try {
+      return this.readAndCompare();
+    } catch (MalformedJsonException | EOFException | NumberFormatException exc) {
+      throw new JsonSyntaxException(exc);
+    } catch (IOException ioExc) {
+      throw new JsonIOException(ioExc);
+    } finally {
+      if (metrics != null) {
+        metrics.addPhaseNanos(JsonComparatorPhase.COMPARISON, System.nanoTime() - startNanos);
+      }
+    }
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private static JsonReader createLenientReader(Reader actualJson) {
+    JsonReader result = new JsonReader(actualJson);
+    result.setLenient(true);
+
+    return result;
+  }
+
+  /**
+   * Determine whether any rule of the specification has a selector evaluated by JsonPath.
+   */
+  private boolean hasJsonPathRules() {
+    for (int cur = 0; cur < this.compiledSpec.getRuleCount(); cur++) {
+      if (this.compiledSpec.getRulePath(cur) != null) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Read the actual JSON and compare it to the template JSON.
+   */
+  private JsonComparatorResult readAndCompare() throws IOException {
+    try {
+      this.jsonReader.peek();
+    } catch (EOFException eofExc) {
+      // An empty document is read as null
+      return this.nodeProcessor.compareNode(this.ruleProcessor.getRootPathState(), 0,
+                                            this.compiledSpec.getTemplateJson(), JsonNull.INSTANCE);
+    }
+
+    boolean nullDocument = (this.jsonReader.peek() == JsonToken.NULL);
+
+    JsonComparatorResult result =
+        this.walkAndCompare(this.ruleProcessor.getRootPathState(),
+                            this.compiledSpec.getTemplateJson());
+
+    if ((!nullDocument) && (this.jsonReader.peek() != JsonToken.END_DOCUMENT)) {
+      throw new JsonSyntaxException("Did not consume the entire document.");
+    }
+
+    return result;
+  }
+
+  /**
+   * Walk the actual JSON from the reader and compare it to the template JSON given, in the same
+   * manner as the JsonComparisonProcessor walks parsed JSON.  The whole of the value at the
+   * reader's position is read, even after a mismatch, since the mismatch reported depends on the
+   * sizes of the objects and arrays containing it.
+   *
+   * @param pathState   state of the rule path automaton at the reader's position.
+   * @param templateEle the template, or expected, JSON at the reader's position.
+   * @return result indicating whether there is a match, and providing a description when there is a
+   * mismatch.
+   */
+  private JsonComparatorResult walkAndCompare(int pathState, JsonElement templateEle)
+      throws IOException {
+
+    JsonComparatorResult result = this.visitNode(pathState, templateEle);
+
+    while (this.frameCount > 0) {
+      StreamFrame frame = this.frames[this.frameCount - 1];
+
+      //
+      // A non-null result here is the result of the frame's child most recently visited.
+      //
+      if (result != null) {
+        this.pathStack.pop();
+
+        if ((!result.isMatch()) && (frame.failure == null)) {
+          frame.failure = result;
+        }
+      }
+
+      if (frame.templateArr != null) {
+        result = this.nextArrayElement(frame);
+      } else {
+        result = this.nextObjectField(frame);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Compare the node at the reader's position, at the path at the top of the path segment stack.
+   * Objects and arrays the template expects, with no rule applying, have a frame pushed so they
+   * are walked from the reader.
+   *
+   * @return result of the comparison of the node; null if a frame was pushed and the result is not
+   * yet known.
+   */
+  private JsonComparatorResult visitNode(int pathState, JsonElement templateEle)
+      throws IOException {
+
+    JsonComparatorCompiledRule rule = this.ruleProcessor.findMatchingRule(pathState, null);
+
+    if ((rule == null) && ((this.maxDepth == 0) || (this.frameCount < this.maxDepth))) {
+      JsonToken token = this.jsonReader.peek();
+
+      if ((templateEle.isJsonObject()) && (token == JsonToken.BEGIN_OBJECT)) {
+        this.jsonReader.beginObject();
+
+        StreamFrame frame = this.pushFrame();
+        this.countNode();
+        frame.pathState = pathState;
+        frame.templateObj = templateEle.getAsJsonObject();
+
+        return null;
+      } else if ((templateEle.isJsonArray()) && (token == JsonToken.BEGIN_ARRAY)) {
+        this.jsonReader.beginArray();
+
+        StreamFrame frame = this.pushFrame();
+        this.countNode();
+        frame.pathState = pathState;
+        frame.templateArr = templateEle.getAsJsonArray();
+
+        return null;
+      }
+    }
+
+    JsonElement actualEle = this.treeParser.read(this.jsonReader);
+
+    return this.nodeProcessor.compareNode(pathState, this.frameCount, templateEle, actualEle);
+  }
+
+  /**
+   * Continue reading the object in the given frame with its next field.  The result is determined
+   * once the whole object is read, with the same precedence as comparisons of parsed JSON: field
+   * count mismatches first, then unexpected fields, and then mismatched values.  Values are no
+   * longer compared once any of those is found.  Fields are counted by name, as the parsed object
+   * would hold them, so a field repeated in the stream is counted once.
+   *
+   * @return result of the field's comparison, or of the object once all fields are read; null if
+   * a frame was pushed for the field's value.
+   */
+  private JsonComparatorResult nextObjectField(StreamFrame frame) throws IOException {
+    while (this.jsonReader.hasNext()) {
+      String fieldName = this.jsonReader.nextName();
+
+      JsonElement templateFieldEle = frame.templateObj.get(fieldName);
+
+      if (templateFieldEle == null) {
+        if (frame.firstUnexpectedField == null) {
+          frame.firstUnexpectedField = fieldName;
+        }
+
+        // Only needed up to the number of template fields, which bounds the count that matters
+        if (frame.unexpectedFields.size() < frame.templateObj.entrySet().size()) {
+          frame.unexpectedFields.add(fieldName);
+        }
+
+        this.jsonReader.skipValue();
+      } else {
+        frame.matchedFields.add(fieldName);
+
+        if ((frame.failure == null) && (frame.firstUnexpectedField == null)) {
+          int fieldPathState = this.ruleProcessor.stepField(frame.pathState, fieldName);
+
+          this.pathStack.pushField(fieldName);
+          return this.visitNode(fieldPathState, templateFieldEle);
+        }
+
+        this.jsonReader.skipValue();
+      }
+    }
+
+    this.jsonReader.endObject();
+
+    //
+    // Report the same mismatch as the comparison of the parsed object would.
+    //
+    JsonComparatorResult result;
+    int missingFieldCount = frame.templateObj.entrySet().size() - frame.matchedFields.size();
+
+    if ((frame.firstUnexpectedField != null)
+        && (frame.unexpectedFields.size() >= missingFieldCount)) {
+      result = this.nodeProcessor.fieldSetMismatch(JsonComparatorDifference.Kind.UNEXPECTED_FIELD,
+                                                   frame.firstUnexpectedField, null, null);
+    } else if (missingFieldCount > 0) {
+      result = this.nodeProcessor.fieldSetMismatch(JsonComparatorDifference.Kind.MISSING_FIELD,
+                                                   this.findFirstMissingField(frame), null, null);
+    } else {
+      result = this.finishResult(frame);
+    }
+
+    this.popFrame();
+
+    return result;
+  }
+
+  /**
+   * Continue reading the array in the given frame with its next element.  The array's size is
+   * compared once the whole array is read, and a size mismatch is reported in preference to
+   * mismatched elements.
+   *
+   * @return result of the element's comparison, or of the array once all elements are read; null
+   * if a frame was pushed for the element.
+   */
+  private JsonComparatorResult nextArrayElement(StreamFrame frame) throws IOException {
+    while (this.jsonReader.hasNext()) {
+      int position = frame.actualElementCount;
+      frame.actualElementCount++;
+
+      if ((frame.failure == null) && (position < frame.templateArr.size())) {
+        int valuePathState = this.ruleProcessor.stepIndex(frame.pathState, position);
+
+        this.pathStack.pushIndex(position);
+        return this.visitNode(valuePathState, frame.templateArr.get(position));
+      }
+
+      this.jsonReader.skipValue();
+    }
+
+    this.jsonReader.endArray();
+
+    JsonComparatorResult result;
+    if (frame.actualElementCount != frame.templateArr.size()) {
+      result = this.nodeProcessor.arraySizeMismatch(frame.templateArr, null,
+                                                    frame.actualElementCount);
+    } else {
+      result = this.finishResult(frame);
+    }
+
+    this.popFrame();
+
+    return result;
+  }
+
+  /**
+   * Find the first field of the template object in the given frame that was not read from the
+   * actual object.
+   */
+  private String findFirstMissingField(StreamFrame frame) {
+    for (Map.Entry<String, JsonElement> entry : frame.templateObj.entrySet()) {
+      if (!frame.matchedFields.contains(entry.getKey())) {
+        return entry.getKey();
+      }
+    }
+
+    return null;
+  }
+
+  private JsonComparatorResult finishResult(StreamFrame frame) {
+    if (frame.failure != null) {
+      return JsonComparatorResult.mismatch(true, frame.failure.getErrorMessage(),
+                                           frame.failure.getErrorPath());
+    }
+
+    return JsonComparatorResult.DEEP_MATCH;
+  }
+
+  private StreamFrame pushFrame() {
+    if (this.frameCount == this.frames.length) {
+      this.frames = Arrays.copyOf(this.frames, this.frames.length * 2);
+    }
+
+    StreamFrame result = this.frames[this.frameCount];
+    if (result == null) {
+      result = new StreamFrame();
+      this.frames[this.frameCount] = result;
+    }
+
+    this.frameCount++;
+
+    return result;
+  }
+
+  /**
+   * Count a node walked from the reader; other nodes are counted by the node processor.
+   */
+  private void countNode() {
+    JsonComparisonMetrics metrics = this.nodeProcessor.getMetrics();
+    if (metrics != null) {
+      metrics.countNode();
+    }
+  }
+
+  private void popFrame() {
+    this.frameCount--;
+    this.frames[this.frameCount].clear();
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * State of the read of one object or array: templateObj is set for objects and templateArr for
+   * arrays.
+   */
+  private static class StreamFrame {
+    private int pathState;
+
+    private JsonObject templateObj;
+    private final Set<String> matchedFields = new HashSet<>();
+    private final Set<String> unexpectedFields = new HashSet<>();
+    private String firstUnexpectedField;
+
+    private JsonArray templateArr;
+    private int actualElementCount;
+
+    /**
+     * First mismatch found within the object or array.
+     */
+    private JsonComparatorResult failure;
+
+    private void clear() {
+      this.pathState = 0;
+      this.templateObj = null;
+      this.matchedFields.clear();
+      this.unexpectedFields.clear();
+      this.firstUnexpectedField = null;
+      this.templateArr = null;
+      this.actualElementCount = 0;
+      this.failure = null;
+    }
+  }
+}
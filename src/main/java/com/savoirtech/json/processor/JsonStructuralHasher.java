@@ -0,0 +1,318 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import com.savoirtech.json.rules.path.RulePathAutomaton;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Hasher of the structure of JSON elements, consistent with the comparator's own matching: two
+ * elements that compare as a match always have the same hash.  Object fields are hashed
+ * independent of their order, and numbers by their numeric value, so 1 and 1.0 hash alike.
+ *
+ * Subtrees to which a rule applies are left out of the hash, since rules may match values that
+ * differ; only the presence of the subtree counts.  Path states at which no rule can apply
+ * anywhere below are all treated as the dead state, so elements hash the same at any of them.  Rules are located by path state, so rules
+ * located by JsonPath are not left out, and elements they apply to may hash differently even
+ * though they match.  Hashes are only ever a hint of which elements are worth comparing.
+ *
+ * Elements are walked iteratively, so the depth of the JSON is only limited by memory.  Not
+ * thread-safe; the frame stack is reused from one hash to the next.
+ */
+public class JsonStructuralHasher {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final int NULL_HASH = 0x2f0b3c1d;
+  private static final int RULE_HASH = 0x5bd1e995;
+  private static final int OBJECT_SEED = 0x7a3f91c5;
+  private static final int ARRAY_SEED = 0x1b873593;
+
+  private final RulePathAutomaton pathAutomaton;
+
+  private Frame[] frames = new Frame[INITIAL_CAPACITY];
+  private int frameCount;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a hasher that leaves out the subtrees to which the given processor's rules apply.
+   *
+   * @param ruleProcessor processor of the rules of the comparison, already initialized; null to
+   *                      hash every subtree.
+   */
+  public JsonStructuralHasher(RuleProcessor ruleProcessor) {
+    this((ruleProcessor == null) ? null : ruleProcessor.getPathAutomaton());
+  }
+
+  /**
+   * Construct a hasher that leaves out the subtrees to which the rules of the given automaton
+   * apply.
+   *
+   * @param pathAutomaton automaton of the rule selectors; null to hash every subtree.
+   */
+  public JsonStructuralHasher(RulePathAutomaton pathAutomaton) {
+    this.pathAutomaton = pathAutomaton;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Hash the given element, without regard to rules.
+   */
+  public int hash(JsonElement element) {
+    return this.hash(RulePathAutomaton.DEAD_STATE, element);
+  }
+
+  /**
+   * Hash the given element, located at the given path state, leaving out any subtree to which a
+   * rule applies.
+   *
+   * @param pathState path state of the element.
+   * @param element   element to hash.
+   * @return hash of the element.
+   */
+  public int hash(int pathState, JsonElement element) {
+    return this.hashElement(pathState, element, null);
+  }
+
+  /**
+   * Hash the given element, located at the given path state, along with every object and array
+   * within it, all in the same pass: the hash of each object and array is built from the hashes of
+   * its contents, as in a Merkle tree.  Subtrees to which a rule applies count as RULE_HASH in the
+   * hash of their parent, but are still walked, so the objects and arrays within them, such as the
+   * elements of a "set" array, are hashed as well.  Each is hashed as hash(int, JsonElement) would
+   * hash it at its own path state.
+   *
+   * @param pathState path state of the element.
+   * @param element   element to hash.
+   * @return hash, and path state, of every object and array, keyed by the identity of the element.
+   */
+  public Map<JsonElement, SubtreeHash> hashSubtrees(int pathState, JsonElement element) {
+    Map<JsonElement, SubtreeHash> result = new IdentityHashMap<>();
+
+    this.hashElement(pathState, element, result);
+
+    return result;
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  /**
+   * Hash the given element, recording the hash of every object and array in the given map, if any;
+   * subtrees to which a rule applies are only walked when recording.
+   */
+  private int hashElement(int pathState, JsonElement element,
+                          Map<JsonElement, SubtreeHash> subtreeHashes) {
+
+    int state = this.liveState(pathState);
+
+    if (!this.isContainer(element)) {
+      return (this.hasRule(state)) ? RULE_HASH : primitiveHash(element);
+    } else if ((this.hasRule(state)) && (subtreeHashes == null)) {
+      return RULE_HASH;
+    }
+
+    this.frameCount = 0;
+    this.pushFrame(state, element);
+
+    while (true) {
+      Frame frame = this.frames[this.frameCount - 1];
+
+      if (frame.iterator.hasNext()) {
+        JsonElement child;
+        int childState = RulePathAutomaton.DEAD_STATE;
+
+        if (frame.object) {
+          @SuppressWarnings("unchecked")
+          Map.Entry<String, JsonElement> field = (Map.Entry<String, JsonElement>) frame.iterator.next();
+
+          frame.fieldName = field.getKey();
+          child = field.getValue();
+          if (frame.state != RulePathAutomaton.DEAD_STATE) {
+            childState = this.liveState(this.pathAutomaton.stepField(frame.state, frame.fieldName));
+          }
+        } else {
+          child = (JsonElement) frame.iterator.next();
+          if (frame.state != RulePathAutomaton.DEAD_STATE) {
+            childState = this.liveState(this.pathAutomaton.stepIndex(frame.state, frame.index));
+          }
+          frame.index++;
+        }
+
+        if ((this.isContainer(child))
+            && ((subtreeHashes != null) || (!this.hasRule(childState)))) {
+          this.pushFrame(childState, child);
+        } else if (this.hasRule(childState)) {
+          frame.add(RULE_HASH);
+        } else {
+          frame.add(primitiveHash(child));
+        }
+      } else {
+        int result = (this.hasRule(frame.state)) ? RULE_HASH : frame.hash;
+
+        if (subtreeHashes != null) {
+          subtreeHashes.put(frame.element, new SubtreeHash(frame.state, result));
+        }
+
+        frame.iterator = null;
+        frame.element = null;
+        this.frameCount--;
+
+        if (this.frameCount == 0) {
+          return result;
+        }
+
+        this.frames[this.frameCount - 1].add(result);
+      }
+    }
+  }
+
+  /**
+   * Determine the state to track for an element at the given path state: the dead state when no
+   * rule can apply anywhere below, so the rest of the walk skips rule lookups.
+   */
+  private int liveState(int pathState) {
+    if ((this.pathAutomaton == null) || (!this.pathAutomaton.isLive(pathState))) {
+      return RulePathAutomaton.DEAD_STATE;
+    }
+
+    return pathState;
+  }
+
+  private boolean hasRule(int state) {
+    return ((state != RulePathAutomaton.DEAD_STATE)
+            && (this.pathAutomaton.getAcceptingRule(state) != RulePathAutomaton.NO_RULE));
+  }
+
+  private boolean isContainer(JsonElement element) {
+    return ((element != null) && ((element.isJsonObject()) || (element.isJsonArray())));
+  }
+
+  private void pushFrame(int state, JsonElement element) {
+    if (this.frameCount == this.frames.length) {
+      this.frames = Arrays.copyOf(this.frames, this.frameCount * 2);
+    }
+
+    Frame frame = this.frames[this.frameCount];
+    if (frame == null) {
+      frame = new Frame();
+      this.frames[this.frameCount] = frame;
+    }
+    this.frameCount++;
+
+    frame.state = state;
+    frame.element = element;
+    frame.object = element.isJsonObject();
+    frame.index = 0;
+    frame.fieldName = null;
+
+    if (frame.object) {
+      frame.iterator = element.getAsJsonObject().entrySet().iterator();
+      frame.hash = OBJECT_SEED;
+    } else {
+      frame.iterator = element.getAsJsonArray().iterator();
+      frame.hash = ARRAY_SEED;
+    }
+  }
+
+  /**
+   * Hash a primitive or null in line with JsonPrimitive.equals(), which compares any two numbers
+   * by value.
+   */
+  private static int primitiveHash(JsonElement element) {
+    if ((element == null) || (element.isJsonNull())) {
+      return NULL_HASH;
+    }
+
+    JsonPrimitive primitive = element.getAsJsonPrimitive();
+    if (primitive.isNumber()) {
+      // Adding zero turns -0.0 into 0.0, which compare as equal
+      return Double.hashCode(primitive.getAsDouble() + 0.0);
+    } else if (primitive.isBoolean()) {
+      return Boolean.hashCode(primitive.getAsBoolean());
+    }
+
+    return primitive.getAsString().hashCode();
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Hash of an object or array, with the live state of the path at which it was hashed.
+   */
+  public static final class SubtreeHash {
+    private final int pathState;
+    private final int hash;
+
+    SubtreeHash(int pathState, int hash) {
+      this.pathState = pathState;
+      this.hash = hash;
+    }
+
+    /**
+     * Obtain the live state of the path at which the element was hashed.
+     */
+    public int getPathState() {
+      return pathState;
+    }
+
+    public int getHash() {
+      return hash;
+    }
+  }
+
+  /**
+   * Object or array being hashed.
+   */
+  private static class Frame {
+    private int state;
+    private JsonElement element;
+    private boolean object;
+    private Iterator<?> iterator;
+    private String fieldName;
+    private int index;
+    private int hash;
+
+    /**
+     * Add the hash of the next child: fields are summed, so their order does not matter, while
+     * array elements are combined in order.
+     */
+    void add(int childHash) {
+      if (this.object) {
+        this.hash += (this.fieldName.hashCode() * 31) ^ (childHash * 0x9e3779b1);
+      } else {
+        this.hash = (this.hash * 31) + childHash;
+      }
+    }
+  }
+}
@@ -22,10 +22,14 @@ import com.google.gson.JsonElement;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.exception.UnknownRuleException;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.rules.JsonComparatorCompiledRule;
 import com.savoirtech.json.rules.RuleCompiler;
 import com.savoirtech.json.rules.RuleRegistry;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
+import com.savoirtech.json.rules.path.RulePathAutomatonBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,12 +41,16 @@ import java.util.Map;
  * Processor of rules that compiles the needed information from rule specifications and answers the
  * question of whether a specific path matches any of the rules.
  *
- * Note that this class acts as a bridge between the JsonPath implementation and the comparator: the
- * JsonPath implementation does not have a means to ask, "does -this- path match the JsonPath?", but
- * instead only provides a means to locate values or paths from actual JSON given a JsonPath.  So
- * the JsonPath values are matched to the actual JSON in order to locate the paths to which each
- * rule will apply, and the results are cached so the comparator can find them during its walk of
- * the JSON.
+ * Rule selectors are compiled into a path automaton which the comparator advances as it walks the
+ * JSON, so finding the rule for a path costs one lookup per step of the walk and no extra
+ * traversals of the JSON.
+ *
+ * Selectors the automaton does not support, such as filters, are bridged to the JsonPath
+ * implementation: the JsonPath implementation does not have a means to ask, "does -this- path
+ * match the JsonPath?", but instead only provides a means to locate values or paths from actual
+ * JSON given a JsonPath.  So those JsonPath values are matched to the actual JSON in order to
+ * locate the paths to which each rule will apply, and the results are cached so the comparator can
+ * find them during its walk of the JSON.
  *
  * Created by art on 5/10/16.
  */
@@ -50,15 +58,26 @@ public class RuleProcessor {
 
   private static final Logger DEFAULT_LOGGER = LoggerFactory.getLogger(RuleProcessor.class);
 
+  private static final RulePathAutomaton EMPTY_AUTOMATON = new RulePathAutomatonBuilder().build();
+
   private Logger log = DEFAULT_LOGGER;
 
   private final Configuration jsonPathConfiguration;
 
   private final JsonComparatorRuleSpecification[] rules;
-  private final Map<String, JsonComparatorCompiledRule> rulePathMap;
+  private final JsonComparatorCompiledSpecification compiledSpecification;
+
+  /**
+   * Rule index for each path matched by a JsonPath selector in the actual JSON.
+   */
+  private final Map<String, Integer> rulePathMap;
 
   private final JsonElement actualJson;
 
+  private JsonComparatorCompiledRule[] compiledRules;
+  private JsonPath[] rulePaths;
+  private RulePathAutomaton pathAutomaton = EMPTY_AUTOMATON;
+
   private RuleCompiler ruleCompiler;
 
   public RuleProcessor(Configuration jsonPathConfiguration,
@@ -66,13 +85,28 @@ public class RuleProcessor {
 
     this.jsonPathConfiguration = jsonPathConfiguration;
     this.rules = rules;
+    this.compiledSpecification = null;
     this.actualJson = actualJson;
 
     this.rulePathMap = new HashMap<>();
 
-    RuleRegistry ruleRegistry = new RuleRegistry();
-    ruleRegistry.initBuiltInRules();
-    this.ruleCompiler = new RuleCompiler(ruleRegistry);
+    this.ruleCompiler = new RuleCompiler(RuleRegistry.getBuiltInRegistry());
+  }
+
+  /**
+   * Construct a rule processor for rules that were already compiled, along with their selectors,
+   * as part of the given compiled specification.  No rule compiler is needed in this case.
+   */
+  public RuleProcessor(Configuration jsonPathConfiguration,
+                       JsonComparatorCompiledSpecification compiledSpecification,
+                       JsonElement actualJson) {
+
+    this.jsonPathConfiguration = jsonPathConfiguration;
+    this.rules = compiledSpecification.getRules();
+    this.compiledSpecification = compiledSpecification;
+    this.actualJson = actualJson;
+
+    this.rulePathMap = new HashMap<>();
   }
 
 //========================================
@@ -101,10 +135,151 @@ public class RuleProcessor {
 
   public void init() {
     this.compileRules();
+    this.mapRulePaths();
+  }
+
+  /**
+   * Obtain the path state for the root of the JSON.
+   */
+  public int getRootPathState() {
+    return this.pathAutomaton.getRootState();
+  }
+
+  /**
+   * Advance the given path state into the object field with the given name.
+   */
+  public int stepField(int pathState, String fieldName) {
+    return this.pathAutomaton.stepField(pathState, fieldName);
+  }
+
+  /**
+   * Advance the given path state into the array element at the given index.
+   */
+  public int stepIndex(int pathState, int index) {
+    return this.pathAutomaton.stepIndex(pathState, index);
+  }
+
+  /**
+   * Determine whether any rule located by path state can apply at the given path state or below
+   * it.
+   */
+  public boolean isLive(int pathState) {
+    return this.pathAutomaton.isLive(pathState);
+  }
+
+  /**
+   * Advance the given path state along the steps of the given path, starting at the given offset.
+   * The steps must be in the form produced by the comparator: ['name'] for fields and [index] for
+   * array elements.
+   *
+   * @return the resulting path state; the dead state if the path could not be parsed.
+   */
+  public int stepPath(int pathState, String path, int offset) {
+    int result = pathState;
+    int pos = offset;
+
+    while ((pos < path.length()) && (result != RulePathAutomaton.DEAD_STATE)) {
+      if ((path.startsWith("['", pos))) {
+        //
+        // Field names are not escaped, so find the closing quote that is followed by another step
+        //  or the end of the path.
+        //
+        int end = path.indexOf("']", pos + 2);
+        while ((end >= 0) && (end + 2 < path.length()) && (path.charAt(end + 2) != '[')) {
+          end = path.indexOf("']", end + 1);
+        }
+
+        if (end < 0) {
+          return RulePathAutomaton.DEAD_STATE;
+        }
+
+        result = this.pathAutomaton.stepField(result, path.substring(pos + 2, end));
+        pos = end + 2;
+      } else if (path.startsWith("[", pos)) {
+        int end = path.indexOf(']', pos + 1);
+
+        try {
+          result = this.pathAutomaton.stepIndex(result,
+                                                Integer.parseInt(path.substring(pos + 1, end)));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException exc) {
+          return RulePathAutomaton.DEAD_STATE;
+        }
+
+        pos = end + 1;
+      } else {
+        return RulePathAutomaton.DEAD_STATE;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Obtain the automaton of the rule selectors; only complete once the processor is initialized.
+   */
+  public RulePathAutomaton getPathAutomaton() {
+    return this.pathAutomaton;
+  }
+
+  /**
+   * Determine whether no rule can apply at or anywhere below the node at the given path state, so
+   * the node may be compared without looking up rules.
+   *
+   * @param pathState path state of the node.
+   * @return true = no rule applies to the node or its contents; false = a rule may apply.
+   */
+  public boolean isRuleFree(int pathState) {
+    return (this.rulePathMap.isEmpty()) && (!this.pathAutomaton.isLive(pathState));
   }
 
+  /**
+   * Determine whether any rules were located by JsonPath, in which case the path string of each
+   * node must be given to findMatchingRule().
+   */
+  public boolean hasPathMappedRules() {
+    return !this.rulePathMap.isEmpty();
+  }
+
+  /**
+   * Find the rule that applies to the node at the given path state and path.
+   *
+   * @param pathState path state of the node.
+   * @param path      path to the node; may be null when hasPathMappedRules() is false.
+   * @return the rule that applies; null if none.
+   */
+  public JsonComparatorCompiledRule findMatchingRule(int pathState, String path) {
+    int ruleIndex = this.pathAutomaton.getAcceptingRule(pathState);
+
+    if (!this.rulePathMap.isEmpty()) {
+      Integer mappedRuleIndex = this.rulePathMap.get(path);
+
+      // When more than one rule matches, the last one applies
+      if ((mappedRuleIndex != null) && (mappedRuleIndex > ruleIndex)) {
+        ruleIndex = mappedRuleIndex;
+      }
+    }
+
+    if (ruleIndex == RulePathAutomaton.NO_RULE) {
+      return null;
+    }
+
+    return this.lookupCompiledRule(ruleIndex);
+  }
+
+  /**
+   * Find the rule that applies to the node at the given path.
+   *
+   * @param path path to the node, in the form produced by the comparator.
+   * @return the rule that applies; null if none.
+   */
   public JsonComparatorCompiledRule findMatchingRule(String path) {
-    return this.rulePathMap.get(path);
+    int pathState = RulePathAutomaton.DEAD_STATE;
+
+    if (path.startsWith("$")) {
+      pathState = this.stepPath(this.getRootPathState(), path, 1);
+    }
+
+    return this.findMatchingRule(pathState, path);
   }
 
 //========================================
@@ -114,36 +289,108 @@ public class RuleProcessor {
   private void compileRules() {
     this.log.debug("compiling rules");
 
-    if (this.rules != null) {
-      for (JsonComparatorRuleSpecification oneRuleSpecification : this.rules) {
-        String rulePathSelector = oneRuleSpecification.getSelector().getPath();
+    if (this.compiledSpecification != null) {
+      int ruleCount = this.compiledSpecification.getRuleCount();
 
-        this.log.debug("compiling rule for path selector {}", rulePathSelector);
+      this.compiledRules = new JsonComparatorCompiledRule[ruleCount];
+      this.rulePaths = new JsonPath[ruleCount];
+
+      for (int cur = 0; cur < ruleCount; cur++) {
+        this.compiledRules[cur] = this.compiledSpecification.getCompiledRule(cur);
+        this.rulePaths[cur] = this.compiledSpecification.getRulePath(cur);
+      }
+
+      this.pathAutomaton = this.compiledSpecification.getPathAutomaton();
+    } else if (this.rules != null) {
+      RulePathAutomatonBuilder automatonBuilder = new RulePathAutomatonBuilder();
+
+      this.compiledRules = new JsonComparatorCompiledRule[this.rules.length];
+      this.rulePaths = new JsonPath[this.rules.length];
+
+      for (int cur = 0; cur < this.rules.length; cur++) {
+        String rulePathSelector = this.rules[cur].getSelector().getPath();
 
-        JsonPath rulePath = JsonPath.compile(rulePathSelector);
+        this.log.debug("compiling rule for path selector {}", rulePathSelector);
 
         try {
-          //
-          // Find all of the paths matched by the jsonPath from the actual JSON; note that it would
-          //  be preferable to simply ask jsonPath, "does the current path match?" while walking
-          //  the actual json, but there is no such operation.
-          //
-          JsonArray paths = rulePath.read(this.actualJson, this.jsonPathConfiguration);
-
-          // Compile the rule and save it in the map as the rule for each matched path
-          JsonComparatorCompiledRule compiledRule = this.ruleCompiler.compile(oneRuleSpecification);
-          paths.forEach((path) -> this.rulePathMap.put(path.getAsString(), compiledRule));
-
-          this.log.trace("rule for path selector {} matched {}", rulePathSelector, paths);
-        } catch (PathNotFoundException exc) {
-          //
-          // No paths matched.
-          //
-          this.log.trace("rule for path selector {} did not match any paths", rulePathSelector);
+          this.compiledRules[cur] = this.ruleCompiler.compile(this.rules[cur]);
+        } catch (UnknownRuleException urExc) {
+          // Only reported if the rule applies to a path, so rules that match nothing are harmless
+          this.compiledRules[cur] = null;
+        }
+
+        if (!automatonBuilder.addSelector(rulePathSelector, cur)) {
+          this.rulePaths[cur] = JsonPath.compile(rulePathSelector);
         }
       }
+
+      this.pathAutomaton = automatonBuilder.build();
     }
 
     this.log.debug("done compiling rules");
   }
+
+  /**
+   * Locate the paths in the actual JSON to which each rule with a JsonPath selector applies.
+   */
+  private void mapRulePaths() {
+    if (this.rulePaths != null) {
+      for (int cur = 0; cur < this.rulePaths.length; cur++) {
+        if (this.rulePaths[cur] != null) {
+          final int ruleIndex = cur;
+          String rulePathSelector = this.rules[cur].getSelector().getPath();
+
+          JsonArray paths = this.readRulePaths(rulePathSelector, this.rulePaths[cur]);
+
+          if (paths != null) {
+            paths.forEach((path) -> this.rulePathMap.put(path.getAsString(), ruleIndex));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Find all of the paths in the actual JSON matched by the given rule path.
+   *
+   * @param rulePathSelector selector of the rule, as given in the rule specification.
+   * @param rulePath         compiled form of the selector.
+   * @return array of the matched paths; null if no paths matched.
+   */
+  private JsonArray readRulePaths(String rulePathSelector, JsonPath rulePath) {
+    try {
+      //
+      // Find all of the paths matched by the jsonPath from the actual JSON; note that it would
+      //  be preferable to simply ask jsonPath, "does the current path match?" while walking
+      //  the actual json, but there is no such operation.
+      //
+      JsonArray paths = rulePath.read(this.actualJson, this.jsonPathConfiguration);
+
+      this.log.trace("rule for path selector {} matched {}", rulePathSelector, paths);
+
+      return paths;
+    } catch (PathNotFoundException exc) {
+      //
+      // No paths matched.
+      //
+      this.log.trace("rule for path selector {} did not match any paths", rulePathSelector);
+    }
+
+    return null;
+  }
+
+  /**
+   * Obtain the compiled rule at the given index.
+   *
+   * @throws UnknownRuleException if the rule's action is not known.
+   */
+  private JsonComparatorCompiledRule lookupCompiledRule(int ruleIndex) {
+    JsonComparatorCompiledRule result = this.compiledRules[ruleIndex];
+
+    if (result == null) {
+      throw new UnknownRuleException(this.rules[ruleIndex].getAction());
+    }
+
+    return result;
+  }
 }
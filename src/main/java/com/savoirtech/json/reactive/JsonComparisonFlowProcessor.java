@@ -0,0 +1,374 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.reactive;
+
+import com.google.gson.JsonParseException;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reactive stage comparing each actual JSON document received from an upstream Publisher against
+ * a compiled specification, and publishing the result of each comparison, in the order the
+ * documents were received, to a single downstream Subscriber.
+ *
+ * Up to the configured parallelism of comparisons run at once on the given executor.  Documents
+ * are only requested from upstream as downstream demand allows: the documents requested and not
+ * yet published never outnumber either the parallelism or the downstream demand, so nothing is
+ * buffered beyond that and a slow downstream slows the upstream in turn.
+ *
+ * Documents which are not valid JSON are published as mismatches.  Any other error thrown by a
+ * comparison, or an error from upstream, cancels the upstream and is signalled downstream through
+ * onError(); results not yet published are dropped.
+ */
+public class JsonComparisonFlowProcessor
+    implements JsonFlow.Processor<String, JsonComparatorResult> {
+
+  private final JsonComparator comparator;
+  private final JsonComparatorCompiledSpecification compiledSpec;
+  private final Executor executor;
+  private final int parallelism;
+
+  private final AtomicReference<JsonFlow.Subscription> upstream = new AtomicReference<>();
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+  private volatile JsonFlow.Subscriber<? super JsonComparatorResult> downstream;
+
+  /**
+   * Comparison of each document received and not yet published, in the order received.
+   */
+  private final Queue<Slot> slots = new ConcurrentLinkedQueue<>();
+  private final AtomicLong demand = new AtomicLong();
+  private final AtomicInteger drainRequests = new AtomicInteger();
+
+  private volatile boolean upstreamDone;
+  private volatile Throwable error;
+  private volatile boolean cancelled;
+
+  // Only accessed while draining, which is never concurrent
+  private long requestedNotPublished;
+  private boolean terminated;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a processor running as many comparisons at once as there are available processors.
+   */
+  public JsonComparisonFlowProcessor(JsonComparator comparator,
+                                     JsonComparatorCompiledSpecification compiledSpec,
+                                     Executor executor) {
+
+    this(comparator, compiledSpec, executor, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Construct a processor.
+   *
+   * @param comparator   comparator performing each comparison.
+   * @param compiledSpec compiled specification each document is compared against.
+   * @param executor     executor on which comparisons run.
+   * @param parallelism  maximum number of documents requested from upstream and not yet published
+   *                     downstream, and so of comparisons running at once.
+   */
+  public JsonComparisonFlowProcessor(JsonComparator comparator,
+                                     JsonComparatorCompiledSpecification compiledSpec,
+                                     Executor executor, int parallelism) {
+
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+    }
+
+    this.comparator = comparator;
+    this.compiledSpec = compiledSpec;
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  public JsonComparator getComparator() {
+    return comparator;
+  }
+
+  public JsonComparatorCompiledSpecification getCompiledSpec() {
+    return compiledSpec;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+//========================================
+// Publisher
+//----------------------------------------
+
+  /**
+   * Subscribe the downstream Subscriber.  Only one Subscriber is supported; any other is signalled
+   * an IllegalStateException.
+   */
+  @Override
+  public void subscribe(JsonFlow.Subscriber<? super JsonComparatorResult> subscriber) {
+    if (!this.subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new RejectedSubscription());
+      subscriber.onError(new IllegalStateException("processor already has a subscriber"));
+      return;
+    }
+
+    // Published only once onSubscribe() returns, so no other signal can precede it
+    subscriber.onSubscribe(new DownstreamSubscription());
+    this.downstream = subscriber;
+
+    this.drain();
+  }
+
+//========================================
+// Subscriber
+//----------------------------------------
+
+  @Override
+  public void onSubscribe(JsonFlow.Subscription subscription) {
+    if ((!this.upstream.compareAndSet(null, subscription)) || (this.cancelled)) {
+      subscription.cancel();
+      return;
+    }
+
+    this.drain();
+  }
+
+  @Override
+  public void onNext(String actualJson) {
+    if ((this.upstreamDone) || (this.cancelled)) {
+      return;
+    }
+
+    Slot slot = new Slot();
+    this.slots.offer(slot);
+
+    try {
+      this.executor.execute(() -> this.compare(slot, actualJson));
+    } catch (RejectedExecutionException reExc) {
+      this.fail(reExc);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    if (!this.upstreamDone) {
+      this.error = throwable;
+      this.upstreamDone = true;
+      this.drain();
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    this.upstreamDone = true;
+    this.drain();
+  }
+
+//========================================
+// Internals
+//----------------------------------------
+
+  private void compare(Slot slot, String actualJson) {
+    try {
+      slot.result = this.comparator.compare(this.compiledSpec, actualJson);
+    } catch (JsonParseException parseExc) {
+      slot.result = JsonComparatorResult.mismatch(false, "invalid json: " + parseExc.getMessage(),
+                                                  "$");
+    } catch (RuntimeException | Error exc) {
+      slot.error = exc;
+    }
+
+    slot.done = true;
+    this.drain();
+  }
+
+  /**
+   * Stop processing with the given error, which is signalled downstream.
+   */
+  private void fail(Throwable exc) {
+    if (this.error == null) {
+      this.error = exc;
+    }
+    this.upstreamDone = true;
+    this.cancelUpstream();
+    this.drain();
+  }
+
+  private void cancelUpstream() {
+    JsonFlow.Subscription subscription = this.upstream.get();
+    if (subscription != null) {
+      subscription.cancel();
+    }
+  }
+
+  /**
+   * Publish the results which are complete, in order, as far as downstream demand allows, then
+   * request as many documents from upstream as demand and parallelism allow.  Called from any
+   * thread on any change of state; only one thread drains at a time, repeating for calls made by
+   * other threads, or by the downstream Subscriber, in the meantime.
+   */
+  private void drain() {
+    if (this.drainRequests.getAndIncrement() != 0) {
+      return;
+    }
+
+    int missed = 1;
+    do {
+      JsonFlow.Subscriber<? super JsonComparatorResult> subscriber = this.downstream;
+
+      if (this.cancelled) {
+        this.slots.clear();
+      } else if ((subscriber != null) && (!this.terminated)) {
+        this.drainTo(subscriber);
+      }
+
+      missed = this.drainRequests.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void drainTo(JsonFlow.Subscriber<? super JsonComparatorResult> subscriber) {
+    Throwable exc = this.error;
+    if (exc != null) {
+      this.terminate();
+      subscriber.onError(exc);
+      return;
+    }
+
+    while ((this.demand.get() > 0) && (!this.cancelled)) {
+      Slot head = this.slots.peek();
+      if ((head == null) || (!head.done)) {
+        break;
+      }
+
+      this.slots.poll();
+      this.requestedNotPublished--;
+
+      if (head.error != null) {
+        this.terminate();
+        this.cancelUpstream();
+        subscriber.onError(head.error);
+        return;
+      }
+
+      if (this.demand.get() != Long.MAX_VALUE) {
+        this.demand.decrementAndGet();
+      }
+      subscriber.onNext(head.result);
+    }
+
+    if ((this.upstreamDone) && (this.slots.isEmpty()) && (!this.cancelled)) {
+      this.terminate();
+      subscriber.onComplete();
+      return;
+    }
+
+    this.requestUpstream();
+  }
+
+  private void terminate() {
+    this.terminated = true;
+    this.slots.clear();
+  }
+
+  /**
+   * Request as many documents from upstream as keeps those requested and not yet published within
+   * both the downstream demand and the parallelism.
+   */
+  private void requestUpstream() {
+    JsonFlow.Subscription subscription = this.upstream.get();
+    if ((subscription == null) || (this.upstreamDone) || (this.cancelled)) {
+      return;
+    }
+
+    long count = Math.min(this.parallelism, this.demand.get()) - this.requestedNotPublished;
+    if (count > 0) {
+      this.requestedNotPublished += count;
+      subscription.request(count);
+    }
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Comparison of one document; the result or error is written before done is set.
+   */
+  private static class Slot {
+    private volatile JsonComparatorResult result;
+    private volatile Throwable error;
+    private volatile boolean done;
+  }
+
+  private class DownstreamSubscription implements JsonFlow.Subscription {
+    @Override
+    public void request(long count) {
+      if (count <= 0) {
+        fail(new IllegalArgumentException("request count must be positive: " + count));
+        return;
+      }
+
+      demand.accumulateAndGet(count, (current, added) -> {
+        long sum = current + added;
+        return (sum < 0) ? Long.MAX_VALUE : sum;
+      });
+
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      cancelUpstream();
+      drain();
+    }
+  }
+
+  /**
+   * Subscription of a subscriber the processor does not support, which is immediately signalled
+   * an error.
+   */
+  private static class RejectedSubscription implements JsonFlow.Subscription {
+    @Override
+    public void request(long count) {
+    }
+
+    @Override
+    public void cancel() {
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.reactive;
+
+/**
+ * Interfaces of the reactive streams protocol, with the same methods and semantics as the
+ * interfaces nested in java.util.concurrent.Flow and those of org.reactivestreams.  The comparator
+ * builds for Java 8, which has neither, so these stand in for them; on Java 9 and above, each
+ * adapts to its Flow counterpart by delegating method for method.
+ *
+ * A Publisher signals its Subscriber onSubscribe() first, then at most as many onNext() calls as
+ * the Subscriber has requested through its Subscription, then at most one of onComplete() or
+ * onError().  Signals to one Subscriber never overlap.
+ */
+public final class JsonFlow {
+
+  private JsonFlow() {
+  }
+
+  /**
+   * Producer of items, delivered to subscribers on their demand.
+   */
+  public interface Publisher<T> {
+    void subscribe(Subscriber<? super T> subscriber);
+  }
+
+  /**
+   * Receiver of the items of a Publisher.
+   */
+  public interface Subscriber<T> {
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+  }
+
+  /**
+   * Link between a Publisher and one of its Subscribers, through which the Subscriber requests
+   * items or cancels.
+   */
+  public interface Subscription {
+    /**
+     * Request up to the given number of additional items; a request for zero or fewer items is
+     * signalled back to the Subscriber as an IllegalArgumentException through onError().
+     */
+    void request(long count);
+
+    void cancel();
+  }
+
+  /**
+   * Stage both subscribing to items of type T and publishing items of type R.
+   */
+  public interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+  }
+}
@@ -23,7 +23,8 @@ import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 
 /**
  * Compiled rule that maintains the rule processor, which is typically a singleton in practice,
- * together with the rule specification, which varies with every use.
+ * together with the rule specification, which varies with every use, and the state the rule
+ * prepared from the specification.
  *
  * Created by art on 5/10/16.
  */
@@ -31,11 +32,22 @@ public class JsonComparatorCompiledRule {
 
   private final JsonComparatorRule rule;
   private final JsonComparatorRuleSpecification specification;
+  private final Object preparedState;
 
+  /**
+   * Construct the compiled rule, preparing the specification with the rule.
+   */
   public JsonComparatorCompiledRule(JsonComparatorRule rule,
                                     JsonComparatorRuleSpecification specification) {
+    this(rule, specification, rule.prepare(specification));
+  }
+
+  public JsonComparatorCompiledRule(JsonComparatorRule rule,
+                                    JsonComparatorRuleSpecification specification,
+                                    Object preparedState) {
     this.rule = rule;
     this.specification = specification;
+    this.preparedState = preparedState;
   }
 
   public JsonComparatorRule getRule() {
@@ -46,10 +58,15 @@ public class JsonComparatorCompiledRule {
     return specification;
   }
 
+  public Object getPreparedState() {
+    return preparedState;
+  }
+
   public JsonComparatorResult compare(String path, JsonElement templateEle,
                                           JsonElement actualEle,
                                           RuleChildComparator childComparator) {
 
-    return this.rule.compare(path, templateEle, actualEle, this.specification, childComparator);
+    return this.rule.compare(path, templateEle, actualEle, this.specification, this.preparedState,
+                             childComparator);
   }
 }
@@ -25,8 +25,15 @@ import com.savoirtech.json.model.JsonComparatorRuleSpecification;
  */
 public class JsonComparatorCompiledRuleFactory {
 
+  /**
+   * Create the compiled rule, preparing the specification with the rule.
+   *
+   * @throws com.savoirtech.json.exception.InvalidRuleException if the rule cannot apply the
+   *                                                            specification.
+   */
   public JsonComparatorCompiledRule create(JsonComparatorRule rule,
                                            JsonComparatorRuleSpecification ruleSpecification) {
-    return new JsonComparatorCompiledRule(rule, ruleSpecification);
+    return new JsonComparatorCompiledRule(rule, ruleSpecification,
+                                          rule.prepare(ruleSpecification));
   }
 }
@@ -26,8 +26,39 @@ import com.savoirtech.json.model.JsonComparatorRuleSpecification;
  */
 public interface JsonComparatorRule {
 
+  /**
+   * Prepare the given rule specification for use when it is compiled: check it, so errors in it
+   * are reported once, before any comparison, and turn it into whatever state the rule needs to
+   * apply it, such as compiled patterns or parsed parameters.  The state is held by the compiled
+   * rule and given to every comparison, so the specification is not interpreted again on each node.
+   *
+   * The state is shared by all comparisons using the compiled rule, including comparisons on
+   * other threads, so it must be immutable or thread-safe.
+   *
+   * @param specification specification of the rule.
+   * @return the prepared state; null, by default, for rules that need none.
+   * @throws com.savoirtech.json.exception.InvalidRuleException if the rule cannot apply the
+   *                                                            specification.
+   */
+  default Object prepare(JsonComparatorRuleSpecification specification) {
+    return null;
+  }
+
   JsonComparatorResult compare(String path, JsonElement templateElement,
                                    JsonElement actualElement,
                                    JsonComparatorRuleSpecification specification,
                                    RuleChildComparator childComparator);
+
+  /**
+   * Compare the given elements using the state prepared from the specification by prepare().  By
+   * default, the state is ignored.
+   */
+  default JsonComparatorResult compare(String path, JsonElement templateElement,
+                                       JsonElement actualElement,
+                                       JsonComparatorRuleSpecification specification,
+                                       Object preparedState,
+                                       RuleChildComparator childComparator) {
+
+    return this.compare(path, templateElement, actualElement, specification, childComparator);
+  }
 }
@@ -0,0 +1,33 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.rules;
+
+/**
+ * Service provider of rules, discovered with java.util.ServiceLoader by
+ * RuleRegistry.initDiscoveredRules().  List implementations, which need a public no-argument
+ * constructor, in META-INF/services/com.savoirtech.json.rules.JsonComparatorRuleProvider.
+ */
+public interface JsonComparatorRuleProvider {
+
+  /**
+   * Register the rules of this provider, keyed by action, with the given registry.
+   *
+   * @param registry registry with which to register the rules.
+   */
+  void registerRules(RuleRegistry registry);
+}
@@ -25,4 +25,28 @@ import com.savoirtech.json.JsonComparatorResult;
  */
 public interface RuleChildComparator {
   JsonComparatorResult compare(String path, JsonElement templateEle, JsonElement actualEle);
+
+  /**
+   * Hash the given element as compared at the given path: any two elements that compare as a
+   * match at the path have the same hash, so rules may use hashes to find likely matches before
+   * comparing.  Equal hashes do not mean the elements match.
+   *
+   * @param path    path at which the element is compared.
+   * @param element element to hash.
+   * @return hash of the element; by default, the same for every element.
+   */
+  default int hashChild(String path, JsonElement element) {
+    return 0;
+  }
+
+  /**
+   * Determine whether no rule applies to the element at the given path, nor anywhere within it, so
+   * elements compared at the path match only when they are equal.
+   *
+   * @param path path at which the element is compared.
+   * @return true = no rule applies; false = a rule may apply, which is the default.
+   */
+  default boolean isRuleFree(String path) {
+    return false;
+  }
 }
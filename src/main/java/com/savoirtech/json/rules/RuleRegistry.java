@@ -14,32 +14,121 @@
  *  limitations under the License.
  */
 
+
 package com.savoirtech.json.rules;
 
 import com.savoirtech.json.rules.impl.ArrayAsSetRule;
 import com.savoirtech.json.rules.impl.RegexMatchingRule;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 
 /**
  * Registry of rules, keyed by action, available for use by the comparator.
  *
+ * A registry is filled in once, then frozen into an immutable copy that is looked up without
+ * locking by any number of concurrent comparisons.  The built-in rules are available, already
+ * frozen, from getBuiltInRegistry().
+ *
  * Created by art on 5/10/16.
  */
 public class RuleRegistry {
-  private final Map<String, JsonComparatorRule> rules = new HashMap<>();
+  private final Map<String, JsonComparatorRule> rules;
+  private final boolean frozen;
+
+//========================================
+// Constructors
+//----------------------------------------
+
+  public RuleRegistry() {
+    this.rules = new HashMap<>();
+    this.frozen = false;
+  }
+
+  private RuleRegistry(Map<String, JsonComparatorRule> rules) {
+    this.rules = Collections.unmodifiableMap(new HashMap<>(rules));
+    this.frozen = true;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Obtain the frozen registry of the built-in rules, shared by all users.
+   */
+  public static RuleRegistry getBuiltInRegistry() {
+    return BuiltInRegistryHolder.INSTANCE;
+  }
 
   public void initBuiltInRules() {
     this.registerRule("matches", new RegexMatchingRule());
     this.registerRule("set", new ArrayAsSetRule());
   }
 
+  /**
+   * Register the rules of every JsonComparatorRuleProvider found by java.util.ServiceLoader
+   * using the given class loader.
+   *
+   * @param classLoader class loader used to find the providers; null = the system class loader.
+   */
+  public void initDiscoveredRules(ClassLoader classLoader) {
+    for (JsonComparatorRuleProvider provider :
+        ServiceLoader.load(JsonComparatorRuleProvider.class, classLoader)) {
+
+      provider.registerRules(this);
+    }
+  }
+
+  /**
+   * Register the rule for the given action, replacing any rule already registered for it.
+   *
+   * @throws IllegalStateException if the registry is frozen.
+   */
   public void registerRule(String action, JsonComparatorRule rule) {
+    if (this.frozen) {
+      throw new IllegalStateException("rule registry is frozen: action=" + action);
+    }
+
     this.rules.put(action, rule);
   }
 
   public JsonComparatorRule lookupRule(String action) {
     return this.rules.get(action);
   }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Freeze the rules registered so far.  Later changes to this registry do not affect the result.
+   *
+   * @return an immutable copy of this registry, safe to share between threads; this registry
+   * itself if it is already frozen.
+   */
+  public RuleRegistry freeze() {
+    if (this.frozen) {
+      return this;
+    }
+
+    return new RuleRegistry(this.rules);
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  private static class BuiltInRegistryHolder {
+    private static final RuleRegistry INSTANCE;
+
+    static {
+      RuleRegistry registry = new RuleRegistry();
+      registry.initBuiltInRules();
+
+      INSTANCE = registry.freeze();
+    }
+  }
 }
@@ -24,19 +24,66 @@ import com.savoirtech.json.rules.JsonComparatorRule;
 import com.savoirtech.json.JsonComparatorResult;
 import com.savoirtech.json.rules.RuleChildComparator;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Rule that compares JSON array entries as sets instead of ordered arrays.  In other words, the
- * ordering of elements may change, but every actual element must match one expected element,
- * and visa versa.
+ * Rule that compares JSON array entries as multisets instead of ordered arrays.  In other words,
+ * the ordering of elements may change, but every actual element must match one expected element,
+ * and visa versa; an element repeated in the template must be repeated as often in the actual JSON.
+ *
+ * Elements are first paired greedily, trying the expected elements with the same structural hash
+ * first.  When nested rules let an actual element match more than one expected element, greedy
+ * pairing may fail even though a complete pairing exists, so on failure a maximum matching of the
+ * compatibility graph is computed (Hopcroft-Karp).  Building the graph compares every pair of
+ * elements, so it is only done for arrays of up to maxMatchingSize elements, and only when rules
+ * apply within the elements; without them, elements match only when equal and the greedy pairing
+ * is already complete whenever any pairing is.
  *
  * Created by art on 5/10/16.
  */
 public class ArrayAsSetRule implements JsonComparatorRule {
 
+  public static final int DEFAULT_MAX_MATCHING_SIZE = 1000;
+
+  private static final int UNMATCHED = -1;
+  private static final int INFINITE_DISTANCE = Integer.MAX_VALUE;
+
+  private final int maxMatchingSize;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a rule computing a maximum matching for arrays of up to DEFAULT_MAX_MATCHING_SIZE
+   * elements.
+   */
+  public ArrayAsSetRule() {
+    this(DEFAULT_MAX_MATCHING_SIZE);
+  }
+
+  /**
+   * Construct a rule with the largest array for which a failed greedy pairing falls back to a
+   * maximum matching, which takes a deep comparison of every pair of elements; larger arrays report
+   * the greedy failure.
+   *
+   * @param maxMatchingSize maximum number of elements; 0 to never compute a maximum matching.
+   */
+  public ArrayAsSetRule(int maxMatchingSize) {
+    this.maxMatchingSize = maxMatchingSize;
+  }
+
+//========================================
+// Getters
+//----------------------------------------
+
+  public int getMaxMatchingSize() {
+    return maxMatchingSize;
+  }
+
 //========================================
 // Public API
 //----------------------------------------
@@ -56,13 +103,13 @@ public class ArrayAsSetRule implements JsonComparatorRule {
                                      actualElement.getAsJsonArray(), childComparator);
       } else {
         result =
-            new JsonComparatorResult(true, false,
-                                     "set rule on non-array template element at path " + path, path);
+            JsonComparatorResult.mismatch(true,
+                                          "set rule on non-array template element at path " + path,
+                                          path);
       }
     } else {
       result =
-          new JsonComparatorResult(true, false,
-                                   "set rule on non-array element at path " + path, path);
+          JsonComparatorResult.mismatch(true, "set rule on non-array element at path " + path, path);
     }
 
     return result;
@@ -76,9 +123,7 @@ public class ArrayAsSetRule implements JsonComparatorRule {
                                                    JsonArray actualArray,
                                                    RuleChildComparator childComparator) {
 
-    boolean matches = true;
-    String errorMessage = null;
-    String errorPath = null;
+    String errorMessage;
 
     // First simply check the size; if they don't match, the sets cannot be equivalent.
     if (expectedArray.size() != actualArray.size()) {
@@ -86,85 +131,285 @@ public class ArrayAsSetRule implements JsonComparatorRule {
           "set comparison: sizes do not match at path " + path +
           ": expectedCount=" + expectedArray.size() + "; actualCount=" + actualArray.size();
 
-      return new JsonComparatorResult(true, false, errorMessage, path);
+      return JsonComparatorResult.mismatch(true, errorMessage, path);
+    }
+
+    int size = expectedArray.size();
+    JsonElement[] expected = new JsonElement[size];
+    JsonElement[] actual = new JsonElement[size];
+    for (int cur = 0; cur < size; cur++) {
+      expected[cur] = expectedArray.get(cur);
+      actual[cur] = actualArray.get(cur);
     }
 
+    int[] expectedMatches = new int[size];
+    int[] actualMatches = new int[size];
+    Arrays.fill(expectedMatches, UNMATCHED);
+    Arrays.fill(actualMatches, UNMATCHED);
 
     //
-    // For each actual value, find an expected value that matches.  Then remove the expected value
-    //  from the remaining set of expected values, so each is only matched once.
+    // Bucket the expected elements by their hash, so each actual element is compared first with
+    //  the expected elements most likely to match it.
     //
-    Set<JsonElement> remainingSet = new HashSet<JsonElement>();
-    expectedArray.iterator().forEachRemaining(remainingSet::add);
-
-    Iterator<JsonElement> actualElementIterator = actualArray.iterator();
-    int position = 0;
-
-    while ((matches) && (!remainingSet.isEmpty())) {
-      JsonElement nextActual = actualElementIterator.next();
+    int[] expectedHashes = new int[size];
+    Map<Integer, ArrayDeque<Integer>> buckets = new HashMap<>();
+    for (int cur = 0; cur < size; cur++) {
+      expectedHashes[cur] = childComparator.hashChild(path + "[" + cur + "]", expected[cur]);
+      buckets.computeIfAbsent(expectedHashes[cur], (key) -> new ArrayDeque<>()).add(cur);
+    }
 
-      //
-      // Check whether this current actual element matches any in the remaining template set.
-      //
-      String accessor = "[" + position + "]";
-      String childPath = path + accessor;
+    //
+    // For each actual value, find an unmatched expected value that matches, so each expected
+    //  value is only matched once.
+    //
+    int failedPosition = UNMATCHED;
+    for (int position = 0; (position < size) && (failedPosition == UNMATCHED); position++) {
+      String childPath = path + "[" + position + "]";
+      int hash = childComparator.hashChild(childPath, actual[position]);
 
-      JsonElement matchingEle = this.compareOneSetEle(childPath, nextActual, remainingSet, childComparator);
+      int match = this.findGreedyMatch(childPath, actual[position], hash, buckets.get(hash),
+                                       expected, expectedHashes, expectedMatches, childComparator);
 
-      //
-      // If matched, remove the matched element from the remaining set so it won't be matched again.
-      //  Otherwise, the comparison is a failure.
-      //
-      if (matchingEle != null) {
-        remainingSet.remove(matchingEle);
+      if (match != UNMATCHED) {
+        expectedMatches[match] = position;
+        actualMatches[position] = match;
       } else {
-        matches = false;
-        errorMessage = "set comparison: failed to find match for path " + childPath;
-        errorPath = childPath;
+        failedPosition = position;
       }
+    }
 
-      position++;
+    if (failedPosition == UNMATCHED) {
+      return JsonComparatorResult.DEEP_MATCH;
     }
 
-    return new JsonComparatorResult(true, matches, errorMessage, errorPath);
+    //
+    // Greedy pairing failed; unless the array is too large, or no rule applies within its
+    //  elements, check whether a different pairing matches every element, starting from the
+    //  greedy one.
+    //
+    if ((size <= this.maxMatchingSize) && (!this.isRuleFree(path, size, childComparator))) {
+      int[][] compatible = this.buildCompatibilityGraph(path, expected, actual, childComparator);
+
+      failedPosition =
+          this.completeMaximumMatching(compatible, actualMatches, expectedMatches);
+
+      if (failedPosition == UNMATCHED) {
+        return JsonComparatorResult.DEEP_MATCH;
+      }
+    }
+
+    String errorPath = path + "[" + failedPosition + "]";
+    errorMessage = "set comparison: failed to find match for path " + errorPath;
+
+    return JsonComparatorResult.mismatch(true, errorMessage, errorPath);
   }
 
   /**
-   * Compare one element expected in a set against all the possible expected values.
+   * Find an unmatched expected element matching the given actual one: first among those with the
+   * same hash, then, only if none of them match, among all the others.
    *
-   * @param childPath
-   * @param actual
-   * @param remainingSet
-   * @param childComparator
-   * @return
+   * @return index of the matching expected element; UNMATCHED if none match.
    */
-  private JsonElement compareOneSetEle(String childPath, JsonElement actual, Set<JsonElement> remainingSet, RuleChildComparator childComparator) {
-    boolean matches = false;
+  private int findGreedyMatch(String childPath, JsonElement actual, int hash,
+                              ArrayDeque<Integer> bucket, JsonElement[] expected,
+                              int[] expectedHashes, int[] expectedMatches,
+                              RuleChildComparator childComparator) {
+    if (bucket != null) {
+      // Drop the elements already matched from the front of the bucket
+      while ((!bucket.isEmpty()) && (expectedMatches[bucket.peekFirst()] != UNMATCHED)) {
+        bucket.pollFirst();
+      }
+
+      for (int candidate : bucket) {
+        if ((expectedMatches[candidate] == UNMATCHED)
+            && (childComparator.compare(childPath, expected[candidate], actual).isMatch())) {
+          return candidate;
+        }
+      }
+    }
 
     //
-    // Loop until either an expected element matches the actual one given, or no more expected
-    //  elements exist.
+    // Elements with different hashes only match when rules the hashes cannot account for apply to
+    //  them, so this scan is rarely needed except to report a failure.
     //
-    Iterator<JsonElement> remainingIterator = remainingSet.iterator();
-    JsonElement matchingEle = null;
+    for (int candidate = 0; candidate < expected.length; candidate++) {
+      if ((expectedMatches[candidate] == UNMATCHED) && (expectedHashes[candidate] != hash)
+          && (childComparator.compare(childPath, expected[candidate], actual).isMatch())) {
+        return candidate;
+      }
+    }
 
-    while ((!matches) && (remainingIterator.hasNext())) {
-      JsonElement expectedChild = remainingIterator.next();
+    return UNMATCHED;
+  }
 
-      //
-      // Compare these elements using the child comparator, which will continue to perform a
-      //  deep comparison of each.
-      //
-      JsonComparatorResult childResult = childComparator.compare(childPath, expectedChild, actual);
+  /**
+   * Determine whether no rule applies to, or within, any element of the array at the given path.
+   */
+  private boolean isRuleFree(String path, int size, RuleChildComparator childComparator) {
+    for (int position = 0; position < size; position++) {
+      if (!childComparator.isRuleFree(path + "[" + position + "]")) {
+        return false;
+      }
+    }
 
-      matches = childResult.isMatch();
+    return true;
+  }
 
-      // If it matched, remove this expected child from the remaining set.
-      if (childResult.isMatch()) {
-        matchingEle = expectedChild;
+  /**
+   * Compare every actual element with every expected element.
+   *
+   * @return for each actual element, the indexes of the expected elements it matches.
+   */
+  private int[][] buildCompatibilityGraph(String path, JsonElement[] expected,
+                                          JsonElement[] actual,
+                                          RuleChildComparator childComparator) {
+    int[][] result = new int[actual.length][];
+    int[] matches = new int[expected.length];
+
+    for (int position = 0; position < actual.length; position++) {
+      String childPath = path + "[" + position + "]";
+      int matchCount = 0;
+
+      for (int candidate = 0; candidate < expected.length; candidate++) {
+        if (childComparator.compare(childPath, expected[candidate], actual[position]).isMatch()) {
+          matches[matchCount] = candidate;
+          matchCount++;
+        }
+      }
+
+      result[position] = Arrays.copyOf(matches, matchCount);
+    }
+
+    return result;
+  }
+
+  /**
+   * Grow the given matching to a maximum matching of the compatibility graph, using the
+   * Hopcroft-Karp algorithm: each phase finds the shortest augmenting paths by breadth-first
+   * search, then augments along as many disjoint ones as possible by depth-first search.
+   *
+   * @param compatible      for each actual element, the expected elements it matches.
+   * @param actualMatches   expected element matched to each actual element; updated in place.
+   * @param expectedMatches actual element matched to each expected element; updated in place.
+   * @return the first actual element left unmatched; UNMATCHED if every element is matched.
+   */
+  private int completeMaximumMatching(int[][] compatible, int[] actualMatches,
+                                      int[] expectedMatches) {
+    int size = actualMatches.length;
+    int[] distances = new int[size];
+    int[] queue = new int[size];
+    int[] stack = new int[size];
+    int[] edgePositions = new int[size];
+
+    while (this.layerFreeElements(compatible, actualMatches, expectedMatches, distances, queue)) {
+      Arrays.fill(edgePositions, 0);
+
+      for (int position = 0; position < size; position++) {
+        if (actualMatches[position] == UNMATCHED) {
+          this.augment(position, compatible, actualMatches, expectedMatches, distances, stack,
+                       edgePositions);
+        }
+      }
+    }
+
+    for (int position = 0; position < size; position++) {
+      if (actualMatches[position] == UNMATCHED) {
+        return position;
+      }
+    }
+
+    return UNMATCHED;
+  }
+
+  /**
+   * Compute the distance of each actual element from the unmatched actual elements along
+   * alternating paths.
+   *
+   * @return true = an augmenting path exists; false = the matching is already maximum.
+   */
+  private boolean layerFreeElements(int[][] compatible, int[] actualMatches,
+                                    int[] expectedMatches, int[] distances, int[] queue) {
+    int queueHead = 0;
+    int queueTail = 0;
+
+    for (int position = 0; position < actualMatches.length; position++) {
+      if (actualMatches[position] == UNMATCHED) {
+        distances[position] = 0;
+        queue[queueTail] = position;
+        queueTail++;
+      } else {
+        distances[position] = INFINITE_DISTANCE;
       }
     }
 
-    return matchingEle;
+    boolean result = false;
+    while (queueHead < queueTail) {
+      int position = queue[queueHead];
+      queueHead++;
+
+      for (int candidate : compatible[position]) {
+        int matchedPosition = expectedMatches[candidate];
+
+        if (matchedPosition == UNMATCHED) {
+          result = true;
+        } else if (distances[matchedPosition] == INFINITE_DISTANCE) {
+          distances[matchedPosition] = distances[position] + 1;
+          queue[queueTail] = matchedPosition;
+          queueTail++;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Search for an augmenting path from the given unmatched actual element along the layers, and
+   * flip the matching along it if found.  The search is iterative; each element on the stack
+   * resumes from the edge recorded in edgePositions.
+   */
+  private void augment(int root, int[][] compatible, int[] actualMatches, int[] expectedMatches,
+                       int[] distances, int[] stack, int[] edgePositions) {
+    int stackSize = 0;
+    stack[stackSize] = root;
+    stackSize++;
+
+    while (stackSize > 0) {
+      int position = stack[stackSize - 1];
+
+      if (edgePositions[position] >= compatible[position].length) {
+        // Dead end; no other search of this phase needs to come through here
+        distances[position] = INFINITE_DISTANCE;
+        stackSize--;
+        if (stackSize > 0) {
+          edgePositions[stack[stackSize - 1]]++;
+        }
+        continue;
+      }
+
+      int candidate = compatible[position][edgePositions[position]];
+      int matchedPosition = expectedMatches[candidate];
+
+      if (matchedPosition == UNMATCHED) {
+        // Found an augmenting path; match each element on the stack to the edge it followed
+        for (int cur = stackSize - 1; cur >= 0; cur--) {
+          int pathPosition = stack[cur];
+          int pathCandidate = compatible[pathPosition][edgePositions[pathPosition]];
+
+          actualMatches[pathPosition] = pathCandidate;
+          expectedMatches[pathCandidate] = pathPosition;
+        }
+
+        return;
+      }
+
+      if ((distances[position] != INFINITE_DISTANCE)
+          && (distances[matchedPosition] == distances[position] + 1)) {
+        stack[stackSize] = matchedPosition;
+        stackSize++;
+      } else {
+        edgePositions[position]++;
+      }
+    }
   }
 }
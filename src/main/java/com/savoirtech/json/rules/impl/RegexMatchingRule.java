@@ -18,41 +18,60 @@ package com.savoirtech.json.rules.impl;
 
 import com.google.gson.JsonElement;
 
+import com.savoirtech.json.exception.InvalidRuleException;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.rules.JsonComparatorRule;
 import com.savoirtech.json.JsonComparatorResult;
 import com.savoirtech.json.rules.RuleChildComparator;
 
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
  * Rule that compares a value against a regular expression.  The value should be a JSON primitive,
  * although objects and arrays are converted to string form and compared.
  *
+ * For compiled specifications the pattern is compiled once, when the specification is compiled, and
+ * only a matcher is created for each value compared.
+ *
  * Created by art on 5/10/16.
  */
 public class RegexMatchingRule implements JsonComparatorRule {
 
+  @Override
+  public Object prepare(JsonComparatorRuleSpecification specification) {
+    return this.compilePattern(specification);
+  }
+
   @Override
   public JsonComparatorResult compare(String path, JsonElement templateElement,
                                           JsonElement actualElement,
                                           JsonComparatorRuleSpecification specification,
                                           RuleChildComparator childComparator) {
 
-    boolean matches;
-    String errorMessage = null;
-    String errorPath = null;
-
     String value = this.getStringForComparison(actualElement);
 
-    matches = value.matches(specification.getPattern());
+    if (this.compilePattern(specification).matcher(value).matches()) {
+      return JsonComparatorResult.SHALLOW_MATCH;
+    }
+
+    return this.mismatch(path, specification, value);
+  }
+
+  @Override
+  public JsonComparatorResult compare(String path, JsonElement templateElement,
+                                      JsonElement actualElement,
+                                      JsonComparatorRuleSpecification specification,
+                                      Object preparedState,
+                                      RuleChildComparator childComparator) {
 
-    if (!matches) {
-      errorMessage =
-          "value at path " + path + " does not match '" + specification.getPattern() + "': value="
-          + value;
-      errorPath = path;
+    String value = this.getStringForComparison(actualElement);
+
+    if (((Pattern) preparedState).matcher(value).matches()) {
+      return JsonComparatorResult.SHALLOW_MATCH;
     }
 
-    return new JsonComparatorResult(false, matches, errorMessage, errorPath);
+    return this.mismatch(path, specification, value);
   }
 
 
@@ -60,6 +79,29 @@ public class RegexMatchingRule implements JsonComparatorRule {
 // Internal Methods
 //========================================
 
+  private Pattern compilePattern(JsonComparatorRuleSpecification specification) {
+    String pattern = specification.getPattern();
+
+    if (pattern == null) {
+      throw new InvalidRuleException(specification.getAction(), "missing pattern", null);
+    }
+
+    try {
+      return Pattern.compile(pattern);
+    } catch (PatternSyntaxException psExc) {
+      throw new InvalidRuleException(specification.getAction(),
+                                     "invalid pattern '" + pattern + "'", psExc);
+    }
+  }
+
+  private JsonComparatorResult mismatch(String path, JsonComparatorRuleSpecification specification,
+                                        String value) {
+
+    return JsonComparatorResult.mismatch(false,
+                                         "value at path " + path + " does not match '"
+                                         + specification.getPattern() + "': value=" + value, path);
+  }
+
   private String getStringForComparison(JsonElement ele) {
     if (ele.isJsonPrimitive()) {
       return ele.getAsString();
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.rules.path;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Deterministic state machine compiled from the selectors of a set of rules, which answers the
+ * question, "which rule applies at this path?" while walking the JSON.  The walker starts at the
+ * root state and advances one step for each object field or array element it walks into; the rule
+ * applying to a node, if any, is the accepting rule of the node's state.
+ *
+ * States are plain ints, so tracking the state costs nothing per node beyond one lookup per step.
+ * Instances are immutable and safe to share between threads.  Use RulePathAutomatonBuilder to
+ * construct.
+ */
+public class RulePathAutomaton {
+
+  /**
+   * State from which no rule can ever match, no matter how deep the walk continues.
+   */
+  public static final int DEAD_STATE = 0;
+
+  /**
+   * Accepting rule value for states at which no rule applies.
+   */
+  public static final int NO_RULE = -1;
+
+  private final State[] states;
+  private final int rootState;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  RulePathAutomaton(State[] states, int rootState) {
+    this.states = states;
+    this.rootState = rootState;
+  }
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Obtain the state for the root of the JSON, $.
+   */
+  public int getRootState() {
+    return rootState;
+  }
+
+  public int getStateCount() {
+    return states.length;
+  }
+
+  /**
+   * Advance from the given state into the object field with the given name.
+   */
+  public int stepField(int state, String fieldName) {
+    State current = this.states[state];
+
+    if (current.fieldTransitions != null) {
+      Integer result = current.fieldTransitions.get(fieldName);
+      if (result != null) {
+        return result;
+      }
+    }
+
+    return current.otherFieldTransition;
+  }
+
+  /**
+   * Advance from the given state into the array element at the given index.
+   */
+  public int stepIndex(int state, int index) {
+    State current = this.states[state];
+
+    if (current.indexKeys != null) {
+      int found = Arrays.binarySearch(current.indexKeys, index);
+      if (found >= 0) {
+        return current.indexTargets[found];
+      }
+    }
+
+    return current.otherIndexTransition;
+  }
+
+  /**
+   * Obtain the rule that applies at the given state.  When the selectors of more than one rule
+   * match, the last rule in the specification applies.
+   *
+   * @return index of the applicable rule in the specification; NO_RULE if none applies.
+   */
+  public int getAcceptingRule(int state) {
+    return this.states[state].acceptingRule;
+  }
+
+  /**
+   * Determine whether any rule can apply at the given state or at any state reachable from it.
+   *
+   * @return true = a rule may apply at or below this state; false = no rule applies anywhere in
+   * the subtree.
+   */
+  public boolean isLive(int state) {
+    return this.states[state].live;
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  static final class State {
+    final Map<String, Integer> fieldTransitions;
+    final int otherFieldTransition;
+    final int[] indexKeys;
+    final int[] indexTargets;
+    final int otherIndexTransition;
+    final int acceptingRule;
+    final boolean live;
+
+    State(Map<String, Integer> fieldTransitions, int otherFieldTransition, int[] indexKeys,
+          int[] indexTargets, int otherIndexTransition, int acceptingRule, boolean live) {
+
+      this.fieldTransitions = fieldTransitions;
+      this.otherFieldTransition = otherFieldTransition;
+      this.indexKeys = indexKeys;
+      this.indexTargets = indexTargets;
+      this.otherIndexTransition = otherIndexTransition;
+      this.acceptingRule = acceptingRule;
+      this.live = live;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.rules.path;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Builder of a RulePathAutomaton from rule selectors.
+ *
+ * Each selector is first treated as a sequence of steps, where being "at" step N means the first N
+ * steps have matched the path walked so far; a deep-scan step may also stay where it is on any
+ * step of the walk.  The automaton's states are the reachable sets of such positions across all of
+ * the selectors (the classic subset construction), with transitions computed for each field name
+ * and index named by any selector plus one transition for every other name and every other index.
+ */
+public class RulePathAutomatonBuilder {
+
+  private final List<List<RulePathStep>> selectorSteps = new ArrayList<>();
+  private final List<Integer> selectorRules = new ArrayList<>();
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Add the selector of a rule to the automaton, if the selector is supported.
+   *
+   * @param selector  JsonPath selector of the rule.
+   * @param ruleIndex index of the rule in the specification.
+   * @return true = the selector was added; false = the selector uses syntax the automaton does not
+   * support, and must be evaluated some other way.
+   */
+  public boolean addSelector(String selector, int ruleIndex) {
+    List<RulePathStep> steps = RulePathSelectorParser.parse(selector);
+
+    if (steps == null) {
+      return false;
+    }
+
+    this.selectorSteps.add(steps);
+    this.selectorRules.add(ruleIndex);
+
+    return true;
+  }
+
+  /**
+   * Build the automaton from the selectors added so far.
+   *
+   * @return the new automaton.
+   */
+  public RulePathAutomaton build() {
+    return new Construction().build();
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * State of a single construction of the automaton.  Positions within the selectors are numbered
+   * consecutively, so the position following position N of the same selector is N + 1.
+   */
+  private class Construction {
+    private final int[] positionSelector;
+    private final int[] positionStep;
+
+    private final TreeSet<String> fieldNames = new TreeSet<>();
+    private final TreeSet<Integer> indexes = new TreeSet<>();
+
+    private final List<BitSet> stateSets = new ArrayList<>();
+    private final Map<BitSet, Integer> stateIds = new HashMap<>();
+
+    Construction() {
+      int positionCount = 0;
+      for (List<RulePathStep> steps : selectorSteps) {
+        positionCount += steps.size() + 1;
+      }
+
+      this.positionSelector = new int[positionCount];
+      this.positionStep = new int[positionCount];
+
+      int position = 0;
+      for (int selector = 0; selector < selectorSteps.size(); selector++) {
+        List<RulePathStep> steps = selectorSteps.get(selector);
+
+        for (int step = 0; step <= steps.size(); step++) {
+          this.positionSelector[position] = selector;
+          this.positionStep[position] = step;
+          position++;
+
+          if (step < steps.size()) {
+            RulePathStep oneStep = steps.get(step);
+            if (oneStep.getKind() == RulePathStep.Kind.FIELD) {
+              this.fieldNames.add(oneStep.getFieldName());
+            } else if (oneStep.getKind() == RulePathStep.Kind.INDEX) {
+              this.indexes.add(oneStep.getIndex());
+            }
+          }
+        }
+      }
+    }
+
+    RulePathAutomaton build() {
+      // The dead state, the empty set of positions, is always state 0
+      this.intern(new BitSet());
+
+      // The root state has every selector at its first step
+      BitSet rootSet = new BitSet();
+      for (int position = 0; position < this.positionStep.length; position++) {
+        if (this.positionStep[position] == 0) {
+          rootSet.set(position);
+        }
+      }
+      int rootState = this.intern(rootSet);
+
+      //
+      // Compute the transitions of each state; new states are appended as they are found, so the
+      //  loop ends once no new states are reachable.
+      //
+      List<int[]> transitions = new ArrayList<>();
+      List<Map<String, Integer>> fieldTransitions = new ArrayList<>();
+      List<int[][]> indexTransitions = new ArrayList<>();
+
+      for (int state = 0; state < this.stateSets.size(); state++) {
+        BitSet stateSet = this.stateSets.get(state);
+
+        int otherField = this.intern(this.stepField(stateSet, null));
+        int otherIndex = this.intern(this.stepIndex(stateSet, -1));
+
+        Map<String, Integer> namedFields = null;
+        for (String fieldName : this.fieldNames) {
+          int target = this.intern(this.stepField(stateSet, fieldName));
+          if (target != otherField) {
+            if (namedFields == null) {
+              namedFields = new HashMap<>();
+            }
+            namedFields.put(fieldName, target);
+          }
+        }
+
+        List<Integer> namedIndexes = new ArrayList<>();
+        List<Integer> namedIndexTargets = new ArrayList<>();
+        for (int index : this.indexes) {
+          int target = this.intern(this.stepIndex(stateSet, index));
+          if (target != otherIndex) {
+            namedIndexes.add(index);
+            namedIndexTargets.add(target);
+          }
+        }
+
+        transitions.add(new int[]{otherField, otherIndex, this.acceptingRule(stateSet)});
+        fieldTransitions.add(namedFields);
+        indexTransitions.add(namedIndexes.isEmpty() ? null : new int[][]{
+            toIntArray(namedIndexes), toIntArray(namedIndexTargets)});
+      }
+
+      boolean[] live = this.computeLiveness(transitions, fieldTransitions, indexTransitions);
+
+      RulePathAutomaton.State[] states = new RulePathAutomaton.State[this.stateSets.size()];
+      for (int state = 0; state < states.length; state++) {
+        int[] stateTransitions = transitions.get(state);
+        int[][] stateIndexes = indexTransitions.get(state);
+
+        states[state] =
+            new RulePathAutomaton.State(fieldTransitions.get(state), stateTransitions[0],
+                                        (stateIndexes == null) ? null : stateIndexes[0],
+                                        (stateIndexes == null) ? null : stateIndexes[1],
+                                        stateTransitions[1], stateTransitions[2], live[state]);
+      }
+
+      return new RulePathAutomaton(states, rootState);
+    }
+
+    /**
+     * Compute the positions reached from the given ones on a step into an object field.
+     *
+     * @param fieldName name of the field; null for any name not named by the selectors.
+     */
+    private BitSet stepField(BitSet from, String fieldName) {
+      BitSet result = new BitSet();
+
+      for (int position = from.nextSetBit(0); position >= 0;
+           position = from.nextSetBit(position + 1)) {
+
+        RulePathStep step = this.stepAt(position);
+        if (step != null) {
+          if (step.isDeepScan()) {
+            result.set(position);
+          }
+          if (step.matchesField(fieldName)) {
+            result.set(position + 1);
+          }
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Compute the positions reached from the given ones on a step into an array element.
+     *
+     * @param index index of the element; -1 for any index not named by the selectors.
+     */
+    private BitSet stepIndex(BitSet from, int index) {
+      BitSet result = new BitSet();
+
+      for (int position = from.nextSetBit(0); position >= 0;
+           position = from.nextSetBit(position + 1)) {
+
+        RulePathStep step = this.stepAt(position);
+        if (step != null) {
+          if (step.isDeepScan()) {
+            result.set(position);
+          }
+          if (step.matchesIndex(index)) {
+            result.set(position + 1);
+          }
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Determine the rule accepted by the given set of positions: the last rule, in specification
+     * order, whose selector has matched completely.
+     */
+    private int acceptingRule(BitSet stateSet) {
+      int result = RulePathAutomaton.NO_RULE;
+
+      for (int position = stateSet.nextSetBit(0); position >= 0;
+           position = stateSet.nextSetBit(position + 1)) {
+
+        if (this.stepAt(position) == null) {
+          result = Math.max(result, selectorRules.get(this.positionSelector[position]));
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Determine which states can reach an accepting state, including themselves.
+     */
+    private boolean[] computeLiveness(List<int[]> transitions,
+                                      List<Map<String, Integer>> fieldTransitions,
+                                      List<int[][]> indexTransitions) {
+
+      boolean[] result = new boolean[transitions.size()];
+
+      boolean changed = true;
+      while (changed) {
+        changed = false;
+
+        for (int state = 0; state < result.length; state++) {
+          if (!result[state]) {
+            int[] stateTransitions = transitions.get(state);
+
+            boolean live =
+                (stateTransitions[2] != RulePathAutomaton.NO_RULE)
+                || (result[stateTransitions[0]]) || (result[stateTransitions[1]]);
+
+            Map<String, Integer> namedFields = fieldTransitions.get(state);
+            if ((!live) && (namedFields != null)) {
+              for (int target : namedFields.values()) {
+                live = live || result[target];
+              }
+            }
+
+            int[][] namedIndexes = indexTransitions.get(state);
+            if ((!live) && (namedIndexes != null)) {
+              for (int target : namedIndexes[1]) {
+                live = live || result[target];
+              }
+            }
+
+            if (live) {
+              result[state] = true;
+              changed = true;
+            }
+          }
+        }
+      }
+
+      return result;
+    }
+
+    /**
+     * Obtain the step to match next at the given position.
+     *
+     * @return the step; null if the position is at the end of its selector.
+     */
+    private RulePathStep stepAt(int position) {
+      List<RulePathStep> steps = selectorSteps.get(this.positionSelector[position]);
+      int step = this.positionStep[position];
+
+      if (step < steps.size()) {
+        return steps.get(step);
+      }
+
+      return null;
+    }
+
+    private int intern(BitSet stateSet) {
+      Integer result = this.stateIds.get(stateSet);
+
+      if (result == null) {
+        result = this.stateSets.size();
+        this.stateSets.add(stateSet);
+        this.stateIds.put(stateSet, result);
+      }
+
+      return result;
+    }
+  }
+
+  private static int[] toIntArray(List<Integer> values) {
+    int[] result = new int[values.size()];
+
+    for (int cur = 0; cur < result.length; cur++) {
+      result[cur] = values.get(cur);
+    }
+
+    return result;
+  }
+}
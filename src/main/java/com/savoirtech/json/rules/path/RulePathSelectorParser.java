@@ -0,0 +1,186 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.rules.path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser of the subset of JsonPath selectors that can be compiled into a path automaton: the root
+ * ($), children by name (.name, ['name']), array indexes ([2]), wildcards (.*, [*]) and
+ * deep-scans (..) of any of those.  Filters, slices, unions, negative indexes and functions are
+ * not supported; selectors using them are left to the JsonPath library.
+ */
+class RulePathSelectorParser {
+
+  private final String selector;
+  private int pos;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  private RulePathSelectorParser(String selector) {
+    this.selector = selector;
+  }
+
+//========================================
+// API
+//----------------------------------------
+
+  /**
+   * Parse the selector given into its steps.
+   *
+   * @param selector JsonPath selector to parse.
+   * @return the steps of the selector, following the root; null if the selector uses any
+   * unsupported syntax.
+   */
+  static List<RulePathStep> parse(String selector) {
+    if ((selector == null) || (!selector.startsWith("$"))) {
+      return null;
+    }
+
+    return new RulePathSelectorParser(selector).parseSteps();
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private List<RulePathStep> parseSteps() {
+    List<RulePathStep> result = new ArrayList<>();
+
+    this.pos = 1;
+    while (this.pos < this.selector.length()) {
+      RulePathStep step;
+
+      if (this.selector.startsWith("..", this.pos)) {
+        this.pos += 2;
+
+        if (this.atChar('[')) {
+          step = this.parseBracket(true);
+        } else {
+          step = this.parseDotted(true);
+        }
+      } else if (this.atChar('.')) {
+        this.pos++;
+        step = this.parseDotted(false);
+      } else if (this.atChar('[')) {
+        step = this.parseBracket(false);
+      } else {
+        step = null;
+      }
+
+      if (step == null) {
+        return null;
+      }
+
+      result.add(step);
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse a step given in dot-notation, following the dot(s): either a wildcard or a field name.
+   */
+  private RulePathStep parseDotted(boolean deepScan) {
+    if (this.atChar('*')) {
+      this.pos++;
+      return new RulePathStep(RulePathStep.Kind.WILDCARD, null, -1, deepScan);
+    }
+
+    int start = this.pos;
+    while ((this.pos < this.selector.length()) && (isNameChar(this.selector.charAt(this.pos)))) {
+      this.pos++;
+    }
+
+    if (this.pos == start) {
+      return null;
+    }
+
+    // Anything other than another step following the name, such as a function call, is unsupported
+    if ((this.pos < this.selector.length()) && (!this.atChar('.')) && (!this.atChar('['))) {
+      return null;
+    }
+
+    return new RulePathStep(RulePathStep.Kind.FIELD, this.selector.substring(start, this.pos), -1,
+                            deepScan);
+  }
+
+  /**
+   * Parse a step given in bracket-notation, starting at the opening bracket.
+   */
+  private RulePathStep parseBracket(boolean deepScan) {
+    RulePathStep result;
+
+    this.pos++;
+    if (this.pos >= this.selector.length()) {
+      return null;
+    }
+
+    char first = this.selector.charAt(this.pos);
+    if (first == '*') {
+      this.pos++;
+      result = new RulePathStep(RulePathStep.Kind.WILDCARD, null, -1, deepScan);
+    } else if ((first == '\'') || (first == '"')) {
+      int end = this.selector.indexOf(first, this.pos + 1);
+      if (end < 0) {
+        return null;
+      }
+
+      String name = this.selector.substring(this.pos + 1, end);
+      if (name.indexOf('\\') >= 0) {
+        return null;
+      }
+
+      this.pos = end + 1;
+      result = new RulePathStep(RulePathStep.Kind.FIELD, name, -1, deepScan);
+    } else if ((first >= '0') && (first <= '9')) {
+      int start = this.pos;
+      while ((this.pos < this.selector.length()) && (Character.isDigit(
+          this.selector.charAt(this.pos)))) {
+        this.pos++;
+      }
+
+      try {
+        int index = Integer.parseInt(this.selector.substring(start, this.pos));
+        result = new RulePathStep(RulePathStep.Kind.INDEX, null, index, deepScan);
+      } catch (NumberFormatException nfExc) {
+        return null;
+      }
+    } else {
+      return null;
+    }
+
+    // Unions, slices and such continue before the closing bracket
+    if (!this.atChar(']')) {
+      return null;
+    }
+
+    this.pos++;
+    return result;
+  }
+
+  private boolean atChar(char ch) {
+    return (this.pos < this.selector.length()) && (this.selector.charAt(this.pos) == ch);
+  }
+
+  private static boolean isNameChar(char ch) {
+    return (Character.isLetterOrDigit(ch)) || (ch == '_') || (ch == '-') || (ch == '$');
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.rules.path;
+
+/**
+ * One step of a rule path selector, such as ['name'], [2], [*], or a deep-scan ..['name'].
+ */
+class RulePathStep {
+
+  enum Kind {
+    FIELD,
+    INDEX,
+    WILDCARD
+  }
+
+  private final Kind kind;
+  private final String fieldName;
+  private final int index;
+
+  /**
+   * True = this step is preceded by a deep-scan (..), so it may match at any depth below the
+   * position at which it is reached.
+   */
+  private final boolean deepScan;
+
+  RulePathStep(Kind kind, String fieldName, int index, boolean deepScan) {
+    this.kind = kind;
+    this.fieldName = fieldName;
+    this.index = index;
+    this.deepScan = deepScan;
+  }
+
+  Kind getKind() {
+    return kind;
+  }
+
+  String getFieldName() {
+    return fieldName;
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  boolean isDeepScan() {
+    return deepScan;
+  }
+
+  /**
+   * Determine whether this step matches the object field with the given name.
+   *
+   * @param name name of the field; null for any field name not named by any selector.
+   */
+  boolean matchesField(String name) {
+    return (kind == Kind.WILDCARD) || ((kind == Kind.FIELD) && (fieldName.equals(name)));
+  }
+
+  /**
+   * Determine whether this step matches the array element at the given index.
+   *
+   * @param position index of the element; -1 for any index not named by any selector.
+   */
+  boolean matchesIndex(int position) {
+    return (kind == Kind.WILDCARD) || ((kind == Kind.INDEX) && (index == position));
+  }
+}
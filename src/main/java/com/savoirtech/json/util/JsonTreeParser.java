@@ -0,0 +1,194 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser of JSON text into a tree of JsonElements, producing the same tree as Gson's JsonParser.
+ * Gson reads nested objects and arrays recursively, so deeply nested JSON exhausts the call stack;
+ * this parser tracks the open objects and arrays on an explicit stack instead, so the depth of the
+ * JSON is only limited by memory.
+ */
+public class JsonTreeParser {
+
+//========================================
+// Public API
+//----------------------------------------
+
+  /**
+   * Parse the given JSON text, leniently, as JsonParser does.
+   *
+   * @param json JSON text to parse.
+   * @return the parsed JSON; JsonNull for an empty document.
+   * @throws JsonSyntaxException if the text is not valid JSON.
+   */
+  public JsonElement parse(String json) {
+    return this.parse(new StringReader(json));
+  }
+
+  /**
+   * Parse the JSON text from the given reader, leniently, as JsonParser does.
+   *
+   * @param json reader of the JSON text to parse.
+   * @return the parsed JSON; JsonNull for an empty document.
+   * @throws JsonSyntaxException if the text is not valid JSON.
+   * @throws JsonIOException     if the reader fails.
+   */
+  public JsonElement parse(Reader json) {
+    JsonReader jsonReader = new JsonReader(json);
+    jsonReader.setLenient(true);
+
+    return this.parse(jsonReader);
+  }
+
+  /**
+   * Parse the JSON document from the given JSON reader, which must be positioned at the start of
+   * the document.
+   *
+   * @param jsonReader reader of the JSON document to parse.
+   * @return the parsed JSON; JsonNull for an empty document.
+   * @throws JsonSyntaxException if the text is not valid JSON.
+   * @throws JsonIOException     if the reader fails.
+   */
+  public JsonElement parse(JsonReader jsonReader) {
+    try {
+      try {
+        jsonReader.peek();
+      } catch (EOFException eofExc) {
+        // An empty document is read as null
+        return JsonNull.INSTANCE;
+      }
+
+      JsonElement result = this.read(jsonReader);
+
+      if ((!result.isJsonNull()) && (jsonReader.peek() != JsonToken.END_DOCUMENT)) {
+        throw new JsonSyntaxException("Did not consume the entire document.");
+      }
+
+      return result;
+    } catch (MalformedJsonException | EOFException | NumberFormatException exc) {
+      throw new JsonSyntaxException(exc);
+    } catch (IOException ioExc) {
+      throw new JsonIOException(ioExc);
+    }
+  }
+
+  /**
+   * Read the next JSON value, of any depth, from the given reader.
+   *
+   * @param jsonReader reader positioned at the start of the value.
+   * @return the value read.
+   */
+  public JsonElement read(JsonReader jsonReader) throws IOException {
+    List<JsonElement> openContainers = new ArrayList<>();
+    String fieldName = null;
+
+    while (true) {
+      JsonElement value;
+
+      switch (jsonReader.peek()) {
+        case BEGIN_OBJECT:
+          jsonReader.beginObject();
+          value = new JsonObject();
+          break;
+
+        case BEGIN_ARRAY:
+          jsonReader.beginArray();
+          value = new JsonArray();
+          break;
+
+        case END_OBJECT:
+          jsonReader.endObject();
+          value = openContainers.remove(openContainers.size() - 1);
+          if (openContainers.isEmpty()) {
+            return value;
+          }
+          continue;
+
+        case END_ARRAY:
+          jsonReader.endArray();
+          value = openContainers.remove(openContainers.size() - 1);
+          if (openContainers.isEmpty()) {
+            return value;
+          }
+          continue;
+
+        case NAME:
+          fieldName = jsonReader.nextName();
+          continue;
+
+        case STRING:
+          value = new JsonPrimitive(jsonReader.nextString());
+          break;
+
+        case NUMBER:
+          value = new JsonPrimitive(new LazilyParsedNumber(jsonReader.nextString()));
+          break;
+
+        case BOOLEAN:
+          value = new JsonPrimitive(jsonReader.nextBoolean());
+          break;
+
+        case NULL:
+          jsonReader.nextNull();
+          value = JsonNull.INSTANCE;
+          break;
+
+        default:
+          throw new IllegalArgumentException("unexpected token " + jsonReader.peek());
+      }
+
+      //
+      // Add the value to the object or array containing it, if any; objects and arrays are added
+      //  when they start, so the order of the contents is kept.
+      //
+      if (!openContainers.isEmpty()) {
+        JsonElement container = openContainers.get(openContainers.size() - 1);
+
+        if (container.isJsonObject()) {
+          container.getAsJsonObject().add(fieldName, value);
+        } else {
+          container.getAsJsonArray().add(value);
+        }
+      }
+
+      if ((value.isJsonObject()) || (value.isJsonArray())) {
+        openContainers.add(value);
+      } else if (openContainers.isEmpty()) {
+        return value;
+      }
+    }
+  }
+}
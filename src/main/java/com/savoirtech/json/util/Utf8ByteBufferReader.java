@@ -0,0 +1,129 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.util;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader of UTF-8 text held in a byte array or a ByteBuffer, heap or direct.  The text is decoded
+ * a block at a time as it is read, so reading it never needs a copy of the whole text as a String.
+ * Malformed input is replaced with the replacement character, as new String(bytes, UTF_8) does.
+ *
+ * The reader does not change the position or limit of the ByteBuffer given, but the contents of
+ * the buffer must not change while reading.
+ */
+public class Utf8ByteBufferReader extends Reader {
+
+  private static final int BUFFER_SIZE = 2048;
+
+  private final ByteBuffer source;
+  private final CharsetDecoder decoder;
+
+  /**
+   * Characters decoded, but not yet read; ready for reading.
+   */
+  private final CharBuffer decoded;
+
+  private boolean endOfInput;
+
+//========================================
+// Constructor
+//----------------------------------------
+
+  /**
+   * Construct a reader of the UTF-8 text in the given buffer, from its position to its limit.
+   */
+  public Utf8ByteBufferReader(ByteBuffer source) {
+    this.source = source.duplicate();
+
+    this.decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    this.decoded = CharBuffer.allocate(BUFFER_SIZE);
+    this.decoded.flip();
+  }
+
+  /**
+   * Construct a reader of the UTF-8 text in the given range of the byte array.
+   *
+   * @throws IndexOutOfBoundsException if the range is not within the array.
+   */
+  public Utf8ByteBufferReader(byte[] source, int offset, int length) {
+    this(ByteBuffer.wrap(source, offset, length));
+  }
+
+//========================================
+// Reader
+//----------------------------------------
+
+  @Override
+  public int read(char[] cbuf, int off, int len) {
+    if ((off < 0) || (len < 0) || (len > cbuf.length - off)) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    if (len == 0) {
+      return 0;
+    }
+
+    if ((!this.decoded.hasRemaining()) && (!this.decodeNextBlock())) {
+      return -1;
+    }
+
+    int count = Math.min(len, this.decoded.remaining());
+    this.decoded.get(cbuf, off, count);
+
+    return count;
+  }
+
+  @Override
+  public void close() {
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  /**
+   * Decode the next block of characters into the decoded buffer.
+   *
+   * @return true = characters were decoded; false = the end of the text was reached.
+   */
+  private boolean decodeNextBlock() {
+    this.decoded.clear();
+
+    while ((this.decoded.position() == 0) && (!this.endOfInput)) {
+      // All of the input is available, so bytes left incomplete at its end are malformed
+      this.decoder.decode(this.source, this.decoded, true);
+
+      if (!this.source.hasRemaining()) {
+        this.decoder.flush(this.decoded);
+        this.endOfInput = true;
+      }
+    }
+
+    this.decoded.flip();
+
+    return this.decoded.hasRemaining();
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.savoirtech.json.processor.JsonComparisonProcessor;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Benchmark of the garbage produced by the walk of a successful comparison, which should not
+ * depend on the size of the JSON: the walk itself allocates nothing per node on the happy path.
+ */
+public class JsonComparatorAllocationIT {
+
+  private static final int ELEMENT_COUNT = 20000;
+  private static final int WARMUP_ITERATIONS = 50;
+
+  /**
+   * Allowance for the fixed, per-comparison, allocations such as the processor itself.
+   */
+  private static final long FIXED_ALLOWANCE_BYTES = 16 * 1024;
+
+  private com.sun.management.ThreadMXBean threadMXBean;
+  private Configuration jsonPathConfiguration;
+  private JsonComparator comparator;
+
+  @Before
+  public void setupTest() {
+    ThreadMXBean platformBean = ManagementFactory.getThreadMXBean();
+
+    Assume.assumeTrue(platformBean instanceof com.sun.management.ThreadMXBean);
+    this.threadMXBean = (com.sun.management.ThreadMXBean) platformBean;
+    Assume.assumeTrue(this.threadMXBean.isThreadAllocatedMemorySupported());
+    this.threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+    this.jsonPathConfiguration =
+        Configuration.builder()
+            .jsonProvider(new GsonJsonProvider())
+            .options(Option.AS_PATH_LIST, Option.ALWAYS_RETURN_LIST)
+            .build();
+
+    this.comparator = new JsonComparatorBuilder().build();
+  }
+
+  @Test
+  public void testArrayOfPrimitivesWithoutRules() throws Exception {
+    JsonArray document = new JsonArray();
+    for (int cur = 0; cur < ELEMENT_COUNT; cur++) {
+      document.add(new JsonPrimitive("value-" + cur));
+      document.add(new JsonPrimitive((cur % 2) == 0));
+    }
+
+    this.assertWalkAllocationBounded(document, "[]");
+  }
+
+  @Test
+  public void testWideObjectsWithoutRules() throws Exception {
+    JsonArray document = new JsonArray();
+    for (int cur = 0; cur < 100; cur++) {
+      JsonObject wideObject = new JsonObject();
+      for (int field = 0; field < 200; field++) {
+        wideObject.add("field-" + field, new JsonPrimitive("value-" + field));
+      }
+      document.add(wideObject);
+    }
+
+    this.assertWalkAllocationBounded(document, "[]");
+  }
+
+  @Test
+  public void testArrayOfPrimitivesWithRules() throws Exception {
+    JsonArray document = new JsonArray();
+    for (int cur = 0; cur < ELEMENT_COUNT; cur++) {
+      document.add(new JsonPrimitive("value-" + cur));
+    }
+
+    // The rule applies to a single element, so every element is checked for a matching rule
+    this.assertWalkAllocationBounded(
+        document,
+        "[ { \"selector\": { \"path\": \"$[1]\" }, \"action\": \"matches\", \"pattern\": \"val.*\" } ]");
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private void assertWalkAllocationBounded(JsonElement document, String rules) {
+    JsonObject comparisonSpec = new JsonObject();
+    comparisonSpec.add("templateJson", document);
+    comparisonSpec.add("rules", new JsonParser().parse(rules));
+
+    JsonComparatorCompiledSpecification compiledSpec =
+        this.comparator.compile(comparisonSpec.toString());
+    JsonElement actualJson = compiledSpec.getTemplateJson();
+
+    // Give the JIT a chance to settle before measuring
+    for (int cur = 0; cur < WARMUP_ITERATIONS; cur++) {
+      this.executeComparison(compiledSpec, actualJson);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long before = this.threadMXBean.getThreadAllocatedBytes(threadId);
+    this.executeComparison(compiledSpec, actualJson);
+    long allocated = this.threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertTrue("walk allocated " + allocated + " bytes for " + document.getAsJsonArray().size()
+               + " elements", allocated < FIXED_ALLOWANCE_BYTES);
+  }
+
+  private void executeComparison(JsonComparatorCompiledSpecification compiledSpec,
+                                 JsonElement actualJson) {
+
+    JsonComparisonProcessor processor =
+        new JsonComparisonProcessor(this.jsonPathConfiguration, compiledSpec, actualJson);
+
+    JsonComparatorResult result = processor.executeComparison();
+
+    assertTrue("expect match; error=" + result.getErrorMessage(), result.isMatch());
+  }
+}
@@ -21,7 +21,17 @@ import com.google.gson.Gson;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.savoirtech.json.async.JsonAsyncComparator;
+import com.savoirtech.json.lines.JsonLinesComparator;
+import com.savoirtech.json.metrics.JsonComparatorMetricsListener;
 import com.savoirtech.json.processor.JsonComparisonProcessorFactory;
+import com.savoirtech.json.reactive.JsonComparisonFlowProcessor;
+import com.savoirtech.json.rules.JsonComparatorRule;
+import com.savoirtech.json.rules.RuleCompiler;
+import com.savoirtech.json.rules.RuleRegistry;
+import com.savoirtech.json.rules.TestRuleProvider;
+import com.savoirtech.json.rules.impl.ArrayAsSetRule;
+import com.savoirtech.json.rules.impl.RegexMatchingRule;
 import com.savoirtech.json.util.JsonComparatorUtil;
 
 import org.junit.Before;
@@ -29,6 +39,9 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.internal.util.reflection.Whitebox;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.*;
 
 /**
@@ -43,6 +56,7 @@ public class JsonComparatorBuilderTest {
   private Gson gson;
   private Configuration mockJsonPathConfiguration;
   private JsonComparisonProcessorFactory mockProcessorFactory;
+  private RuleCompiler mockRuleCompiler;
 
   /**
    * Setup common test data and interactions.
@@ -54,6 +68,7 @@ public class JsonComparatorBuilderTest {
     this.gson = new Gson();
     this.mockJsonPathConfiguration = Mockito.mock(Configuration.class);
     this.mockProcessorFactory = Mockito.mock(JsonComparisonProcessorFactory.class);
+    this.mockRuleCompiler = Mockito.mock(RuleCompiler.class);
   }
 
   /**
@@ -131,6 +146,244 @@ public class JsonComparatorBuilderTest {
     assertSame(this.mockProcessorFactory, comparator.getJsonComparisonProcessorFactory());
   }
 
+  /**
+   * Verify operation of the withRuleCompiler fluent builder method.
+   */
+  @Test
+  public void testWithRuleCompiler() throws Exception {
+    //
+    // Execute
+    //
+    JsonComparatorBuilder result;
+    JsonComparator comparator;
+
+    result = this.builder.withRuleCompiler(this.mockRuleCompiler);
+    comparator = this.builder.build();
+
+    //
+    // Verify
+    //
+    assertSame(result, this.builder);
+    assertSame(this.mockRuleCompiler, comparator.getRuleCompiler());
+  }
+
+  /**
+   * Verify operation of the withRule and withRuleClassLoader fluent builder methods.
+   */
+  @Test
+  public void testWithRule() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorRule mockRule1 = Mockito.mock(JsonComparatorRule.class);
+    JsonComparatorRule mockRule2 = Mockito.mock(JsonComparatorRule.class);
+
+    //
+    // Execute
+    //
+    JsonComparatorBuilder result1;
+    JsonComparatorBuilder result2;
+    JsonComparator comparator;
+
+    result1 = this.builder.withRule("x-action-x", mockRule1).withRule("set", mockRule2);
+    result2 = this.builder.withRuleClassLoader(this.getClass().getClassLoader());
+    comparator = this.builder.build();
+
+    //
+    // Verify
+    //
+    assertSame(result1, this.builder);
+    assertSame(result2, this.builder);
+
+    RuleRegistry
+        actualRuleRegistry =
+        (RuleRegistry) Whitebox.getInternalState(comparator.getRuleCompiler(), "registry");
+
+    assertTrue(actualRuleRegistry.isFrozen());
+    assertSame(mockRule1, actualRuleRegistry.lookupRule("x-action-x"));
+    assertSame(mockRule2, actualRuleRegistry.lookupRule("set"));
+    assertTrue(actualRuleRegistry.lookupRule("matches") instanceof RegexMatchingRule);
+    assertSame(TestRuleProvider.DISCOVERED_RULE,
+               actualRuleRegistry.lookupRule(TestRuleProvider.DISCOVERED_ACTION));
+  }
+
+  /**
+   * Verify operation of the withSpecificationCacheSize fluent builder method.
+   */
+  @Test
+  public void testWithSpecificationCacheSize() throws Exception {
+    //
+    // Execute
+    //
+    JsonComparatorBuilder result;
+    JsonComparator comparator;
+
+    result = this.builder.withSpecificationCacheSize(13);
+    comparator = this.builder.build();
+
+    //
+    // Verify
+    //
+    assertSame(result, this.builder);
+    assertEquals(13, comparator.getSpecificationCache().getMaxSize());
+    assertNotSame(comparator.getSpecificationCache(),
+                  this.builder.build().getSpecificationCache());
+  }
+
+  /**
+   * Verify operation of the withMaxDepth method.
+   */
+  @Test
+  public void testWithMaxDepth() throws Exception {
+    //
+    // Execute
+    //
+    JsonComparatorBuilder result;
+    JsonComparator comparator;
+
+    result = this.builder.withMaxDepth(17);
+    comparator = this.builder.build();
+
+    //
+    // Verify
+    //
+    assertSame(result, this.builder);
+    assertEquals(17, comparator.getJsonComparisonProcessorFactory().getMaxDepth());
+  }
+
+  /**
+   * Verify operation of the buildJsonLinesComparator method.
+   */
+  @Test
+  public void testBuildJsonLinesComparator() throws Exception {
+    //
+    // Execute
+    //
+    JsonLinesComparator result = this.builder.withMaxDepth(17).buildJsonLinesComparator();
+
+    //
+    // Verify
+    //
+    assertNotNull(result.getComparator());
+    assertEquals(17, result.getComparator().getJsonComparisonProcessorFactory().getMaxDepth());
+  }
+
+  /**
+   * Verify operation of the buildAsyncComparator method.
+   */
+  @Test
+  public void testBuildAsyncComparator() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    Executor executor = Runnable::run;
+
+    //
+    // Execute
+    //
+    JsonAsyncComparator result = this.builder.withMaxDepth(17).buildAsyncComparator(executor, 5);
+
+    //
+    // Verify
+    //
+    assertEquals(17, result.getComparator().getJsonComparisonProcessorFactory().getMaxDepth());
+    assertSame(executor, result.getExecutor());
+    assertEquals(5, result.getMaxInFlight());
+  }
+
+  /**
+   * Verify operation of the buildFlowProcessor method.
+   */
+  @Test
+  public void testBuildFlowProcessor() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    Executor executor = Runnable::run;
+    JsonComparatorCompiledSpecification compiledSpec =
+        this.builder.build().compile("{ \"templateJson\": [ 1 ] }");
+
+    //
+    // Execute
+    //
+    JsonComparisonFlowProcessor result =
+        this.builder.withMaxDepth(17).buildFlowProcessor(compiledSpec, executor, 3);
+
+    //
+    // Verify
+    //
+    assertEquals(17, result.getComparator().getJsonComparisonProcessorFactory().getMaxDepth());
+    assertSame(compiledSpec, result.getCompiledSpec());
+    assertSame(executor, result.getExecutor());
+    assertEquals(3, result.getParallelism());
+  }
+
+  /**
+   * Verify operation of the withMetricsListener method.
+   */
+  @Test
+  public void testWithMetricsListener() throws Exception {
+    JsonComparatorMetricsListener mockListener = Mockito.mock(JsonComparatorMetricsListener.class);
+
+    assertSame(JsonComparatorMetricsListener.NO_OP, this.builder.build().getMetricsListener());
+
+    JsonComparatorBuilder result = this.builder.withMetricsListener(mockListener);
+
+    assertSame(this.builder, result);
+    assertSame(mockListener, result.build().getMetricsListener());
+  }
+
+  /**
+   * Verify operation of the withMaxDifferences method.
+   */
+  @Test
+  public void testWithMaxDifferences() throws Exception {
+    //
+    // Execute
+    //
+    JsonComparatorBuilder result;
+    JsonComparator comparator;
+
+    result = this.builder.withMaxDifferences(19);
+    comparator = this.builder.build();
+
+    //
+    // Verify
+    //
+    assertSame(result, this.builder);
+    assertEquals(19, comparator.getJsonComparisonProcessorFactory().getMaxDifferences());
+  }
+
+  /**
+   * Verify operation of the withForkJoinPool and withParallelThreshold methods.
+   */
+  @Test
+  public void testWithParallel() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    //
+    // Execute
+    //
+    JsonComparatorBuilder result1;
+    JsonComparatorBuilder result2;
+    JsonComparator comparator;
+
+    result1 = this.builder.withForkJoinPool(pool);
+    result2 = this.builder.withParallelThreshold(23);
+    comparator = this.builder.build();
+
+    //
+    // Verify
+    //
+    assertSame(result1, this.builder);
+    assertSame(result2, this.builder);
+    assertSame(pool, comparator.getJsonComparisonProcessorFactory().getForkJoinPool());
+    assertEquals(23, comparator.getJsonComparisonProcessorFactory().getParallelThreshold());
+  }
+
   /**
    * Verify operation of the build method using all default values.
    */
@@ -160,5 +413,17 @@ public class JsonComparatorBuilderTest {
     assertNotSame(this.gson, comparator.getGson());
 
     assertSame(actualJsonPathConfig, util.getJsonPathConfiguration());
+
+    RuleRegistry
+        actualRuleRegistry =
+        (RuleRegistry) Whitebox.getInternalState(comparator.getRuleCompiler(), "registry");
+
+    assertTrue(actualRuleRegistry.lookupRule("matches") instanceof RegexMatchingRule);
+    assertTrue(actualRuleRegistry.lookupRule("set") instanceof ArrayAsSetRule);
+    assertTrue(actualRuleRegistry.isFrozen());
+    assertSame(TestRuleProvider.DISCOVERED_RULE,
+               actualRuleRegistry.lookupRule(TestRuleProvider.DISCOVERED_ACTION));
+
+    assertNull(comparator.getSpecificationCache());
   }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import com.jayway.jsonpath.JsonPath;
+import com.savoirtech.json.model.JsonComparatorRuleSpecification;
+import com.savoirtech.json.processor.JsonStructuralHasher;
+import com.savoirtech.json.rules.JsonComparatorCompiledRule;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
+import com.savoirtech.json.rules.path.RulePathAutomatonBuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonComparatorCompiledSpecification.
+ */
+public class JsonComparatorCompiledSpecificationTest {
+
+  private JsonComparatorCompiledSpecification compiledSpecification;
+
+  private JsonElement templateJson;
+  private JsonComparatorRuleSpecification[] rules;
+  private JsonComparatorCompiledRule[] compiledRules;
+  private RulePathAutomaton pathAutomaton;
+  private JsonPath[] rulePaths;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.templateJson = new JsonPrimitive("x-template-x");
+
+    this.rules = new JsonComparatorRuleSpecification[]{new JsonComparatorRuleSpecification()};
+    this.compiledRules =
+        new JsonComparatorCompiledRule[]{Mockito.mock(JsonComparatorCompiledRule.class)};
+    this.pathAutomaton = Mockito.mock(RulePathAutomaton.class);
+    this.rulePaths = new JsonPath[]{JsonPath.compile("$[1]")};
+
+    this.compiledSpecification =
+        new JsonComparatorCompiledSpecification(this.templateJson, this.rules, this.compiledRules,
+                                                this.pathAutomaton, this.rulePaths);
+  }
+
+  /**
+   * Verify operation of the getTemplateHash method.
+   */
+  @Test
+  public void testGetTemplateHash() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonElement template = new JsonParser().parse("{ \"a\": [ { \"b\": 1 } ], \"c\": \"x\" }");
+    JsonArray templateArr = template.getAsJsonObject().getAsJsonArray("a");
+
+    JsonComparatorCompiledSpecification compiledSpec1 =
+        new JsonComparatorCompiledSpecification(template, new JsonComparatorRuleSpecification[0],
+                                                new JsonComparatorCompiledRule[0],
+                                                new RulePathAutomatonBuilder().build(),
+                                                new JsonPath[0]);
+    JsonComparatorCompiledSpecification compiledSpec2 =
+        new JsonComparatorCompiledSpecification(null, new JsonComparatorRuleSpecification[0],
+                                                new JsonComparatorCompiledRule[0], null,
+                                                new JsonPath[0]);
+
+    JsonStructuralHasher hasher = new JsonStructuralHasher((RulePathAutomaton) null);
+
+    //
+    // Execute and Verify
+    //
+    int deadState = RulePathAutomaton.DEAD_STATE;
+
+    assertEquals(Integer.valueOf(hasher.hash(template)),
+                 compiledSpec1.getTemplateHash(template, deadState));
+    assertEquals(Integer.valueOf(hasher.hash(templateArr)),
+                 compiledSpec1.getTemplateHash(templateArr, deadState));
+    assertEquals(Integer.valueOf(hasher.hash(templateArr.get(0))),
+                 compiledSpec1.getTemplateHash(templateArr.get(0), deadState));
+    assertNull(compiledSpec1.getTemplateHash(template.getAsJsonObject().get("c"), deadState));
+    assertNull(compiledSpec1.getTemplateHash(new JsonParser().parse("[ { \"b\": 1 } ]"),
+                                             deadState));
+    assertNull(compiledSpec2.getTemplateHash(template, deadState));
+  }
+
+  /**
+   * Verify the elements of an array to which a "set" rule applies have their hashes precomputed,
+   * at the path states at which the rule hashes them, and only at those.
+   */
+  @Test
+  public void testGetTemplateHashWithSetRule() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorCompiledSpecification compiledSpec = new JsonComparatorBuilder().build().compile(
+        "{ \"templateJson\": { \"items\": [ { \"id\": \"1\", \"tags\": [ 1 ] }, "
+        + "{ \"id\": \"2\", \"tags\": [ 1 ] } ] }, \"rules\": [ "
+        + "{ \"selector\": { \"path\": \"$.items\" }, \"action\": \"set\" }, "
+        + "{ \"selector\": { \"path\": \"$.items[*].id\" }, \"action\": \"matches\", "
+        + "\"pattern\": \"[0-9]+\" } ] }");
+
+    RulePathAutomaton automaton = compiledSpec.getPathAutomaton();
+    JsonArray items = compiledSpec.getTemplateJson().getAsJsonObject().getAsJsonArray("items");
+
+    int itemsState = automaton.stepField(automaton.getRootState(), "items");
+    int item0State = automaton.stepIndex(itemsState, 0);
+    int item1State = automaton.stepIndex(itemsState, 1);
+
+    JsonStructuralHasher hasher = new JsonStructuralHasher(automaton);
+
+    //
+    // Execute and Verify
+    //
+    assertEquals(Integer.valueOf(hasher.hash(itemsState, items)),
+                 compiledSpec.getTemplateHash(items, itemsState));
+    assertEquals(Integer.valueOf(hasher.hash(item0State, items.get(0))),
+                 compiledSpec.getTemplateHash(items.get(0), item0State));
+    assertEquals(Integer.valueOf(hasher.hash(item1State, items.get(1))),
+                 compiledSpec.getTemplateHash(items.get(1), item1State));
+    assertEquals(compiledSpec.getTemplateHash(items.get(0), item0State),
+                 compiledSpec.getTemplateHash(items.get(1), item1State));
+
+    JsonElement tags = items.get(0).getAsJsonObject().get("tags");
+    assertEquals(Integer.valueOf(hasher.hash(tags)),
+                 compiledSpec.getTemplateHash(tags, RulePathAutomaton.DEAD_STATE));
+
+    // Hashed at another path state, such as the path of the array itself
+    assertNull(compiledSpec.getTemplateHash(items.get(0), itemsState));
+  }
+
+  /**
+   * Verify operation of the getters.
+   */
+  @Test
+  public void testGetters() throws Exception {
+    assertSame(this.templateJson, this.compiledSpecification.getTemplateJson());
+    assertEquals(1, this.compiledSpecification.getRuleCount());
+    assertSame(this.rules[0], this.compiledSpecification.getRule(0));
+    assertSame(this.compiledRules[0], this.compiledSpecification.getCompiledRule(0));
+    assertSame(this.pathAutomaton, this.compiledSpecification.getPathAutomaton());
+    assertSame(this.rulePaths[0], this.compiledSpecification.getRulePath(0));
+  }
+
+  /**
+   * Verify the compiled specification is not affected by changes to the arrays given to, or
+   * returned from, it.
+   */
+  @Test
+  public void testImmutableArrays() throws Exception {
+    JsonComparatorRuleSpecification[] returnedRules = this.compiledSpecification.getRules();
+    assertNotSame(this.rules, returnedRules);
+    assertSame(this.rules[0], returnedRules[0]);
+
+    returnedRules[0] = null;
+    this.rules[0] = null;
+    this.compiledRules[0] = null;
+    this.rulePaths[0] = null;
+
+    assertNotNull(this.compiledSpecification.getRule(0));
+    assertNotNull(this.compiledSpecification.getCompiledRule(0));
+    assertNotNull(this.compiledSpecification.getRulePath(0));
+  }
+
+  /**
+   * Verify the constructor rejects compiled rules which do not line up with the rules.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMismatchedRuleCounts() throws Exception {
+    new JsonComparatorCompiledSpecification(this.templateJson, this.rules,
+                                            new JsonComparatorCompiledRule[0], this.pathAutomaton,
+                                            this.rulePaths);
+  }
+}
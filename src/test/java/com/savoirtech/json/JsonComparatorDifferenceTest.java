@@ -0,0 +1,60 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import com.google.gson.JsonPrimitive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify the operation of the JsonComparatorDifference.
+ */
+public class JsonComparatorDifferenceTest {
+
+  /**
+   * Verify the getters of the difference.
+   */
+  @Test
+  public void testGetters() throws Exception {
+    JsonPrimitive expected = new JsonPrimitive("x-expected-x");
+    JsonPrimitive actual = new JsonPrimitive("x-actual-x");
+
+    JsonComparatorDifference difference =
+        new JsonComparatorDifference("x-path-x", JsonComparatorDifference.Kind.VALUE_MISMATCH,
+                                     expected, actual, "x-message-x");
+
+    assertEquals("x-path-x", difference.getPath());
+    assertEquals(JsonComparatorDifference.Kind.VALUE_MISMATCH, difference.getKind());
+    assertSame(expected, difference.getExpected());
+    assertSame(actual, difference.getActual());
+    assertEquals("x-message-x", difference.getMessage());
+  }
+
+  /**
+   * Verify operation of the toString method.
+   */
+  @Test
+  public void testToString() throws Exception {
+    JsonComparatorDifference difference =
+        new JsonComparatorDifference("x-path-x", JsonComparatorDifference.Kind.MISSING_FIELD,
+                                     null, null, "x-message-x");
+
+    assertEquals("MISSING_FIELD at x-path-x: x-message-x", difference.toString());
+  }
+}
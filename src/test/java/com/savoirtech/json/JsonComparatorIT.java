@@ -16,13 +16,29 @@
 
 package com.savoirtech.json;
 
+import com.savoirtech.json.metrics.JsonComparatorMetricsListener;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
+import com.savoirtech.json.node.JsonTape;
+
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -50,6 +66,260 @@ public class JsonComparatorIT {
     assertNull(result.getErrorPath());
   }
 
+  @Test
+  public void testCompileAndCompare01() throws Exception {
+    String actual01 = IOUtils.toString(JsonComparatorIT.class.getResourceAsStream("spec01.json"));
+    String rules01 = IOUtils.toString(JsonComparatorIT.class.getResourceAsStream("rules01.json"));
+
+    JsonComparatorCompiledSpecification compiledSpec = this.comparator.compile(rules01);
+
+    JsonComparatorResult result1 = this.comparator.compare(compiledSpec, actual01);
+    JsonComparatorResult result2 = this.comparator.compare(compiledSpec, actual01);
+
+    assertTrue("expect match; error=" + result1.getErrorMessage(), result1.isMatch());
+    assertTrue("expect match; error=" + result2.getErrorMessage(), result2.isMatch());
+    assertNull(result1.getErrorPath());
+  }
+
+  @Test
+  public void testCompareCached01() throws Exception {
+    String actual01 = IOUtils.toString(JsonComparatorIT.class.getResourceAsStream("spec01.json"));
+    String rules01 = IOUtils.toString(JsonComparatorIT.class.getResourceAsStream("rules01.json"));
+
+    JsonComparator comparator = new JsonComparatorBuilder().withSpecificationCacheSize(8).build();
+
+    for (int cur = 0; cur < 3; cur++) {
+      JsonComparatorResult result = comparator.compare(rules01, actual01);
+
+      assertTrue("expect match; error=" + result.getErrorMessage(), result.isMatch());
+    }
+
+    assertEquals(1, comparator.getSpecificationCache().getMissCount());
+    assertEquals(2, comparator.getSpecificationCache().getHitCount());
+  }
+
+  @Test
+  public void testCompareDeeplyNested() throws Exception {
+    StringBuilder nested = new StringBuilder();
+    for (int cur = 0; cur < 10000; cur++) {
+      nested.append("{ \"children\": [");
+    }
+    nested.append("\"leaf\"");
+    for (int cur = 0; cur < 10000; cur++) {
+      nested.append("] }");
+    }
+
+    String comparisonSpec = "{ \"templateJson\": " + nested + " }";
+
+    JsonComparatorResult result = this.comparator.compare(comparisonSpec, nested.toString());
+    assertTrue("expect match; error=" + result.getErrorMessage(), result.isMatch());
+
+    JsonComparator limitedComparator = new JsonComparatorBuilder().withMaxDepth(100).build();
+    result = limitedComparator.compare(comparisonSpec, nested.toString());
+    assertFalse(result.isMatch());
+    assertTrue(result.getErrorMessage(), result.getErrorMessage().startsWith("maximum depth of 100"));
+  }
+
+  @Test
+  public void testCompareStreaming() throws Exception {
+    StringBuilder template = new StringBuilder("[");
+    StringBuilder actual = new StringBuilder("[");
+    for (int cur = 0; cur < 1000; cur++) {
+      if (cur > 0) {
+        template.append(",");
+        actual.append(",");
+      }
+      template.append("{ \"id\": \"0\", \"value\": ").append(cur).append(" }");
+      actual.append("{ \"value\": ").append(cur).append(", \"id\": \"").append(cur).append("\" }");
+    }
+    template.append("]");
+    actual.append("]");
+
+    JsonComparatorCompiledSpecification compiledSpec = this.comparator.compile(
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$[*].id\" }, \"action\": \"matches\", "
+        + "\"pattern\": \"[0-9]+\" } ], \"templateJson\": " + template + " }");
+
+    InputStream actualStream =
+        new ByteArrayInputStream(actual.toString().getBytes(StandardCharsets.UTF_8));
+
+    JsonComparatorResult result = this.comparator.compare(compiledSpec, actualStream);
+    assertTrue("expect match; error=" + result.getErrorMessage(), result.isMatch());
+
+    String mismatched = actual.toString().replace("\"value\": 500,", "\"value\": 5000,");
+    result = this.comparator.compare(compiledSpec, new StringReader(mismatched));
+    assertFalse(result.isMatch());
+    assertEquals("$[500]['value']", result.getErrorPath());
+    assertEquals(this.comparator.compare(compiledSpec, mismatched).getErrorMessage(),
+                 result.getErrorMessage());
+
+    result = this.comparator.compare(compiledSpec, (Reader) null);
+    assertFalse(result.isMatch());
+  }
+
+  @Test
+  public void testCompareBytes() throws Exception {
+    String comparisonSpec = "{ \"templateJson\": { \"name\": \"caf\u00e9\", \"values\": [ 1, 2 ] } }";
+    byte[] actualBytes =
+        "{ \"values\": [ 1, 2 ], \"name\": \"caf\u00e9\" }".getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer directBuffer = ByteBuffer.allocateDirect(actualBytes.length);
+    directBuffer.put(actualBytes);
+    directBuffer.flip();
+
+    JsonComparatorCompiledSpecification compiledSpec = this.comparator.compile(comparisonSpec);
+
+    assertTrue(this.comparator.compare(comparisonSpec, actualBytes).isMatch());
+    assertTrue(this.comparator.compare(comparisonSpec, directBuffer).isMatch());
+    assertTrue(this.comparator.compare(compiledSpec, actualBytes).isMatch());
+    assertTrue(this.comparator.compare(compiledSpec, directBuffer).isMatch());
+    assertTrue(this.comparator.compare(compiledSpec, ByteBuffer.wrap(actualBytes)).isMatch());
+
+    byte[] mismatchBytes = "{ \"values\": [ 1, 3 ], \"name\": \"caf\u00e9\" }".getBytes(
+        StandardCharsets.UTF_8);
+    JsonComparatorResult result = this.comparator.compare(compiledSpec, mismatchBytes, 0, mismatchBytes.length);
+    assertFalse(result.isMatch());
+    assertEquals("$['values'][1]", result.getErrorPath());
+  }
+
+  @Test
+  public void testCompareDuplicateFields() throws Exception {
+    JsonComparatorCompiledSpecification compiledSpec = this.comparator.compile(
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$..*\" }, \"action\": \"matches\", "
+        + "\"pattern\": \".*\" } ], "
+        + "\"templateJson\": { \"id\": null, \"a\": \"s2\", \"c\": \"s1\" } }");
+    String actual = "{ \"id\": null, \"c\": \"s2\", \"c\": \"s2\" }";
+    byte[] actualBytes = actual.getBytes(StandardCharsets.UTF_8);
+
+    JsonComparatorResult expected = this.comparator.compare(compiledSpec, actual);
+    assertFalse(expected.isMatch());
+    assertEquals("object field sets do not match: path='$'; missing field 'a'",
+                 expected.getErrorMessage());
+
+    List<JsonComparatorResult> results = new ArrayList<>();
+    results.add(this.comparator.compare(compiledSpec, new StringReader(actual)));
+    results.add(this.comparator.compare(compiledSpec, new ByteArrayInputStream(actualBytes)));
+    results.add(this.comparator.compare(compiledSpec, actualBytes));
+    results.add(this.comparator.compare(compiledSpec, ByteBuffer.wrap(actualBytes)));
+    results.add(this.comparator.compare(compiledSpec, JsonTape.parse(new StringReader(actual))));
+
+    for (JsonComparatorResult result : results) {
+      assertFalse(result.isMatch());
+      assertEquals(expected.getErrorMessage(), result.getErrorMessage());
+    }
+  }
+
+  @Test
+  public void testCompareRuleAcceptsOtherType() throws Exception {
+    String comparisonSpec =
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$[*]\" }, \"action\": \"matches\", "
+        + "\"pattern\": \".*\" } ], "
+        + "\"templateJson\": { \"id\": { \"b\": 1 }, \"c\": true } }";
+    String actual = "{ \"c\": { \"c\": 0 }, \"uuid\": { } }";
+
+    JsonComparatorCompiledSpecification compiledSpec = this.comparator.compile(comparisonSpec);
+
+    JsonComparatorResult expected = this.comparator.compare(comparisonSpec, actual);
+    assertFalse(expected.isMatch());
+    assertEquals("object field sets do not match: path='$'; unexpected field 'uuid'",
+                 expected.getErrorMessage());
+
+    List<JsonComparatorResult> results = new ArrayList<>();
+    results.add(this.comparator.compare(compiledSpec, new StringReader(actual)));
+    results.add(this.comparator.compare(compiledSpec, JsonTape.parse(new StringReader(actual))));
+
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      JsonComparator parallelComparator =
+          new JsonComparatorBuilder().withForkJoinPool(pool).withParallelThreshold(1).build();
+      results.add(parallelComparator.compare(comparisonSpec, actual));
+    } finally {
+      pool.shutdown();
+    }
+
+    for (JsonComparatorResult result : results) {
+      assertFalse(result.isMatch());
+      assertEquals(expected.getErrorMessage(), result.getErrorMessage());
+    }
+
+    JsonComparator collectingComparator = new JsonComparatorBuilder().withMaxDifferences(10).build();
+    JsonComparatorResult result = collectingComparator.compare(comparisonSpec, actual);
+    assertFalse(result.isMatch());
+    assertEquals(3, result.getDifferences().size());
+    assertEquals(JsonComparatorDifference.Kind.TYPE_MISMATCH,
+                 result.getDifferences().get(0).getKind());
+    assertEquals("$['c']", result.getDifferences().get(0).getPath());
+  }
+
+  @Test
+  public void testCompareSetProbesOtherTypes() throws Exception {
+    String templateJson = "[ [ 1, { \"a\": { \"a\": \"s0\" } } ] ]";
+    String comparisonSpec =
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$..[0]\" }, \"action\": \"set\" }, "
+        + "{ \"selector\": { \"path\": \"$..[?(@.a)]\" }, \"action\": \"matches\", "
+        + "\"pattern\": \".*\" } ], \"templateJson\": " + templateJson + " }";
+
+    // The set rule also applies to $[0][0], which is not an array, so no pairing is complete
+    JsonComparatorResult result = this.comparator.compare(comparisonSpec, templateJson);
+    assertFalse(result.isMatch());
+    assertEquals("$[0][0]", result.getErrorPath());
+  }
+
+  @Test(timeout = 60000)
+  public void testCompareLargeSet() throws Exception {
+    StringBuilder template = new StringBuilder("[");
+    StringBuilder actual = new StringBuilder("[");
+    for (int cur = 0; cur < 20000; cur++) {
+      if (cur > 0) {
+        template.append(",");
+        actual.append(",");
+      }
+      template.append("{ \"id\": \"0\", \"value\": ").append(cur).append(" }");
+      actual.append("{ \"id\": \"").append(cur).append("\", \"value\": ")
+          .append(19999 - cur).append(" }");
+    }
+    template.append("]");
+    actual.append("]");
+
+    JsonComparatorCompiledSpecification compiledSpec = this.comparator.compile(
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$\" }, \"action\": \"set\" }, "
+        + "{ \"selector\": { \"path\": \"$[*].id\" }, \"action\": \"matches\", "
+        + "\"pattern\": \"[0-9]+\" } ], \"templateJson\": " + template + " }");
+
+    JsonComparatorResult result = this.comparator.compare(compiledSpec, actual.toString());
+    assertTrue("expect match; error=" + result.getErrorMessage(), result.isMatch());
+
+    String mismatched = actual.toString().replace("\"value\": 500 ", "\"value\": 50000 ");
+    result = this.comparator.compare(compiledSpec, mismatched);
+    assertFalse(result.isMatch());
+    assertEquals("$[19499]", result.getErrorPath());
+  }
+
+  @Test
+  public void testCompareCollectDifferences() throws Exception {
+    String comparisonSpec =
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$.id\" }, \"action\": \"matches\", "
+        + "\"pattern\": \"[0-9]+\" } ], "
+        + "\"templateJson\": { \"id\": \"1\", \"name\": \"x\", \"tags\": [ \"a\", \"b\" ] } }";
+    String actualJson = "{ \"id\": \"z\", \"name\": \"y\", \"tags\": [ \"a\", \"c\" ] }";
+
+    JsonComparatorResult result = this.comparator.compare(comparisonSpec, actualJson);
+    assertFalse(result.isMatch());
+    assertTrue(result.getDifferences().isEmpty());
+
+    JsonComparator collectingComparator = new JsonComparatorBuilder().withMaxDifferences(10).build();
+    result = collectingComparator.compare(comparisonSpec, actualJson);
+    assertFalse(result.isMatch());
+    assertEquals(3, result.getDifferences().size());
+    assertEquals(JsonComparatorDifference.Kind.RULE_MISMATCH,
+                 result.getDifferences().get(0).getKind());
+    assertEquals("$['name']", result.getDifferences().get(1).getPath());
+    assertEquals("$['tags'][1]", result.getDifferences().get(2).getPath());
+
+    JsonComparator limitedComparator = new JsonComparatorBuilder().withMaxDifferences(2).build();
+    result = limitedComparator.compare(comparisonSpec, actualJson);
+    assertEquals(2, result.getDifferences().size());
+  }
+
   @Test
   public void testReadmeExample01() {
 
@@ -97,4 +367,78 @@ public class JsonComparatorIT {
     assertEquals("value at path $[2] does not match '[3-5]': value=6", result.getErrorMessage());
     assertEquals("$[2]", result.getErrorPath());
   }
+
+  @Test
+  public void testCompiledFailureCase() {
+    JsonComparator comparator = new JsonComparatorBuilder().build();
+
+    String
+        comparisonSpec =
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$[2]\" }, \"action\": \"matches\", \"pattern\": \"[3-5]\" } ], \"templateJson\": [ 2, 4, 6 ] }";
+
+    JsonComparatorCompiledSpecification compiledSpec = comparator.compile(comparisonSpec);
+
+    JsonComparatorResult result = comparator.compare(compiledSpec, "[ 2, 4, 6 ]");
+
+    assertFalse(result.isMatch());
+    assertEquals("value at path $[2] does not match '[3-5]': value=6", result.getErrorMessage());
+    assertEquals("$[2]", result.getErrorPath());
+
+    result = comparator.compare(compiledSpec, "[ 2, 4, 5 ]");
+
+    assertTrue(result.getErrorMessage(), result.isMatch());
+  }
+
+  @Test
+  public void testMetrics() {
+    List<JsonComparisonMetrics> comparisons = new ArrayList<>();
+    List<JsonComparisonMetrics> compilations = new ArrayList<>();
+
+    JsonComparator comparator = new JsonComparatorBuilder()
+        .withMetricsListener(new JsonComparatorMetricsListener() {
+          @Override
+          public void onCompile(JsonComparisonMetrics metrics) {
+            compilations.add(metrics);
+          }
+
+          @Override
+          public void onComparison(JsonComparisonMetrics metrics) {
+            comparisons.add(metrics);
+          }
+        })
+        .build();
+
+    String
+        comparisonSpec =
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$[2]\" }, \"action\": \"matches\", \"pattern\": \"[3-5]\" } ], \"templateJson\": [ 2, 4, 6 ] }";
+
+    JsonComparatorResult result = comparator.compare(comparisonSpec, "[ 2, 4, 6 ]");
+
+    assertEquals(1, comparisons.size());
+    JsonComparisonMetrics metrics = comparisons.get(0);
+    assertSame(result, metrics.getResult());
+    assertEquals(Integer.toHexString(comparisonSpec.hashCode()), metrics.getSpecificationId());
+    assertEquals(11, metrics.getActualSize());
+    assertEquals(4, metrics.getNodeCount());
+    assertEquals(1, metrics.getRuleInvocationCount("matches"));
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.SPECIFICATION_PARSE) > 0);
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE) > 0);
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.COMPARISON) > 0);
+
+    JsonComparatorCompiledSpecification compiledSpec = comparator.compile(comparisonSpec);
+
+    assertEquals(1, compilations.size());
+    assertTrue(compilations.get(0).getPhaseNanos(JsonComparatorPhase.RULE_COMPILE) > 0);
+
+    result = comparator.compare(compiledSpec, new StringReader("[ 2, 4, 5 ]"));
+
+    assertTrue(result.getErrorMessage(), result.isMatch());
+    assertEquals(2, comparisons.size());
+    metrics = comparisons.get(1);
+    assertTrue(metrics.getSpecificationId().startsWith("compiled@"));
+    assertEquals(-1, metrics.getActualSize());
+    assertEquals(4, metrics.getNodeCount());
+    assertEquals(1, metrics.getRuleInvocationCount("matches"));
+    assertEquals(0, metrics.getPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE));
+  }
 }
@@ -18,6 +18,9 @@ package com.savoirtech.json;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -74,4 +77,70 @@ public class JsonComparatorResultTest {
     JsonComparatorResult result2 = new JsonComparatorResult(true, true, null, "x-error-path-x");
     assertEquals("x-error-path-x", result2.getErrorPath());
   }
-}
\ No newline at end of file
+
+  /**
+   * Verify the shared successful results.
+   */
+  @Test
+  public void testMatchConstants() throws Exception {
+    assertTrue(JsonComparatorResult.SHALLOW_MATCH.isMatch());
+    assertFalse(JsonComparatorResult.SHALLOW_MATCH.isDeep());
+    assertNull(JsonComparatorResult.SHALLOW_MATCH.getErrorMessage());
+    assertNull(JsonComparatorResult.SHALLOW_MATCH.getErrorPath());
+
+    assertTrue(JsonComparatorResult.DEEP_MATCH.isMatch());
+    assertTrue(JsonComparatorResult.DEEP_MATCH.isDeep());
+    assertNull(JsonComparatorResult.DEEP_MATCH.getErrorMessage());
+    assertNull(JsonComparatorResult.DEEP_MATCH.getErrorPath());
+
+    assertSame(JsonComparatorResult.SHALLOW_MATCH, JsonComparatorResult.match(false));
+    assertSame(JsonComparatorResult.DEEP_MATCH, JsonComparatorResult.match(true));
+  }
+
+  /**
+   * Verify operation of the mismatch factory method.
+   */
+  @Test
+  public void testMismatch() throws Exception {
+    JsonComparatorResult result1 =
+        JsonComparatorResult.mismatch(true, "x-error-message-x", "x-error-path-x");
+
+    assertFalse(result1.isMatch());
+    assertTrue(result1.isDeep());
+    assertEquals("x-error-message-x", result1.getErrorMessage());
+    assertEquals("x-error-path-x", result1.getErrorPath());
+
+    JsonComparatorResult result2 = JsonComparatorResult.mismatch(false, null, null);
+    assertFalse(result2.isDeep());
+    assertNotSame(result2, JsonComparatorResult.mismatch(false, null, null));
+  }
+
+  /**
+   * Verify operation of the getDifferences method.
+   */
+  @Test
+  public void testGetDifferences() throws Exception {
+    assertTrue(JsonComparatorResult.DEEP_MATCH.getDifferences().isEmpty());
+    assertTrue(JsonComparatorResult.mismatch(true, null, null).getDifferences().isEmpty());
+
+    JsonComparatorDifference difference =
+        new JsonComparatorDifference("x-path-x", JsonComparatorDifference.Kind.VALUE_MISMATCH,
+                                     null, null, "x-message-x");
+
+    List<JsonComparatorDifference> differences = new ArrayList<>();
+    differences.add(difference);
+
+    JsonComparatorResult result1 =
+        new JsonComparatorResult(true, false, "x-message-x", "x-path-x", differences);
+
+    assertEquals(1, result1.getDifferences().size());
+    assertSame(difference, result1.getDifferences().get(0));
+
+    try {
+      result1.getDifferences().clear();
+      fail("missing expected exception");
+    } catch (UnsupportedOperationException expected) {
+      // Expected
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonComparatorSpecificationCache.
+ */
+public class JsonComparatorSpecificationCacheTest {
+
+  private JsonComparatorSpecificationCache cache;
+
+  private Function<String, JsonComparatorCompiledSpecification> mockCompiler;
+  private JsonComparatorCompiledSpecification compiledSpec1;
+  private JsonComparatorCompiledSpecification compiledSpec2;
+  private JsonComparatorCompiledSpecification compiledSpec3;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setupTest() throws Exception {
+    this.cache = new JsonComparatorSpecificationCache(2);
+
+    this.mockCompiler = Mockito.mock(Function.class);
+    JsonComparator comparator = new JsonComparatorBuilder().build();
+    this.compiledSpec1 = comparator.compile("{ \"templateJson\": [ 1 ] }");
+    this.compiledSpec2 = comparator.compile("{ \"templateJson\": [ 2 ] }");
+    this.compiledSpec3 = comparator.compile("{ \"templateJson\": [ 3 ] }");
+
+    Mockito.when(this.mockCompiler.apply("x-spec1-x")).thenReturn(this.compiledSpec1);
+    Mockito.when(this.mockCompiler.apply("x-spec2-x")).thenReturn(this.compiledSpec2);
+    Mockito.when(this.mockCompiler.apply("x-spec3-x")).thenReturn(this.compiledSpec3);
+  }
+
+  /**
+   * Verify a specification is compiled once and then served from the cache.
+   */
+  @Test
+  public void testHitAndMiss() throws Exception {
+    assertSame(this.compiledSpec1, this.cache.getOrCompile("x-spec1-x", this.mockCompiler));
+    assertSame(this.compiledSpec1,
+               this.cache.getOrCompile(new String("x-spec1-x"), this.mockCompiler));
+    assertSame(this.compiledSpec1, this.cache.getOrCompile("x-spec1-x", this.mockCompiler));
+
+    Mockito.verify(this.mockCompiler, Mockito.times(1)).apply("x-spec1-x");
+    assertEquals(2, this.cache.getHitCount());
+    assertEquals(1, this.cache.getMissCount());
+    assertEquals(0, this.cache.getEvictionCount());
+    assertEquals(1, this.cache.getSize());
+  }
+
+  /**
+   * Verify the least-recently-used specification is evicted when the cache is full.
+   */
+  @Test
+  public void testEviction() throws Exception {
+    this.cache.getOrCompile("x-spec1-x", this.mockCompiler);
+    this.cache.getOrCompile("x-spec2-x", this.mockCompiler);
+
+    // Use spec1 so spec2 becomes the least-recently-used
+    this.cache.getOrCompile("x-spec1-x", this.mockCompiler);
+    this.cache.getOrCompile("x-spec3-x", this.mockCompiler);
+
+    assertEquals(1, this.cache.getEvictionCount());
+    assertEquals(2, this.cache.getSize());
+
+    this.cache.getOrCompile("x-spec1-x", this.mockCompiler);
+    this.cache.getOrCompile("x-spec2-x", this.mockCompiler);
+
+    Mockito.verify(this.mockCompiler, Mockito.times(1)).apply("x-spec1-x");
+    Mockito.verify(this.mockCompiler, Mockito.times(2)).apply("x-spec2-x");
+    assertEquals(2, this.cache.getHitCount());
+    assertEquals(4, this.cache.getMissCount());
+    assertEquals(2, this.cache.getEvictionCount());
+  }
+
+  /**
+   * Verify operation of the clear method.
+   */
+  @Test
+  public void testClear() throws Exception {
+    this.cache.getOrCompile("x-spec1-x", this.mockCompiler);
+    this.cache.clear();
+
+    assertEquals(0, this.cache.getSize());
+    this.cache.getOrCompile("x-spec1-x", this.mockCompiler);
+
+    Mockito.verify(this.mockCompiler, Mockito.times(2)).apply("x-spec1-x");
+    assertEquals(2, this.cache.getMissCount());
+    assertEquals(2, this.cache.getMaxSize());
+  }
+
+  /**
+   * Verify the cache size must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() throws Exception {
+    new JsonComparatorSpecificationCache(0);
+  }
+}
@@ -20,20 +20,42 @@ import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
 
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.model.JsonComparatorSelector;
 import com.savoirtech.json.model.JsonComparatorSpecification;
+import com.savoirtech.json.node.GsonNodeAdapter;
+import com.savoirtech.json.node.JavaObjectNodeAdapter;
+import com.savoirtech.json.node.JsonNodeReader;
+import com.savoirtech.json.node.JsonTape;
 import com.savoirtech.json.processor.JsonComparisonProcessor;
+import com.savoirtech.json.exception.UnknownRuleException;
+import com.savoirtech.json.metrics.JsonComparatorMetricsListener;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
 import com.savoirtech.json.processor.JsonComparisonProcessorFactory;
+import com.savoirtech.json.processor.JsonStreamingComparisonProcessor;
+import com.savoirtech.json.processor.RuleProcessor;
+import com.savoirtech.json.rules.JsonComparatorCompiledRule;
+import com.savoirtech.json.rules.RuleCompiler;
 
 import org.hamcrest.Matcher;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 
 import static org.junit.Assert.*;
@@ -52,6 +74,8 @@ public class JsonComparatorTest {
 
   private JsonComparisonProcessorFactory mockProcessorFactory;
   private JsonComparisonProcessor mockProcessor;
+  private RuleCompiler mockRuleCompiler;
+  private JsonComparatorCompiledRule mockCompiledRule;
 
   private String testComparisonSpec;
   private JsonComparatorSelector testSelector;
@@ -73,6 +97,8 @@ public class JsonComparatorTest {
 
     this.mockProcessorFactory = Mockito.mock(JsonComparisonProcessorFactory.class);
     this.mockProcessor = Mockito.mock(JsonComparisonProcessor.class);
+    this.mockRuleCompiler = Mockito.mock(RuleCompiler.class);
+    this.mockCompiledRule = Mockito.mock(JsonComparatorCompiledRule.class);
 
     this.testSelector = new JsonComparatorSelector();
     this.testSelector.setPath("x-selector-path-x");
@@ -109,6 +135,400 @@ public class JsonComparatorTest {
     assertSame(this.mockProcessorFactory, this.jsonComparator.getJsonComparisonProcessorFactory());
   }
 
+  /**
+   * Verify operation of the getter and setter of the RuleCompiler.
+   */
+  @Test
+  public void testGetSetRuleCompiler() throws Exception {
+    assertNull(this.jsonComparator.getRuleCompiler());
+
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    assertSame(this.mockRuleCompiler, this.jsonComparator.getRuleCompiler());
+  }
+
+  /**
+   * Verify operation of the compile method.
+   */
+  @Test
+  public void testCompile() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+
+    //
+    // Execute
+    //
+    JsonComparatorCompiledSpecification result;
+    result = this.jsonComparator.compile(this.testComparisonSpec);
+
+    //
+    // Verify
+    //
+    assertEquals(this.templateJson, result.getTemplateJson());
+    assertEquals(1, result.getRuleCount());
+    assertEquals(this.testRules[0], result.getRule(0));
+    assertSame(this.mockCompiledRule, result.getCompiledRule(0));
+    assertEquals("$['x-selector-path-x']", result.getRulePath(0).getPath());
+  }
+
+  /**
+   * Verify operation of the compile method when the specification contains no rules.
+   */
+  @Test
+  public void testCompileNoRules() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.testRules = null;
+    String testComparisonSpec = createTestComparatorSpecString();
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+
+    //
+    // Execute
+    //
+    JsonComparatorCompiledSpecification result;
+    result = this.jsonComparator.compile(testComparisonSpec);
+
+    //
+    // Verify
+    //
+    assertEquals(this.templateJson, result.getTemplateJson());
+    assertEquals(0, result.getRuleCount());
+    Mockito.verifyZeroInteractions(this.mockRuleCompiler);
+  }
+
+  /**
+   * Verify unknown rule actions are reported when compiling, rather than when comparing.
+   */
+  @Test(expected = UnknownRuleException.class)
+  public void testCompileUnknownRule() throws Exception {
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenThrow(new UnknownRuleException("x-action-x"));
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+
+    this.jsonComparator.compile(this.testComparisonSpec);
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification.
+   */
+  @Test
+  public void testCompareCompiled() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createProcessor(Mockito.same(compiledSpec),
+                                      Mockito.eq(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+
+    Mockito.when(this.mockProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1;
+    JsonComparatorResult result2;
+    result1 = this.jsonComparator.compare(compiledSpec, this.actualJson);
+    result2 = this.jsonComparator.compare(compiledSpec, this.actualJson);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result1);
+    assertSame(testResult, result2);
+    Mockito.verify(this.mockRuleCompiler, Mockito.times(1)).compile(this.testRules[0]);
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification and a reader of the
+   * actual JSON.
+   */
+  @Test
+  public void testCompareCompiledStreaming() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+    JsonStreamingComparisonProcessor mockStreamingProcessor =
+        Mockito.mock(JsonStreamingComparisonProcessor.class);
+    Reader actualReader = new StringReader(this.actualJson);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createStreamingProcessor(Mockito.same(compiledSpec),
+                                               Mockito.same(actualReader)))
+        .thenReturn(mockStreamingProcessor);
+    Mockito.when(this.mockProcessorFactory
+                     .createStreamingProcessor(Mockito.same(compiledSpec),
+                                               Mockito.any(InputStreamReader.class)))
+        .thenReturn(mockStreamingProcessor);
+
+    Mockito.when(mockStreamingProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1;
+    JsonComparatorResult result2;
+    result1 = this.jsonComparator.compare(compiledSpec, actualReader);
+    result2 = this.jsonComparator.compare(compiledSpec, new ByteArrayInputStream(
+        this.actualJson.getBytes(StandardCharsets.UTF_8)));
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result1);
+    assertSame(testResult, result2);
+    Mockito.verify(mockStreamingProcessor, Mockito.times(2)).executeComparison();
+    Mockito.verifyZeroInteractions(this.mockProcessor);
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification when the actual JSON
+   * reader is null.
+   */
+  @Test
+  public void testCompareCompiledStreamingActualNull() throws Exception {
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    JsonComparatorResult result1 = this.jsonComparator.compare(compiledSpec, (Reader) null);
+    JsonComparatorResult result2 = this.jsonComparator.compare(compiledSpec, (InputStream) null);
+
+    assertFalse(result1.isMatch());
+    assertEquals("actual json is null; template json is not", result1.getErrorMessage());
+    assertFalse(result2.isMatch());
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification when the actual JSON is
+   * null.
+   */
+  @Test
+  public void testCompareCompiledActualNull() throws Exception {
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    JsonComparatorResult result = this.jsonComparator.compare(compiledSpec, (String) null);
+
+    assertFalse(result.isMatch());
+    assertEquals("actual json is null; template json is not", result.getErrorMessage());
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification and an actual JSON tree.
+   */
+  @Test
+  public void testCompareCompiledTree() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    Mockito.when(this.mockProcessorFactory.createProcessor(Mockito.same(compiledSpec),
+                                                           Mockito.same(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+    Mockito.when(this.mockProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = this.jsonComparator.compare(compiledSpec, this.actualJsonElement);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result);
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification and an actual JSON tree
+   * read through a node adapter.
+   */
+  @Test
+  public void testCompareCompiledNodes() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+    JsonStreamingComparisonProcessor mockStreamingProcessor =
+        Mockito.mock(JsonStreamingComparisonProcessor.class);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createStreamingProcessor(Mockito.same(compiledSpec),
+                                               Mockito.any(JsonNodeReader.class)))
+        .thenReturn(mockStreamingProcessor);
+    Mockito.when(mockStreamingProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1;
+    JsonComparatorResult result2;
+    result1 = this.jsonComparator.compare(compiledSpec, this.actualJsonElement,
+                                          GsonNodeAdapter.INSTANCE);
+    result2 = this.jsonComparator.compare(compiledSpec, (Object) Collections.emptyMap(),
+                                          JavaObjectNodeAdapter.INSTANCE);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result1);
+    assertSame(testResult, result2);
+    Mockito.verifyZeroInteractions(this.mockProcessor);
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification and a tape of the
+   * actual JSON.
+   */
+  @Test
+  public void testCompareCompiledTape() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+    JsonStreamingComparisonProcessor mockStreamingProcessor =
+        Mockito.mock(JsonStreamingComparisonProcessor.class);
+    JsonTape actualTape = JsonTape.parse(new StringReader(this.actualJson));
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createStreamingProcessor(Mockito.same(compiledSpec),
+                                               Mockito.any(JsonReader.class)))
+        .thenReturn(mockStreamingProcessor);
+    Mockito.when(mockStreamingProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 = this.jsonComparator.compare(compiledSpec, actualTape);
+    JsonComparatorResult result2 = this.jsonComparator.compare(compiledSpec, (JsonTape) null);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result1);
+    assertFalse(result2.isMatch());
+    assertEquals("actual json is null; template json is not", result2.getErrorMessage());
+  }
+
+  /**
+   * Verify operation of the compare method using a compiled specification when the actual JSON
+   * tree is null.
+   */
+  @Test
+  public void testCompareCompiledTreeActualNull() throws Exception {
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    JsonComparatorResult result1 = this.jsonComparator.compare(compiledSpec, (JsonElement) null);
+    JsonComparatorResult result2 =
+        this.jsonComparator.compare(compiledSpec, null, JavaObjectNodeAdapter.INSTANCE);
+
+    assertFalse(result1.isMatch());
+    assertEquals("actual json is null; template json is not", result1.getErrorMessage());
+    assertFalse(result2.isMatch());
+    assertEquals("actual json is null; template json is not", result2.getErrorMessage());
+  }
+
+  /**
+   * Verify operation of the compare method when a specification cache is configured.
+   */
+  @Test
+  public void testCompareCached() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+    JsonComparatorSpecificationCache cache = new JsonComparatorSpecificationCache(4);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockProcessorFactory
+                     .createProcessor(Mockito.any(JsonComparatorCompiledSpecification.class),
+                                      Mockito.eq(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+    Mockito.when(this.mockProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+    this.jsonComparator.setSpecificationCache(cache);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1;
+    JsonComparatorResult result2;
+    result1 = this.jsonComparator.compare(this.testComparisonSpec, this.actualJson);
+    result2 = this.jsonComparator.compare(this.testComparisonSpec, this.actualJson);
+
+    //
+    // Verify
+    //
+    assertSame(cache, this.jsonComparator.getSpecificationCache());
+    assertSame(testResult, result1);
+    assertSame(testResult, result2);
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getHitCount());
+    Mockito.verify(this.mockRuleCompiler, Mockito.times(1)).compile(this.testRules[0]);
+  }
+
   /**
    * Verify operation of the compare method.
    */
@@ -140,6 +560,243 @@ public class JsonComparatorTest {
     assertSame(testResult, result);
   }
 
+  /**
+   * Verify operation of the getter and setter for the metrics listener.
+   */
+  @Test
+  public void testGetSetMetricsListener() throws Exception {
+    JsonComparatorMetricsListener mockListener = Mockito.mock(JsonComparatorMetricsListener.class);
+
+    assertSame(JsonComparatorMetricsListener.NO_OP, this.jsonComparator.getMetricsListener());
+
+    this.jsonComparator.setMetricsListener(mockListener);
+    assertSame(mockListener, this.jsonComparator.getMetricsListener());
+
+    this.jsonComparator.setMetricsListener(null);
+    assertSame(JsonComparatorMetricsListener.NO_OP, this.jsonComparator.getMetricsListener());
+  }
+
+  /**
+   * Verify the compare method reports the metrics of the comparison to the metrics listener.
+   */
+  @Test
+  public void testCompareMetrics() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+    JsonComparatorMetricsListener mockListener = Mockito.mock(JsonComparatorMetricsListener.class);
+    ArgumentCaptor<JsonComparisonMetrics> metricsCaptor =
+        ArgumentCaptor.forClass(JsonComparisonMetrics.class);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createProcessor(Mockito.eq(this.templateJson), Mockito.argThat(this.createRulesMatcher(this.testRules)),
+                                      Mockito.eq(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+
+    Mockito.when(this.mockProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+    this.jsonComparator.setMetricsListener(mockListener);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result;
+    result = this.jsonComparator.compare(this.testComparisonSpec, this.actualJson);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result);
+    Mockito.verify(mockListener).onComparison(metricsCaptor.capture());
+    Mockito.verify(this.mockProcessor).setMetrics(metricsCaptor.getValue());
+
+    JsonComparisonMetrics metrics = metricsCaptor.getValue();
+    assertSame(testResult, metrics.getResult());
+    assertNull(metrics.getFailure());
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.SPECIFICATION_PARSE) > 0);
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE) > 0);
+  }
+
+  /**
+   * Verify the compare method reports a comparison ending in an exception to the metrics listener.
+   */
+  @Test
+  public void testCompareMetricsFailure() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorMetricsListener mockListener = Mockito.mock(JsonComparatorMetricsListener.class);
+    ArgumentCaptor<JsonComparisonMetrics> metricsCaptor =
+        ArgumentCaptor.forClass(JsonComparisonMetrics.class);
+    IllegalStateException testExc = new IllegalStateException("x-failure-x");
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        this.jsonComparator.compile(this.testComparisonSpec);
+
+    Mockito.when(this.mockProcessorFactory.createProcessor(Mockito.same(compiledSpec),
+                                                           Mockito.same(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+    Mockito.when(this.mockProcessor.executeComparison()).thenThrow(testExc);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+    this.jsonComparator.setMetricsListener(mockListener);
+
+    //
+    // Execute
+    //
+    try {
+      this.jsonComparator.compare(compiledSpec, this.actualJsonElement);
+      fail("missing expected exception");
+    } catch (IllegalStateException isExc) {
+      assertSame(testExc, isExc);
+    }
+
+    //
+    // Verify
+    //
+    Mockito.verify(mockListener).onComparison(metricsCaptor.capture());
+
+    assertNull(metricsCaptor.getValue().getResult());
+    assertSame(testExc, metricsCaptor.getValue().getFailure());
+  }
+
+  /**
+   * Verify the compile method reports the metrics of the compilation to the metrics listener.
+   */
+  @Test
+  public void testCompileMetrics() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorMetricsListener mockListener = Mockito.mock(JsonComparatorMetricsListener.class);
+    ArgumentCaptor<JsonComparisonMetrics> metricsCaptor =
+        ArgumentCaptor.forClass(JsonComparisonMetrics.class);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.testRules[0]))
+        .thenReturn(this.mockCompiledRule);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+    this.jsonComparator.setMetricsListener(mockListener);
+
+    //
+    // Execute
+    //
+    this.jsonComparator.compile(this.testComparisonSpec);
+
+    //
+    // Verify
+    //
+    Mockito.verify(mockListener).onCompile(metricsCaptor.capture());
+    Mockito.verify(mockListener, Mockito.never()).onComparison(Mockito.any());
+
+    JsonComparisonMetrics metrics = metricsCaptor.getValue();
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.SPECIFICATION_PARSE) > 0);
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.RULE_COMPILE) > 0);
+    assertEquals(0, metrics.getPhaseNanos(JsonComparatorPhase.COMPARISON));
+  }
+
+  /**
+   * Verify the compare method compiles rules with the comparator's rule compiler.
+   */
+  @Test
+  public void testCompareUsesRuleCompiler() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+    RuleProcessor mockRuleProcessor = Mockito.mock(RuleProcessor.class);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createProcessor(Mockito.eq(this.templateJson), Mockito.argThat(this.createRulesMatcher(this.testRules)),
+                                      Mockito.eq(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+
+    Mockito.when(this.mockProcessor.getRuleProcessor()).thenReturn(mockRuleProcessor);
+    Mockito.when(this.mockProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+    this.jsonComparator.setRuleCompiler(this.mockRuleCompiler);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result;
+    result = this.jsonComparator.compare(this.testComparisonSpec, this.actualJson);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result);
+    Mockito.verify(mockRuleProcessor).setRuleCompiler(this.mockRuleCompiler);
+  }
+
+  /**
+   * Verify operation of the compare methods taking the actual JSON as UTF-8 bytes.
+   */
+  @Test
+  public void testCompareBytes() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorResult testResult = Mockito.mock(JsonComparatorResult.class);
+
+    Mockito.when(this.mockProcessorFactory
+                     .createProcessor(Mockito.eq(this.templateJson), Mockito.argThat(this.createRulesMatcher(this.testRules)),
+                                      Mockito.eq(this.actualJsonElement)))
+        .thenReturn(this.mockProcessor);
+
+    Mockito.when(this.mockProcessor.executeComparison()).thenReturn(testResult);
+
+    this.jsonComparator.setJsonComparisonProcessorFactory(this.mockProcessorFactory);
+
+    byte[] actualBytes = this.actualJson.getBytes(StandardCharsets.UTF_8);
+    byte[] paddedBytes = ("[" + this.actualJson + "]").getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer directBuffer = ByteBuffer.allocateDirect(actualBytes.length);
+    directBuffer.put(actualBytes);
+    directBuffer.flip();
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1;
+    JsonComparatorResult result2;
+    JsonComparatorResult result3;
+    result1 = this.jsonComparator.compare(this.testComparisonSpec, actualBytes);
+    result2 = this.jsonComparator.compare(this.testComparisonSpec, paddedBytes, 1,
+                                          actualBytes.length);
+    result3 = this.jsonComparator.compare(this.testComparisonSpec, directBuffer);
+
+    //
+    // Verify
+    //
+    assertSame(testResult, result1);
+    assertSame(testResult, result2);
+    assertSame(testResult, result3);
+    assertEquals(0, directBuffer.position());
+  }
+
+  /**
+   * Verify operation of the compare methods taking the actual JSON as UTF-8 bytes when the actual
+   * JSON is null.
+   */
+  @Test
+  public void testCompareBytesActualNull() throws Exception {
+    JsonComparatorResult result1 = this.jsonComparator.compare(this.testComparisonSpec, (byte[]) null);
+    JsonComparatorResult result2 =
+        this.jsonComparator.compare(this.testComparisonSpec, (ByteBuffer) null);
+
+    assertFalse(result1.isMatch());
+    assertEquals("actual json is null; template json is not", result1.getErrorMessage());
+    assertFalse(result2.isMatch());
+    assertEquals("actual json is null; template json is not", result2.getErrorMessage());
+  }
+
   /**
    * Verify operation of the compare method when the actual JSON is null but the expected JSON is
    * not null.
@@ -150,7 +807,7 @@ public class JsonComparatorTest {
     // Execute
     //
     JsonComparatorResult result;
-    result = this.jsonComparator.compare(this.testComparisonSpec, null);
+    result = this.jsonComparator.compare(this.testComparisonSpec, (String) null);
 
     //
     // Verify
@@ -201,7 +858,7 @@ public class JsonComparatorTest {
     // Execute
     //
     JsonComparatorResult result;
-    result = this.jsonComparator.compare(testComparisonSpec, null);
+    result = this.jsonComparator.compare(testComparisonSpec, (String) null);
 
     //
     // Verify
@@ -0,0 +1,203 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.async;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonAsyncComparator.
+ */
+public class JsonAsyncComparatorTest {
+
+  private static final String COMPARISON_SPEC =
+      "{ \"rules\": [ { \"selector\": { \"path\": \"$.id\" }, \"action\": \"matches\", "
+      + "\"pattern\": \"[0-9]+\" } ], \"templateJson\": { \"id\": \"0\", \"ok\": true } }";
+
+  private JsonComparator comparator;
+  private JsonComparatorCompiledSpecification compiledSpec;
+  private ExecutorService executor;
+
+  private JsonAsyncComparator asyncComparator;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.comparator = new JsonComparatorBuilder().build();
+    this.compiledSpec = this.comparator.compile(COMPARISON_SPEC);
+    this.executor = Executors.newFixedThreadPool(4);
+
+    this.asyncComparator = new JsonAsyncComparator(this.comparator, this.executor, 2);
+  }
+
+  @After
+  public void cleanupTest() throws Exception {
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * Verify the getters.
+   */
+  @Test
+  public void testGetters() throws Exception {
+    JsonAsyncComparator defaultComparator = new JsonAsyncComparator(this.comparator, this.executor);
+
+    assertSame(this.comparator, this.asyncComparator.getComparator());
+    assertSame(this.executor, this.asyncComparator.getExecutor());
+    assertEquals(2, this.asyncComparator.getMaxInFlight());
+    assertEquals(0, this.asyncComparator.getInFlightCount());
+    assertEquals(JsonAsyncComparator.DEFAULT_MAX_IN_FLIGHT, defaultComparator.getMaxInFlight());
+  }
+
+  /**
+   * Verify an invalid maximum number of comparisons in flight is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaxInFlight() throws Exception {
+    new JsonAsyncComparator(this.comparator, this.executor, 0);
+  }
+
+  /**
+   * Verify operation of the compareAsync methods.
+   */
+  @Test
+  public void testCompareAsync() throws Exception {
+    //
+    // Execute
+    //
+    CompletableFuture<JsonComparatorResult> result1 =
+        this.asyncComparator.compareAsync(COMPARISON_SPEC, "{ \"id\": \"17\", \"ok\": true }");
+    CompletableFuture<JsonComparatorResult> result2 =
+        this.asyncComparator.compareAsync(this.compiledSpec, "{ \"id\": \"x\", \"ok\": true }");
+    CompletableFuture<JsonComparatorResult> result3 =
+        this.asyncComparator.compareAsync("x-not-a-spec-x", "{ }");
+
+    //
+    // Verify
+    //
+    assertTrue(result1.get(10, TimeUnit.SECONDS).isMatch());
+    assertFalse(result2.get(10, TimeUnit.SECONDS).isMatch());
+    assertEquals("$['id']", result2.get().getErrorPath());
+
+    try {
+      result3.get(10, TimeUnit.SECONDS);
+      fail("missing expected exception");
+    } catch (ExecutionException execExc) {
+      assertNotNull(execExc.getCause());
+    }
+
+    assertEquals(0, this.asyncComparator.getInFlightCount());
+  }
+
+  /**
+   * Verify operation of the compareAll method, including the bound on comparisons in flight.
+   */
+  @Test
+  public void testCompareAll() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    CountDownLatch blocker = new CountDownLatch(1);
+    ExecutorService submitter = Executors.newSingleThreadExecutor();
+
+    // Occupy both permits with comparisons that wait until released
+    JsonAsyncComparator blockingComparator =
+        new JsonAsyncComparator(this.comparator, (task) -> this.executor.execute(() -> {
+          try {
+            blocker.await();
+          } catch (InterruptedException intExc) {
+            Thread.currentThread().interrupt();
+          }
+          task.run();
+        }), 2);
+
+    try {
+      //
+      // Execute
+      //
+      CompletableFuture<List<CompletableFuture<JsonComparatorResult>>> submitted =
+          CompletableFuture.supplyAsync(
+              () -> blockingComparator.compareAll(
+                  this.compiledSpec, Arrays.asList("{ \"id\": \"1\", \"ok\": true }",
+                                                   "{ \"id\": \"2\", \"ok\": false }",
+                                                   "{ \"id\": \"3\", \"ok\": true }")),
+              submitter);
+
+      //
+      // Verify
+      //
+      Thread.sleep(200);
+      assertFalse(submitted.isDone());
+      assertEquals(2, blockingComparator.getInFlightCount());
+
+      blocker.countDown();
+
+      List<CompletableFuture<JsonComparatorResult>> results = submitted.get(10, TimeUnit.SECONDS);
+
+      assertEquals(3, results.size());
+      assertTrue(results.get(0).get(10, TimeUnit.SECONDS).isMatch());
+      assertFalse(results.get(1).get(10, TimeUnit.SECONDS).isMatch());
+      assertTrue(results.get(2).get(10, TimeUnit.SECONDS).isMatch());
+      assertEquals(0, blockingComparator.getInFlightCount());
+    } finally {
+      blocker.countDown();
+      submitter.shutdownNow();
+    }
+  }
+
+  /**
+   * Verify the permit of a comparison rejected by the executor is released.
+   */
+  @Test
+  public void testCompareAsyncRejected() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.executor.shutdown();
+
+    //
+    // Execute and Verify
+    //
+    try {
+      this.asyncComparator.compareAsync(this.compiledSpec, "{ }");
+      fail("missing expected exception");
+    } catch (RejectedExecutionException reExc) {
+      assertEquals(0, this.asyncComparator.getInFlightCount());
+    }
+  }
+}
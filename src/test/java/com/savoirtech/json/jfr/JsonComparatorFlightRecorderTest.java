@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.jfr;
+
+import com.google.gson.JsonArray;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonComparatorFlightRecorder.  The recording tests only run on JVMs
+ * with Flight Recorder.
+ */
+public class JsonComparatorFlightRecorderTest {
+
+  private static final String COMPARISON_SPEC =
+      "{ \"rules\": [ { \"selector\": { \"path\": \"$.items\" }, \"action\": \"set\" } ], "
+      + "\"templateJson\": { \"items\": [ 1, 2, 3 ] } }";
+
+  /**
+   * Verify ending events which were not begun is harmless.
+   */
+  @Test
+  public void testEndWithoutEvent() throws Exception {
+    JsonComparatorFlightRecorder.endComparison(null);
+    JsonComparatorFlightRecorder.endComparison(new JsonComparisonMetrics());
+    JsonComparatorFlightRecorder.endRule(null, "x-action-x", "$", new JsonArray(), 0,
+                                         JsonComparatorResult.DEEP_MATCH);
+  }
+
+  /**
+   * Verify the events of a comparison and its rule are recorded.
+   */
+  @Test
+  public void testRecordEvents() throws Exception {
+    Assume.assumeTrue(JsonComparatorFlightRecorder.isAvailable());
+
+    //
+    // Setup test data and interactions
+    //
+    JsonComparator comparator = new JsonComparatorBuilder().build();
+    String actualJson = "{ \"items\": [ 3, 1, 2 ] }";
+
+    File recordingFile = File.createTempFile("json-comparator", ".jfr");
+    List<RecordedEvent> comparisonEvents = new ArrayList<>();
+    List<RecordedEvent> ruleEvents = new ArrayList<>();
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result;
+
+    try (Recording recording = new Recording()) {
+      recording.enable(JsonComparisonEvent.class);
+      recording.enable(JsonRuleEvent.class).withoutThreshold();
+      recording.start();
+
+      result = comparator.compare(COMPARISON_SPEC, actualJson);
+
+      recording.stop();
+      recording.dump(recordingFile.toPath());
+
+      for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile.toPath())) {
+        if ("com.savoirtech.json.Comparison".equals(event.getEventType().getName())) {
+          comparisonEvents.add(event);
+        } else if ("com.savoirtech.json.Rule".equals(event.getEventType().getName())) {
+          ruleEvents.add(event);
+        }
+      }
+    } finally {
+      recordingFile.delete();
+    }
+
+    //
+    // Verify
+    //
+    assertTrue(result.getErrorMessage(), result.isMatch());
+
+    assertEquals(1, comparisonEvents.size());
+    RecordedEvent comparisonEvent = comparisonEvents.get(0);
+    assertEquals(Integer.toHexString(COMPARISON_SPEC.hashCode()),
+                 comparisonEvent.getString("specificationId"));
+    assertEquals(actualJson.length(), comparisonEvent.getLong("actualSize"));
+    assertEquals(5, comparisonEvent.getLong("nodeCount"));
+    assertEquals(1, comparisonEvent.getLong("ruleInvocations"));
+    assertTrue(comparisonEvent.getBoolean("match"));
+    assertNull(comparisonEvent.getString("failure"));
+    assertTrue(comparisonEvent.getDuration("specificationParseTime").toNanos() > 0);
+
+    assertEquals(1, ruleEvents.size());
+    RecordedEvent ruleEvent = ruleEvents.get(0);
+    assertEquals("set", ruleEvent.getString("action"));
+    assertEquals("$['items']", ruleEvent.getString("path"));
+    assertEquals(3, ruleEvent.getInt("arraySize"));
+    assertEquals(3, ruleEvent.getInt("childComparisons"));
+    assertTrue(ruleEvent.getBoolean("match"));
+  }
+}
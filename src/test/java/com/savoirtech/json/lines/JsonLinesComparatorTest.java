@@ -0,0 +1,253 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.lines;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonLinesComparator.
+ */
+public class JsonLinesComparatorTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private JsonLinesComparator jsonLinesComparator;
+  private JsonComparatorCompiledSpecification compiledSpec;
+
+  private List<Long> lineNumbers;
+  private List<JsonComparatorResult> results;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    JsonComparator comparator = new JsonComparatorBuilder().build();
+
+    this.jsonLinesComparator = new JsonLinesComparator(comparator);
+    this.compiledSpec = comparator.compile(
+        "{ \"rules\": [ { \"selector\": { \"path\": \"$.id\" }, \"action\": \"matches\", "
+        + "\"pattern\": \"[0-9]+\" } ], \"templateJson\": { \"id\": \"0\", \"ok\": true } }");
+
+    this.lineNumbers = new ArrayList<>();
+    this.results = new ArrayList<>();
+  }
+
+  /**
+   * Verify the getters and setters.
+   */
+  @Test
+  public void testGettersAndSetters() throws Exception {
+    assertEquals(Runtime.getRuntime().availableProcessors(),
+                 this.jsonLinesComparator.getWorkerThreads());
+    assertEquals(JsonLinesComparator.DEFAULT_CHUNK_SIZE, this.jsonLinesComparator.getChunkSize());
+    assertEquals(0, this.jsonLinesComparator.getMaxChunksInFlight());
+
+    this.jsonLinesComparator.setWorkerThreads(3);
+    this.jsonLinesComparator.setChunkSize(5);
+    this.jsonLinesComparator.setMaxChunksInFlight(7);
+
+    assertEquals(3, this.jsonLinesComparator.getWorkerThreads());
+    assertEquals(5, this.jsonLinesComparator.getChunkSize());
+    assertEquals(7, this.jsonLinesComparator.getMaxChunksInFlight());
+  }
+
+  /**
+   * Verify invalid settings are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetWorkerThreadsInvalid() throws Exception {
+    this.jsonLinesComparator.setWorkerThreads(0);
+  }
+
+  /**
+   * Verify invalid settings are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetChunkSizeInvalid() throws Exception {
+    this.jsonLinesComparator.setChunkSize(0);
+  }
+
+  /**
+   * Verify records from a stream are compared and reported in order, with blank lines, CRLF line
+   * ends, invalid JSON, and a missing final line end.
+   */
+  @Test
+  public void testCompareStream() throws Exception {
+    //
+    // Execute
+    //
+    JsonLinesSummary summary =
+        this.jsonLinesComparator.compare(this.compiledSpec, new ByteArrayInputStream(
+            this.createMixedInput().getBytes(StandardCharsets.UTF_8)), this::handleResult);
+
+    //
+    // Verify
+    //
+    this.verifyMixedResults(summary);
+  }
+
+  /**
+   * Verify records from a file are compared and reported in order.
+   */
+  @Test
+  public void testCompareFile() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    Path file = this.temporaryFolder.newFile().toPath();
+    Files.write(file, this.createMixedInput().getBytes(StandardCharsets.UTF_8));
+
+    //
+    // Execute
+    //
+    JsonLinesSummary summary =
+        this.jsonLinesComparator.compare(this.compiledSpec, file, this::handleResult);
+
+    //
+    // Verify
+    //
+    this.verifyMixedResults(summary);
+  }
+
+  /**
+   * Verify chunks smaller than a line, many workers, and a single chunk in flight still report
+   * every record in order.
+   */
+  @Test
+  public void testCompareSmallChunks() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    StringBuilder input = new StringBuilder();
+    for (int cur = 0; cur < 500; cur++) {
+      input.append("{ \"id\": \"").append(cur).append("\", \"ok\": ").append(cur % 7 != 0)
+          .append(" }\n");
+    }
+
+    byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+    Path file = this.temporaryFolder.newFile().toPath();
+    Files.write(file, bytes);
+
+    for (int chunkSize : new int[]{1, 10, 100, 100000}) {
+      this.jsonLinesComparator.setChunkSize(chunkSize);
+      this.jsonLinesComparator.setWorkerThreads(4);
+      this.jsonLinesComparator.setMaxChunksInFlight(chunkSize == 10 ? 1 : 0);
+
+      for (int source = 0; source < 2; source++) {
+        this.lineNumbers.clear();
+        this.results.clear();
+
+        //
+        // Execute
+        //
+        JsonLinesSummary summary;
+        if (source == 0) {
+          summary = this.jsonLinesComparator.compare(this.compiledSpec, file, this::handleResult);
+        } else {
+          summary = this.jsonLinesComparator.compare(this.compiledSpec,
+                                                     new ByteArrayInputStream(bytes),
+                                                     this::handleResult);
+        }
+
+        //
+        // Verify
+        //
+        assertEquals(500, summary.getRecordCount());
+        assertEquals(72, summary.getMismatchCount());
+
+        for (int cur = 0; cur < 500; cur++) {
+          assertEquals(cur + 1L, (long) this.lineNumbers.get(cur));
+          assertEquals(cur % 7 != 0, this.results.get(cur).isMatch());
+        }
+      }
+    }
+  }
+
+  /**
+   * Verify empty input.
+   */
+  @Test
+  public void testCompareEmpty() throws Exception {
+    Path file = this.temporaryFolder.newFile().toPath();
+
+    JsonLinesSummary summary1 =
+        this.jsonLinesComparator.compare(this.compiledSpec, file, this::handleResult);
+    JsonLinesSummary summary2 =
+        this.jsonLinesComparator.compare(this.compiledSpec, new ByteArrayInputStream(new byte[0]),
+                                         this::handleResult);
+
+    assertEquals(0, summary1.getRecordCount());
+    assertEquals(0, summary2.getRecordCount());
+    assertTrue(this.results.isEmpty());
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private void handleResult(long lineNumber, JsonComparatorResult result) {
+    this.lineNumbers.add(lineNumber);
+    this.results.add(result);
+  }
+
+  private String createMixedInput() {
+    return "{ \"id\": \"1\", \"ok\": true }\n"
+           + "\n"
+           + "{ \"id\": \"x\", \"ok\": true }\r\n"
+           + "   \n"
+           + "{ \"id\": \"3\", \"ok\": tr\n"
+           + "{ \"ok\": true, \"id\": \"4\" }";
+  }
+
+  private void verifyMixedResults(JsonLinesSummary summary) {
+    assertEquals(4, summary.getRecordCount());
+    assertEquals(2, summary.getMismatchCount());
+
+    assertEquals(4, this.results.size());
+    assertEquals(1L, (long) this.lineNumbers.get(0));
+    assertEquals(3L, (long) this.lineNumbers.get(1));
+    assertEquals(5L, (long) this.lineNumbers.get(2));
+    assertEquals(6L, (long) this.lineNumbers.get(3));
+
+    assertTrue(this.results.get(0).isMatch());
+    assertFalse(this.results.get(1).isMatch());
+    assertEquals("$['id']", this.results.get(1).getErrorPath());
+    assertFalse(this.results.get(2).isMatch());
+    assertTrue(this.results.get(2).getErrorMessage(),
+               this.results.get(2).getErrorMessage().startsWith("invalid json: "));
+    assertTrue(this.results.get(3).isMatch());
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.lines;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonLinesSummary.
+ */
+public class JsonLinesSummaryTest {
+
+  /**
+   * Verify the getters and toString.
+   */
+  @Test
+  public void testGetters() throws Exception {
+    JsonLinesSummary summary = new JsonLinesSummary(13, 7);
+
+    assertEquals(13, summary.getRecordCount());
+    assertEquals(7, summary.getMismatchCount());
+    assertEquals("records=13; mismatches=7", summary.toString());
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.metrics;
+
+import com.savoirtech.json.JsonComparatorResult;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonComparisonMetrics.
+ */
+public class JsonComparisonMetricsTest {
+
+  private JsonComparisonMetrics metrics;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.metrics = new JsonComparisonMetrics();
+  }
+
+  /**
+   * Verify new metrics are empty.
+   */
+  @Test
+  public void testInitialState() throws Exception {
+    for (JsonComparatorPhase phase : JsonComparatorPhase.values()) {
+      assertEquals(0, this.metrics.getPhaseNanos(phase));
+    }
+
+    assertEquals(0, this.metrics.getTotalNanos());
+    assertEquals(0, this.metrics.getNodeCount());
+    assertEquals(0, this.metrics.getRuleInvocationCount("x-action-x"));
+    assertEquals(0, this.metrics.getRuleInvocationTotal());
+    assertNull(this.metrics.getSpecificationId());
+    assertEquals(-1, this.metrics.getActualSize());
+    assertTrue(this.metrics.getRuleInvocationCounts().isEmpty());
+    assertNull(this.metrics.getResult());
+    assertNull(this.metrics.getFailure());
+  }
+
+  /**
+   * Verify the time of each phase accumulates separately.
+   */
+  @Test
+  public void testAddPhaseNanos() throws Exception {
+    //
+    // Execute
+    //
+    this.metrics.addPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE, 100);
+    this.metrics.addPhaseNanos(JsonComparatorPhase.COMPARISON, 20);
+    this.metrics.addPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE, 3);
+
+    //
+    // Verify
+    //
+    assertEquals(103, this.metrics.getPhaseNanos(JsonComparatorPhase.ACTUAL_PARSE));
+    assertEquals(20, this.metrics.getPhaseNanos(JsonComparatorPhase.COMPARISON));
+    assertEquals(0, this.metrics.getPhaseNanos(JsonComparatorPhase.RULE_COMPILE));
+    assertEquals(123, this.metrics.getTotalNanos());
+  }
+
+  /**
+   * Verify the counts of nodes and of rule invocations by action.
+   */
+  @Test
+  public void testCounts() throws Exception {
+    //
+    // Execute
+    //
+    this.metrics.countNode();
+    this.metrics.countNode();
+    this.metrics.countRuleInvocation("x-action2-x");
+    this.metrics.countRuleInvocation("x-action1-x");
+    this.metrics.countRuleInvocation("x-action2-x");
+
+    //
+    // Verify
+    //
+    assertEquals(2, this.metrics.getNodeCount());
+    assertEquals(1, this.metrics.getRuleInvocationCount("x-action1-x"));
+    assertEquals(2, this.metrics.getRuleInvocationCount("x-action2-x"));
+    assertEquals(3, this.metrics.getRuleInvocationTotal());
+
+    Map<String, Long> counts = this.metrics.getRuleInvocationCounts();
+    assertEquals("{x-action1-x=1, x-action2-x=2}", counts.toString());
+  }
+
+  /**
+   * Verify the getters and setters of the comparison's inputs.
+   */
+  @Test
+  public void testGetSetInputs() throws Exception {
+    this.metrics.setSpecificationId("x-spec-id-x");
+    this.metrics.setActualSize(17);
+
+    assertEquals("x-spec-id-x", this.metrics.getSpecificationId());
+    assertEquals(17, this.metrics.getActualSize());
+  }
+
+  /**
+   * Verify the getters and setters of the outcome.
+   */
+  @Test
+  public void testGetSetOutcome() throws Exception {
+    IllegalStateException testExc = new IllegalStateException("x-failure-x");
+
+    this.metrics.setResult(JsonComparatorResult.DEEP_MATCH);
+    this.metrics.setFailure(testExc);
+
+    assertSame(JsonComparatorResult.DEEP_MATCH, this.metrics.getResult());
+    assertSame(testExc, this.metrics.getFailure());
+  }
+}
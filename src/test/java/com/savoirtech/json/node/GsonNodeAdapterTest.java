@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the GsonNodeAdapter.
+ */
+public class GsonNodeAdapterTest {
+
+  private final GsonNodeAdapter adapter = GsonNodeAdapter.INSTANCE;
+
+  /**
+   * Verify the types of the nodes.
+   */
+  @Test
+  public void testGetType() throws Exception {
+    assertEquals(JsonNodeType.OBJECT, this.adapter.getType(new JsonParser().parse("{}")));
+    assertEquals(JsonNodeType.ARRAY, this.adapter.getType(new JsonArray()));
+    assertEquals(JsonNodeType.STRING, this.adapter.getType(new JsonPrimitive("x")));
+    assertEquals(JsonNodeType.NUMBER, this.adapter.getType(new JsonPrimitive(1.5)));
+    assertEquals(JsonNodeType.BOOLEAN, this.adapter.getType(new JsonPrimitive(true)));
+    assertEquals(JsonNodeType.NULL, this.adapter.getType(JsonNull.INSTANCE));
+    assertEquals(JsonNodeType.NULL, this.adapter.getType(null));
+  }
+
+  /**
+   * Verify the contents and values of the nodes.
+   */
+  @Test
+  public void testValues() throws Exception {
+    JsonElement tree = new JsonParser().parse("{ \"a\": [ \"x\", 2.5e3, false ], \"b\": 1 }");
+
+    Iterator<Map.Entry<String, JsonElement>> fields = this.adapter.fieldIterator(tree);
+    Map.Entry<String, JsonElement> field = fields.next();
+    assertEquals("a", field.getKey());
+    assertEquals("b", fields.next().getKey());
+    assertFalse(fields.hasNext());
+
+    Iterator<JsonElement> elements = this.adapter.elementIterator(field.getValue());
+    assertEquals("x", this.adapter.getString(elements.next()));
+    assertEquals("2.5e3", this.adapter.getNumber(elements.next()));
+    assertFalse(this.adapter.getBoolean(elements.next()));
+    assertFalse(elements.hasNext());
+  }
+}
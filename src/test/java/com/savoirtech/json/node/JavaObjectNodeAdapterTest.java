@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JavaObjectNodeAdapter.
+ */
+public class JavaObjectNodeAdapterTest {
+
+  private final JavaObjectNodeAdapter adapter = JavaObjectNodeAdapter.INSTANCE;
+
+  /**
+   * Verify the types of the nodes.
+   */
+  @Test
+  public void testGetType() throws Exception {
+    assertEquals(JsonNodeType.OBJECT, this.adapter.getType(Collections.emptyMap()));
+    assertEquals(JsonNodeType.ARRAY, this.adapter.getType(Collections.emptyList()));
+    assertEquals(JsonNodeType.STRING, this.adapter.getType(new StringBuilder("x")));
+    assertEquals(JsonNodeType.NUMBER, this.adapter.getType(13L));
+    assertEquals(JsonNodeType.BOOLEAN, this.adapter.getType(Boolean.TRUE));
+    assertEquals(JsonNodeType.NULL, this.adapter.getType(null));
+  }
+
+  /**
+   * Verify objects of other types are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetTypeUnsupported() throws Exception {
+    this.adapter.getType(new Object());
+  }
+
+  /**
+   * Verify the contents and values of the nodes.
+   */
+  @Test
+  public void testValues() throws Exception {
+    Map<Object, Object> object = new LinkedHashMap<>();
+    object.put("a", Arrays.asList("x", new BigDecimal("2.50"), false));
+    object.put(7, null);
+
+    Iterator<Map.Entry<String, Object>> fields = this.adapter.fieldIterator(object);
+    Map.Entry<String, Object> field = fields.next();
+    assertEquals("a", field.getKey());
+    assertEquals("7", fields.next().getKey());
+    assertFalse(fields.hasNext());
+
+    Iterator<Object> elements = this.adapter.elementIterator(field.getValue());
+    assertEquals("x", this.adapter.getString(elements.next()));
+    assertEquals("2.50", this.adapter.getNumber(elements.next()));
+    assertFalse(this.adapter.getBoolean(elements.next()));
+    assertFalse(elements.hasNext());
+  }
+}
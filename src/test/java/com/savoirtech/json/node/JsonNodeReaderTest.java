@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonToken;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.util.JsonTreeParser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonNodeReader.
+ */
+public class JsonNodeReaderTest {
+
+  /**
+   * Verify the tokens read from a tree.
+   */
+  @Test
+  public void testRead() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonElement tree = new JsonParser().parse("{ \"a\": [ \"x\", 17, true, null ], \"b\": { } }");
+    JsonNodeReader<JsonElement> reader = new JsonNodeReader<>(tree, GsonNodeAdapter.INSTANCE);
+
+    //
+    // Execute and Verify
+    //
+    assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+    reader.beginObject();
+    assertTrue(reader.hasNext());
+    assertEquals(JsonToken.NAME, reader.peek());
+    assertEquals("a", reader.nextName());
+
+    reader.beginArray();
+    assertEquals(JsonToken.STRING, reader.peek());
+    assertEquals("x", reader.nextString());
+    assertEquals(JsonToken.NUMBER, reader.peek());
+    assertEquals(17, reader.nextInt());
+    assertTrue(reader.nextBoolean());
+    reader.nextNull();
+    assertFalse(reader.hasNext());
+    assertEquals(JsonToken.END_ARRAY, reader.peek());
+    reader.endArray();
+
+    assertEquals("b", reader.nextName());
+    reader.beginObject();
+    reader.endObject();
+    assertFalse(reader.hasNext());
+    reader.endObject();
+
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  /**
+   * Verify skipping values, including whole objects and arrays.
+   */
+  @Test
+  public void testSkipValue() throws Exception {
+    JsonElement tree = new JsonParser().parse("[ { \"a\": [ 1, 2 ] }, [ 3 ], 4.5, \"6\" ]");
+    JsonNodeReader<JsonElement> reader = new JsonNodeReader<>(tree, GsonNodeAdapter.INSTANCE);
+
+    reader.beginArray();
+    reader.skipValue();
+    reader.skipValue();
+    assertEquals(4.5, reader.nextDouble(), 0.0);
+    assertEquals(6L, reader.nextLong());
+    reader.endArray();
+
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  /**
+   * Verify reading a token of the wrong type fails.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testReadWrongToken() throws Exception {
+    JsonNodeReader<Object> reader = new JsonNodeReader<Object>(Collections.emptyList(),
+                                                               JavaObjectNodeAdapter.INSTANCE);
+
+    reader.beginObject();
+  }
+
+  /**
+   * Verify reading after close fails.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testReadClosed() throws Exception {
+    JsonNodeReader<Object> reader = new JsonNodeReader<Object>(1, JavaObjectNodeAdapter.INSTANCE);
+
+    reader.close();
+    reader.peek();
+  }
+
+  /**
+   * Verify a tree of Java objects reads as the same JSON as its text.
+   */
+  @Test
+  public void testReadJavaObjects() throws Exception {
+    Map<String, Object> inner = new LinkedHashMap<>();
+    inner.put("c", null);
+    inner.put("d", Collections.emptyList());
+
+    Map<String, Object> tree = new LinkedHashMap<>();
+    tree.put("a", Arrays.asList(1, 2.5, "x", false));
+    tree.put("b", inner);
+
+    JsonElement parsed =
+        new JsonTreeParser().parse(new JsonNodeReader<Object>(tree, JavaObjectNodeAdapter.INSTANCE));
+
+    assertEquals(new JsonParser().parse(
+        "{ \"a\": [ 1, 2.5, \"x\", false ], \"b\": { \"c\": null, \"d\": [ ] } }"), parsed);
+  }
+
+  /**
+   * Verify comparison of a tree of Java objects, with rules applied to the nodes they select.
+   */
+  @Test
+  public void testCompareJavaObjects() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparator comparator = new JsonComparatorBuilder().build();
+    JsonComparatorCompiledSpecification compiledSpec = comparator.compile(
+        "{ \"templateJson\": { \"id\": \"1\", \"tags\": [ \"a\", \"b\" ], \"count\": 2 }, "
+        + "\"rules\": [ { \"selector\": { \"path\": \"$.tags\" }, \"action\": \"set\" } ] }");
+
+    Map<String, Object> matching = new LinkedHashMap<>();
+    matching.put("id", "1");
+    matching.put("tags", Arrays.asList("b", "a"));
+    matching.put("count", 2L);
+
+    Map<String, Object> mismatched = new LinkedHashMap<>(matching);
+    mismatched.put("count", 3);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 =
+        comparator.compare(compiledSpec, (Object) matching, JavaObjectNodeAdapter.INSTANCE);
+    JsonComparatorResult result2 =
+        comparator.compare(compiledSpec, (Object) mismatched, JavaObjectNodeAdapter.INSTANCE);
+
+    //
+    // Verify
+    //
+    assertTrue(result1.isMatch());
+    assertFalse(result2.isMatch());
+    assertEquals("$['count']", result2.getErrorPath());
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.node;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import com.savoirtech.json.util.JsonTreeParser;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonTape.
+ */
+public class JsonTapeTest {
+
+  /**
+   * Verify tapes read back as the same JSON as the text they were parsed from.
+   */
+  @Test
+  public void testParseMatchesGson() throws Exception {
+    String[] documents = new String[]{
+        "{ \"a\": 1, \"b\": [ true, false, null, \"x\", 2.5e3, -7 ], \"c\": { \"d\": {} }, "
+        + "\"e\": [ [], [ [ 1 ] ] ], \"f\": null }",
+        "[ 1, { \"a\": [ { } ] }, \"z\" ]",
+        "\"just a string\"",
+        "13",
+        "null",
+        "{ unquoted: 'single', \"dup\": 1, \"dup\": 2 }"
+    };
+
+    for (String document : documents) {
+      JsonTape tape = JsonTape.parse(new StringReader(document));
+
+      assertEquals(document, new JsonParser().parse(document),
+                   new JsonTreeParser().parse(tape.newReader()));
+    }
+  }
+
+  /**
+   * Verify the entries of a tape, including the skip links and child counts of objects and arrays,
+   * and the sharing of repeated field names.
+   */
+  @Test
+  public void testEntries() throws Exception {
+    JsonTape tape =
+        JsonTape.parse(new StringReader("[ { \"id\": 1 }, { \"id\": 22, \"ok\": true }, [ ] ]"));
+
+    assertEquals(14, tape.size());
+    // "id", "1", "22" and "ok"
+    assertEquals(7, tape.getTextLength());
+
+    assertEquals(JsonToken.BEGIN_ARRAY, tape.getToken(0));
+    assertEquals(13, tape.getEndEntry(0));
+    assertEquals(3, tape.getChildCount(0));
+
+    assertEquals(JsonToken.BEGIN_OBJECT, tape.getToken(5));
+    assertEquals(10, tape.getEndEntry(5));
+    assertEquals(2, tape.getChildCount(5));
+    assertEquals("id", tape.getText(6));
+    assertEquals("22", tape.getText(7));
+    assertEquals("ok", tape.getText(8));
+    assertTrue(tape.getBoolean(9));
+
+    assertEquals(0, tape.getChildCount(11));
+    assertEquals(JsonToken.END_ARRAY, tape.getToken(13));
+  }
+
+  /**
+   * Verify reading a tape, skipping whole objects and arrays.
+   */
+  @Test
+  public void testReadSkip() throws Exception {
+    JsonTape tape = JsonTape.parse(new StringReader("[ { \"a\": [ 1, 2 ] }, [ 3 ], 4.5, \"6\" ]"));
+    JsonReader reader = tape.newReader();
+
+    reader.beginArray();
+    reader.skipValue();
+    reader.skipValue();
+    assertEquals(4.5, reader.nextDouble(), 0.0);
+    assertEquals(6, reader.nextInt());
+    assertFalse(reader.hasNext());
+    reader.endArray();
+
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  /**
+   * Verify reading a token of the wrong type fails.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testReadWrongToken() throws Exception {
+    JsonTape.parse(new StringReader("[ ]")).newReader().beginObject();
+  }
+
+  /**
+   * Verify an empty document is parsed as null.
+   */
+  @Test
+  public void testParseEmpty() throws Exception {
+    JsonTape tape = JsonTape.parse(new StringReader(""));
+
+    assertEquals(1, tape.size());
+    assertEquals(JsonNull.INSTANCE, new JsonTreeParser().parse(tape.newReader()));
+  }
+
+  /**
+   * Verify invalid JSON is rejected.
+   */
+  @Test
+  public void testParseInvalid() throws Exception {
+    String[] documents = new String[]{"{ \"a\": ", "[ 1, 2", "1 2", "{ \"a\" 1 }"};
+
+    for (String document : documents) {
+      try {
+        JsonTape.parse(new StringReader(document));
+        fail("missing expected exception: " + document);
+      } catch (JsonSyntaxException expected) {
+        // Expected
+      }
+    }
+  }
+
+  /**
+   * Verify failures of the reader are reported.
+   */
+  @Test(expected = JsonIOException.class)
+  public void testParseReaderFailure() throws Exception {
+    JsonTape.parse(new Reader() {
+      @Override
+      public int read(char[] buffer, int offset, int count) throws IOException {
+        throw new IOException("x-read-failure-x");
+      }
+
+      @Override
+      public void close() throws IOException {
+      }
+    });
+  }
+}
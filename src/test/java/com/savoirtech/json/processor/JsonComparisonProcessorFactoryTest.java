@@ -20,12 +20,21 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
 
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
+import com.savoirtech.json.node.GsonNodeAdapter;
+import com.savoirtech.json.node.JsonNodeReader;
+import com.savoirtech.json.rules.JsonComparatorCompiledRule;
+import com.savoirtech.json.rules.path.RulePathAutomatonBuilder;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.StringReader;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.*;
 
 /**
@@ -49,6 +58,128 @@ public class JsonComparisonProcessorFactoryTest {
     this.factory = new JsonComparisonProcessorFactory(this.jsonPathConfiguration);
   }
 
+  /**
+   * Verify operation of the getter and setter for the max depth.
+   */
+  @Test
+  public void testGetSetMaxDepth() throws Exception {
+    assertEquals(0, this.factory.getMaxDepth());
+
+    this.factory.setMaxDepth(13);
+    assertEquals(13, this.factory.getMaxDepth());
+  }
+
+  /**
+   * Verify the max depth is applied to the processors created.
+   */
+  @Test
+  public void testCreateProcessorMaxDepth() throws Exception {
+    JsonElement ele = new JsonPrimitive("x-ele-x");
+
+    this.factory.setMaxDepth(13);
+
+    assertEquals(13, this.factory.createProcessor(ele, new JsonComparatorRuleSpecification[0], ele)
+        .getMaxDepth());
+  }
+
+  /**
+   * Verify the getter and setter for the maxDifferences property.
+   */
+  @Test
+  public void testGetSetMaxDifferences() throws Exception {
+    assertEquals(0, this.factory.getMaxDifferences());
+
+    this.factory.setMaxDifferences(13);
+    assertEquals(13, this.factory.getMaxDifferences());
+  }
+
+  /**
+   * Verify the max differences is applied to the processors created.
+   */
+  @Test
+  public void testCreateProcessorMaxDifferences() throws Exception {
+    JsonElement ele = new JsonPrimitive("x-ele-x");
+
+    this.factory.setMaxDifferences(13);
+
+    assertEquals(13, this.factory.createProcessor(ele, new JsonComparatorRuleSpecification[0], ele)
+        .getMaxDifferences());
+  }
+
+  /**
+   * Verify the getters and setters for the parallel comparison properties.
+   */
+  @Test
+  public void testGetSetParallel() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(2);
+
+    try {
+      assertNull(this.factory.getForkJoinPool());
+      assertEquals(JsonComparisonProcessor.DEFAULT_PARALLEL_THRESHOLD,
+                   this.factory.getParallelThreshold());
+
+      this.factory.setForkJoinPool(pool);
+      this.factory.setParallelThreshold(13);
+      assertSame(pool, this.factory.getForkJoinPool());
+      assertEquals(13, this.factory.getParallelThreshold());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Verify the parallel comparison properties are applied to the processors created.
+   */
+  @Test
+  public void testCreateProcessorParallel() throws Exception {
+    JsonElement ele = new JsonPrimitive("x-ele-x");
+    ForkJoinPool pool = new ForkJoinPool(2);
+
+    try {
+      this.factory.setForkJoinPool(pool);
+      this.factory.setParallelThreshold(13);
+
+      JsonComparisonProcessor result =
+          this.factory.createProcessor(ele, new JsonComparatorRuleSpecification[0], ele);
+
+      assertSame(pool, result.getForkJoinPool());
+      assertEquals(13, result.getParallelThreshold());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Verify operation of the createStreamingProcessor method.
+   */
+  @Test
+  public void testCreateStreamingProcessor() throws Exception {
+    JsonComparatorCompiledSpecification compiledSpec =
+        new JsonComparatorCompiledSpecification(new JsonPrimitive("x-template-x"),
+                                                new JsonComparatorRuleSpecification[0],
+                                                new JsonComparatorCompiledRule[0],
+                                                new RulePathAutomatonBuilder().build(),
+                                                new JsonPath[0]);
+
+    this.factory.setMaxDepth(13);
+
+    JsonStreamingComparisonProcessor processor1a;
+    JsonStreamingComparisonProcessor processor1b;
+    processor1a = this.factory.createStreamingProcessor(compiledSpec, new StringReader("1"));
+    processor1b = this.factory.createStreamingProcessor(compiledSpec, new StringReader("1"));
+
+    assertNotNull(processor1a);
+    assertNotSame(processor1a, processor1b);
+    assertEquals(13, processor1a.getMaxDepth());
+
+    JsonStreamingComparisonProcessor processor2;
+    processor2 = this.factory.createStreamingProcessor(
+        compiledSpec, new JsonNodeReader<>(new JsonPrimitive(1), GsonNodeAdapter.INSTANCE));
+
+    assertNotNull(processor2);
+    assertEquals(13, processor2.getMaxDepth());
+  }
+
   /**
    * Verify operation of the createProcessor method.
    */
@@ -75,4 +206,30 @@ public class JsonComparisonProcessorFactoryTest {
     assertNotSame(processor1a, processor2);
     assertNotSame(processor1b, processor2);
   }
-}
\ No newline at end of file
+
+  /**
+   * Verify operation of the createProcessor method for compiled specifications.
+   */
+  @Test
+  public void testCreateProcessorCompiled() throws Exception {
+    JsonElement templateEle = new JsonPrimitive("x-template-ele-x");
+    JsonElement actualEle = new JsonPrimitive("x-actual-ele-x");
+
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        new JsonComparatorCompiledSpecification(templateEle,
+                                                new JsonComparatorRuleSpecification[0],
+                                                new JsonComparatorCompiledRule[0],
+                                                new RulePathAutomatonBuilder().build(),
+                                                new JsonPath[0]);
+
+    JsonComparisonProcessor processor1;
+    JsonComparisonProcessor processor2;
+    processor1 = this.factory.createProcessor(compiledSpec, actualEle);
+    processor2 = this.factory.createProcessor(compiledSpec, actualEle);
+
+    assertNotNull(processor1);
+    assertNotNull(processor2);
+    assertNotSame(processor1, processor2);
+  }
+}
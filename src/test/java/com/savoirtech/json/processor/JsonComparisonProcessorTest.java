@@ -19,19 +19,29 @@ package com.savoirtech.json.processor;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 
 import com.jayway.jsonpath.Configuration;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorDifference;
 import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.metrics.JsonComparatorPhase;
+import com.savoirtech.json.metrics.JsonComparisonMetrics;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.rules.JsonComparatorCompiledRule;
 import com.savoirtech.json.rules.RuleChildComparator;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.slf4j.Logger;
 
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.*;
 
 /**
@@ -95,6 +105,28 @@ public class JsonComparisonProcessorTest {
     assertSame(this.mockRuleProcessor, this.processor.getRuleProcessor());
   }
 
+  /**
+   * Verify operation of the getter and setter for the max depth.
+   */
+  @Test
+  public void testGetSetMaxDepth() throws Exception {
+    assertEquals(0, this.processor.getMaxDepth());
+
+    this.processor.setMaxDepth(13);
+    assertEquals(13, this.processor.getMaxDepth());
+  }
+
+  /**
+   * Verify the getter and setter for the maxDifferences property.
+   */
+  @Test
+  public void testGetSetMaxDifferences() throws Exception {
+    assertEquals(0, this.processor.getMaxDifferences());
+
+    this.processor.setMaxDifferences(17);
+    assertEquals(17, this.processor.getMaxDifferences());
+  }
+
   /**
    * Verify operation of the executeComparison method on mismatched primitive values only.
    */
@@ -186,7 +218,61 @@ public class JsonComparisonProcessorTest {
     // Execute and Verify
     //
     this.testComparison(templateObject, actualObject, false,
-                        "object field sets do not match: path='$'", "$");
+                        "object field sets do not match: path='$'; unexpected field 'x-field3-x'",
+                        "$");
+  }
+
+  /**
+   * Verify operation of the executeComparison method on objects when the actual object is missing
+   * a field.
+   */
+  @Test
+  public void testExecuteComparisonObjectsMissingField() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject templateObject = new JsonObject();
+    templateObject.add("x-field1-x", new JsonPrimitive("x-value1-x"));
+    templateObject.add("x-field2-x", new JsonPrimitive("x-value2-x"));
+
+    JsonObject actualObject = new JsonObject();
+    actualObject.add("x-field2-x", new JsonPrimitive("x-mismatched-value-x"));
+
+    //
+    // Execute and Verify
+    //
+    this.testComparison(templateObject, actualObject, false,
+                        "object field sets do not match: path='$'; missing field 'x-field1-x'",
+                        "$");
+  }
+
+  /**
+   * Verify operation of the executeComparison method on objects when the actual object has an
+   * extra field.
+   */
+  @Test
+  public void testExecuteComparisonObjectsUnexpectedField() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject templateObject = new JsonObject();
+    JsonObject templateChild = new JsonObject();
+    templateChild.add("x-field1-x", new JsonPrimitive("x-value1-x"));
+    templateObject.add("x-child-x", templateChild);
+
+    JsonObject actualObject = new JsonObject();
+    JsonObject actualChild = new JsonObject();
+    actualChild.add("x-field1-x", new JsonPrimitive("x-value1-x"));
+    actualChild.add("x-field2-x", new JsonPrimitive("x-value2-x"));
+    actualObject.add("x-child-x", actualChild);
+
+    //
+    // Execute and Verify
+    //
+    this.testComparison(templateObject, actualObject, false,
+                        "object field sets do not match: path='$['x-child-x']'; "
+                        + "unexpected field 'x-field2-x'",
+                        "$['x-child-x']");
   }
 
   /**
@@ -263,7 +349,9 @@ public class JsonComparisonProcessorTest {
     // Setup test data and interactions
     //
     JsonComparatorResult testResult = new JsonComparatorResult(true, true, null, null);
-    Mockito.when(this.mockRuleProcessor.findMatchingRule("$")).thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
     Mockito.when(this.mockCompiledRule
                      .compare(Mockito.eq("$"), Mockito.same(this.templateJson),
                               Mockito.same(this.actualJson),
@@ -276,6 +364,51 @@ public class JsonComparisonProcessorTest {
     this.testComparison(this.templateJson, this.actualJson, true, null, null);
   }
 
+  /**
+   * Verify the nodes visited and rules invoked are recorded in the metrics, if set.
+   */
+  @Test
+  public void testExecuteComparisonMetrics() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparisonMetrics metrics = new JsonComparisonMetrics();
+    JsonComparatorRuleSpecification ruleSpec = new JsonComparatorRuleSpecification();
+    ruleSpec.setAction("x-action-x");
+
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockCompiledRule.getSpecification()).thenReturn(ruleSpec);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.eq("$"), Mockito.same(this.templateJson),
+                              Mockito.same(this.actualJson),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenReturn(JsonComparatorResult.DEEP_MATCH);
+
+    JsonComparisonProcessor processor =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, this.templateJson, this.rules,
+                                    this.actualJson);
+    processor.setRuleProcessor(this.mockRuleProcessor);
+
+    //
+    // Execute
+    //
+    assertNull(processor.getMetrics());
+    processor.setMetrics(metrics);
+
+    JsonComparatorResult result = processor.executeComparison();
+
+    //
+    // Verify
+    //
+    assertTrue(result.isMatch());
+    assertSame(metrics, processor.getMetrics());
+    assertEquals(1, metrics.getNodeCount());
+    assertEquals(1, metrics.getRuleInvocationCount("x-action-x"));
+    assertTrue(metrics.getPhaseNanos(JsonComparatorPhase.COMPARISON) > 0);
+  }
+
   /**
    * Verify the operation of the executeComparison method when comparing via a rule which returns a
    * failure.
@@ -288,7 +421,9 @@ public class JsonComparisonProcessorTest {
     JsonComparatorResult
         testResult =
         new JsonComparatorResult(true, false, "x-error-message-x", "x-error-path-x");
-    Mockito.when(this.mockRuleProcessor.findMatchingRule("$")).thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
     Mockito.when(this.mockCompiledRule
                      .compare(Mockito.eq("$"), Mockito.same(this.templateJson),
                               Mockito.same(this.actualJson),
@@ -340,6 +475,59 @@ public class JsonComparisonProcessorTest {
                         "actual json at path $ is not an array, but an array is expected", "$");
   }
 
+  /**
+   * Verify a rule accepting an object where the template has a primitive reports a type mismatch,
+   * since the object's contents cannot be walked against the template.
+   */
+  @Test
+  public void testExecuteComparisonRuleAcceptsObjectVsPrimitive() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject actualObject = new JsonObject();
+    actualObject.add("x-field-x", new JsonPrimitive("x-value-x"));
+
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.anyInt(),
+                                                         (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.anyString(), Mockito.any(JsonElement.class),
+                              Mockito.any(JsonElement.class),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenReturn(JsonComparatorResult.SHALLOW_MATCH);
+
+    //
+    // Execute and Verify
+    //
+    this.testComparison(this.templateJson, actualObject, false,
+                        "actual json at path $ is an object, but an object is not expected", "$");
+  }
+
+  /**
+   * Verify a rule accepting an array where the template has an object reports a type mismatch,
+   * since the array's contents cannot be walked against the template.
+   */
+  @Test
+  public void testExecuteComparisonRuleAcceptsArrayVsObject() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.anyInt(),
+                                                         (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.anyString(), Mockito.any(JsonElement.class),
+                              Mockito.any(JsonElement.class),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenReturn(JsonComparatorResult.SHALLOW_MATCH);
+
+    //
+    // Execute and Verify
+    //
+    this.testComparison(new JsonObject(), this.createNumberArray(1, 2), false,
+                        "actual json at path $ is an array, but an array is not expected", "$");
+  }
+
   /**
    * Test a comparison that goes through the child adapter of the processor.
    */
@@ -350,7 +538,9 @@ public class JsonComparisonProcessorTest {
     //
 
     // Use a rule, and setup an "Answer" for the rule that calls into the child adapter
-    Mockito.when(this.mockRuleProcessor.findMatchingRule("$")).thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
     Mockito.when(this.mockCompiledRule
                      .compare(Mockito.eq("$"), Mockito.same(this.templateJson),
                               Mockito.same(this.actualJson),
@@ -373,6 +563,616 @@ public class JsonComparisonProcessorTest {
                         "x-sub-path-x");
   }
 
+  /**
+   * Verify the child adapter hashes elements of the template with the hashes precomputed by the
+   * compiled specification, and other elements itself.
+   */
+  @Test
+  public void testHashChildWithTemplateHashes() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorCompiledSpecification compiledSpec = new JsonComparatorBuilder().build()
+        .compile("{ \"templateJson\": [ [ \"x-value-x\" ] ] }");
+    JsonElement templateChild = compiledSpec.getTemplateJson().getAsJsonArray().get(0);
+    JsonElement actualChild = new JsonArray();
+    int[] hashes = new int[2];
+
+    this.templateJson = compiledSpec.getTemplateJson();
+
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.stepPath(7, "$[0]", 1))
+        .thenReturn(RulePathAutomaton.DEAD_STATE);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.eq("$"), Mockito.same(this.templateJson),
+                              Mockito.same(this.actualJson),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenAnswer(invocation -> {
+          RuleChildComparator childComparator;
+          childComparator = (RuleChildComparator) invocation.getArguments()[3];
+
+          hashes[0] = childComparator.hashChild("$[0]", templateChild);
+          hashes[1] = childComparator.hashChild("$[0]", actualChild);
+
+          return JsonComparatorResult.DEEP_MATCH;
+        });
+
+    JsonComparisonProcessor processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, compiledSpec,
+                                    this.actualJson);
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = processor1.executeComparison();
+
+    //
+    // Verify
+    //
+    assertTrue(result.isMatch());
+    assertEquals(compiledSpec.getTemplateHash(templateChild, RulePathAutomaton.DEAD_STATE)
+                     .intValue(), hashes[0]);
+    assertEquals(new JsonStructuralHasher((RuleProcessor) null).hash(actualChild), hashes[1]);
+  }
+
+  /**
+   * Verify the child adapter determines whether rules apply within a child from the path state of
+   * the child's path.
+   */
+  @Test
+  public void testIsRuleFreeChild() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    boolean[] ruleFree = new boolean[2];
+
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockRuleProcessor.stepPath(7, "$[0]", 1)).thenReturn(11);
+    Mockito.when(this.mockRuleProcessor.stepPath(7, "$[1]", 1)).thenReturn(13);
+    Mockito.when(this.mockRuleProcessor.isRuleFree(11)).thenReturn(true);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.eq("$"), Mockito.same(this.templateJson),
+                              Mockito.same(this.actualJson),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenAnswer(invocation -> {
+          RuleChildComparator childComparator;
+          childComparator = (RuleChildComparator) invocation.getArguments()[3];
+
+          ruleFree[0] = childComparator.isRuleFree("$[0]");
+          ruleFree[1] = childComparator.isRuleFree("$[1]");
+
+          return JsonComparatorResult.DEEP_MATCH;
+        });
+
+    this.processor.setRuleProcessor(this.mockRuleProcessor);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = this.processor.executeComparison();
+
+    //
+    // Verify
+    //
+    assertTrue(result.isMatch());
+    assertTrue(ruleFree[0]);
+    assertFalse(ruleFree[1]);
+  }
+
+  /**
+   * Verify the path is given to the rule processor for each node when it has rules located by
+   * path, and that rules receive the rendered path.
+   */
+  @Test
+  public void testExecuteComparisonWithPathMappedRule() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject templateObject = new JsonObject();
+    JsonArray templateArray = new JsonArray();
+    templateArray.add(new JsonPrimitive("x-value1-x"));
+    templateObject.add("x-field1-x", templateArray);
+
+    JsonObject actualObject = new JsonObject();
+    JsonArray actualArray = new JsonArray();
+    actualArray.add(new JsonPrimitive("x-value2-x"));
+    actualObject.add("x-field1-x", actualArray);
+
+    JsonComparatorResult testResult = new JsonComparatorResult(true, true, null, null);
+    Mockito.when(this.mockRuleProcessor.hasPathMappedRules()).thenReturn(true);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.anyInt(),
+                                                         Mockito.eq("$['x-field1-x'][0]")))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.eq("$['x-field1-x'][0]"), Mockito.any(JsonElement.class),
+                              Mockito.any(JsonElement.class),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenReturn(testResult);
+
+    //
+    // Execute and Verify
+    //
+    this.testComparison(templateObject, actualObject, true, null, null);
+    Mockito.verify(this.mockRuleProcessor).findMatchingRule(Mockito.anyInt(), Mockito.eq("$"));
+    Mockito.verify(this.mockRuleProcessor)
+        .findMatchingRule(Mockito.anyInt(), Mockito.eq("$['x-field1-x']"));
+  }
+
+  /**
+   * Verify JSON nested much deeper than the call stack could handle recursively is compared, and a
+   * mismatch at the bottom is reported with its full path.
+   */
+  @Test
+  public void testExecuteComparisonDeeplyNested() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    int depth = 50000;
+
+    JsonElement templateEle = this.createNested(depth, "x-value1-x");
+    JsonElement actualMatchEle = this.createNested(depth, "x-value1-x");
+    JsonElement actualMismatchEle = this.createNested(depth, "x-value2-x");
+
+    JsonComparisonProcessor processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateEle, this.rules,
+                                    actualMatchEle);
+    JsonComparisonProcessor processor2 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateEle, this.rules,
+                                    actualMismatchEle);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 = processor1.executeComparison();
+    JsonComparatorResult result2 = processor2.executeComparison();
+
+    //
+    // Verify
+    //
+    assertTrue(result1.getErrorMessage(), result1.isMatch());
+    assertFalse(result2.isMatch());
+    assertTrue(result2.getErrorPath().startsWith("$['x-child-x'][0]['x-child-x'][0]"));
+    assertTrue(result2.getErrorPath().endsWith("['x-child-x'][0]"));
+    assertEquals("primitive mismatch at path " + result2.getErrorPath()
+                 + ": actual=\"x-value2-x\"; expected=\"x-value1-x\"",
+                 result2.getErrorMessage());
+  }
+
+  /**
+   * Verify JSON to which no rule applies is matched without looking up rules or stepping path
+   * states, and a mismatch is still reported with its full path.
+   */
+  @Test
+  public void testExecuteComparisonRuleFree() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonElement templateEle = this.createNested(3, "x-value1-x");
+    JsonElement actualMatchEle = this.createNested(3, "x-value1-x");
+    JsonElement actualMismatchEle = this.createNested(3, "x-value2-x");
+
+    Mockito.when(this.mockRuleProcessor.isRuleFree(Mockito.anyInt())).thenReturn(true);
+
+    JsonComparisonProcessor processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateEle, this.rules,
+                                    actualMatchEle);
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+
+    JsonComparisonProcessor processor2 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateEle, this.rules,
+                                    actualMismatchEle);
+    processor2.setRuleProcessor(this.mockRuleProcessor);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 = processor1.executeComparison();
+
+    Mockito.verify(this.mockRuleProcessor, Mockito.never())
+        .findMatchingRule(Mockito.anyInt(), Mockito.anyString());
+    Mockito.verify(this.mockRuleProcessor, Mockito.never())
+        .stepField(Mockito.anyInt(), Mockito.anyString());
+
+    JsonComparatorResult result2 = processor2.executeComparison();
+
+    //
+    // Verify
+    //
+    assertTrue(result1.isMatch());
+    assertTrue(result1.isDeep());
+    assertFalse(result2.isMatch());
+    assertEquals("$['x-child-x'][0]['x-child-x'][0]['x-child-x'][0]", result2.getErrorPath());
+    assertEquals("primitive mismatch at path $['x-child-x'][0]['x-child-x'][0]['x-child-x'][0]"
+                 + ": actual=\"x-value2-x\"; expected=\"x-value1-x\"",
+                 result2.getErrorMessage());
+  }
+
+  /**
+   * Verify the getters and setters for the parallel comparison properties.
+   */
+  @Test
+  public void testGetSetParallel() throws Exception {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    assertNull(this.processor.getForkJoinPool());
+    assertEquals(JsonComparisonProcessor.DEFAULT_PARALLEL_THRESHOLD,
+                 this.processor.getParallelThreshold());
+
+    this.processor.setForkJoinPool(pool);
+    this.processor.setParallelThreshold(19);
+    assertSame(pool, this.processor.getForkJoinPool());
+    assertEquals(19, this.processor.getParallelThreshold());
+  }
+
+  /**
+   * Verify parallel comparisons report the same results as sequential ones, including the first
+   * mismatch in document order when there are several.
+   */
+  @Test
+  public void testExecuteComparisonParallel() throws Exception {
+    StringBuilder template = new StringBuilder("[");
+    StringBuilder actualMatch = new StringBuilder("[");
+    StringBuilder actualMismatch = new StringBuilder("[");
+
+    for (int cur = 0; cur < 200; cur++) {
+      String separator = (cur == 0) ? "" : ", ";
+      String element = "{ \"id\": " + cur + ", \"tags\": [ \"a\", \"b\", \"c\" ] }";
+
+      template.append(separator).append(element);
+      actualMatch.append(separator).append(element);
+
+      if ((cur == 83) || (cur == 161)) {
+        actualMismatch.append(separator)
+            .append("{ \"id\": ").append(cur).append(", \"tags\": [ \"a\", \"x\", \"c\" ] }");
+      } else if (cur == 122) {
+        actualMismatch.append(separator).append("{ \"id\": 122, \"more\": 1 }");
+      } else {
+        actualMismatch.append(separator).append(element);
+      }
+    }
+
+    template.append("]");
+    actualMatch.append("]");
+    actualMismatch.append("]");
+
+    this.verifyParallelComparison(template.toString(), "[]", actualMatch.toString(), 0);
+    JsonComparatorResult result =
+        this.verifyParallelComparison(template.toString(), "[]", actualMismatch.toString(), 0);
+    this.verifyParallelComparison(template.toString(), "[]", actualMismatch.toString(), 2);
+
+    assertEquals("$[83]['tags'][1]", result.getErrorPath());
+    this.verifyParallelComparison(
+        template.toString(),
+        "[ { \"selector\": { \"path\": \"$..tags\" }, \"action\": \"set\" } ]",
+        actualMismatch.toString(), 0);
+  }
+
+  /**
+   * Verify parallel comparisons of wide objects report field set mismatches in preference to value
+   * mismatches, the same as sequential ones.
+   */
+  @Test
+  public void testExecuteComparisonParallelObjects() throws Exception {
+    StringBuilder template = new StringBuilder("{");
+    StringBuilder actualValues = new StringBuilder("{");
+    StringBuilder actualFields = new StringBuilder("{");
+
+    for (int cur = 0; cur < 100; cur++) {
+      String separator = (cur == 0) ? "" : ", ";
+
+      template.append(separator).append("\"f").append(cur).append("\": [ ").append(cur).append(" ]");
+      actualValues.append(separator).append("\"f").append(cur).append("\": [ ")
+          .append(((cur == 17) || (cur == 71)) ? -1 : cur).append(" ]");
+      actualFields.append(separator).append((cur == 64) ? "\"g" : "\"f").append(cur)
+          .append("\": [ ").append((cur == 17) ? -1 : cur).append(" ]");
+    }
+
+    template.append("}");
+    actualValues.append("}");
+    actualFields.append("}");
+
+    this.verifyParallelComparison(template.toString(), "[]", template.toString(), 0);
+    JsonComparatorResult result1 =
+        this.verifyParallelComparison(template.toString(), "[]", actualValues.toString(), 0);
+    JsonComparatorResult result2 =
+        this.verifyParallelComparison(template.toString(), "[]", actualFields.toString(), 0);
+    this.verifyParallelComparison(template.toString(), "[]", actualValues.toString(), 1);
+
+    assertEquals("$['f17'][0]", result1.getErrorPath());
+    assertEquals("object field sets do not match: path='$'; unexpected field 'g64'",
+                 result2.getErrorMessage());
+  }
+
+  /**
+   * Verify comparisons of JSON nested deeper than the maximum depth fail.
+   */
+  @Test
+  public void testExecuteComparisonMaxDepthExceeded() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonElement templateEle = this.createNested(2, "x-value-x");
+    JsonElement actualEle = this.createNested(2, "x-value-x");
+
+    JsonComparisonProcessor processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateEle, this.rules,
+                                    actualEle);
+    JsonComparisonProcessor processor2 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateEle, this.rules,
+                                    actualEle);
+    processor1.setMaxDepth(4);
+    processor2.setMaxDepth(3);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 = processor1.executeComparison();
+    JsonComparatorResult result2 = processor2.executeComparison();
+
+    //
+    // Verify
+    //
+    assertTrue(result1.getErrorMessage(), result1.isMatch());
+    assertFalse(result2.isMatch());
+    assertTrue(result2.isDeep());
+    assertEquals("maximum depth of 3 exceeded at path $['x-child-x'][0]['x-child-x']",
+                 result2.getErrorMessage());
+    assertEquals("$['x-child-x'][0]['x-child-x']", result2.getErrorPath());
+  }
+
+  /**
+   * Verify rules calling back into the child comparator from within a nested walk continue the
+   * walk on the same frames, and the walk resumes correctly afterwards.
+   */
+  @Test
+  public void testCompareWithChildAdapterNested() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject templateObject = new JsonObject();
+    templateObject.add("x-rule-x", this.createNested(3, "x-value1-x"));
+    templateObject.add("x-after-x", new JsonPrimitive("x-value2-x"));
+
+    JsonObject actualObject = new JsonObject();
+    actualObject.add("x-rule-x", this.createNested(3, "x-value1-x"));
+    actualObject.add("x-after-x", new JsonPrimitive("x-mismatch-x"));
+
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.anyInt(),
+                                                         (String) Mockito.isNull()))
+        .thenReturn(null, this.mockCompiledRule, null);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.eq("$['x-rule-x']"), Mockito.any(JsonElement.class),
+                              Mockito.any(JsonElement.class),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenAnswer(invocation -> {
+          RuleChildComparator childComparator;
+          childComparator = (RuleChildComparator) invocation.getArguments()[3];
+
+          JsonElement template = ((JsonElement) invocation.getArguments()[1]).getAsJsonObject()
+              .get("x-child-x");
+          JsonElement actual = ((JsonElement) invocation.getArguments()[2]).getAsJsonObject()
+              .get("x-child-x");
+
+          JsonComparatorResult childResult =
+              childComparator.compare("$['x-rule-x']['x-child-x']", template, actual);
+
+          return childResult.isMatch() ? JsonComparatorResult.DEEP_MATCH : childResult;
+        });
+
+    //
+    // Execute and Verify
+    //
+    this.testComparison(templateObject, actualObject, false,
+                        "primitive mismatch at path $['x-after-x']: actual=\"x-mismatch-x\"; "
+                        + "expected=\"x-value2-x\"",
+                        "$['x-after-x']");
+  }
+
+  /**
+   * Verify the first-failure mode, the default, reports no differences.
+   */
+  @Test
+  public void testExecuteComparisonFirstFailureHasNoDifferences() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparisonProcessor processor1;
+    processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, this.createDifferingTemplate(),
+                                    this.rules, this.createDifferingActual());
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = processor1.executeComparison();
+
+    //
+    // Verify
+    //
+    assertFalse(result.isMatch());
+    assertEquals("object field sets do not match: path='$'; unexpected field 'x-field5-x'",
+                 result.getErrorMessage());
+    assertTrue(result.getDifferences().isEmpty());
+  }
+
+  /**
+   * Verify collecting differences continues past mismatches and records every difference found,
+   * in walk order.
+   */
+  @Test
+  public void testExecuteComparisonCollectDifferences() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparisonProcessor processor1;
+    processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, this.createDifferingTemplate(),
+                                    this.rules, this.createDifferingActual());
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+    processor1.setMaxDifferences(10);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = processor1.executeComparison();
+
+    //
+    // Verify
+    //
+    List<JsonComparatorDifference> differences = result.getDifferences();
+
+    assertFalse(result.isMatch());
+    assertEquals(5, differences.size());
+
+    this.verifyDifference(differences.get(0), "$['x-field1-x']",
+                          JsonComparatorDifference.Kind.VALUE_MISMATCH, "\"x-value1-x\"",
+                          "\"x-mismatch-x\"");
+    this.verifyDifference(differences.get(1), "$['x-field5-x']",
+                          JsonComparatorDifference.Kind.UNEXPECTED_FIELD, null,
+                          "\"x-value5-x\"");
+    this.verifyDifference(differences.get(2), "$['x-field3-x']",
+                          JsonComparatorDifference.Kind.ARRAY_SIZE_MISMATCH, "[1,2]", "[1]");
+    this.verifyDifference(differences.get(3), "$['x-field4-x'][1]",
+                          JsonComparatorDifference.Kind.TYPE_MISMATCH, "2", "{}");
+    this.verifyDifference(differences.get(4), "$['x-field2-x']",
+                          JsonComparatorDifference.Kind.MISSING_FIELD, "\"x-value2-x\"", null);
+
+    assertEquals("object field sets do not match: path='$'; missing field 'x-field2-x'",
+                 differences.get(4).getMessage());
+
+    // The result reports the first difference
+    assertEquals(differences.get(0).getMessage(), result.getErrorMessage());
+    assertEquals("$['x-field1-x']", result.getErrorPath());
+  }
+
+  /**
+   * Verify collecting differences stops at the maximum number of differences.
+   */
+  @Test
+  public void testExecuteComparisonCollectDifferencesLimit() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparisonProcessor processor1;
+    processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, this.createDifferingTemplate(),
+                                    this.rules, this.createDifferingActual());
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+    processor1.setMaxDifferences(2);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = processor1.executeComparison();
+
+    //
+    // Verify
+    //
+    assertFalse(result.isMatch());
+    assertEquals(2, result.getDifferences().size());
+    assertEquals("$['x-field1-x']", result.getDifferences().get(0).getPath());
+    assertEquals("$['x-field5-x']", result.getDifferences().get(1).getPath());
+  }
+
+  /**
+   * Verify collecting differences of an empty actual object records each missing field.
+   */
+  @Test
+  public void testExecuteComparisonCollectDifferencesEmptyObject() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject templateObject = new JsonObject();
+    templateObject.add("x-field1-x", new JsonPrimitive("x-value1-x"));
+    templateObject.add("x-field2-x", new JsonPrimitive("x-value2-x"));
+
+    JsonComparisonProcessor processor1;
+    processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateObject, this.rules,
+                                    new JsonObject());
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+    processor1.setMaxDifferences(10);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = processor1.executeComparison();
+
+    //
+    // Verify
+    //
+    assertFalse(result.isMatch());
+    assertEquals(2, result.getDifferences().size());
+    this.verifyDifference(result.getDifferences().get(0), "$['x-field1-x']",
+                          JsonComparatorDifference.Kind.MISSING_FIELD, "\"x-value1-x\"", null);
+    this.verifyDifference(result.getDifferences().get(1), "$['x-field2-x']",
+                          JsonComparatorDifference.Kind.MISSING_FIELD, "\"x-value2-x\"", null);
+  }
+
+  /**
+   * Verify child comparisons requested by rules do not record differences, while the rule's own
+   * mismatch is recorded.
+   */
+  @Test
+  public void testExecuteComparisonCollectDifferencesWithRule() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonObject templateObject = new JsonObject();
+    templateObject.add("x-field1-x", new JsonPrimitive("x-value1-x"));
+
+    JsonObject actualObject = new JsonObject();
+    actualObject.add("x-field1-x", new JsonPrimitive("x-mismatch-x"));
+
+    Mockito.when(this.mockRuleProcessor.getRootPathState()).thenReturn(7);
+    Mockito.when(this.mockRuleProcessor.findMatchingRule(Mockito.eq(7), (String) Mockito.isNull()))
+        .thenReturn(this.mockCompiledRule);
+    Mockito.when(this.mockCompiledRule
+                     .compare(Mockito.eq("$"), Mockito.any(JsonElement.class),
+                              Mockito.any(JsonElement.class),
+                              Mockito.any(RuleChildComparator.class)))
+        .thenAnswer(invocation -> {
+          RuleChildComparator childComparator;
+          childComparator = (RuleChildComparator) invocation.getArguments()[3];
+
+          JsonComparatorResult childResult =
+              childComparator.compare("$", (JsonElement) invocation.getArguments()[1],
+                                      (JsonElement) invocation.getArguments()[2]);
+
+          assertFalse(childResult.isMatch());
+          return JsonComparatorResult.mismatch(true, "x-rule-failure-x", "$");
+        });
+
+    JsonComparisonProcessor processor1;
+    processor1 =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, templateObject, this.rules,
+                                    actualObject);
+    processor1.setRuleProcessor(this.mockRuleProcessor);
+    processor1.setMaxDifferences(10);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result = processor1.executeComparison();
+
+    //
+    // Verify
+    //
+    assertFalse(result.isMatch());
+    assertEquals(1, result.getDifferences().size());
+    this.verifyDifference(result.getDifferences().get(0), "$",
+                          JsonComparatorDifference.Kind.RULE_MISMATCH,
+                          "{\"x-field1-x\":\"x-value1-x\"}",
+                          "{\"x-field1-x\":\"x-mismatch-x\"}");
+    assertEquals("x-rule-failure-x", result.getErrorMessage());
+  }
+
 //========================================
 // Internal Methods
 //----------------------------------------
@@ -412,4 +1212,115 @@ public class JsonComparisonProcessorTest {
     assertEquals(expectedErrorPath, result.getErrorPath());
   }
 
-}
\ No newline at end of file
+  /**
+   * Compare the actual JSON given to the template and rules sequentially, then in parallel, and
+   * verify the results are the same.
+   *
+   * @return the result of the parallel comparison.
+   */
+  private JsonComparatorResult verifyParallelComparison(String templateJson, String rulesJson, String actualJson,
+                                        int maxDepth) throws Exception {
+
+    JsonComparatorCompiledSpecification compiledSpec = new JsonComparatorBuilder().build().compile(
+        "{ \"templateJson\": " + templateJson + ", \"rules\": " + rulesJson + " }");
+    JsonElement actualEle = new JsonParser().parse(actualJson);
+
+    JsonComparisonProcessor sequential =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, compiledSpec, actualEle);
+    sequential.setMaxDepth(maxDepth);
+
+    JsonComparisonProcessor parallel =
+        new JsonComparisonProcessor(this.mockJsonPathConfiguration, compiledSpec, actualEle);
+    parallel.setMaxDepth(maxDepth);
+    parallel.setParallelThreshold(2);
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      parallel.setForkJoinPool(pool);
+
+      JsonComparatorResult expected = sequential.executeComparison();
+      JsonComparatorResult result = parallel.executeComparison();
+
+      assertEquals(expected.isMatch(), result.isMatch());
+      assertEquals(expected.getErrorMessage(), result.getErrorMessage());
+      assertEquals(expected.getErrorPath(), result.getErrorPath());
+
+      return result;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Create a template for the collect-differences tests: {"x-field1-x":"x-value1-x",
+   * "x-field2-x":"x-value2-x","x-field3-x":[1,2],"x-field4-x":[1,2]}.
+   */
+  private JsonObject createDifferingTemplate() {
+    JsonObject result = new JsonObject();
+    result.add("x-field1-x", new JsonPrimitive("x-value1-x"));
+    result.add("x-field2-x", new JsonPrimitive("x-value2-x"));
+    result.add("x-field3-x", this.createNumberArray(1, 2));
+    result.add("x-field4-x", this.createNumberArray(1, 2));
+
+    return result;
+  }
+
+  /**
+   * Create the actual JSON for the collect-differences tests, which differs from the template in
+   * every field: {"x-field1-x":"x-mismatch-x","x-field5-x":"x-value5-x","x-field3-x":[1],
+   * "x-field4-x":[1,{}]}.
+   */
+  private JsonObject createDifferingActual() {
+    JsonArray field4 = this.createNumberArray(1);
+    field4.add(new JsonObject());
+
+    JsonObject result = new JsonObject();
+    result.add("x-field1-x", new JsonPrimitive("x-mismatch-x"));
+    result.add("x-field5-x", new JsonPrimitive("x-value5-x"));
+    result.add("x-field3-x", this.createNumberArray(1));
+    result.add("x-field4-x", field4);
+
+    return result;
+  }
+
+  private JsonArray createNumberArray(int... values) {
+    JsonArray result = new JsonArray();
+
+    for (int value : values) {
+      result.add(new JsonPrimitive(value));
+    }
+
+    return result;
+  }
+
+  private void verifyDifference(JsonComparatorDifference difference, String expectedPath,
+                                JsonComparatorDifference.Kind expectedKind, String expectedExpected,
+                                String expectedActual) {
+
+    assertEquals(expectedPath, difference.getPath());
+    assertEquals(expectedKind, difference.getKind());
+    assertEquals(expectedExpected,
+                 (difference.getExpected() == null) ? null : difference.getExpected().toString());
+    assertEquals(expectedActual,
+                 (difference.getActual() == null) ? null : difference.getActual().toString());
+  }
+
+  /**
+   * Create JSON nested to the given depth: { "x-child-x": [ { "x-child-x": [ ... value ] } ] }.
+   */
+  private JsonElement createNested(int depth, String value) {
+    JsonElement result = new JsonPrimitive(value);
+
+    for (int cur = 0; cur < depth; cur++) {
+      JsonArray array = new JsonArray();
+      array.add(result);
+
+      JsonObject object = new JsonObject();
+      object.add("x-child-x", array);
+
+      result = object;
+    }
+
+    return result;
+  }
+}
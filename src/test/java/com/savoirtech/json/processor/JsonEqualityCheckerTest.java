@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.processor;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonEqualityChecker.
+ */
+public class JsonEqualityCheckerTest {
+
+  private JsonEqualityChecker checker;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.checker = new JsonEqualityChecker();
+  }
+
+  /**
+   * Verify elements that match are equal.
+   */
+  @Test
+  public void testIsEqualMatching() throws Exception {
+    this.verifyEqual(true, "{ \"a\": 1, \"b\": [ true, null, \"x\" ] }",
+                     "{ \"b\": [ true, null, \"x\" ], \"a\": 1.0 }");
+    this.verifyEqual(true, "[ 0, { }, [ ] ]", "[ 0, { }, [ ] ]");
+    this.verifyEqual(true, "\"x\"", "\"x\"");
+    this.verifyEqual(true, "null", "null");
+  }
+
+  /**
+   * Verify elements that differ are not equal.
+   */
+  @Test
+  public void testIsEqualMismatching() throws Exception {
+    this.verifyEqual(false, "{ \"a\": 1 }", "{ \"a\": 2 }");
+    this.verifyEqual(false, "{ \"a\": 1 }", "{ \"b\": 1 }");
+    this.verifyEqual(false, "{ \"a\": 1 }", "{ \"a\": 1, \"b\": 1 }");
+    this.verifyEqual(false, "[ 1, 2 ]", "[ 2, 1 ]");
+    this.verifyEqual(false, "[ 1, 2 ]", "[ 1 ]");
+    this.verifyEqual(false, "{ }", "[ ]");
+    this.verifyEqual(false, "[ ]", "{ }");
+    this.verifyEqual(false, "\"x\"", "{ }");
+    this.verifyEqual(false, "{ \"a\": [ { \"b\": \"x\" } ] }", "{ \"a\": [ { \"b\": \"y\" } ] }");
+  }
+
+  /**
+   * Verify JSON nested deeper than the maximum is never equal, except for empty objects and
+   * arrays, which are not walked.
+   */
+  @Test
+  public void testIsEqualMaxNestedDepth() throws Exception {
+    JsonElement nested = new JsonParser().parse("{ \"a\": [ { \"b\": [ ] } ] }");
+
+    assertTrue(this.checker.isEqual(nested, nested, 0));
+    assertTrue(this.checker.isEqual(nested, nested, 3));
+    assertFalse(this.checker.isEqual(nested, nested, 2));
+    assertTrue(this.checker.isEqual(new JsonArray(), new JsonArray(), 1));
+  }
+
+  /**
+   * Verify JSON nested much deeper than the call stack could handle recursively is checked, and
+   * the checker is reusable afterwards.
+   */
+  @Test
+  public void testIsEqualDeeplyNested() throws Exception {
+    JsonElement template = this.createNested(50000, "x-value1-x");
+
+    assertTrue(this.checker.isEqual(template, this.createNested(50000, "x-value1-x"), 0));
+    assertFalse(this.checker.isEqual(template, this.createNested(50000, "x-value2-x"), 0));
+    assertTrue(this.checker.isEqual(new JsonPrimitive(1), new JsonPrimitive(1.0), 0));
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private void verifyEqual(boolean expected, String templateJson, String actualJson) {
+    JsonElement template = new JsonParser().parse(templateJson);
+    JsonElement actual = new JsonParser().parse(actualJson);
+
+    assertEquals(templateJson + " vs " + actualJson, expected,
+                 this.checker.isEqual(template, actual, 0));
+  }
+
+  /**
+   * Create JSON nested to the given depth: { "x-child-x": [ { "x-child-x": [ ... value ] } ] }.
+   */
+  private JsonElement createNested(int depth, String value) {
+    JsonElement result = new JsonPrimitive(value);
+
+    for (int cur = 0; cur < depth; cur++) {
+      JsonArray array = new JsonArray();
+      array.add(result);
+
+      JsonObject object = new JsonObject();
+      object.add("x-child-x", array);
+
+      result = object;
+    }
+
+    return result;
+  }
+}
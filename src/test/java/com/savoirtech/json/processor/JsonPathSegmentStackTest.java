@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the path segment stack.
+ */
+public class JsonPathSegmentStackTest {
+
+  private JsonPathSegmentStack stack;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.stack = new JsonPathSegmentStack();
+  }
+
+  /**
+   * Verify the new stack renders the root path.
+   */
+  @Test
+  public void testRoot() throws Exception {
+    assertEquals(1, this.stack.getDepth());
+    assertEquals("$", this.stack.render());
+    assertEquals("$", this.stack.toString());
+  }
+
+  /**
+   * Verify rendering of field and index segments.
+   */
+  @Test
+  public void testPushAndPop() throws Exception {
+    this.stack.pushField("x-field1-x");
+    this.stack.pushIndex(3);
+    this.stack.pushField("x-field2-x");
+
+    assertEquals(4, this.stack.getDepth());
+    assertEquals("$['x-field1-x'][3]['x-field2-x']", this.stack.render());
+
+    this.stack.pop();
+    assertEquals("$['x-field1-x'][3]", this.stack.render());
+
+    this.stack.pop();
+    this.stack.pushIndex(12);
+    assertEquals("$['x-field1-x'][12]", this.stack.render());
+  }
+
+  /**
+   * Verify a complete path replaces the segments below it.
+   */
+  @Test
+  public void testPushPath() throws Exception {
+    this.stack.pushField("x-field1-x");
+    this.stack.pushPath("x-sub-path-x");
+
+    assertEquals("x-sub-path-x", this.stack.render());
+
+    this.stack.pushIndex(0);
+    assertEquals("x-sub-path-x[0]", this.stack.render());
+
+    this.stack.pop();
+    this.stack.pop();
+    assertEquals("$['x-field1-x']", this.stack.render());
+  }
+
+  /**
+   * Verify the stack grows beyond its initial capacity.
+   */
+  @Test
+  public void testGrowth() throws Exception {
+    StringBuilder expected = new StringBuilder("$");
+
+    for (int cur = 0; cur < 100; cur++) {
+      this.stack.pushIndex(cur);
+      expected.append('[').append(cur).append(']');
+    }
+
+    assertEquals(101, this.stack.getDepth());
+    assertEquals(expected.toString(), this.stack.render());
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.node.GsonNodeAdapter;
+import com.savoirtech.json.node.JsonNodeReader;
+import com.savoirtech.json.node.JsonTape;
+import com.savoirtech.json.util.JsonTreeParser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonStreamingComparisonProcessor.  Streaming comparisons must give the
+ * same results as comparisons of the parsed JSON, so most tests compare the two.
+ */
+public class JsonStreamingComparisonProcessorTest {
+
+  private JsonComparator comparator;
+  private JsonComparisonProcessorFactory factory;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.comparator = new JsonComparatorBuilder().build();
+    this.factory = this.comparator.getJsonComparisonProcessorFactory();
+  }
+
+  /**
+   * Verify the getter and setter for the maxDepth property.
+   */
+  @Test
+  public void testGetSetMaxDepth() throws Exception {
+    JsonStreamingComparisonProcessor processor =
+        this.factory.createStreamingProcessor(this.compile("1", null),
+                                             new StringReader("1"));
+
+    assertEquals(0, processor.getMaxDepth());
+
+    processor.setMaxDepth(13);
+    assertEquals(13, processor.getMaxDepth());
+  }
+
+  /**
+   * Verify matching JSON.
+   */
+  @Test
+  public void testExecuteComparisonMatch() throws Exception {
+    String json = "{ \"a\": [ 1, { \"b\": null, \"c\": [ ] } ], \"d\": { }, \"e\": true }";
+
+    JsonComparatorResult result = this.testComparison(json, null, json.replace("1", "1.0"));
+
+    assertTrue(result.isMatch());
+    assertTrue(result.isDeep());
+  }
+
+  /**
+   * Verify mismatched primitives.
+   */
+  @Test
+  public void testExecuteComparisonPrimitiveMismatch() throws Exception {
+    this.testComparison("{ \"a\": [ 1, 2 ] }", null, "{ \"a\": [ 1, 3 ] }");
+    this.testComparison("\"x-template-x\"", null, "\"x-actual-x\"");
+  }
+
+  /**
+   * Verify mismatched types, in both directions.
+   */
+  @Test
+  public void testExecuteComparisonTypeMismatch() throws Exception {
+    this.testComparison("{ \"a\": { \"b\": 1 } }", null, "{ \"a\": [ 1 ] }");
+    this.testComparison("{ \"a\": [ 1 ] }", null, "{ \"a\": 1 }");
+    this.testComparison("{ \"a\": 1 }", null, "{ \"a\": { \"b\": [ 1, 2 ] } }");
+  }
+
+  /**
+   * Verify mismatched field sets report the same field as comparisons of parsed JSON, regardless
+   * of the order in which the stream presents the fields.
+   */
+  @Test
+  public void testExecuteComparisonFieldSetMismatch() throws Exception {
+    String template = "{ \"a\": 1, \"b\": 2, \"c\": 3 }";
+
+    this.testComparison(template, null, "{ \"a\": 1, \"x\": 2, \"c\": 3 }");
+    this.testComparison(template, null, "{ \"a\": 1, \"x\": 2, \"b\": 2, \"c\": 3 }");
+    this.testComparison(template, null, "{ \"x\": 9, \"c\": 3 }");
+    this.testComparison(template, null, "{ \"c\": 3, \"a\": 1 }");
+    this.testComparison(template, null, "{ \"a\": 7, \"c\": 3 }");
+    this.testComparison(template, null, "{ \"a\": 7, \"b\": 2, \"c\": 3, \"x\": 4 }");
+    this.testComparison(template, null, "{ }");
+  }
+
+  /**
+   * Verify fields repeated in the stream are counted once, as the parsed object holds them, so
+   * field set mismatches are still reported.
+   */
+  @Test
+  public void testExecuteComparisonDuplicateFields() throws Exception {
+    String rules =
+        "[ { \"selector\": { \"path\": \"$..*\" }, \"action\": \"matches\", "
+        + "\"pattern\": \".*\" } ]";
+    String template = "{ \"id\": null, \"a\": \"s2\", \"c\": \"s1\" }";
+
+    JsonComparatorResult result =
+        this.testComparison(template, rules, "{ \"id\": null, \"c\": \"s2\", \"c\": \"s2\" }");
+    assertFalse(result.isMatch());
+    assertEquals("object field sets do not match: path='$'; missing field 'a'",
+                 result.getErrorMessage());
+
+    this.testComparison(template, rules, "{ \"id\": null, \"c\": \"s2\", \"x\": 1, \"x\": 2 }");
+    this.testComparison(template, rules, "{ \"c\": \"s2\", \"x\": 1, \"x\": 2, \"y\": 3 }");
+    result = this.testComparison(template, rules,
+                                 "{ \"id\": null, \"a\": 1, \"c\": 2, \"c\": 3 }");
+    assertTrue(result.isMatch());
+
+    //
+    // Fields repeated by the adapter of a tree
+    //
+    JsonComparatorCompiledSpecification compiledSpec = this.compile(template, rules);
+    JsonElement actualEle = new JsonTreeParser().parse("{ \"id\": null, \"c\": \"s2\" }");
+
+    JsonComparatorResult nodeResult =
+        this.factory.createStreamingProcessor(
+            compiledSpec, new JsonNodeReader<>(actualEle, new RepeatedFieldAdapter()))
+            .executeComparison();
+
+    this.verifySameResult(this.factory.createProcessor(compiledSpec, actualEle).executeComparison(),
+                          nodeResult);
+    assertFalse(nodeResult.isMatch());
+  }
+
+  /**
+   * Verify mismatched arrays report the size mismatch in preference to mismatched elements.
+   */
+  @Test
+  public void testExecuteComparisonArraySizeMismatch() throws Exception {
+    this.testComparison("[ 1, 2, 3 ]", null, "[ 1, 9, 3, 4 ]");
+    this.testComparison("[ 1, 2, 3 ]", null, "[ 9, 2 ]");
+    this.testComparison("[ [ 1 ], 2 ]", null, "[ [ 9 ], 2 ]");
+  }
+
+  /**
+   * Verify rules are applied to the nodes they select.
+   */
+  @Test
+  public void testExecuteComparisonWithRules() throws Exception {
+    String rules =
+        "[ { \"selector\": { \"path\": \"$..id\" }, \"action\": \"matches\", "
+        + "\"pattern\": \"[0-9]+\" }, "
+        + "{ \"selector\": { \"path\": \"$.tags\" }, \"action\": \"set\" } ]";
+    String template = "{ \"id\": \"1\", \"tags\": [ \"a\", \"b\" ], \"more\": { \"id\": \"2\" } }";
+
+    JsonComparatorResult result =
+        this.testComparison(template, rules,
+                            "{ \"id\": \"17\", \"tags\": [ \"b\", \"a\" ], \"more\": { \"id\": \"3\" } }");
+    assertTrue(result.isMatch());
+
+    this.testComparison(template, rules,
+                        "{ \"id\": \"17\", \"tags\": [ \"b\", \"c\" ], \"more\": { \"id\": \"3\" } }");
+    this.testComparison(template, rules,
+                        "{ \"id\": \"17\", \"tags\": [ \"b\", \"a\" ], \"more\": { \"id\": \"x\" } }");
+  }
+
+  /**
+   * Verify rules with selectors evaluated by JsonPath are applied.
+   */
+  @Test
+  public void testExecuteComparisonWithJsonPathRules() throws Exception {
+    String rules =
+        "[ { \"selector\": { \"path\": \"$.items[?(@.kind == 'x')].value\" }, "
+        + "\"action\": \"matches\", \"pattern\": \"[0-9]+\" } ]";
+    String template = "{ \"items\": [ { \"kind\": \"x\", \"value\": \"1\" } ] }";
+
+    JsonComparatorResult result =
+        this.testComparison(template, rules, "{ \"items\": [ { \"kind\": \"x\", \"value\": \"2\" } ] }");
+    assertTrue(result.isMatch());
+
+    this.testComparison(template, rules, "{ \"items\": [ { \"kind\": \"x\", \"value\": \"y\" } ] }");
+  }
+
+  /**
+   * Verify the maximum depth applies to the streamed JSON.
+   */
+  @Test
+  public void testExecuteComparisonMaxDepth() throws Exception {
+    String json = "{ \"a\": [ { \"b\": [ 1 ] } ] }";
+
+    for (int maxDepth = 1; maxDepth <= 5; maxDepth++) {
+      JsonComparatorCompiledSpecification compiledSpec = this.compile(json, null);
+
+      JsonComparisonProcessor treeProcessor =
+          this.factory.createProcessor(compiledSpec, new JsonTreeParser().parse(json));
+      treeProcessor.setMaxDepth(maxDepth);
+
+      JsonStreamingComparisonProcessor streamingProcessor =
+          this.factory.createStreamingProcessor(compiledSpec, new StringReader(json));
+      streamingProcessor.setMaxDepth(maxDepth);
+
+      this.verifySameResult(treeProcessor.executeComparison(),
+                            streamingProcessor.executeComparison());
+    }
+  }
+
+  /**
+   * Verify an empty document is compared as null.
+   */
+  @Test
+  public void testExecuteComparisonEmptyDocument() throws Exception {
+    JsonComparatorResult result = this.testComparison("null", null, "");
+    assertTrue(result.isMatch());
+
+    this.testComparison("1", null, "");
+  }
+
+  /**
+   * Verify invalid JSON is reported the same way as by the parser.
+   */
+  @Test
+  public void testExecuteComparisonInvalidJson() throws Exception {
+    this.verifySyntaxError("[ 1 ]", "[ 1 ] [ 2 ]");
+    this.verifySyntaxError("[ 1, 2 ]", "[ 1, 2");
+    this.verifySyntaxError("{ \"a\": 1 }", "{ \"a\": 1 }}");
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  /**
+   * Compare the actual JSON to the template and rules given with the streaming processor, on the
+   * JSON text, on the nodes of the parsed JSON and on the tape of the JSON, and with the processor
+   * of parsed JSON, and verify the results are the same.
+   *
+   * @return the result of the streaming comparison.
+   */
+  private JsonComparatorResult testComparison(String template, String rules, String actual)
+      throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorCompiledSpecification compiledSpec = this.compile(template, rules);
+
+    JsonElement actualEle = new JsonTreeParser().parse(actual);
+
+    JsonComparisonProcessor treeProcessor = this.factory.createProcessor(compiledSpec, actualEle);
+
+    JsonStreamingComparisonProcessor streamingProcessor =
+        this.factory.createStreamingProcessor(compiledSpec, new StringReader(actual));
+
+    JsonStreamingComparisonProcessor nodeProcessor =
+        this.factory.createStreamingProcessor(
+            compiledSpec, new JsonNodeReader<>(actualEle, GsonNodeAdapter.INSTANCE));
+
+    JsonStreamingComparisonProcessor tapeProcessor =
+        this.factory.createStreamingProcessor(
+            compiledSpec, JsonTape.parse(new StringReader(actual)).newReader());
+
+    //
+    // Execute
+    //
+    JsonComparatorResult expected = treeProcessor.executeComparison();
+    JsonComparatorResult result = streamingProcessor.executeComparison();
+    JsonComparatorResult nodeResult = nodeProcessor.executeComparison();
+    JsonComparatorResult tapeResult = tapeProcessor.executeComparison();
+
+    //
+    // Verify
+    //
+    this.verifySameResult(expected, result);
+    this.verifySameResult(expected, nodeResult);
+    this.verifySameResult(expected, tapeResult);
+
+    return result;
+  }
+
+  private void verifySameResult(JsonComparatorResult expected, JsonComparatorResult actual) {
+    assertEquals(expected.isMatch(), actual.isMatch());
+    assertEquals(expected.isDeep(), actual.isDeep());
+    assertEquals(expected.getErrorMessage(), actual.getErrorMessage());
+    assertEquals(expected.getErrorPath(), actual.getErrorPath());
+  }
+
+  private void verifySyntaxError(String template, String actual) throws Exception {
+    JsonStreamingComparisonProcessor processor =
+        this.factory.createStreamingProcessor(this.compile(template, null),
+                                             new StringReader(actual));
+
+    try {
+      processor.executeComparison();
+      fail("missing expected exception");
+    } catch (JsonSyntaxException expected) {
+      // Expected
+    }
+  }
+
+  private JsonComparatorCompiledSpecification compile(String template, String rules) {
+    String comparisonSpec = "{ \"templateJson\": " + template;
+    if (rules != null) {
+      comparisonSpec += ", \"rules\": " + rules;
+    }
+    comparisonSpec += " }";
+
+    return this.comparator.compile(comparisonSpec);
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Adapter for Gson trees which presents every field of an object twice, as a stream of JSON
+   * text with repeated names would.
+   */
+  private static class RepeatedFieldAdapter extends GsonNodeAdapter {
+
+    @Override
+    public Iterator<Map.Entry<String, JsonElement>> fieldIterator(JsonElement node) {
+      List<Map.Entry<String, JsonElement>> fields = new ArrayList<>();
+      for (Map.Entry<String, JsonElement> entry : node.getAsJsonObject().entrySet()) {
+        fields.add(entry);
+        fields.add(entry);
+      }
+
+      return fields.iterator();
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.processor;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
+import com.savoirtech.json.util.JsonTreeParser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonStructuralHasher.
+ */
+public class JsonStructuralHasherTest {
+
+  private JsonStructuralHasher hasher;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.hasher = new JsonStructuralHasher((RulePathAutomaton) null);
+  }
+
+  /**
+   * Verify elements that match hash alike.
+   */
+  @Test
+  public void testHashMatching() throws Exception {
+    this.verifySameHash("{ \"a\": 1, \"b\": [ true, null, \"x\" ] }",
+                        "{ \"b\": [ true, null, \"x\" ], \"a\": 1.0 }");
+    this.verifySameHash("[ 0, { } ]", "[ -0.0, { } ]");
+    this.verifySameHash("\"x\"", "\"x\"");
+
+    assertEquals(this.hasher.hash(new JsonPrimitive(7)),
+                 this.hasher.hash(new JsonParser().parse("7.0")));
+    assertEquals(this.hasher.hash(null), this.hasher.hash(new JsonParser().parse("null")));
+  }
+
+  /**
+   * Verify elements that differ hash differently, in these cases.
+   */
+  @Test
+  public void testHashDiffering() throws Exception {
+    this.verifyDifferentHash("{ \"a\": 1 }", "{ \"a\": 2 }");
+    this.verifyDifferentHash("{ \"a\": 1 }", "{ \"b\": 1 }");
+    this.verifyDifferentHash("[ 1, 2 ]", "[ 2, 1 ]");
+    this.verifyDifferentHash("[ [ 1 ] ]", "[ 1 ]");
+    this.verifyDifferentHash("{ \"a\": { \"b\": 1 }, \"c\": 2 }", "{ \"a\": { \"c\": 1 }, \"b\": 2 }");
+  }
+
+  /**
+   * Verify deeply nested elements are hashed without exhausting the call stack.
+   */
+  @Test
+  public void testHashDeeplyNested() throws Exception {
+    StringBuilder json = new StringBuilder();
+    for (int cur = 0; cur < 100000; cur++) {
+      json.append("[");
+    }
+    for (int cur = 0; cur < 100000; cur++) {
+      json.append("]");
+    }
+
+    this.hasher.hash(new JsonTreeParser().parse(json.toString()));
+  }
+
+  /**
+   * Verify subtrees to which rules apply are left out of the hash.
+   */
+  @Test
+  public void testHashRules() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorCompiledSpecification compiledSpec = new JsonComparatorBuilder().build().compile(
+        "{ \"templateJson\": [ ], \"rules\": [ "
+        + "{ \"selector\": { \"path\": \"$..id\" }, \"action\": \"matches\", \"pattern\": \".*\" } ] }");
+
+    RuleProcessor ruleProcessor = new RuleProcessor(null, compiledSpec, null);
+    ruleProcessor.init();
+
+    JsonStructuralHasher ruleHasher = new JsonStructuralHasher(ruleProcessor);
+    int rootState = ruleProcessor.getRootPathState();
+
+    JsonElement element1 = new JsonParser().parse("{ \"id\": \"a\", \"more\": [ { \"id\": 1 } ] }");
+    JsonElement element2 = new JsonParser().parse("{ \"id\": [ 7 ], \"more\": [ { \"id\": 2 } ] }");
+    JsonElement element3 = new JsonParser().parse("{ \"id\": \"a\", \"more\": [ { \"id\": 1 }, 2 ] }");
+
+    //
+    // Execute and Verify
+    //
+    assertEquals(ruleHasher.hash(rootState, element1), ruleHasher.hash(rootState, element2));
+    assertNotEquals(ruleHasher.hash(rootState, element1), ruleHasher.hash(rootState, element3));
+    assertNotEquals(this.hasher.hash(element1), this.hasher.hash(element2));
+  }
+
+  /**
+   * Verify operation of the hashSubtrees method.
+   */
+  @Test
+  public void testHashSubtrees() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorCompiledSpecification compiledSpec = new JsonComparatorBuilder().build().compile(
+        "{ \"templateJson\": [ ], \"rules\": [ "
+        + "{ \"selector\": { \"path\": \"$.more\" }, \"action\": \"set\" } ] }");
+
+    RulePathAutomaton pathAutomaton = compiledSpec.getPathAutomaton();
+    JsonStructuralHasher ruleHasher = new JsonStructuralHasher(pathAutomaton);
+
+    JsonElement element = new JsonParser().parse(
+        "{ \"id\": { \"a\": [ 1 ] }, \"more\": [ { \"id\": 1 } ] }");
+    JsonElement idEle = element.getAsJsonObject().get("id");
+    JsonElement moreEle = element.getAsJsonObject().get("more");
+    JsonElement moreItemEle = moreEle.getAsJsonArray().get(0);
+
+    int rootState = pathAutomaton.getRootState();
+    int moreState = pathAutomaton.stepField(rootState, "more");
+
+    //
+    // Execute
+    //
+    Map<JsonElement, JsonStructuralHasher.SubtreeHash> result =
+        ruleHasher.hashSubtrees(rootState, element);
+
+    //
+    // Verify
+    //
+    assertEquals(5, result.size());
+    assertEquals(ruleHasher.hash(rootState, element), result.get(element).getHash());
+    assertEquals(rootState, result.get(element).getPathState());
+    assertEquals(this.hasher.hash(idEle), result.get(idEle).getHash());
+    assertEquals(RulePathAutomaton.DEAD_STATE, result.get(idEle).getPathState());
+    assertEquals(this.hasher.hash(idEle.getAsJsonObject().get("a")),
+                 result.get(idEle.getAsJsonObject().get("a")).getHash());
+
+    // The subtree to which the rule applies is walked too
+    assertEquals(ruleHasher.hash(moreState, moreEle), result.get(moreEle).getHash());
+    assertEquals(moreState, result.get(moreEle).getPathState());
+    assertEquals(this.hasher.hash(moreItemEle), result.get(moreItemEle).getHash());
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private void verifySameHash(String json1, String json2) {
+    assertEquals(json1 + " vs " + json2, this.hasher.hash(new JsonParser().parse(json1)),
+                 this.hasher.hash(new JsonParser().parse(json2)));
+  }
+
+  private void verifyDifferentHash(String json1, String json2) {
+    assertNotEquals(json1 + " vs " + json2, this.hasher.hash(new JsonParser().parse(json1)),
+                    this.hasher.hash(new JsonParser().parse(json2)));
+  }
+}
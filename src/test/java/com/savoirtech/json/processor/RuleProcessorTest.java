@@ -20,12 +20,17 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.exception.UnknownRuleException;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.model.JsonComparatorSelector;
 import com.savoirtech.json.rules.JsonComparatorCompiledRule;
 import com.savoirtech.json.rules.RuleCompiler;
+import com.savoirtech.json.rules.path.RulePathAutomaton;
+import com.savoirtech.json.rules.path.RulePathAutomatonBuilder;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -150,6 +155,210 @@ public class RuleProcessorTest {
     assertSame(this.mockCompiledRule1, ruleMatch1);
     assertSame(this.mockCompiledRule2, ruleMatch2);
     assertSame(this.mockCompiledRule2, ruleMatch3);
+    assertNull(this.ruleProcessor.findMatchingRule("$['dog']"));
+    assertFalse(this.ruleProcessor.hasPathMappedRules());
+
+    // All of the selectors are handled by the path automaton, so JsonPath is never consulted
+    Mockito.verify(this.mockLogger, Mockito.never())
+        .trace(Mockito.eq("rule for path selector {} did not match any paths"), Mockito.anyString());
+  }
+
+  /**
+   * Verify operation of stepping the path state along with the walk of the JSON.
+   */
+  @Test
+  public void testStepPathStates() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.ruleProcessor.setRuleCompiler(this.mockRuleCompiler);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[0])).thenReturn(this.mockCompiledRule1);
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[1])).thenReturn(this.mockCompiledRule2);
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[2])).thenReturn(this.mockCompiledRule3);
+
+    //
+    // Execute
+    //
+    this.ruleProcessor.init();
+    int rootState = this.ruleProcessor.getRootPathState();
+    int dogState = this.ruleProcessor.stepField(rootState, "dog");
+    int breedState = this.ruleProcessor.stepField(dogState, "breed");
+    int elementState = this.ruleProcessor.stepIndex(dogState, 3);
+    int elementNameState = this.ruleProcessor.stepField(elementState, "name");
+
+    //
+    // Verify
+    //
+    assertNull(this.ruleProcessor.findMatchingRule(rootState, "$"));
+    assertNull(this.ruleProcessor.findMatchingRule(dogState, "$['dog']"));
+    assertSame(this.mockCompiledRule1,
+               this.ruleProcessor.findMatchingRule(breedState, "$['dog']['breed']"));
+    assertSame(this.mockCompiledRule2,
+               this.ruleProcessor.findMatchingRule(elementNameState, "$['dog'][3]['name']"));
+    assertEquals(breedState, this.ruleProcessor.stepPath(rootState, "$['dog']['breed']", 1));
+    assertEquals(elementNameState, this.ruleProcessor.stepPath(dogState, "[3]['name']", 0));
+    assertEquals(RulePathAutomaton.DEAD_STATE,
+                 this.ruleProcessor.stepPath(rootState, "x-not-a-path-x", 0));
+    assertEquals(RulePathAutomaton.DEAD_STATE,
+                 this.ruleProcessor.stepPath(rootState, "[x-not-an-index-x]", 0));
+  }
+
+  /**
+   * Verify operation of the isRuleFree method.
+   */
+  @Test
+  public void testIsRuleFree() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorRuleSpecification[] breedRules = new JsonComparatorRuleSpecification[]{
+        this.rules[0]};
+    JsonComparatorRuleSpecification[] filterRules = new JsonComparatorRuleSpecification[]{
+        this.createRuleSpecification("$[?(@.name == 'Joe')]['dog']", "x-filter-action-x",
+                                     "x-filter-pattern-x")};
+
+    RuleProcessor breedRuleProcessor =
+        new RuleProcessor(this.jsonPathConfiguration, breedRules, this.actualEle);
+    RuleProcessor filterRuleProcessor =
+        new RuleProcessor(this.jsonPathConfiguration, filterRules, this.actualEle);
+
+    breedRuleProcessor.setRuleCompiler(this.mockRuleCompiler);
+    filterRuleProcessor.setRuleCompiler(this.mockRuleCompiler);
+
+    //
+    // Execute
+    //
+    breedRuleProcessor.init();
+    filterRuleProcessor.init();
+
+    int rootState = breedRuleProcessor.getRootPathState();
+    int dogState = breedRuleProcessor.stepField(rootState, "dog");
+    int breedState = breedRuleProcessor.stepField(dogState, "breed");
+    int nameState = breedRuleProcessor.stepField(rootState, "name");
+
+    //
+    // Verify
+    //
+    assertFalse(breedRuleProcessor.isRuleFree(rootState));
+    assertFalse(breedRuleProcessor.isRuleFree(dogState));
+    assertFalse(breedRuleProcessor.isRuleFree(breedState));
+    assertTrue(breedRuleProcessor.isRuleFree(nameState));
+    assertFalse(filterRuleProcessor.isRuleFree(RulePathAutomaton.DEAD_STATE));
+  }
+
+  /**
+   * Verify rules with selectors the path automaton does not support are located with JsonPath.
+   */
+  @Test
+  public void testInitAndFindMatchingRulesJsonPathFallback() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.rules[2] =
+        this.createRuleSpecification("$[?(@.name == 'Joe')]['dog']['name']", "x-filter-action-x",
+                                     "x-filter-pattern-x");
+
+    this.ruleProcessor.setRuleCompiler(this.mockRuleCompiler);
+    this.ruleProcessor.setLog(this.mockLogger);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[0])).thenReturn(this.mockCompiledRule1);
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[1])).thenReturn(this.mockCompiledRule2);
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[2])).thenReturn(this.mockCompiledRule3);
+
+    //
+    // Execute
+    //
+    this.ruleProcessor.init();
+
+    //
+    // Verify
+    //
+    assertSame(this.mockCompiledRule1, this.ruleProcessor.findMatchingRule("$['dog']['breed']"));
+    assertSame(this.mockCompiledRule2, this.ruleProcessor.findMatchingRule("$['name']"));
+    assertSame(this.mockCompiledRule3, this.ruleProcessor.findMatchingRule("$['dog']['name']"));
+    assertTrue(this.ruleProcessor.hasPathMappedRules());
+    Mockito.verify(this.mockLogger)
+        .trace(Mockito.eq("rule for path selector {} matched {}"),
+               Mockito.eq(this.rules[2].getSelector().getPath()), Mockito.any());
+  }
+
+  /**
+   * Verify a rule with an unknown action is only reported once it applies to a path.
+   */
+  @Test
+  public void testFindMatchingRuleUnknownAction() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.ruleProcessor.setRuleCompiler(this.mockRuleCompiler);
+
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[0])).thenReturn(this.mockCompiledRule1);
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[1])).thenReturn(this.mockCompiledRule2);
+    Mockito.when(this.mockRuleCompiler.compile(this.rules[2]))
+        .thenThrow(new UnknownRuleException("x-no-such-element-action-x"));
+
+    //
+    // Execute
+    //
+    this.ruleProcessor.init();
+
+    //
+    // Verify
+    //
+    assertSame(this.mockCompiledRule2, this.ruleProcessor.findMatchingRule("$['name']"));
+    try {
+      this.ruleProcessor.findMatchingRule("$['no-such-element']");
+      fail("missing expected exception");
+    } catch (UnknownRuleException urExc) {
+      assertEquals("unknown rule action \"x-no-such-element-action-x\"", urExc.getMessage());
+    }
+  }
+
+  /**
+   * Verify operation of the init method when the rules are given as a compiled specification.
+   */
+  @Test
+  public void testInitAndFindMatchingRulesCompiled() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparatorCompiledRule[] compiledRules = new JsonComparatorCompiledRule[]{
+        this.mockCompiledRule1, this.mockCompiledRule2, this.mockCompiledRule3};
+    this.rules[2] =
+        this.createRuleSpecification("$[?(@.name == 'Bob')]", "x-filter-action-x",
+                                     "x-filter-pattern-x");
+
+    RulePathAutomatonBuilder automatonBuilder = new RulePathAutomatonBuilder();
+    JsonPath[] rulePaths = new JsonPath[this.rules.length];
+    for (int cur = 0; cur < this.rules.length; cur++) {
+      String selector = this.rules[cur].getSelector().getPath();
+      if (!automatonBuilder.addSelector(selector, cur)) {
+        rulePaths[cur] = JsonPath.compile(selector);
+      }
+    }
+
+    JsonComparatorCompiledSpecification
+        compiledSpec =
+        new JsonComparatorCompiledSpecification(null, this.rules, compiledRules,
+                                                automatonBuilder.build(), rulePaths);
+
+    RuleProcessor compiledRuleProcessor =
+        new RuleProcessor(this.jsonPathConfiguration, compiledSpec, this.actualEle);
+    compiledRuleProcessor.setLog(this.mockLogger);
+
+    //
+    // Execute
+    //
+    compiledRuleProcessor.init();
+
+    //
+    // Verify
+    //
+    assertSame(this.mockCompiledRule1, compiledRuleProcessor.findMatchingRule("$['dog']['breed']"));
+    assertSame(this.mockCompiledRule2, compiledRuleProcessor.findMatchingRule("$['name']"));
+    assertSame(this.mockCompiledRule2, compiledRuleProcessor.findMatchingRule("$['dog']['name']"));
+    assertNull(compiledRuleProcessor.findMatchingRule("$['dog']"));
     Mockito.verify(this.mockLogger).trace("rule for path selector {} did not match any paths",
                                           this.rules[2].getSelector().getPath());
   }
@@ -0,0 +1,532 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.reactive;
+
+import com.savoirtech.json.JsonComparator;
+import com.savoirtech.json.JsonComparatorBuilder;
+import com.savoirtech.json.JsonComparatorCompiledSpecification;
+import com.savoirtech.json.JsonComparatorResult;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JsonComparisonFlowProcessor.
+ */
+public class JsonComparisonFlowProcessorTest {
+
+  private static final String COMPARISON_SPEC =
+      "{ \"rules\": [ { \"selector\": { \"path\": \"$.id\" }, \"action\": \"matches\", "
+      + "\"pattern\": \"[0-9]+\" } ], \"templateJson\": { \"id\": \"0\", \"ok\": true } }";
+
+  private JsonComparator comparator;
+  private JsonComparatorCompiledSpecification compiledSpec;
+  private List<Runnable> queuedTasks;
+
+  private JsonComparisonFlowProcessor processor;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.comparator = new JsonComparatorBuilder().build();
+    this.compiledSpec = this.comparator.compile(COMPARISON_SPEC);
+    this.queuedTasks = new ArrayList<>();
+
+    this.processor =
+        new JsonComparisonFlowProcessor(this.comparator, this.compiledSpec, Runnable::run, 2);
+  }
+
+  /**
+   * Verify the getters.
+   */
+  @Test
+  public void testGetters() throws Exception {
+    JsonComparisonFlowProcessor defaultProcessor =
+        new JsonComparisonFlowProcessor(this.comparator, this.compiledSpec, Runnable::run);
+
+    assertSame(this.comparator, this.processor.getComparator());
+    assertSame(this.compiledSpec, this.processor.getCompiledSpec());
+    assertNotNull(this.processor.getExecutor());
+    assertEquals(2, this.processor.getParallelism());
+    assertEquals(Runtime.getRuntime().availableProcessors(), defaultProcessor.getParallelism());
+  }
+
+  /**
+   * Verify a parallelism below one is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParallelism() throws Exception {
+    new JsonComparisonFlowProcessor(this.comparator, this.compiledSpec, Runnable::run, 0);
+  }
+
+  /**
+   * Verify results are published, in order, for every document, then completion.
+   */
+  @Test
+  public void testCompareAll() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ListPublisher publisher = new ListPublisher(Arrays.asList(
+        "{ \"id\": \"1\", \"ok\": true }", "{ \"id\": \"x\", \"ok\": true }",
+        "{ \"id\": \"3\", \"ok\": false }", "{ \"id\": \"4\", \"ok\": true }"));
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+    //
+    // Execute
+    //
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Verify
+    //
+    assertTrue(subscriber.completed);
+    assertNull(subscriber.error);
+    assertEquals(4, subscriber.results.size());
+    assertTrue(subscriber.results.get(0).isMatch());
+    assertFalse(subscriber.results.get(1).isMatch());
+    assertFalse(subscriber.results.get(2).isMatch());
+    assertTrue(subscriber.results.get(3).isMatch());
+    assertEquals(2, publisher.maxOutstanding);
+  }
+
+  /**
+   * Verify documents are only requested from upstream as downstream demand allows.
+   */
+  @Test
+  public void testHonoursDemand() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ListPublisher publisher = new ListPublisher(Arrays.asList(
+        "{ \"id\": \"1\", \"ok\": true }", "{ \"id\": \"2\", \"ok\": true }",
+        "{ \"id\": \"3\", \"ok\": true }"));
+    RecordingSubscriber subscriber = new RecordingSubscriber(1);
+
+    //
+    // Execute
+    //
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Verify
+    //
+    assertEquals(1, publisher.emitted);
+    assertEquals(1, subscriber.results.size());
+    assertFalse(subscriber.completed);
+
+    //
+    // Execute
+    //
+    subscriber.subscription.request(5);
+
+    //
+    // Verify
+    //
+    assertEquals(3, publisher.emitted);
+    assertEquals(3, subscriber.results.size());
+    assertTrue(subscriber.completed);
+    assertEquals(2, publisher.maxOutstanding);
+  }
+
+  /**
+   * Verify results are held back until the results of earlier documents are published.
+   */
+  @Test
+  public void testPublishInOrder() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.processor = new JsonComparisonFlowProcessor(this.comparator, this.compiledSpec,
+                                                     this.queuedTasks::add, 2);
+
+    ListPublisher publisher = new ListPublisher(Arrays.asList(
+        "{ \"id\": \"1\", \"ok\": true }", "{ \"id\": \"2\", \"ok\": false }"));
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Execute
+    //
+    assertEquals(2, this.queuedTasks.size());
+    this.queuedTasks.get(1).run();
+
+    //
+    // Verify
+    //
+    assertTrue(subscriber.results.isEmpty());
+
+    //
+    // Execute
+    //
+    this.queuedTasks.get(0).run();
+
+    //
+    // Verify
+    //
+    assertEquals(2, subscriber.results.size());
+    assertTrue(subscriber.results.get(0).isMatch());
+    assertFalse(subscriber.results.get(1).isMatch());
+    assertTrue(subscriber.completed);
+  }
+
+  /**
+   * Verify comparisons running on a thread pool publish every result in order.
+   */
+  @Test
+  public void testCompareOnThreadPool() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    List<String> documents = new ArrayList<>();
+    for (int cur = 0; cur < 200; cur++) {
+      documents.add("{ \"id\": \"" + ((cur % 3 == 0) ? "x" : cur) + "\", \"ok\": true }");
+    }
+
+    ListPublisher publisher = new ListPublisher(documents);
+    RecordingSubscriber subscriber = new RecordingSubscriber(7);
+
+    this.processor = new JsonComparisonFlowProcessor(this.comparator, this.compiledSpec,
+                                                     executor, 4);
+
+    //
+    // Execute
+    //
+    try {
+      publisher.subscribe(this.processor);
+      this.processor.subscribe(subscriber);
+
+      assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    //
+    // Verify
+    //
+    assertNull(subscriber.error);
+    assertEquals(200, subscriber.results.size());
+    for (int cur = 0; cur < 200; cur++) {
+      assertEquals(cur % 3 != 0, subscriber.results.get(cur).isMatch());
+    }
+    assertTrue(publisher.maxOutstanding <= 4);
+  }
+
+  /**
+   * Verify a document which is not valid JSON is published as a mismatch.
+   */
+  @Test
+  public void testInvalidJson() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ListPublisher publisher = new ListPublisher(Arrays.asList("{ \"id\": "));
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+    //
+    // Execute
+    //
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Verify
+    //
+    assertEquals(1, subscriber.results.size());
+    assertFalse(subscriber.results.get(0).isMatch());
+    assertTrue(subscriber.results.get(0).getErrorMessage().startsWith("invalid json: "));
+    assertTrue(subscriber.completed);
+  }
+
+  /**
+   * Verify an error thrown by a comparison is signalled downstream and cancels the upstream.
+   */
+  @Test
+  public void testComparisonError() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonComparator mockComparator = Mockito.mock(JsonComparator.class);
+    IllegalStateException failure = new IllegalStateException("x-failure-x");
+    Mockito.when(mockComparator.compare(this.compiledSpec, "{}")).thenThrow(failure);
+
+    this.processor =
+        new JsonComparisonFlowProcessor(mockComparator, this.compiledSpec, Runnable::run, 2);
+
+    ListPublisher publisher = new ListPublisher(Arrays.asList("{}", "{}", "{}"));
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+    //
+    // Execute
+    //
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Verify
+    //
+    assertSame(failure, subscriber.error);
+    assertFalse(subscriber.completed);
+    assertTrue(subscriber.results.isEmpty());
+    assertTrue(publisher.cancelled);
+  }
+
+  /**
+   * Verify an error from upstream is signalled downstream.
+   */
+  @Test
+  public void testUpstreamError() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+    Exception failure = new Exception("x-failure-x");
+
+    this.processor.onSubscribe(Mockito.mock(JsonFlow.Subscription.class));
+    this.processor.subscribe(subscriber);
+
+    //
+    // Execute
+    //
+    this.processor.onError(failure);
+
+    //
+    // Verify
+    //
+    assertSame(failure, subscriber.error);
+    assertFalse(subscriber.completed);
+  }
+
+  /**
+   * Verify a request for no items is signalled as an error and cancels the upstream.
+   */
+  @Test
+  public void testNonPositiveRequest() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ListPublisher publisher = new ListPublisher(Arrays.asList("{}"));
+    RecordingSubscriber subscriber = new RecordingSubscriber(0);
+
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Execute
+    //
+    subscriber.subscription.request(0);
+
+    //
+    // Verify
+    //
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertTrue(publisher.cancelled);
+    assertEquals(0, publisher.emitted);
+  }
+
+  /**
+   * Verify cancellation by the downstream cancels the upstream and stops publishing.
+   */
+  @Test
+  public void testCancel() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    ListPublisher publisher = new ListPublisher(Arrays.asList("{}", "{}", "{}"));
+    RecordingSubscriber subscriber = new RecordingSubscriber(1);
+
+    publisher.subscribe(this.processor);
+    this.processor.subscribe(subscriber);
+
+    //
+    // Execute
+    //
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(5);
+
+    //
+    // Verify
+    //
+    assertTrue(publisher.cancelled);
+    assertEquals(1, subscriber.results.size());
+    assertFalse(subscriber.completed);
+    assertNull(subscriber.error);
+  }
+
+  /**
+   * Verify a second upstream subscription is cancelled.
+   */
+  @Test
+  public void testSecondUpstream() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonFlow.Subscription first = Mockito.mock(JsonFlow.Subscription.class);
+    JsonFlow.Subscription second = Mockito.mock(JsonFlow.Subscription.class);
+
+    //
+    // Execute
+    //
+    this.processor.onSubscribe(first);
+    this.processor.onSubscribe(second);
+
+    //
+    // Verify
+    //
+    Mockito.verify(second).cancel();
+    Mockito.verifyZeroInteractions(first);
+  }
+
+  /**
+   * Verify a second downstream subscriber is rejected.
+   */
+  @Test
+  public void testSecondSubscriber() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    RecordingSubscriber first = new RecordingSubscriber(1);
+    RecordingSubscriber second = new RecordingSubscriber(1);
+
+    //
+    // Execute
+    //
+    this.processor.subscribe(first);
+    this.processor.subscribe(second);
+
+    //
+    // Verify
+    //
+    assertNull(first.error);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+//========================================
+// Internal Classes
+//----------------------------------------
+
+  /**
+   * Publisher of a list of documents, emitting synchronously on request.
+   */
+  private static class ListPublisher implements JsonFlow.Publisher<String> {
+    private final List<String> documents;
+
+    private int emitted;
+    private long outstanding;
+    private long maxOutstanding;
+    private boolean cancelled;
+
+    ListPublisher(List<String> documents) {
+      this.documents = documents;
+    }
+
+    @Override
+    public void subscribe(JsonFlow.Subscriber<? super String> subscriber) {
+      subscriber.onSubscribe(new JsonFlow.Subscription() {
+        @Override
+        public void request(long count) {
+          synchronized (ListPublisher.this) {
+            outstanding += count;
+            maxOutstanding = Math.max(maxOutstanding, outstanding);
+
+            while ((outstanding > 0) && (emitted < documents.size()) && (!cancelled)) {
+              outstanding--;
+              subscriber.onNext(documents.get(emitted++));
+            }
+
+            if ((emitted == documents.size()) && (!cancelled)) {
+              cancelled = true;
+              subscriber.onComplete();
+            }
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+
+  /**
+   * Subscriber recording the signals it receives, requesting the given number of items on
+   * subscription and again each time that number is received.
+   */
+  private static class RecordingSubscriber implements JsonFlow.Subscriber<JsonComparatorResult> {
+    private final long batchSize;
+    private final List<JsonComparatorResult> results = new ArrayList<>();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private JsonFlow.Subscription subscription;
+    private volatile Throwable error;
+    private volatile boolean completed;
+
+    RecordingSubscriber(long batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onSubscribe(JsonFlow.Subscription subscription) {
+      this.subscription = subscription;
+      if (this.batchSize > 0) {
+        subscription.request(this.batchSize);
+      }
+    }
+
+    @Override
+    public void onNext(JsonComparatorResult item) {
+      this.results.add(item);
+      if ((this.batchSize > 1) && (this.batchSize != Long.MAX_VALUE)
+          && (this.results.size() % this.batchSize == 0)) {
+        this.subscription.request(this.batchSize);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.error = throwable;
+      this.done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      this.completed = true;
+      this.done.countDown();
+    }
+  }
+}
@@ -55,6 +55,7 @@ public class JsonComparatorCompiledRuleFactoryTest {
     //
     // Setup test data and interactions
     //
+    Mockito.when(this.mockRule.prepare(this.mockRuleSpecification)).thenReturn("x-prepared-x");
 
     //
     // Execute
@@ -69,6 +70,7 @@ public class JsonComparatorCompiledRuleFactoryTest {
     //
     assertSame(this.mockRule, compiledRule1.getRule());
     assertSame(this.mockRuleSpecification, compiledRule1.getSpecification());
+    assertEquals("x-prepared-x", compiledRule1.getPreparedState());
     assertSame(this.mockRule, compiledRule2.getRule());
     assertSame(this.mockRuleSpecification, compiledRule2.getSpecification());
     assertNotSame(compiledRule1, compiledRule2);
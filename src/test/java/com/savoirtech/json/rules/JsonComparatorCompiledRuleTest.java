@@ -57,6 +57,8 @@ public class JsonComparatorCompiledRuleTest {
     this.templateEle = new JsonPrimitive(1);
     this.actualEle = new JsonPrimitive(1);
 
+    Mockito.when(this.mockRule.prepare(this.ruleSpecification)).thenReturn("x-prepared-x");
+
     this.compiledRule = new JsonComparatorCompiledRule(this.mockRule, this.ruleSpecification);
   }
 
@@ -70,6 +72,13 @@ public class JsonComparatorCompiledRuleTest {
     assertSame(this.ruleSpecification, this.compiledRule.getSpecification());
   }
 
+  @Test
+  public void testGetPreparedState() throws Exception {
+    assertEquals("x-prepared-x", this.compiledRule.getPreparedState());
+    assertNull(new JsonComparatorCompiledRule(this.mockRule, this.ruleSpecification, null)
+                   .getPreparedState());
+  }
+
   /**
    * Verify operation of the compare method on the compiled rule.
    */
@@ -81,7 +90,7 @@ public class JsonComparatorCompiledRuleTest {
     JsonComparatorResult testResult = new JsonComparatorResult(true, true, null, null);
     Mockito.when(this.mockRule
                      .compare("x-path-x", this.templateEle, this.actualEle, this.ruleSpecification,
-                              this.mockChildComparator)).thenReturn(testResult);
+                              "x-prepared-x", this.mockChildComparator)).thenReturn(testResult);
 
     //
     // Execute
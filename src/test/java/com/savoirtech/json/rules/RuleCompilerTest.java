@@ -16,6 +16,7 @@
 
 package com.savoirtech.json.rules;
 
+import com.savoirtech.json.exception.InvalidRuleException;
 import com.savoirtech.json.exception.UnknownRuleException;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 
@@ -115,4 +116,30 @@ public class RuleCompilerTest {
       assertEquals(new UnknownRuleException("x-action-x").getMessage(), urExc.getMessage());
     }
   }
+
+  /**
+   * Verify operation of the compile method when the rule rejects the specification as it is
+   * prepared.
+   */
+  @Test
+  public void testCompileInvalidRule() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    InvalidRuleException testException = new InvalidRuleException("x-action-x", "x-problem-x", null);
+
+    Mockito.when(this.mockRuleSpecification.getAction()).thenReturn("x-action-x");
+    Mockito.when(this.mockRuleRegistry.lookupRule("x-action-x")).thenReturn(this.mockRule);
+    Mockito.when(this.mockRule.prepare(this.mockRuleSpecification)).thenThrow(testException);
+
+    //
+    // Execute
+    //
+    try {
+      this.ruleCompiler.compile(this.mockRuleSpecification);
+      fail("missing expected exception");
+    } catch (InvalidRuleException irExc) {
+      assertSame(testException, irExc);
+    }
+  }
 }
@@ -83,4 +83,75 @@ public class RuleRegistryTest {
     assertSame(this.mockRule2, this.ruleRegistry.lookupRule("x-action2-x"));
     assertSame(this.mockRule1, this.ruleRegistry.lookupRule("x-action1-x"));
   }
-}
\ No newline at end of file
+
+  /**
+   * Verify operation of the initDiscoveredRules method.
+   */
+  @Test
+  public void testInitDiscoveredRules() throws Exception {
+    //
+    // Execute
+    //
+    this.ruleRegistry.initDiscoveredRules(this.getClass().getClassLoader());
+
+    //
+    // Verify
+    //
+    assertSame(TestRuleProvider.DISCOVERED_RULE,
+               this.ruleRegistry.lookupRule(TestRuleProvider.DISCOVERED_ACTION));
+    assertNull(this.ruleRegistry.lookupRule("matches"));
+  }
+
+  /**
+   * Verify operation of the freeze method.
+   */
+  @Test
+  public void testFreeze() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.ruleRegistry.registerRule("x-action1-x", this.mockRule1);
+
+    //
+    // Execute
+    //
+    RuleRegistry result = this.ruleRegistry.freeze();
+    this.ruleRegistry.registerRule("x-action2-x", this.mockRule2);
+
+    //
+    // Verify
+    //
+    assertFalse(this.ruleRegistry.isFrozen());
+    assertTrue(result.isFrozen());
+    assertSame(result, result.freeze());
+    assertSame(this.mockRule1, result.lookupRule("x-action1-x"));
+    assertNull(result.lookupRule("x-action2-x"));
+
+    try {
+      result.registerRule("x-action2-x", this.mockRule2);
+      fail("missing expected exception");
+    } catch (IllegalStateException exc) {
+      assertEquals("rule registry is frozen: action=x-action2-x", exc.getMessage());
+    }
+  }
+
+  /**
+   * Verify operation of the getBuiltInRegistry method.
+   */
+  @Test
+  public void testGetBuiltInRegistry() throws Exception {
+    //
+    // Execute
+    //
+    RuleRegistry result = RuleRegistry.getBuiltInRegistry();
+
+    //
+    // Verify
+    //
+    assertSame(result, RuleRegistry.getBuiltInRegistry());
+    assertTrue(result.isFrozen());
+    assertTrue(result.lookupRule("matches") instanceof RegexMatchingRule);
+    assertTrue(result.lookupRule("set") instanceof ArrayAsSetRule);
+    assertNull(result.lookupRule(TestRuleProvider.DISCOVERED_ACTION));
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package com.savoirtech.json.rules;
+
+import com.savoirtech.json.rules.impl.RegexMatchingRule;
+
+/**
+ * Rule provider listed in the test resources for discovery by ServiceLoader.
+ */
+public class TestRuleProvider implements JsonComparatorRuleProvider {
+
+  public static final String DISCOVERED_ACTION = "x-discovered-action-x";
+  public static final JsonComparatorRule DISCOVERED_RULE = new RegexMatchingRule();
+
+  @Override
+  public void registerRules(RuleRegistry registry) {
+    registry.registerRule(DISCOVERED_ACTION, DISCOVERED_RULE);
+  }
+}
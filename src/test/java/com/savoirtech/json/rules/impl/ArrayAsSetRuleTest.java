@@ -66,6 +66,15 @@ public class ArrayAsSetRuleTest {
                               Mockito.any(JsonElement.class))).thenReturn(this.failResult);
   }
 
+  /**
+   * Verify the maxMatchingSize given on construction, and its default.
+   */
+  @Test
+  public void testGetMaxMatchingSize() throws Exception {
+    assertEquals(ArrayAsSetRule.DEFAULT_MAX_MATCHING_SIZE, this.rule.getMaxMatchingSize());
+    assertEquals(13, new ArrayAsSetRule(13).getMaxMatchingSize());
+  }
+
   /**
    * Verify operation of set rule comparison on a match.
    */
@@ -89,9 +98,7 @@ public class ArrayAsSetRuleTest {
     //
     // Verify
     //
-    assertTrue(result.getErrorMessage(), result.isMatch());
-    assertNull(result.getErrorMessage());
-    assertTrue(result.isDeep());
+    assertSame(JsonComparatorResult.DEEP_MATCH, result);
     Mockito.verifyZeroInteractions(this.mockRuleSpecification);
   }
 
@@ -188,6 +195,193 @@ public class ArrayAsSetRuleTest {
     Mockito.verifyZeroInteractions(this.mockRuleSpecification);
   }
 
+  /**
+   * Verify each actual element is only compared with the expected elements of the same hash when
+   * one of them matches.
+   */
+  @Test
+  public void testCompareHashBuckets() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.populateJsonArray(this.templateArray, 1, 2, 3, 4, 5, 6, 7, 8);
+    this.populateJsonArray(this.actualArray, 8, 6, 7, 5, 3, 4, 1, 2);
+
+    Mockito.when(this.mockChildComparator.hashChild(Mockito.anyString(),
+                                                    Mockito.any(JsonElement.class)))
+        .thenAnswer((invocation) -> ((JsonElement) invocation.getArguments()[1]).getAsInt());
+
+    //
+    // Execute
+    //
+    JsonComparatorResult
+        result =
+        this.rule
+            .compare("x-path-x", this.templateArray, this.actualArray, this.mockRuleSpecification,
+                     this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertSame(JsonComparatorResult.DEEP_MATCH, result);
+    Mockito.verify(this.mockChildComparator, Mockito.times(8))
+        .compare(Mockito.anyString(), Mockito.any(JsonElement.class),
+                 Mockito.any(JsonElement.class));
+  }
+
+  /**
+   * Verify an actual element is compared with expected elements of other hashes when none of the
+   * same hash match, since rules may match elements that hash differently.
+   */
+  @Test
+  public void testCompareHashMismatchFallback() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.populateJsonArray(this.templateArray, 1, 2);
+    this.populateJsonArray(this.actualArray, 2, 1);
+
+    Mockito.when(this.mockChildComparator.hashChild(Mockito.eq("x-path-x[0]"),
+                                                    Mockito.any(JsonElement.class)))
+        .thenReturn(100);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult
+        result =
+        this.rule
+            .compare("x-path-x", this.templateArray, this.actualArray, this.mockRuleSpecification,
+                     this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertSame(JsonComparatorResult.DEEP_MATCH, result);
+  }
+
+  /**
+   * Verify elements repeated in the template must be repeated as often in the actual array.
+   */
+  @Test
+  public void testCompareDuplicates() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.populateJsonArray(this.templateArray, 1, 1, 2);
+
+    JsonArray matchingArray = new JsonArray();
+    this.populateJsonArray(matchingArray, 1, 2, 1);
+    this.populateJsonArray(this.actualArray, 1, 2, 2);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 =
+        this.rule.compare("x-path-x", this.templateArray, matchingArray, this.mockRuleSpecification,
+                          this.mockChildComparator);
+    JsonComparatorResult result2 =
+        this.rule.compare("x-path-x", this.templateArray, this.actualArray,
+                          this.mockRuleSpecification, this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertSame(JsonComparatorResult.DEEP_MATCH, result1);
+    assertFalse(result2.isMatch());
+    assertEquals("set comparison: failed to find match for path x-path-x[2]",
+                 result2.getErrorMessage());
+    assertEquals("x-path-x[2]", result2.getErrorPath());
+  }
+
+  /**
+   * Verify a complete pairing is found when the greedy pairing fails because an actual element
+   * matches more than one expected element.
+   */
+  @Test
+  public void testCompareMaximumMatching() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.prepareAmbiguousArrays();
+
+    //
+    // Execute
+    //
+    JsonComparatorResult
+        result =
+        this.rule
+            .compare("x-path-x", this.templateArray, this.actualArray, this.mockRuleSpecification,
+                     this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertSame(JsonComparatorResult.DEEP_MATCH, result);
+  }
+
+  /**
+   * Verify the greedy failure is reported, without comparing every pair of elements, when no rule
+   * applies within the elements.
+   */
+  @Test
+  public void testCompareMaximumMatchingRuleFree() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.prepareAmbiguousArrays();
+    Mockito.when(this.mockChildComparator.isRuleFree(Mockito.anyString())).thenReturn(true);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result =
+        this.rule.compare("x-path-x", this.templateArray, this.actualArray,
+                          this.mockRuleSpecification, this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertFalse(result.isMatch());
+    assertEquals("set comparison: failed to find match for path x-path-x[1]",
+                 result.getErrorMessage());
+    Mockito.verify(this.mockChildComparator, Mockito.times(2))
+        .compare(Mockito.anyString(), Mockito.any(JsonElement.class),
+                 Mockito.any(JsonElement.class));
+  }
+
+  /**
+   * Verify the greedy failure is reported for arrays larger than the maximum matching size.
+   */
+  @Test
+  public void testCompareMaximumMatchingTooLarge() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    this.prepareAmbiguousArrays();
+    ArrayAsSetRule rule1 = new ArrayAsSetRule(2);
+    ArrayAsSetRule rule2 = new ArrayAsSetRule(1);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 =
+        rule1.compare("x-path-x", this.templateArray, this.actualArray,
+                      this.mockRuleSpecification, this.mockChildComparator);
+
+    JsonComparatorResult result2 =
+        rule2.compare("x-path-x", this.templateArray, this.actualArray,
+                      this.mockRuleSpecification, this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertTrue(result1.isMatch());
+    assertFalse(result2.isMatch());
+    assertEquals("set comparison: failed to find match for path x-path-x[1]",
+                 result2.getErrorMessage());
+  }
+
   @Test
   public void testExpectedArrayVsActualNonArray() throws Exception {
     //
@@ -243,6 +437,32 @@ public class ArrayAsSetRuleTest {
 // Internal Methods
 //----------------------------------------
 
+  /**
+   * Prepare arrays where the first actual element matches both expected elements, but the second
+   * only matches the first expected element; pairing greedily in order fails.
+   */
+  private void prepareAmbiguousArrays() {
+    JsonPrimitive expected1 = new JsonPrimitive("x-expected1-x");
+    JsonPrimitive expected2 = new JsonPrimitive("x-expected2-x");
+    JsonPrimitive actual1 = new JsonPrimitive("x-actual1-x");
+    JsonPrimitive actual2 = new JsonPrimitive("x-actual2-x");
+
+    this.templateArray.add(expected1);
+    this.templateArray.add(expected2);
+    this.actualArray.add(actual1);
+    this.actualArray.add(actual2);
+
+    Mockito.when(this.mockChildComparator
+                     .compare(Mockito.anyString(), Mockito.eq(expected1), Mockito.eq(actual1)))
+        .thenReturn(this.passResult);
+    Mockito.when(this.mockChildComparator
+                     .compare(Mockito.anyString(), Mockito.eq(expected2), Mockito.eq(actual1)))
+        .thenReturn(this.passResult);
+    Mockito.when(this.mockChildComparator
+                     .compare(Mockito.anyString(), Mockito.eq(expected1), Mockito.eq(actual2)))
+        .thenReturn(this.passResult);
+  }
+
   private void populateJsonArray(JsonArray array, int... values) {
     for (int oneValue : values) {
       JsonPrimitive jsonValue = new JsonPrimitive(oneValue);
@@ -21,6 +21,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
 import com.savoirtech.json.JsonComparatorResult;
+import com.savoirtech.json.exception.InvalidRuleException;
 import com.savoirtech.json.model.JsonComparatorRuleSpecification;
 import com.savoirtech.json.rules.RuleChildComparator;
 
@@ -28,6 +29,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.regex.PatternSyntaxException;
+
 import static org.junit.Assert.*;
 
 /**
@@ -79,9 +82,7 @@ public class RegexMatchingRuleTest {
     //
     // Verify
     //
-    assertTrue(result.getErrorMessage(), result.isMatch());
-    assertNull(result.getErrorMessage());
-    assertFalse(result.isDeep());
+    assertSame(JsonComparatorResult.SHALLOW_MATCH, result);
     Mockito.verifyZeroInteractions(this.mockChildComparator);
   }
 
@@ -141,4 +142,66 @@ public class RegexMatchingRuleTest {
     assertFalse(result.isDeep());
     Mockito.verifyZeroInteractions(this.mockChildComparator);
   }
+
+  /**
+   * Verify comparison with the state prepared from the specification.
+   */
+  @Test
+  public void testComparePrepared() throws Exception {
+    //
+    // Setup test data and interactions
+    //
+    JsonElement templateEle = new JsonPrimitive("x-expected-x");
+    this.ruleSpecification.setPattern("[0-9a-f]+");
+
+    Object preparedState = this.rule.prepare(this.ruleSpecification);
+
+    //
+    // Execute
+    //
+    JsonComparatorResult result1 =
+        this.rule.compare("x-path-x", templateEle, new JsonPrimitive("c0ffee"),
+                          this.ruleSpecification, preparedState, this.mockChildComparator);
+    JsonComparatorResult result2 =
+        this.rule.compare("x-path-x", templateEle, new JsonPrimitive("tea"),
+                          this.ruleSpecification, preparedState, this.mockChildComparator);
+
+    //
+    // Verify
+    //
+    assertNotNull(preparedState);
+    assertSame(JsonComparatorResult.SHALLOW_MATCH, result1);
+    assertFalse(result2.isMatch());
+    assertEquals("value at path x-path-x does not match '[0-9a-f]+': value=tea",
+                 result2.getErrorMessage());
+  }
+
+  /**
+   * Verify preparation rejects an invalid pattern.
+   */
+  @Test
+  public void testPrepareInvalidPattern() throws Exception {
+    this.ruleSpecification.setPattern("[0-9");
+
+    try {
+      this.rule.prepare(this.ruleSpecification);
+      fail("missing expected exception");
+    } catch (InvalidRuleException irExc) {
+      assertEquals("invalid rule for action \"match\": invalid pattern '[0-9'", irExc.getMessage());
+      assertTrue(irExc.getCause() instanceof PatternSyntaxException);
+    }
+  }
+
+  /**
+   * Verify preparation rejects a missing pattern.
+   */
+  @Test
+  public void testPrepareMissingPattern() throws Exception {
+    try {
+      this.rule.prepare(this.ruleSpecification);
+      fail("missing expected exception");
+    } catch (InvalidRuleException irExc) {
+      assertEquals("invalid rule for action \"match\": missing pattern", irExc.getMessage());
+    }
+  }
 }
@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.rules.path;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the rule path automaton builder.
+ */
+public class RulePathAutomatonBuilderTest {
+
+  private RulePathAutomatonBuilder builder;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.builder = new RulePathAutomatonBuilder();
+  }
+
+  /**
+   * Verify the supported selector syntax is accepted.
+   */
+  @Test
+  public void testAddSupportedSelectors() throws Exception {
+    assertTrue(this.builder.addSelector("$", 0));
+    assertTrue(this.builder.addSelector("$.name", 1));
+    assertTrue(this.builder.addSelector("$['name']", 2));
+    assertTrue(this.builder.addSelector("$[\"name\"]", 3));
+    assertTrue(this.builder.addSelector("$[2]", 4));
+    assertTrue(this.builder.addSelector("$.*", 5));
+    assertTrue(this.builder.addSelector("$[*]", 6));
+    assertTrue(this.builder.addSelector("$..name", 7));
+    assertTrue(this.builder.addSelector("$..['name'][3].x-field_1", 8));
+    assertTrue(this.builder.addSelector("$..*", 9));
+  }
+
+  /**
+   * Verify selectors using unsupported syntax are rejected.
+   */
+  @Test
+  public void testAddUnsupportedSelectors() throws Exception {
+    assertFalse(this.builder.addSelector(null, 0));
+    assertFalse(this.builder.addSelector("name", 0));
+    assertFalse(this.builder.addSelector("$[?(@.name == 'Joe')]", 0));
+    assertFalse(this.builder.addSelector("$['a','b']", 0));
+    assertFalse(this.builder.addSelector("$[1,2]", 0));
+    assertFalse(this.builder.addSelector("$[1:3]", 0));
+    assertFalse(this.builder.addSelector("$[-1]", 0));
+    assertFalse(this.builder.addSelector("$['a\\'b']", 0));
+    assertFalse(this.builder.addSelector("$.values.length()", 0));
+    assertFalse(this.builder.addSelector("$['unterminated", 0));
+    assertFalse(this.builder.addSelector("$.", 0));
+    assertFalse(this.builder.addSelector("$[", 0));
+  }
+
+  /**
+   * Verify building an automaton without any selectors.
+   */
+  @Test
+  public void testBuildEmpty() throws Exception {
+    RulePathAutomaton automaton = this.builder.build();
+
+    int root = automaton.getRootState();
+
+    assertEquals(RulePathAutomaton.DEAD_STATE, root);
+    assertEquals(1, automaton.getStateCount());
+    assertEquals(RulePathAutomaton.NO_RULE, automaton.getAcceptingRule(root));
+    assertFalse(automaton.isLive(root));
+  }
+
+  /**
+   * Verify unsupported selectors do not become part of the automaton.
+   */
+  @Test
+  public void testBuildSkipsUnsupportedSelectors() throws Exception {
+    this.builder.addSelector("$[?(@.name == 'Joe')]", 0);
+
+    RulePathAutomaton automaton = this.builder.build();
+
+    assertFalse(automaton.isLive(automaton.getRootState()));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.rules.path;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the rule path automaton.
+ */
+public class RulePathAutomatonTest {
+
+  /**
+   * Verify matching of the root selector.
+   */
+  @Test
+  public void testRootSelector() throws Exception {
+    RulePathAutomaton automaton = this.build("$");
+
+    int root = automaton.getRootState();
+
+    assertEquals(0, automaton.getAcceptingRule(root));
+    assertEquals(RulePathAutomaton.NO_RULE,
+                 automaton.getAcceptingRule(automaton.stepField(root, "name")));
+  }
+
+  /**
+   * Verify matching of child field names, in dot and bracket notation.
+   */
+  @Test
+  public void testChildSelectors() throws Exception {
+    RulePathAutomaton automaton = this.build("$.dog.breed", "$['cat'][\"name\"]");
+
+    int root = automaton.getRootState();
+    int dog = automaton.stepField(root, "dog");
+    int cat = automaton.stepField(root, "cat");
+
+    assertEquals(0, automaton.getAcceptingRule(automaton.stepField(dog, "breed")));
+    assertEquals(1, automaton.getAcceptingRule(automaton.stepField(cat, "name")));
+    assertEquals(RulePathAutomaton.NO_RULE, automaton.getAcceptingRule(dog));
+    assertEquals(RulePathAutomaton.NO_RULE,
+                 automaton.getAcceptingRule(automaton.stepField(dog, "name")));
+    assertEquals(RulePathAutomaton.NO_RULE,
+                 automaton.getAcceptingRule(automaton.stepIndex(dog, 0)));
+    assertEquals(RulePathAutomaton.DEAD_STATE, automaton.stepField(root, "horse"));
+  }
+
+  /**
+   * Verify matching of array indexes.
+   */
+  @Test
+  public void testIndexSelectors() throws Exception {
+    RulePathAutomaton automaton = this.build("$[1]", "$[3]['name']");
+
+    int root = automaton.getRootState();
+
+    assertEquals(RulePathAutomaton.NO_RULE,
+                 automaton.getAcceptingRule(automaton.stepIndex(root, 0)));
+    assertEquals(0, automaton.getAcceptingRule(automaton.stepIndex(root, 1)));
+    assertEquals(1, automaton.getAcceptingRule(
+        automaton.stepField(automaton.stepIndex(root, 3), "name")));
+    assertEquals(RulePathAutomaton.DEAD_STATE, automaton.stepIndex(root, 2));
+    assertEquals(RulePathAutomaton.DEAD_STATE, automaton.stepField(root, "1"));
+  }
+
+  /**
+   * Verify matching of wildcards, which match both field names and array indexes.
+   */
+  @Test
+  public void testWildcardSelectors() throws Exception {
+    RulePathAutomaton automaton = this.build("$.*.name", "$[*][2]");
+
+    int root = automaton.getRootState();
+
+    assertEquals(0, automaton.getAcceptingRule(
+        automaton.stepField(automaton.stepField(root, "anything"), "name")));
+    assertEquals(0, automaton.getAcceptingRule(
+        automaton.stepField(automaton.stepIndex(root, 7), "name")));
+    assertEquals(1, automaton.getAcceptingRule(
+        automaton.stepIndex(automaton.stepField(root, "anything"), 2)));
+    assertEquals(RulePathAutomaton.NO_RULE, automaton.getAcceptingRule(
+        automaton.stepIndex(automaton.stepField(root, "anything"), 1)));
+  }
+
+  /**
+   * Verify deep-scan selectors match at any depth.
+   */
+  @Test
+  public void testDeepScanSelectors() throws Exception {
+    RulePathAutomaton automaton = this.build("$..name", "$..list[0]");
+
+    int root = automaton.getRootState();
+    int deep = automaton.stepIndex(automaton.stepField(automaton.stepField(root, "a"), "b"), 4);
+
+    assertEquals(0, automaton.getAcceptingRule(automaton.stepField(root, "name")));
+    assertEquals(0, automaton.getAcceptingRule(automaton.stepField(deep, "name")));
+    assertEquals(1, automaton.getAcceptingRule(
+        automaton.stepIndex(automaton.stepField(deep, "list"), 0)));
+    assertEquals(RulePathAutomaton.NO_RULE, automaton.getAcceptingRule(
+        automaton.stepIndex(automaton.stepField(deep, "list"), 1)));
+
+    // The deep scan keeps matching below a node that already matched
+    int nameUnderName = automaton.stepField(automaton.stepField(root, "name"), "name");
+    assertEquals(0, automaton.getAcceptingRule(nameUnderName));
+  }
+
+  /**
+   * Verify the last rule applies when the selectors of more than one rule match.
+   */
+  @Test
+  public void testLastRuleWins() throws Exception {
+    RulePathAutomaton automaton = this.build("$..name", "$.dog.name", "$.cat.*");
+
+    int root = automaton.getRootState();
+
+    assertEquals(1, automaton.getAcceptingRule(
+        automaton.stepField(automaton.stepField(root, "dog"), "name")));
+    assertEquals(2, automaton.getAcceptingRule(
+        automaton.stepField(automaton.stepField(root, "cat"), "name")));
+    assertEquals(0, automaton.getAcceptingRule(
+        automaton.stepField(automaton.stepField(root, "horse"), "name")));
+  }
+
+  /**
+   * Verify states from which no rule can match are reported as not live.
+   */
+  @Test
+  public void testLiveness() throws Exception {
+    RulePathAutomaton automaton = this.build("$.dog.breed");
+
+    int root = automaton.getRootState();
+    int dog = automaton.stepField(root, "dog");
+    int breed = automaton.stepField(dog, "breed");
+
+    assertTrue(automaton.isLive(root));
+    assertTrue(automaton.isLive(dog));
+    assertTrue(automaton.isLive(breed));
+    assertFalse(automaton.isLive(automaton.stepField(breed, "x")));
+    assertFalse(automaton.isLive(automaton.stepField(root, "cat")));
+    assertFalse(automaton.isLive(RulePathAutomaton.DEAD_STATE));
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private RulePathAutomaton build(String... selectors) {
+    RulePathAutomatonBuilder builder = new RulePathAutomatonBuilder();
+
+    for (int cur = 0; cur < selectors.length; cur++) {
+      assertTrue(builder.addSelector(selectors[cur], cur));
+    }
+
+    return builder.build();
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import com.savoirtech.json.node.GsonNodeAdapter;
+import com.savoirtech.json.node.JsonNodeReader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the JSON tree parser.
+ */
+public class JsonTreeParserTest {
+
+  private JsonTreeParser parser;
+
+  /**
+   * Setup common test data and interactions.
+   */
+  @Before
+  public void setupTest() throws Exception {
+    this.parser = new JsonTreeParser();
+  }
+
+  /**
+   * Verify the parser produces the same trees as Gson's parser.
+   */
+  @Test
+  public void testParseMatchesGson() throws Exception {
+    String[] documents = new String[]{
+        "{ \"a\": 1, \"b\": [ true, false, null, \"x\", 2.5e3, -7 ], \"c\": { \"d\": {} }, "
+        + "\"e\": [ [], [ [ 1 ] ] ], \"f\": null }",
+        "[ 1, { \"a\": [ { } ] }, \"z\" ]",
+        "\"just a string\"",
+        "13",
+        "null",
+        "{ unquoted: 'single', \"dup\": 1, \"dup\": 2 }"
+    };
+
+    for (String document : documents) {
+      assertEquals(document, new JsonParser().parse(document), this.parser.parse(document));
+    }
+  }
+
+  /**
+   * Verify parsing from a JSON reader, which need not read JSON text.
+   */
+  @Test
+  public void testParseJsonReader() throws Exception {
+    JsonElement tree = new JsonParser().parse("{ \"a\": [ 1, \"x\", { \"b\": null } ], \"c\": true }");
+
+    assertEquals(tree, this.parser.parse(new JsonNodeReader<>(tree, GsonNodeAdapter.INSTANCE)));
+  }
+
+  /**
+   * Verify an empty document is parsed as null.
+   */
+  @Test
+  public void testParseEmpty() throws Exception {
+    assertSame(JsonNull.INSTANCE, this.parser.parse(""));
+  }
+
+  /**
+   * Verify JSON nested deeper than the call stack could handle recursively is parsed.
+   */
+  @Test
+  public void testParseDeeplyNested() throws Exception {
+    int depth = 100000;
+    StringBuilder json = new StringBuilder();
+
+    for (int cur = 0; cur < depth; cur++) {
+      json.append("[{\"a\":");
+    }
+    json.append("1");
+    for (int cur = 0; cur < depth; cur++) {
+      json.append("}]");
+    }
+
+    JsonElement result = this.parser.parse(json.toString());
+
+    int count = 0;
+    while (result.isJsonArray()) {
+      result = result.getAsJsonArray().get(0).getAsJsonObject().get("a");
+      count++;
+    }
+
+    assertEquals(depth, count);
+    assertEquals(1, result.getAsInt());
+  }
+
+  /**
+   * Verify invalid JSON is reported as a syntax error.
+   */
+  @Test
+  public void testParseInvalid() throws Exception {
+    String[] documents = new String[]{"{ \"a\": 1", "[ 1, 2", "{ \"a\": 1 } }", "[ 1 ] x"};
+
+    for (String document : documents) {
+      try {
+        this.parser.parse(document);
+        fail("missing expected exception for " + document);
+      } catch (JsonSyntaxException jsExc) {
+        // Expected
+      }
+    }
+  }
+
+  /**
+   * Verify failures of the reader are reported as IO errors.
+   */
+  @Test(expected = JsonIOException.class)
+  public void testParseReaderFailure() throws Exception {
+    Reader failingReader = new Reader() {
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        throw new IOException("x-io-failure-x");
+      }
+
+      @Override
+      public void close() throws IOException {
+      }
+    };
+
+    this.parser.parse(failingReader);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright (c) 2016 Savoir Technologies
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.savoirtech.json.util;
+
+import org.junit.Test;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verify operation of the Utf8ByteBufferReader.
+ */
+public class Utf8ByteBufferReaderTest {
+
+  private static final String TEXT = "{ \"x-key-x\": \"caf\u00e9 \u20ac \ud83d\ude00\" }";
+
+  /**
+   * Verify reading the whole of a byte array.
+   */
+  @Test
+  public void testReadByteArray() throws Exception {
+    byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(TEXT, this.readAll(new Utf8ByteBufferReader(bytes, 0, bytes.length), 64));
+  }
+
+  /**
+   * Verify reading a range of a byte array.
+   */
+  @Test
+  public void testReadByteArrayRange() throws Exception {
+    byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+    byte[] bytes = new byte[text.length + 7];
+    System.arraycopy(text, 0, bytes, 3, text.length);
+
+    assertEquals(TEXT, this.readAll(new Utf8ByteBufferReader(bytes, 3, text.length), 64));
+  }
+
+  /**
+   * Verify reading a direct buffer leaves the buffer's position and limit unchanged.
+   */
+  @Test
+  public void testReadDirectBuffer() throws Exception {
+    byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(text.length + 2);
+    buffer.put((byte) 'x');
+    buffer.put(text);
+    buffer.flip();
+    buffer.position(1);
+
+    assertEquals(TEXT, this.readAll(new Utf8ByteBufferReader(buffer), 64));
+    assertEquals(1, buffer.position());
+    assertEquals(text.length + 1, buffer.limit());
+  }
+
+  /**
+   * Verify single character reads, which split surrogate pairs across reads, and text longer than
+   * the reader's internal buffer.
+   */
+  @Test
+  public void testReadSmallAndLarge() throws Exception {
+    StringBuilder text = new StringBuilder();
+    for (int cur = 0; cur < 1000; cur++) {
+      text.append(TEXT);
+    }
+
+    byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(text.toString(), this.readAll(new Utf8ByteBufferReader(bytes, 0, bytes.length), 1));
+    assertEquals(text.toString(),
+                 this.readAll(new Utf8ByteBufferReader(bytes, 0, bytes.length), 5000));
+  }
+
+  /**
+   * Verify malformed input is replaced, as String decoding does.
+   */
+  @Test
+  public void testReadMalformed() throws Exception {
+    byte[] bytes = new byte[]{'a', (byte) 0xff, 'b', (byte) 0xe2, (byte) 0x82};
+
+    assertEquals(new String(bytes, StandardCharsets.UTF_8),
+                 this.readAll(new Utf8ByteBufferReader(bytes, 0, bytes.length), 64));
+  }
+
+  /**
+   * Verify reading empty input.
+   */
+  @Test
+  public void testReadEmpty() throws Exception {
+    Reader reader = new Utf8ByteBufferReader(new byte[0], 0, 0);
+
+    assertEquals(0, reader.read(new char[4], 0, 0));
+    assertEquals(-1, reader.read(new char[4], 0, 4));
+    assertEquals(-1, reader.read());
+  }
+
+  /**
+   * Verify ranges outside the byte array are rejected.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testInvalidRange() throws Exception {
+    new Utf8ByteBufferReader(new byte[4], 2, 3);
+  }
+
+//========================================
+// Internal Methods
+//----------------------------------------
+
+  private String readAll(Reader reader, int readSize) throws Exception {
+    StringBuilder result = new StringBuilder();
+    char[] buffer = new char[readSize];
+
+    int count = reader.read(buffer, 0, readSize);
+    while (count != -1) {
+      assertTrue(count > 0);
+      result.append(buffer, 0, count);
+      count = reader.read(buffer, 0, readSize);
+    }
+
+    return result.toString();
+  }
+}